@@ -0,0 +1,42 @@
+/*
+ * Copyright © 2015 Bobulous <http://www.bobulous.org.uk/>.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package uk.org.bobulous.java.intervals.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar. Accepts the standard JMH command line
+ * options, and always attaches the gc profiler so that the allocation rate of
+ * every benchmark is reported alongside its timing.
+ *
+ * @author Bobulous <http://www.bobulous.org.uk/>
+ */
+public final class BenchmarkRunner {
+
+	private BenchmarkRunner() {
+	}
+
+	/**
+	 * Runs the benchmarks selected by the given JMH command line options.
+	 *
+	 * @param args standard JMH command line options.
+	 * @throws CommandLineOptionException if the options cannot be parsed.
+	 * @throws RunnerException if the benchmarks fail to run.
+	 */
+	public static void main(String[] args) throws CommandLineOptionException,
+			RunnerException {
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		new Runner(new OptionsBuilder().parent(commandLine).addProfiler(
+				GCProfiler.class).build()).run();
+	}
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright © 2015 Bobulous <http://www.bobulous.org.uk/>.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package uk.org.bobulous.java.intervals.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.org.bobulous.java.intervals.ConcurrentIntervalTree;
+import uk.org.bobulous.java.intervals.IntegerInterval;
+import uk.org.bobulous.java.intervals.IntervalTree;
+
+/**
+ * Measures the throughput of stabbing queries made by many threads at once
+ * against a <code>ConcurrentIntervalTree</code>, compared with an
+ * <code>IntervalTree</code> guarded by a read-write lock and one guarded by
+ * <code>synchronized</code>.
+ * <p>
+ * Each tree holds ten thousand intervals, and a background thread puts or
+ * removes an interval in every tree <code>writesPerSecond</code> times a
+ * second while the queries run. The benchmarks are run by one, two, four and
+ * eight reading threads, one nested class for each count, so that a single
+ * run shows how the throughput of each tree scales as readers are added:</p>
+ * <pre>
+ * java -jar target/benchmarks.jar ConcurrentIntervalTreeBenchmark
+ * </pre>
+ * <p>
+ * The throughput reported for each count is the total of all its reading
+ * threads. Counts greater than the number of available processors measure
+ * time-slicing rather than contention, so compare only those which the
+ * machine can run at once.</p>
+ *
+ * @author Bobulous <http://www.bobulous.org.uk/>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public abstract class ConcurrentIntervalTreeBenchmark {
+
+	@Threads(1)
+	public static class OneReader extends ConcurrentIntervalTreeBenchmark {
+	}
+
+	@Threads(2)
+	public static class TwoReaders extends ConcurrentIntervalTreeBenchmark {
+	}
+
+	@Threads(4)
+	public static class FourReaders extends ConcurrentIntervalTreeBenchmark {
+	}
+
+	@Threads(8)
+	public static class EightReaders extends ConcurrentIntervalTreeBenchmark {
+	}
+
+	private static final int SIZE = 10_000;
+	private static final int RANGE = 100_000;
+
+	@Param({"10", "1000"})
+	public int writesPerSecond;
+
+	private ConcurrentIntervalTree<Integer, Integer> lockFree;
+	private IntervalTree<Integer, Integer> readWriteLocked;
+	private IntervalTree<Integer, Integer> synchronizedTree;
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private Thread writer;
+	private volatile boolean writing;
+
+	/**
+	 * The query points of a single reading thread, drawn from its own
+	 * generator so that the readers share nothing but the trees.
+	 */
+	@State(Scope.Thread)
+	public static class Reader {
+
+		private int seed = new Random().nextInt() | 1;
+
+		private int nextPoint() {
+			seed ^= seed << 13;
+			seed ^= seed >>> 17;
+			seed ^= seed << 5;
+			return (seed & Integer.MAX_VALUE) % RANGE;
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		lockFree = new ConcurrentIntervalTree<>();
+		readWriteLocked = new IntervalTree<>();
+		synchronizedTree = new IntervalTree<>();
+		Random random = new Random(42);
+		for (int i = 0; i < SIZE; ++i) {
+			IntegerInterval interval = randomInterval(random);
+			lockFree.put(interval, i);
+			readWriteLocked.put(interval, i);
+			synchronizedTree.put(interval, i);
+		}
+		writing = true;
+		writer = new Thread(this::write, "interval-tree-writer");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws InterruptedException {
+		writing = false;
+		writer.join();
+	}
+
+	private static IntegerInterval randomInterval(Random random) {
+		int lower = random.nextInt(RANGE);
+		return IntegerInterval.closed(lower, lower + random.nextInt(200));
+	}
+
+	/**
+	 * Alternately puts a new interval into every tree and removes it again,
+	 * pausing between writes to keep to the chosen rate.
+	 */
+	private void write() {
+		Random random = new Random(7);
+		long pause = TimeUnit.SECONDS.toNanos(1) / writesPerSecond;
+		IntegerInterval pending = null;
+		while (writing) {
+			if (pending == null) {
+				pending = randomInterval(random);
+				lockFree.put(pending, -1);
+				lock.writeLock().lock();
+				try {
+					readWriteLocked.put(pending, -1);
+				} finally {
+					lock.writeLock().unlock();
+				}
+				synchronized (synchronizedTree) {
+					synchronizedTree.put(pending, -1);
+				}
+			} else {
+				lockFree.remove(pending);
+				lock.writeLock().lock();
+				try {
+					readWriteLocked.remove(pending);
+				} finally {
+					lock.writeLock().unlock();
+				}
+				synchronized (synchronizedTree) {
+					synchronizedTree.remove(pending);
+				}
+				pending = null;
+			}
+			LockSupport.parkNanos(pause);
+		}
+	}
+
+	@Benchmark
+	public int stabLockFree(Reader reader) {
+		return lockFree.stab(reader.nextPoint()).size();
+	}
+
+	@Benchmark
+	public int stabReadWriteLock(Reader reader) {
+		int point = reader.nextPoint();
+		lock.readLock().lock();
+		try {
+			return readWriteLocked.stab(point).size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	@Benchmark
+	public int stabSynchronized(Reader reader) {
+		int point = reader.nextPoint();
+		synchronized (synchronizedTree) {
+			return synchronizedTree.stab(point).size();
+		}
+	}
+}
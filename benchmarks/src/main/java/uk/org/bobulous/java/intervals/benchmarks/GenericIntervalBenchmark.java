@@ -0,0 +1,82 @@
+/*
+ * Copyright © 2015 Bobulous <http://www.bobulous.org.uk/>.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package uk.org.bobulous.java.intervals.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.org.bobulous.java.intervals.GenericInterval;
+import uk.org.bobulous.java.intervals.Interval;
+import uk.org.bobulous.java.intervals.IntervalComparator;
+
+/**
+ * Measures every <code>Interval</code> operation of
+ * <code>GenericInterval&lt;Integer&gt;</code> for each {@link Shape}, so that
+ * the results can be compared directly with those of
+ * {@link IntegerIntervalBenchmark}.
+ *
+ * @author Bobulous <http://www.bobulous.org.uk/>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GenericIntervalBenchmark {
+
+	@Param
+	public Shape shape;
+
+	private Interval<Integer> first, second, copy;
+	private Integer value;
+	private final IntervalComparator<Integer> comparator = IntervalComparator.
+			<Integer>getInstance();
+
+	@Setup
+	public void setUp() {
+		first = shape.genericInterval(0);
+		second = shape.genericInterval(50);
+		copy = shape.genericInterval(0);
+		value = 75;
+	}
+
+	@Benchmark
+	public boolean includesValue() {
+		return first.includes(value);
+	}
+
+	@Benchmark
+	public boolean includesInterval() {
+		return first.includes(second);
+	}
+
+	@Benchmark
+	public boolean equalsCopy() {
+		return first.equals(copy);
+	}
+
+	@Benchmark
+	public int hashCodeOf() {
+		return first.hashCode();
+	}
+
+	@Benchmark
+	public int compare() {
+		return comparator.compare(first, second);
+	}
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright © 2015 Bobulous <http://www.bobulous.org.uk/>.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package uk.org.bobulous.java.intervals.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.org.bobulous.java.intervals.IntegerInterval;
+import uk.org.bobulous.java.intervals.IntervalComparator;
+import uk.org.bobulous.java.intervals.NumericInterval;
+
+/**
+ * Measures every <code>Interval</code> and <code>NumericInterval</code>
+ * operation of <code>IntegerInterval</code> for each {@link Shape}.
+ * <p>
+ * The second interval of each pair has the same shape as the first but is
+ * shifted so that the two overlap (except for the empty shape). The
+ * <code>NumericInterval</code> methods are called through a
+ * <code>NumericInterval&lt;Integer&gt;</code> reference, as most callers hold
+ * them, while the <code>primitive</code> benchmarks call the overloads which
+ * take an <code>IntegerInterval</code> or an <code>int</code>.</p>
+ *
+ * @author Bobulous <http://www.bobulous.org.uk/>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IntegerIntervalBenchmark {
+
+	@Param
+	public Shape shape;
+
+	private IntegerInterval first, second, equivalent;
+	private NumericInterval<Integer> firstNumeric, secondNumeric;
+	private Integer boxedValue;
+	private int value;
+	private final IntervalComparator<Integer> comparator = IntervalComparator.
+			<Integer>getInstance();
+
+	@Setup
+	public void setUp() {
+		first = shape.integerInterval(0);
+		second = shape.integerInterval(50);
+		equivalent = shape.equivalentIntegerInterval(0);
+		firstNumeric = first;
+		secondNumeric = second;
+		value = 75;
+		boxedValue = value;
+	}
+
+	@Benchmark
+	public boolean includesValue() {
+		return firstNumeric.includes(boxedValue);
+	}
+
+	@Benchmark
+	public boolean includesValuePrimitive() {
+		return first.includes(value);
+	}
+
+	@Benchmark
+	public boolean includesInterval() {
+		return firstNumeric.includes(secondNumeric);
+	}
+
+	@Benchmark
+	public boolean intersectsWith() {
+		return firstNumeric.intersectsWith(secondNumeric);
+	}
+
+	@Benchmark
+	public boolean intersectsWithPrimitive() {
+		return first.intersectsWith(second);
+	}
+
+	@Benchmark
+	public NumericInterval<Integer> intersection() {
+		return firstNumeric.intersection(secondNumeric);
+	}
+
+	@Benchmark
+	public IntegerInterval intersectionPrimitive() {
+		return first.intersection(second);
+	}
+
+	@Benchmark
+	public NumericInterval<Integer> union() {
+		return firstNumeric.union(secondNumeric);
+	}
+
+	@Benchmark
+	public IntegerInterval unionPrimitive() {
+		return first.union(second);
+	}
+
+	@Benchmark
+	public boolean unitesWith() {
+		return firstNumeric.unitesWith(secondNumeric);
+	}
+
+	@Benchmark
+	public boolean equalsEquivalent() {
+		return first.equals(equivalent);
+	}
+
+	@Benchmark
+	public int hashCodeOf() {
+		return equivalent.hashCode();
+	}
+
+	@Benchmark
+	public int compare() {
+		return comparator.compare(first, second);
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright © 2015 Bobulous <http://www.bobulous.org.uk/>.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package uk.org.bobulous.java.intervals.benchmarks;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.org.bobulous.java.intervals.IntegerInterval;
+import uk.org.bobulous.java.intervals.Interval;
+import uk.org.bobulous.java.intervals.IntervalComparator;
+import uk.org.bobulous.java.intervals.IntervalSorter;
+
+/**
+ * Compares the generic <code>IntervalComparator</code> singleton with the
+ * key-based comparator returned by
+ * <code>IntervalComparator.getIntegerInstance()</code>, both for single
+ * comparisons and for sorting an array of <code>IntegerInterval</code>
+ * objects. The radix sort of <code>IntervalSorter</code> is measured alongside
+ * for reference.
+ * <p>
+ * The intervals are drawn from a fixed seed, with all four endpoint mode
+ * combinations and roughly one in ten endpoints unbounded. Lower endpoints
+ * are drawn from a narrow range so that many comparisons fall through to the
+ * upper endpoints.</p>
+ *
+ * @author Bobulous <http://www.bobulous.org.uk/>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class IntervalComparatorBenchmark {
+
+	@Param({"1000", "100000"})
+	public int size;
+
+	private IntegerInterval[] intervals;
+	private int index;
+	private final IntervalComparator<Integer> genericComparator
+			= IntervalComparator.<Integer>getInstance();
+	private final Comparator<Interval<Integer>> integerComparator
+			= IntervalComparator.getIntegerInstance();
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		intervals = new IntegerInterval[size];
+		for (int i = 0; i < size; ++i) {
+			Integer lower = random.nextInt(10) == 0 ? null : random.nextInt(size
+					/ 10 + 1);
+			Integer upper = random.nextInt(10) == 0 ? null : (lower == null ? 0
+					: lower) + random.nextInt(100);
+			switch (random.nextInt(4)) {
+				case 0:
+					intervals[i] = IntegerInterval.closed(lower, upper);
+					break;
+				case 1:
+					intervals[i] = IntegerInterval.open(lower, upper);
+					break;
+				case 2:
+					intervals[i] = IntegerInterval.leftClosed(lower, upper);
+					break;
+				default:
+					intervals[i] = IntegerInterval.rightClosed(lower, upper);
+			}
+		}
+	}
+
+	private int nextIndex() {
+		index = index + 1 < size - 1 ? index + 1 : 0;
+		return index;
+	}
+
+	@Benchmark
+	public int compareGeneric() {
+		int i = nextIndex();
+		return genericComparator.compare(intervals[i], intervals[i + 1]);
+	}
+
+	@Benchmark
+	public int compareInteger() {
+		int i = nextIndex();
+		return integerComparator.compare(intervals[i], intervals[i + 1]);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public IntegerInterval[] sortGeneric() {
+		IntegerInterval[] copy = intervals.clone();
+		Arrays.sort(copy, genericComparator);
+		return copy;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public IntegerInterval[] sortInteger() {
+		IntegerInterval[] copy = intervals.clone();
+		Arrays.sort(copy, integerComparator);
+		return copy;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public IntegerInterval[] sortRadix() {
+		IntegerInterval[] copy = intervals.clone();
+		IntervalSorter.sort(copy);
+		return copy;
+	}
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright © 2015 Bobulous <http://www.bobulous.org.uk/>.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package uk.org.bobulous.java.intervals.benchmarks;
+
+import uk.org.bobulous.java.intervals.GenericInterval;
+import uk.org.bobulous.java.intervals.IntegerInterval;
+import uk.org.bobulous.java.intervals.Interval.EndpointMode;
+
+/**
+ * The interval shapes which every benchmark is run against. Each shape can
+ * produce an <code>IntegerInterval</code> or a
+ * <code>GenericInterval&lt;Integer&gt;</code> of that shape, starting at a
+ * given offset, and an <code>IntegerInterval</code> which is equal to it but
+ * written with different endpoint values and modes.
+ *
+ * @author Bobulous <http://www.bobulous.org.uk/>
+ */
+public enum Shape {
+
+	/**
+	 * Bounded with both endpoints closed, such as [0, 100].
+	 */
+	CLOSED(EndpointMode.CLOSED, false, EndpointMode.CLOSED, false, 100),
+	/**
+	 * Bounded with both endpoints open, such as (0, 100).
+	 */
+	OPEN(EndpointMode.OPEN, false, EndpointMode.OPEN, false, 100),
+	/**
+	 * Bounded with a closed lower endpoint and an open upper endpoint, such as
+	 * [0, 100).
+	 */
+	LEFT_CLOSED(EndpointMode.CLOSED, false, EndpointMode.OPEN, false, 100),
+	/**
+	 * Unbounded below, such as (−∞, 100].
+	 */
+	UNBOUNDED_BELOW(EndpointMode.OPEN, true, EndpointMode.CLOSED, false, 100),
+	/**
+	 * Unbounded above, such as [0, +∞).
+	 */
+	UNBOUNDED_ABOVE(EndpointMode.CLOSED, false, EndpointMode.OPEN, true, 100),
+	/**
+	 * Unbounded in both directions, (−∞, +∞).
+	 */
+	UNBOUNDED(EndpointMode.OPEN, true, EndpointMode.OPEN, true, 100),
+	/**
+	 * An open interval which includes no integers, such as (0, 1).
+	 */
+	EMPTY(EndpointMode.OPEN, false, EndpointMode.OPEN, false, 1);
+
+	private final EndpointMode lowerMode, upperMode;
+	private final boolean lowerUnbounded, upperUnbounded;
+	private final int width;
+
+	private Shape(EndpointMode lowerMode, boolean lowerUnbounded,
+			EndpointMode upperMode, boolean upperUnbounded, int width) {
+		this.lowerMode = lowerMode;
+		this.lowerUnbounded = lowerUnbounded;
+		this.upperMode = upperMode;
+		this.upperUnbounded = upperUnbounded;
+		this.width = width;
+	}
+
+	private Integer lower(int offset) {
+		return lowerUnbounded ? null : offset;
+	}
+
+	private Integer upper(int offset) {
+		return upperUnbounded ? null : offset + width;
+	}
+
+	/**
+	 * Returns an <code>IntegerInterval</code> of this shape.
+	 *
+	 * @param offset the value of the lower endpoint, if it is bounded.
+	 * @return an <code>IntegerInterval</code> of this shape.
+	 */
+	public IntegerInterval integerInterval(int offset) {
+		return integerInterval(lowerMode, lower(offset), upper(offset),
+				upperMode);
+	}
+
+	/**
+	 * Returns an <code>IntegerInterval</code> which is equal to the one
+	 * returned by {@link #integerInterval(int)} but which is not already in
+	 * normalized form, so that <code>equals</code> and <code>hashCode</code>
+	 * have to do their full amount of work.
+	 *
+	 * @param offset the value of the lower endpoint, if it is bounded.
+	 * @return an equal <code>IntegerInterval</code> of different notation.
+	 */
+	public IntegerInterval equivalentIntegerInterval(int offset) {
+		Integer lower = lower(offset), upper = upper(offset);
+		EndpointMode newLowerMode = flip(lowerMode), newUpperMode = flip(
+				upperMode);
+		if (lower != null) {
+			lower += lowerMode == EndpointMode.CLOSED ? -1 : 1;
+		}
+		if (upper != null) {
+			upper += upperMode == EndpointMode.CLOSED ? 1 : -1;
+		}
+		return integerInterval(newLowerMode, lower, upper, newUpperMode);
+	}
+
+	/**
+	 * Returns a <code>GenericInterval&lt;Integer&gt;</code> of this shape.
+	 *
+	 * @param offset the value of the lower endpoint, if it is bounded.
+	 * @return a <code>GenericInterval</code> of this shape.
+	 */
+	public GenericInterval<Integer> genericInterval(int offset) {
+		return new GenericInterval<>(lowerMode, lower(offset), upper(offset),
+				upperMode);
+	}
+
+	private static EndpointMode flip(EndpointMode mode) {
+		return mode == EndpointMode.CLOSED ? EndpointMode.OPEN
+				: EndpointMode.CLOSED;
+	}
+
+	private static IntegerInterval integerInterval(EndpointMode lowerMode,
+			Integer lower, Integer upper, EndpointMode upperMode) {
+		if (lowerMode == EndpointMode.CLOSED) {
+			return upperMode == EndpointMode.CLOSED ? IntegerInterval.closed(
+					lower, upper) : IntegerInterval.leftClosed(lower, upper);
+		}
+		return upperMode == EndpointMode.CLOSED ? IntegerInterval.rightClosed(
+				lower, upper) : IntegerInterval.open(lower, upper);
+	}
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2015 Bobulous <http://www.bobulous.org.uk/>.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package uk.org.bobulous.java.intervals;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * A <code>MaskKernel</code> which uses the incubating Vector API. This class
+ * is only compiled on Java 16 or later, and is loaded reflectively by
+ * <code>IntervalMasks</code> so that its absence is harmless.
+ *
+ * @author Bobulous <http://www.bobulous.org.uk/>
+ */
+final class VectorMaskKernel implements MaskKernel {
+
+	/*
+	The lane count of every species is a power of two no greater than 64, so a
+	vector which starts at a multiple of its lane count never straddles two
+	words of the mask.
+	*/
+	private static final VectorSpecies<Integer> INTS
+			= IntVector.SPECIES_PREFERRED;
+	private static final VectorSpecies<Long> LONGS
+			= LongVector.SPECIES_PREFERRED;
+
+	VectorMaskKernel() {
+	}
+
+	@Override
+	public void mask(int[] values, int offset, int length, int[] least,
+			int[] greatest, long[] mask) {
+		clear(mask, length);
+		int lanes = INTS.length();
+		int bound = INTS.loopBound(length);
+		int i = 0;
+		for (; i < bound; i += lanes) {
+			IntVector vector = IntVector.fromArray(INTS, values, offset + i);
+			VectorMask<Integer> included = vector.compare(VectorOperators.GE,
+					least[0]).and(vector.compare(VectorOperators.LE,
+					greatest[0]));
+			for (int k = 1; k < least.length; ++k) {
+				included = included.or(vector.compare(VectorOperators.GE,
+						least[k]).and(vector.compare(VectorOperators.LE,
+						greatest[k])));
+			}
+			mask[i >>> 6] |= included.toLong() << i;
+		}
+		for (; i < length; ++i) {
+			int value = values[offset + i];
+			boolean included = false;
+			for (int k = 0; k < least.length; ++k) {
+				included |= least[k] <= value & value <= greatest[k];
+			}
+			mask[i >>> 6] |= (included ? 1L : 0L) << i;
+		}
+	}
+
+	@Override
+	public void mask(long[] values, int offset, int length, long[] least,
+			long[] greatest, long[] mask) {
+		clear(mask, length);
+		int lanes = LONGS.length();
+		int bound = LONGS.loopBound(length);
+		int i = 0;
+		for (; i < bound; i += lanes) {
+			LongVector vector = LongVector.fromArray(LONGS, values, offset + i);
+			VectorMask<Long> included = vector.compare(VectorOperators.GE,
+					least[0]).and(vector.compare(VectorOperators.LE,
+					greatest[0]));
+			for (int k = 1; k < least.length; ++k) {
+				included = included.or(vector.compare(VectorOperators.GE,
+						least[k]).and(vector.compare(VectorOperators.LE,
+						greatest[k])));
+			}
+			mask[i >>> 6] |= included.toLong() << i;
+		}
+		for (; i < length; ++i) {
+			long value = values[offset + i];
+			boolean included = false;
+			for (int k = 0; k < least.length; ++k) {
+				included |= least[k] <= value & value <= greatest[k];
+			}
+			mask[i >>> 6] |= (included ? 1L : 0L) << i;
+		}
+	}
+
+	private static void clear(long[] mask, int length) {
+		for (int w = 0; w < (length + Long.SIZE - 1) >>> 6; ++w) {
+			mask[w] = 0L;
+		}
+	}
+}
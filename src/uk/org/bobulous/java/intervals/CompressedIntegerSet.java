@@ -0,0 +1,1441 @@
+/*
+ * Copyright © 2015 Bobulous <http://www.bobulous.org.uk/>.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package uk.org.bobulous.java.intervals;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * A compressed set of <code>int</code> values, which stays compact whether
+ * its members are dense, sparse, or clustered into runs.
+ * <p>
+ * The range of <code>int</code> values is divided into 65536 chunks of 65536
+ * consecutive integers, and the set holds a container only for each chunk
+ * which includes at least one member. Each container uses whichever of three
+ * forms is smallest for its members: a sorted array of up to 4096 16-bit
+ * values, a bitmap of 65536 bits, or a sorted list of runs, each held as its
+ * first and last 16-bit value. So a single member costs two bytes, a chunk
+ * which is more than one sixteenth full costs at most eight kilobytes, and a
+ * range of a billion consecutive integers costs four bytes for each of its
+ * chunks. This is the container scheme of Roaring bitmaps.</p>
+ * <p>
+ * {@link #contains(int)} is a binary search for the chunk followed by a
+ * lookup in its container. {@link #addRange(IntegerInterval)} replaces every
+ * chunk which the range covers completely by a single run, and combines the
+ * range with the containers of at most two partly covered chunks.
+ * {@link #union(CompressedIntegerSet)},
+ * {@link #intersection(CompressedIntegerSet)} and
+ * {@link #difference(CompressedIntegerSet)} make a single pass over the
+ * chunks of both sets, combining pairs of containers run by run, element by
+ * element, or a word at a time, depending on their forms.</p>
+ * <p>
+ * Every <code>IntegerInterval</code> given to the set is first normalized
+ * (following the same rules as <code>IntegerInterval</code> uses for
+ * equality) so that it becomes a closed range of integers, in the same way as
+ * {@link IntegerIntervalSet} does, and {@link #intervals()} produces the
+ * members as maximal closed intervals, joining runs which continue from one
+ * chunk into the next.</p>
+ * <p>
+ * A set can be written to a <code>ByteBuffer</code> by
+ * {@link #serialize(ByteBuffer)} in a portable format, described by that
+ * method, which does not depend on the byte order of the buffer. The format
+ * begins with a directory of chunks holding the offset of each container, so
+ * a large set written to a file can be memory-mapped and queried in place by
+ * {@link #contains(ByteBuffer, int)}, without reading the whole set.</p>
+ * <p>
+ * This class is not thread-safe. If a set is to be modified by one thread
+ * while being read or modified by another then access must be synchronized
+ * externally.</p>
+ *
+ * <p>
+ * <strong>WARNING:</strong> development and testing are still in early stages.
+ * Consider this class to be in its alpha testing phase. Use with caution, and
+ * do not rely on its structure remaining in exactly its current form!</p>
+ *
+ * @author Bobulous <http://www.bobulous.org.uk/>
+ * @see IntegerIntervalSet
+ * @see IntegerBitmapSet
+ */
+public final class CompressedIntegerSet {
+
+	/*
+	The keys of the chunks which hold members, in ascending order, and the
+	container of each. A key is the high sixteen bits of a value with its sign
+	bit flipped, so that the keys of negative values come before those of
+	positive values. Only the first count elements of each array are in use,
+	and no container is empty.
+	*/
+	private char[] keys;
+	private Container[] containers;
+	private int count;
+
+	private static final int DEFAULT_CAPACITY = 8;
+
+	/*
+	The greatest number of values held by an array container, beyond which a
+	bitmap (8192 bytes) is always smaller.
+	*/
+	private static final int ARRAY_MAXIMUM = 4096;
+	private static final int BITMAP_WORDS = 1024;
+	private static final int BITMAP_BYTES = BITMAP_WORDS * 8;
+
+	private static final byte ARRAY = 0;
+	private static final byte BITMAP = 1;
+	private static final byte RUN = 2;
+
+	// The ASCII characters "BJCS", for Bobulous Java Compressed Set.
+	private static final int MAGIC = 0x424A4353;
+	private static final int VERSION = 1;
+	private static final int HEADER_BYTES = 16;
+	private static final int ENTRY_BYTES = 16;
+
+	/**
+	 * Constructs an empty <code>CompressedIntegerSet</code>.
+	 */
+	public CompressedIntegerSet() {
+		this(new char[DEFAULT_CAPACITY], new Container[DEFAULT_CAPACITY], 0);
+	}
+
+	/**
+	 * Constructs a <code>CompressedIntegerSet</code> which includes every
+	 * integer included by any of the given intervals.
+	 *
+	 * @param intervals the intervals to add to the new set.
+	 * @throws NullPointerException if the collection or any of its elements is
+	 * <code>null</code>.
+	 */
+	public CompressedIntegerSet(Collection<IntegerInterval> intervals) {
+		this();
+		for (IntegerInterval interval : intervals) {
+			addRange(interval);
+		}
+	}
+
+	private CompressedIntegerSet(char[] keys, Container[] containers,
+			int count) {
+		this.keys = keys;
+		this.containers = containers;
+		this.count = count;
+	}
+
+	private static int high(int value) {
+		return (value ^ Integer.MIN_VALUE) >>> 16;
+	}
+
+	private static int low(int value) {
+		// Flipping the sign bit does not change the low sixteen bits.
+		return value & 0xFFFF;
+	}
+
+	private static int valueOf(int key, int low) {
+		return (key << 16 | low) ^ Integer.MIN_VALUE;
+	}
+
+	/*
+	Containers. An array or bitmap container is changed in place by add, but
+	a run container is never changed, so the constant FULL can be shared. The
+	methods which combine two containers return a new container, or null if
+	the result is empty.
+	*/
+	private static abstract class Container {
+
+		abstract byte type();
+
+		abstract int cardinality();
+
+		abstract boolean contains(int low);
+
+		/**
+		 * Adds the value to this container and returns the container which
+		 * holds the result, which may be this container.
+		 */
+		abstract Container add(int low);
+
+		abstract int runCount();
+
+		/**
+		 * Writes the runs of this container into the given arrays, which must
+		 * have room for <code>runCount()</code> elements, and returns the
+		 * number of runs.
+		 */
+		abstract int runs(char[] starts, char[] ends);
+
+		abstract void orInto(long[] words);
+
+		/**
+		 * Returns a container with the same members which can be changed
+		 * without affecting this one.
+		 */
+		abstract Container copy();
+
+		/**
+		 * Returns the number which is written to the directory entry of this
+		 * container: its number of values, or of runs for a run container.
+		 */
+		abstract int serializedCount();
+
+		abstract int serializedBytes();
+
+		abstract void serialize(ByteBuffer buffer, int offset);
+	}
+
+	private static final class ArrayContainer extends Container {
+
+		private char[] values;
+		private int size;
+
+		private ArrayContainer(char[] values, int size) {
+			this.values = values;
+			this.size = size;
+		}
+
+		@Override
+		byte type() {
+			return ARRAY;
+		}
+
+		@Override
+		int cardinality() {
+			return size;
+		}
+
+		@Override
+		boolean contains(int low) {
+			return Arrays.binarySearch(values, 0, size, (char) low) >= 0;
+		}
+
+		@Override
+		Container add(int low) {
+			int index = Arrays.binarySearch(values, 0, size, (char) low);
+			if (index >= 0) {
+				return this;
+			}
+			if (size == ARRAY_MAXIMUM) {
+				long[] words = new long[BITMAP_WORDS];
+				orInto(words);
+				return new BitmapContainer(words, size).add(low);
+			}
+			index = -index - 1;
+			if (size == values.length) {
+				values = Arrays.copyOf(values, Math.min(ARRAY_MAXIMUM, Math.max(
+						4, size * 2)));
+			}
+			System.arraycopy(values, index, values, index + 1, size - index);
+			values[index] = (char) low;
+			++size;
+			return this;
+		}
+
+		@Override
+		int runCount() {
+			int runs = 1;
+			for (int i = 1; i < size; ++i) {
+				if (values[i] != values[i - 1] + 1) {
+					++runs;
+				}
+			}
+			return runs;
+		}
+
+		@Override
+		int runs(char[] starts, char[] ends) {
+			int n = 0;
+			for (int i = 0; i < size; ++i) {
+				if (n > 0 && values[i] == ends[n - 1] + 1) {
+					ends[n - 1] = values[i];
+				} else {
+					starts[n] = values[i];
+					ends[n++] = values[i];
+				}
+			}
+			return n;
+		}
+
+		@Override
+		void orInto(long[] words) {
+			for (int i = 0; i < size; ++i) {
+				words[values[i] >>> 6] |= 1L << values[i];
+			}
+		}
+
+		@Override
+		Container copy() {
+			return new ArrayContainer(Arrays.copyOf(values, size), size);
+		}
+
+		@Override
+		int serializedCount() {
+			return size;
+		}
+
+		@Override
+		int serializedBytes() {
+			return 2 * size;
+		}
+
+		@Override
+		void serialize(ByteBuffer buffer, int offset) {
+			for (int i = 0; i < size; ++i) {
+				buffer.putChar(offset + 2 * i, values[i]);
+			}
+		}
+	}
+
+	private static final class BitmapContainer extends Container {
+
+		private final long[] words;
+		private int cardinality;
+
+		private BitmapContainer(long[] words, int cardinality) {
+			this.words = words;
+			this.cardinality = cardinality;
+		}
+
+		@Override
+		byte type() {
+			return BITMAP;
+		}
+
+		@Override
+		int cardinality() {
+			return cardinality;
+		}
+
+		@Override
+		boolean contains(int low) {
+			return (words[low >>> 6] & (1L << low)) != 0;
+		}
+
+		@Override
+		Container add(int low) {
+			long bit = 1L << low;
+			if ((words[low >>> 6] & bit) == 0) {
+				words[low >>> 6] |= bit;
+				++cardinality;
+			}
+			return this;
+		}
+
+		@Override
+		int runCount() {
+			return bitmapRunCount(words);
+		}
+
+		@Override
+		int runs(char[] starts, char[] ends) {
+			return bitmapRuns(words, starts, ends);
+		}
+
+		@Override
+		void orInto(long[] target) {
+			for (int i = 0; i < BITMAP_WORDS; ++i) {
+				target[i] |= words[i];
+			}
+		}
+
+		@Override
+		Container copy() {
+			return new BitmapContainer(words.clone(), cardinality);
+		}
+
+		@Override
+		int serializedCount() {
+			return cardinality;
+		}
+
+		@Override
+		int serializedBytes() {
+			return BITMAP_BYTES;
+		}
+
+		@Override
+		void serialize(ByteBuffer buffer, int offset) {
+			for (int i = 0; i < BITMAP_WORDS; ++i) {
+				buffer.putLong(offset + 8 * i, words[i]);
+			}
+		}
+	}
+
+	private static final class RunContainer extends Container {
+
+		private final char[] starts;
+		private final char[] ends;
+		private final int count;
+		private final int cardinality;
+
+		private RunContainer(char[] starts, char[] ends, int count) {
+			this.starts = starts;
+			this.ends = ends;
+			this.count = count;
+			int total = 0;
+			for (int i = 0; i < count; ++i) {
+				total += ends[i] - starts[i] + 1;
+			}
+			this.cardinality = total;
+		}
+
+		private static RunContainer of(int start, int end) {
+			return new RunContainer(new char[]{(char) start},
+					new char[]{(char) end}, 1);
+		}
+
+		@Override
+		byte type() {
+			return RUN;
+		}
+
+		@Override
+		int cardinality() {
+			return cardinality;
+		}
+
+		@Override
+		boolean contains(int low) {
+			int index = floorRun(starts, count, low);
+			return index >= 0 && low <= ends[index];
+		}
+
+		@Override
+		Container add(int low) {
+			if (contains(low)) {
+				return this;
+			}
+			return union(this, of(low, low));
+		}
+
+		@Override
+		int runCount() {
+			return count;
+		}
+
+		@Override
+		int runs(char[] starts, char[] ends) {
+			System.arraycopy(this.starts, 0, starts, 0, count);
+			System.arraycopy(this.ends, 0, ends, 0, count);
+			return count;
+		}
+
+		@Override
+		void orInto(long[] words) {
+			for (int i = 0; i < count; ++i) {
+				fillBits(words, starts[i], ends[i]);
+			}
+		}
+
+		@Override
+		Container copy() {
+			return this;
+		}
+
+		@Override
+		int serializedCount() {
+			return count;
+		}
+
+		@Override
+		int serializedBytes() {
+			return 4 * count;
+		}
+
+		@Override
+		void serialize(ByteBuffer buffer, int offset) {
+			for (int i = 0; i < count; ++i) {
+				buffer.putChar(offset + 4 * i, starts[i]);
+				buffer.putChar(offset + 4 * i + 2, ends[i]);
+			}
+		}
+	}
+
+	private static final RunContainer FULL = RunContainer.of(0, 0xFFFF);
+
+	/**
+	 * Returns the index of the last run whose start is less than or equal to
+	 * the given value, or -1 if every run starts after the value.
+	 */
+	private static int floorRun(char[] starts, int count, int value) {
+		int low = 0, high = count - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (starts[mid] <= value) {
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return high;
+	}
+
+	private static void fillBits(long[] words, int from, int to) {
+		int firstWord = from >>> 6, lastWord = to >>> 6;
+		long firstMask = -1L << from;
+		long lastMask = -1L >>> (63 - (to & 63));
+		if (firstWord == lastWord) {
+			words[firstWord] |= firstMask & lastMask;
+			return;
+		}
+		words[firstWord] |= firstMask;
+		Arrays.fill(words, firstWord + 1, lastWord, -1L);
+		words[lastWord] |= lastMask;
+	}
+
+	/**
+	 * Counts the runs of set bits in a bitmap. A run starts at every set bit
+	 * whose preceding bit is clear.
+	 */
+	private static int bitmapRunCount(long[] words) {
+		int runs = 0;
+		long carry = 0;
+		for (long word : words) {
+			runs += Long.bitCount(word & ~(word << 1 | carry));
+			carry = word >>> 63;
+		}
+		return runs;
+	}
+
+	private static int bitmapRuns(long[] words, char[] starts, char[] ends) {
+		int n = 0;
+		int start = nextSetBit(words, 0);
+		while (start >= 0) {
+			int end = nextClearBit(words, start);
+			starts[n] = (char) start;
+			ends[n++] = (char) (end - 1);
+			start = end > 0xFFFF ? -1 : nextSetBit(words, end);
+		}
+		return n;
+	}
+
+	private static int nextSetBit(long[] words, int from) {
+		int w = from >>> 6;
+		long word = words[w] & (-1L << from);
+		while (word == 0) {
+			if (++w == words.length) {
+				return -1;
+			}
+			word = words[w];
+		}
+		return (w << 6) + Long.numberOfTrailingZeros(word);
+	}
+
+	private static int nextClearBit(long[] words, int from) {
+		int w = from >>> 6;
+		long word = ~words[w] & (-1L << from);
+		while (word == 0) {
+			if (++w == words.length) {
+				return words.length << 6;
+			}
+			word = ~words[w];
+		}
+		return (w << 6) + Long.numberOfTrailingZeros(word);
+	}
+
+	/**
+	 * Returns the smallest container which holds exactly the given runs,
+	 * which must be in ascending order and must not overlap. Returns
+	 * <code>null</code> if there are no runs.
+	 */
+	private static Container fromRuns(char[] starts, char[] ends, int n) {
+		if (n == 0) {
+			return null;
+		}
+		int cardinality = 0;
+		for (int i = 0; i < n; ++i) {
+			cardinality += ends[i] - starts[i] + 1;
+		}
+		int runBytes = 4 * n;
+		int arrayBytes = cardinality <= ARRAY_MAXIMUM ? 2 * cardinality
+				: Integer.MAX_VALUE;
+		if (runBytes <= arrayBytes && runBytes <= BITMAP_BYTES) {
+			return new RunContainer(Arrays.copyOf(starts, n), Arrays.copyOf(
+					ends, n), n);
+		}
+		if (arrayBytes <= BITMAP_BYTES) {
+			char[] values = new char[cardinality];
+			int size = 0;
+			for (int i = 0; i < n; ++i) {
+				for (int value = starts[i]; value <= ends[i]; ++value) {
+					values[size++] = (char) value;
+				}
+			}
+			return new ArrayContainer(values, size);
+		}
+		long[] words = new long[BITMAP_WORDS];
+		for (int i = 0; i < n; ++i) {
+			fillBits(words, starts[i], ends[i]);
+		}
+		return new BitmapContainer(words, cardinality);
+	}
+
+	/**
+	 * Returns the smallest container which holds exactly the set bits of the
+	 * given bitmap, which may become the bitmap of the container. Returns
+	 * <code>null</code> if no bit is set.
+	 */
+	private static Container fromBitmap(long[] words) {
+		int cardinality = 0;
+		for (long word : words) {
+			cardinality += Long.bitCount(word);
+		}
+		if (cardinality == 0) {
+			return null;
+		}
+		int runs = bitmapRunCount(words);
+		int arrayBytes = cardinality <= ARRAY_MAXIMUM ? 2 * cardinality
+				: Integer.MAX_VALUE;
+		if (4 * runs <= arrayBytes && 4 * runs <= BITMAP_BYTES) {
+			char[] starts = new char[runs], ends = new char[runs];
+			bitmapRuns(words, starts, ends);
+			return new RunContainer(starts, ends, runs);
+		}
+		if (arrayBytes <= BITMAP_BYTES) {
+			char[] values = new char[cardinality];
+			int size = 0;
+			for (int w = 0; w < BITMAP_WORDS; ++w) {
+				for (long word = words[w]; word != 0; word &= word - 1) {
+					values[size++] = (char) ((w << 6) + Long.
+							numberOfTrailingZeros(word));
+				}
+			}
+			return new ArrayContainer(values, size);
+		}
+		return new BitmapContainer(words, cardinality);
+	}
+
+	/**
+	 * The runs of a container, extracted so that two containers can be
+	 * combined run by run.
+	 */
+	private static final class Runs {
+
+		private final char[] starts;
+		private final char[] ends;
+		private final int count;
+
+		private Runs(Container container) {
+			int capacity = container.runCount();
+			starts = new char[capacity];
+			ends = new char[capacity];
+			count = container.runs(starts, ends);
+		}
+	}
+
+	private static Container union(Container a, Container b) {
+		if (a.type() == BITMAP || b.type() == BITMAP) {
+			long[] words = new long[BITMAP_WORDS];
+			a.orInto(words);
+			b.orInto(words);
+			return fromBitmap(words);
+		}
+		Runs x = new Runs(a), y = new Runs(b);
+		char[] starts = new char[x.count + y.count];
+		char[] ends = new char[x.count + y.count];
+		int n = 0, i = 0, j = 0;
+		while (i < x.count || j < y.count) {
+			int start, end;
+			if (j >= y.count || (i < x.count && x.starts[i] <= y.starts[j])) {
+				start = x.starts[i];
+				end = x.ends[i++];
+			} else {
+				start = y.starts[j];
+				end = y.ends[j++];
+			}
+			if (n > 0 && start <= ends[n - 1] + 1) {
+				// Overlaps or adjoins the previous run, so extend it.
+				if (end > ends[n - 1]) {
+					ends[n - 1] = (char) end;
+				}
+			} else {
+				starts[n] = (char) start;
+				ends[n++] = (char) end;
+			}
+		}
+		return fromRuns(starts, ends, n);
+	}
+
+	private static Container intersection(Container a, Container b) {
+		if (a.type() == ARRAY) {
+			return filter((ArrayContainer) a, b, true);
+		}
+		if (b.type() == ARRAY) {
+			return filter((ArrayContainer) b, a, true);
+		}
+		if (a.type() == RUN && b.type() == RUN) {
+			Runs x = new Runs(a), y = new Runs(b);
+			char[] starts = new char[x.count + y.count];
+			char[] ends = new char[x.count + y.count];
+			int n = 0, i = 0, j = 0;
+			while (i < x.count && j < y.count) {
+				int start = Math.max(x.starts[i], y.starts[j]);
+				int end = Math.min(x.ends[i], y.ends[j]);
+				if (start <= end) {
+					starts[n] = (char) start;
+					ends[n++] = (char) end;
+				}
+				// Move past whichever run finishes first.
+				if (x.ends[i] < y.ends[j]) {
+					++i;
+				} else {
+					++j;
+				}
+			}
+			return fromRuns(starts, ends, n);
+		}
+		long[] words = new long[BITMAP_WORDS], other = new long[BITMAP_WORDS];
+		a.orInto(words);
+		b.orInto(other);
+		for (int i = 0; i < BITMAP_WORDS; ++i) {
+			words[i] &= other[i];
+		}
+		return fromBitmap(words);
+	}
+
+	private static Container difference(Container a, Container b) {
+		if (a.type() == ARRAY) {
+			return filter((ArrayContainer) a, b, false);
+		}
+		if (a.type() == RUN && b.type() != BITMAP) {
+			Runs x = new Runs(a), y = new Runs(b);
+			char[] starts = new char[x.count + y.count];
+			char[] ends = new char[x.count + y.count];
+			int n = 0, j = 0;
+			for (int i = 0; i < x.count; ++i) {
+				int start = x.starts[i], end = x.ends[i];
+				// Skip the runs of b which finish before this run.
+				while (j < y.count && y.ends[j] < start) {
+					++j;
+				}
+				// Cut out every run of b which overlaps this run.
+				int k = j;
+				while (k < y.count && y.starts[k] <= end) {
+					if (y.starts[k] > start) {
+						starts[n] = (char) start;
+						ends[n++] = (char) (y.starts[k] - 1);
+					}
+					start = y.ends[k] + 1;
+					if (y.ends[k] > end) {
+						break;
+					}
+					++k;
+				}
+				j = k;
+				if (start <= end) {
+					starts[n] = (char) start;
+					ends[n++] = (char) end;
+				}
+			}
+			return fromRuns(starts, ends, n);
+		}
+		long[] words = new long[BITMAP_WORDS], other = new long[BITMAP_WORDS];
+		a.orInto(words);
+		b.orInto(other);
+		for (int i = 0; i < BITMAP_WORDS; ++i) {
+			words[i] &= ~other[i];
+		}
+		return fromBitmap(words);
+	}
+
+	/**
+	 * Returns an array container of the values of the given array container
+	 * which are (if <code>keep</code> is <code>true</code>) or are not members
+	 * of the other container, or <code>null</code> if there are no such
+	 * values.
+	 */
+	private static Container filter(ArrayContainer array, Container other,
+			boolean keep) {
+		char[] values = new char[array.size];
+		int size = 0;
+		for (int i = 0; i < array.size; ++i) {
+			if (other.contains(array.values[i]) == keep) {
+				values[size++] = array.values[i];
+			}
+		}
+		return size == 0 ? null : new ArrayContainer(values, size);
+	}
+
+	/**
+	 * Returns the index of the chunk with the given key, or, if there is no
+	 * such chunk, (-(insertion point) - 1).
+	 */
+	private int indexOf(int key) {
+		return Arrays.binarySearch(keys, 0, count, (char) key);
+	}
+
+	private void insert(int index, int key, Container container) {
+		if (count == keys.length) {
+			int newCapacity = Math.max(DEFAULT_CAPACITY, count * 2);
+			keys = Arrays.copyOf(keys, newCapacity);
+			containers = Arrays.copyOf(containers, newCapacity);
+		}
+		System.arraycopy(keys, index, keys, index + 1, count - index);
+		System.arraycopy(containers, index, containers, index + 1, count
+				- index);
+		keys[index] = (char) key;
+		containers[index] = container;
+		++count;
+	}
+
+	private void removeAt(int index) {
+		System.arraycopy(keys, index + 1, keys, index, count - index - 1);
+		System.arraycopy(containers, index + 1, containers, index, count
+				- index - 1);
+		containers[--count] = null;
+	}
+
+	/**
+	 * Reports on whether this set includes no integers.
+	 *
+	 * @return <code>true</code> if this set is empty.
+	 */
+	public boolean isEmpty() {
+		return count == 0;
+	}
+
+	/**
+	 * Returns the number of integers included by this set.
+	 *
+	 * @return the number of integers in this set.
+	 */
+	public long cardinality() {
+		long total = 0;
+		for (int i = 0; i < count; ++i) {
+			total += containers[i].cardinality();
+		}
+		return total;
+	}
+
+	/**
+	 * Removes every integer from this set.
+	 */
+	public void clear() {
+		Arrays.fill(containers, 0, count, null);
+		count = 0;
+	}
+
+	/**
+	 * Reports on whether this set includes the specified value.
+	 *
+	 * @param value the value to test.
+	 * @return <code>true</code> if this set includes the value.
+	 */
+	public boolean contains(int value) {
+		int index = indexOf(high(value));
+		return index >= 0 && containers[index].contains(low(value));
+	}
+
+	/**
+	 * Adds the specified value to this set.
+	 *
+	 * @param value the value to add.
+	 */
+	public void add(int value) {
+		int key = high(value);
+		int index = indexOf(key);
+		if (index >= 0) {
+			containers[index] = containers[index].add(low(value));
+		} else {
+			insert(-index - 1, key, new ArrayContainer(new char[]{(char) low(
+					value)}, 1));
+		}
+	}
+
+	/**
+	 * Removes the specified value from this set.
+	 *
+	 * @param value the value to remove.
+	 */
+	public void remove(int value) {
+		int index = indexOf(high(value));
+		if (index < 0 || !containers[index].contains(low(value))) {
+			return;
+		}
+		Container result = difference(containers[index], RunContainer.of(
+				low(value), low(value)));
+		if (result == null) {
+			removeAt(index);
+		} else {
+			containers[index] = result;
+		}
+	}
+
+	/**
+	 * Adds every integer included by the specified interval to this set.
+	 *
+	 * @param interval the interval to add.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public void addRange(IntegerInterval interval) {
+		Objects.requireNonNull(interval);
+		int least = interval.leastIncluded();
+		int greatest = interval.greatestIncluded();
+		if (least > greatest) {
+			return;
+		}
+		int firstKey = high(least), lastKey = high(greatest);
+		if (firstKey == lastKey) {
+			Container range = range(low(least), low(greatest));
+			int index = indexOf(firstKey);
+			if (index < 0) {
+				insert(-index - 1, firstKey, range);
+			} else {
+				containers[index] = range == FULL ? FULL : union(
+						containers[index], range);
+			}
+			return;
+		}
+		// Rebuild the arrays, merging the range into the chunks it covers.
+		int from = indexOf(firstKey);
+		from = from < 0 ? -from - 1 : from;
+		int to = indexOf(lastKey);
+		to = to < 0 ? -to - 1 : to + 1;
+		int newCount = count - (to - from) + (lastKey - firstKey + 1);
+		char[] newKeys = new char[Math.max(newCount, DEFAULT_CAPACITY)];
+		Container[] newContainers = new Container[newKeys.length];
+		System.arraycopy(keys, 0, newKeys, 0, from);
+		System.arraycopy(containers, 0, newContainers, 0, from);
+		int n = from, existing = from;
+		for (int key = firstKey; key <= lastKey; ++key) {
+			int start = key == firstKey ? low(least) : 0;
+			int end = key == lastKey ? low(greatest) : 0xFFFF;
+			Container range = range(start, end);
+			if (existing < to && keys[existing] == key) {
+				Container old = containers[existing++];
+				if (range != FULL) {
+					range = union(old, range);
+				}
+			}
+			newKeys[n] = (char) key;
+			newContainers[n++] = range;
+		}
+		System.arraycopy(keys, to, newKeys, n, count - to);
+		System.arraycopy(containers, to, newContainers, n, count - to);
+		keys = newKeys;
+		containers = newContainers;
+		count = newCount;
+	}
+
+	/**
+	 * Returns the smallest container which holds every value from start to end
+	 * (inclusive), which is the shared constant FULL if that is every value.
+	 */
+	private static Container range(int start, int end) {
+		if (start == 0 && end == 0xFFFF) {
+			return FULL;
+		}
+		return fromRuns(new char[]{(char) start}, new char[]{(char) end}, 1);
+	}
+
+	private interface ContainerOperation {
+
+		Container apply(Container a, Container b);
+	}
+
+	/**
+	 * Combines the chunks of this set and another in a single pass. A chunk of
+	 * only one set is copied into the result if the flag for that set is
+	 * <code>true</code>; a chunk of both sets is combined by the operation.
+	 */
+	private CompressedIntegerSet combine(CompressedIntegerSet other,
+			boolean keepThis, boolean keepOther,
+			ContainerOperation operation) {
+		Objects.requireNonNull(other);
+		int capacity = Math.max(DEFAULT_CAPACITY, this.count + other.count);
+		char[] newKeys = new char[capacity];
+		Container[] newContainers = new Container[capacity];
+		int n = 0, i = 0, j = 0;
+		while (i < this.count || j < other.count) {
+			int key;
+			Container result;
+			if (j >= other.count || (i < this.count && this.keys[i]
+					< other.keys[j])) {
+				key = this.keys[i];
+				result = keepThis ? this.containers[i].copy() : null;
+				++i;
+			} else if (i >= this.count || other.keys[j] < this.keys[i]) {
+				key = other.keys[j];
+				result = keepOther ? other.containers[j].copy() : null;
+				++j;
+			} else {
+				key = this.keys[i];
+				result = operation.apply(this.containers[i++],
+						other.containers[j++]);
+			}
+			if (result != null) {
+				newKeys[n] = (char) key;
+				newContainers[n++] = result;
+			}
+		}
+		return new CompressedIntegerSet(newKeys, newContainers, n);
+	}
+
+	/**
+	 * Returns a new set which includes every integer included by this set or
+	 * by the specified set (or by both).
+	 *
+	 * @param other the set with which to form a union.
+	 * @return the union of the two sets.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public CompressedIntegerSet union(CompressedIntegerSet other) {
+		return combine(other, true, true, CompressedIntegerSet::union);
+	}
+
+	/**
+	 * Returns a new set which includes every integer included by both this set
+	 * and the specified set.
+	 *
+	 * @param other the set with which to form an intersection.
+	 * @return the intersection of the two sets.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public CompressedIntegerSet intersection(CompressedIntegerSet other) {
+		return combine(other, false, false, CompressedIntegerSet::intersection);
+	}
+
+	/**
+	 * Returns a new set which includes every integer included by this set but
+	 * not by the specified set.
+	 *
+	 * @param other the set whose integers should be excluded.
+	 * @return the difference of the two sets.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public CompressedIntegerSet difference(CompressedIntegerSet other) {
+		return combine(other, true, false, CompressedIntegerSet::difference);
+	}
+
+	/**
+	 * Returns an iterator over the members of this set as maximal closed
+	 * intervals in ascending order. No two of the intervals overlap or adjoin,
+	 * so a run of members which continues from one chunk into the next is
+	 * produced as a single interval. The iterator does not support
+	 * <code>remove</code>, and its behaviour is undefined if this set is
+	 * changed while it is in use.
+	 *
+	 * @return an iterator over closed <code>IntegerInterval</code> objects
+	 * which together include exactly the integers in this set.
+	 */
+	public Iterator<IntegerInterval> intervals() {
+		return new Iterator<IntegerInterval>() {
+
+			// The runs of the container at index chunk - 1, of which the
+			// first run unreturned is at index run.
+			private int chunk;
+			private int key;
+			private char[] starts = new char[0], ends = new char[0];
+			private int runs, run;
+
+			private void load() {
+				Container container = containers[chunk];
+				key = keys[chunk++];
+				int capacity = container.runCount();
+				if (capacity > starts.length) {
+					starts = new char[capacity];
+					ends = new char[capacity];
+				}
+				runs = container.runs(starts, ends);
+				run = 0;
+			}
+
+			@Override
+			public boolean hasNext() {
+				return run < runs || chunk < count;
+			}
+
+			@Override
+			public IntegerInterval next() {
+				if (run == runs) {
+					if (chunk == count) {
+						throw new NoSuchElementException();
+					}
+					load();
+				}
+				int start = valueOf(key, starts[run]);
+				int endKey = key, endLow = ends[run++];
+				// Join a run which reaches the end of its chunk to the first
+				// run of the next chunk, if that starts at its beginning.
+				while (run == runs && endLow == 0xFFFF && chunk < count
+						&& keys[chunk] == endKey + 1
+						&& containers[chunk].contains(0)) {
+					load();
+					endKey = key;
+					endLow = ends[run++];
+				}
+				return IntegerInterval.closed(start, valueOf(endKey, endLow));
+			}
+		};
+	}
+
+	/**
+	 * Returns the members of this set as a list of maximal closed intervals in
+	 * ascending order, as produced by {@link #intervals()}.
+	 *
+	 * @return a list of closed <code>IntegerInterval</code> objects which
+	 * together include exactly the integers in this set.
+	 */
+	public List<IntegerInterval> toIntervals() {
+		List<IntegerInterval> intervals = new ArrayList<>();
+		for (Iterator<IntegerInterval> it = intervals(); it.hasNext();) {
+			intervals.add(it.next());
+		}
+		return intervals;
+	}
+
+	/**
+	 * Returns the offset of the data of each container, relative to the start
+	 * of the serialized form, followed by the total size of the form.
+	 */
+	private long[] layout() {
+		long[] offsets = new long[count + 1];
+		long offset = HEADER_BYTES + (long) ENTRY_BYTES * count;
+		for (int i = 0; i < count; ++i) {
+			if (containers[i].type() == BITMAP) {
+				// Align each bitmap so that it can be viewed as a LongBuffer.
+				offset = (offset + 7) & ~7L;
+			}
+			offsets[i] = offset;
+			offset += containers[i].serializedBytes();
+		}
+		offsets[count] = offset;
+		return offsets;
+	}
+
+	/**
+	 * Returns the number of bytes which {@link #serialize(ByteBuffer)} will
+	 * write for this set.
+	 *
+	 * @return the size of the serialized form of this set in bytes.
+	 */
+	public int serializedSize() {
+		return (int) layout()[count];
+	}
+
+	/**
+	 * Writes this set to the specified buffer, starting at its position, in a
+	 * portable binary format, and advances the position of the buffer to the
+	 * end of the written bytes.
+	 * <p>
+	 * Every number in the format is big-endian, regardless of the byte order
+	 * of the buffer, and every offset is relative to the start of the format.
+	 * The format begins with a header of four <code>int</code> values: the
+	 * magic number 0x424A4353, the version number 1, the number of chunks,
+	 * and zero. This is followed by a directory entry of sixteen bytes for
+	 * each chunk, in ascending order of key: the 16-bit key of the chunk
+	 * (the high sixteen bits of its values with the sign bit flipped), a byte
+	 * giving the form of its container (0 for array, 1 for bitmap, 2 for
+	 * runs), a zero byte, an <code>int</code> count (of values for an array
+	 * or bitmap, of runs for a run container), and a <code>long</code> offset
+	 * of the data of the container. An array container holds each unsigned
+	 * 16-bit value in ascending order; a run container holds the first and
+	 * last unsigned 16-bit value of each run in ascending order; and a bitmap
+	 * container holds 1024 <code>long</code> words, in which bit
+	 * <var>b</var> of word <var>w</var> is set if the value 64<var>w</var> +
+	 * <var>b</var> is present. Bitmaps begin at an offset which is a multiple
+	 * of eight.</p>
+	 *
+	 * @param buffer the buffer to which this set will be written.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 * @throws BufferOverflowException if the buffer has fewer than
+	 * {@link #serializedSize()} bytes remaining.
+	 * @throws java.nio.ReadOnlyBufferException if the buffer is read-only.
+	 */
+	public void serialize(ByteBuffer buffer) {
+		long[] offsets = layout();
+		int size = (int) offsets[count];
+		if (buffer.remaining() < size) {
+			throw new BufferOverflowException();
+		}
+		ByteBuffer out = buffer.slice().order(ByteOrder.BIG_ENDIAN);
+		out.putInt(0, MAGIC);
+		out.putInt(4, VERSION);
+		out.putInt(8, count);
+		out.putInt(12, 0);
+		int position = HEADER_BYTES + ENTRY_BYTES * count;
+		for (int i = 0; i < count; ++i) {
+			int entry = HEADER_BYTES + ENTRY_BYTES * i;
+			out.putChar(entry, keys[i]);
+			out.put(entry + 2, containers[i].type());
+			out.put(entry + 3, (byte) 0);
+			out.putInt(entry + 4, containers[i].serializedCount());
+			out.putLong(entry + 8, offsets[i]);
+			// Clear any alignment padding before the data.
+			while (position < offsets[i]) {
+				out.put(position++, (byte) 0);
+			}
+			containers[i].serialize(out, position);
+			position += containers[i].serializedBytes();
+		}
+		buffer.position(buffer.position() + size);
+	}
+
+	/**
+	 * Reads a set written by {@link #serialize(ByteBuffer)} from the specified
+	 * buffer, starting at its position, and advances the position of the
+	 * buffer to the end of the set.
+	 *
+	 * @param buffer the buffer from which to read the set.
+	 * @return a new <code>CompressedIntegerSet</code> holding the members of
+	 * the serialized set.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 * @throws IllegalArgumentException if the buffer does not hold a valid
+	 * serialized set.
+	 */
+	public static CompressedIntegerSet deserialize(ByteBuffer buffer) {
+		ByteBuffer in = buffer.slice().order(ByteOrder.BIG_ENDIAN);
+		int count = readHeader(in);
+		char[] keys = new char[Math.max(count, DEFAULT_CAPACITY)];
+		Container[] containers = new Container[keys.length];
+		long end = HEADER_BYTES + (long) ENTRY_BYTES * count;
+		for (int i = 0; i < count; ++i) {
+			int entry = HEADER_BYTES + ENTRY_BYTES * i;
+			keys[i] = in.getChar(entry);
+			if (i > 0 && keys[i] <= keys[i - 1]) {
+				throw invalid("chunk keys are not in ascending order");
+			}
+			byte type = in.get(entry + 2);
+			int n = in.getInt(entry + 4);
+			long offset = in.getLong(entry + 8);
+			containers[i] = readContainer(in, type, n, offset);
+			end = Math.max(end, offset + containers[i].serializedBytes());
+		}
+		buffer.position(buffer.position() + (int) end);
+		return new CompressedIntegerSet(keys, containers, count);
+	}
+
+	private static int readHeader(ByteBuffer in) {
+		if (in.remaining() < HEADER_BYTES || in.getInt(0) != MAGIC) {
+			throw invalid("missing magic number");
+		}
+		if (in.getInt(4) != VERSION) {
+			throw invalid("unsupported version " + in.getInt(4));
+		}
+		int count = in.getInt(8);
+		if (count < 0 || count > 0x10000 || HEADER_BYTES + (long) ENTRY_BYTES
+				* count > in.remaining()) {
+			throw invalid("invalid chunk count " + count);
+		}
+		return count;
+	}
+
+	private static Container readContainer(ByteBuffer in, byte type, int n,
+			long offset) {
+		long bytes = type == ARRAY ? 2L * n : type == RUN ? 4L * n
+				: BITMAP_BYTES;
+		if (offset < HEADER_BYTES || offset + bytes > in.remaining()) {
+			throw invalid("container data lies outside the buffer");
+		}
+		int start = (int) offset;
+		switch (type) {
+			case ARRAY: {
+				if (n < 1 || n > ARRAY_MAXIMUM) {
+					throw invalid("invalid array size " + n);
+				}
+				char[] values = new char[n];
+				for (int i = 0; i < n; ++i) {
+					values[i] = in.getChar(start + 2 * i);
+					if (i > 0 && values[i] <= values[i - 1]) {
+						throw invalid("array values are not in order");
+					}
+				}
+				return new ArrayContainer(values, n);
+			}
+			case RUN: {
+				if (n < 1 || n > 0x8000) {
+					throw invalid("invalid run count " + n);
+				}
+				char[] starts = new char[n], ends = new char[n];
+				for (int i = 0; i < n; ++i) {
+					starts[i] = in.getChar(start + 4 * i);
+					ends[i] = in.getChar(start + 4 * i + 2);
+					if (ends[i] < starts[i] || (i > 0 && starts[i]
+							<= ends[i - 1] + 1)) {
+						throw invalid("runs are not in ascending order");
+					}
+				}
+				return new RunContainer(starts, ends, n);
+			}
+			case BITMAP: {
+				long[] words = new long[BITMAP_WORDS];
+				int cardinality = 0;
+				for (int i = 0; i < BITMAP_WORDS; ++i) {
+					words[i] = in.getLong(start + 8 * i);
+					cardinality += Long.bitCount(words[i]);
+				}
+				if (cardinality != n || n == 0) {
+					throw invalid("bitmap count does not match its bits");
+				}
+				return new BitmapContainer(words, cardinality);
+			}
+			default:
+				throw invalid("unknown container type " + type);
+		}
+	}
+
+	private static IllegalArgumentException invalid(String reason) {
+		return new IllegalArgumentException(
+				"Not a valid serialized CompressedIntegerSet: " + reason + ".");
+	}
+
+	/**
+	 * Reports on whether the set written by {@link #serialize(ByteBuffer)} at
+	 * the position of the specified buffer includes the specified value,
+	 * without reading the rest of the set. This reads only the header, a
+	 * binary search of the directory, and the container of the one chunk
+	 * which could hold the value, so a large set can be kept in a
+	 * memory-mapped file and queried in place. The position of the buffer is
+	 * not changed.
+	 *
+	 * @param buffer a buffer holding a serialized set at its position.
+	 * @param value the value to test.
+	 * @return <code>true</code> if the serialized set includes the value.
+	 * @throws NullPointerException if <code>null</code> is provided as the
+	 * buffer.
+	 * @throws IllegalArgumentException if the buffer does not begin with a
+	 * valid header.
+	 */
+	public static boolean contains(ByteBuffer buffer, int value) {
+		ByteBuffer in = buffer.slice().order(ByteOrder.BIG_ENDIAN);
+		int count = readHeader(in);
+		int key = high(value), low = low(value);
+		int lowIndex = 0, highIndex = count - 1;
+		while (lowIndex <= highIndex) {
+			int mid = (lowIndex + highIndex) >>> 1;
+			int entry = HEADER_BYTES + ENTRY_BYTES * mid;
+			int midKey = in.getChar(entry);
+			if (midKey < key) {
+				lowIndex = mid + 1;
+			} else if (midKey > key) {
+				highIndex = mid - 1;
+			} else {
+				int n = in.getInt(entry + 4);
+				int start = (int) in.getLong(entry + 8);
+				switch (in.get(entry + 2)) {
+					case ARRAY:
+						return searchChars(in, start, 2, n, low) >= 0;
+					case RUN: {
+						int run = searchChars(in, start, 4, n, low);
+						if (run >= 0) {
+							return true;
+						}
+						run = -run - 2;
+						return run >= 0 && in.getChar(start + 4 * run + 2)
+								>= low;
+					}
+					case BITMAP:
+						return (in.getLong(start + 8 * (low >>> 6))
+								& (1L << low)) != 0;
+					default:
+						throw invalid("unknown container type");
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * A binary search for an unsigned 16-bit value among n values which are
+	 * stride bytes apart, returning the same as
+	 * <code>Arrays.binarySearch</code>.
+	 */
+	private static int searchChars(ByteBuffer in, int start, int stride,
+			int n, int target) {
+		int low = 0, high = n - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			int value = in.getChar(start + stride * mid);
+			if (value < target) {
+				low = mid + 1;
+			} else if (value > target) {
+				high = mid - 1;
+			} else {
+				return mid;
+			}
+		}
+		return -(low + 1);
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 7;
+		for (Iterator<IntegerInterval> it = intervals(); it.hasNext();) {
+			IntegerInterval interval = it.next();
+			hash = 79 * hash + interval.getLowerEndpoint();
+			hash = 79 * hash + interval.getUpperEndpoint();
+		}
+		return hash;
+	}
+
+	/**
+	 * Reports on whether the specified object is a
+	 * <code>CompressedIntegerSet</code> which includes exactly the same
+	 * integers as this set, whatever the forms of their containers.
+	 *
+	 * @param obj the <code>Object</code> to test for equality.
+	 * @return <code>true</code> if the supplied <code>Object</code> is a
+	 * <code>CompressedIntegerSet</code> with the same members as this set.
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof CompressedIntegerSet)) {
+			return false;
+		}
+		CompressedIntegerSet that = (CompressedIntegerSet) obj;
+		if (this.count != that.count) {
+			return false;
+		}
+		for (int i = 0; i < count; ++i) {
+			if (this.keys[i] != that.keys[i] || this.containers[i].
+					cardinality() != that.containers[i].cardinality()) {
+				return false;
+			}
+		}
+		for (int i = 0; i < count; ++i) {
+			Runs x = new Runs(this.containers[i]);
+			Runs y = new Runs(that.containers[i]);
+			if (x.count != y.count || !Arrays.equals(x.starts, y.starts)
+					|| !Arrays.equals(x.ends, y.ends)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Produces a <code>String</code> which lists the members of this set as
+	 * ranges in mathematical notation, such as <samp>{[1, 3], [7, 9]}</samp>.
+	 *
+	 * @return a <code>String</code> which represents this set.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append('{');
+		for (Iterator<IntegerInterval> it = intervals(); it.hasNext();) {
+			IntegerInterval interval = it.next();
+			if (sb.length() > 1) {
+				sb.append(", ");
+			}
+			sb.append('[').append(interval.getLowerEndpoint()).append(", ").
+					append(interval.getUpperEndpoint()).append(']');
+		}
+		sb.append('}');
+		return sb.toString();
+	}
+}
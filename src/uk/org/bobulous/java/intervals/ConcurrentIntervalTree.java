@@ -0,0 +1,207 @@
+/*
+ * Copyright © 2015 Bobulous <http://www.bobulous.org.uk/>.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package uk.org.bobulous.java.intervals;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A thread-safe map from <code>Interval</code> keys to values which answers
+ * the same queries as {@link IntervalTree}, and whose queries never block or
+ * take a lock, however many threads are reading or writing.
+ * <p>
+ * The keys are held in a balanced binary search tree ordered by
+ * {@link IntervalComparator}, exactly as in <code>IntervalTree</code>, except
+ * that the nodes of the tree are never modified. A write copies only the
+ * nodes on the path from the root to the key it changes (about
+ * log(<var>n</var>) nodes, where <var>n</var> is the number of keys), shares
+ * every other node with the previous tree, and then publishes the new root
+ * with a single volatile write. Writes are serialized by the lock of this
+ * object, but a query simply reads the current root and walks the tree it
+ * leads to, so it sees either all or none of any write, and is never delayed
+ * by a writer. Each version of the tree is a {@link PersistentIntervalMap},
+ * and {@link #snapshot()} returns the current version.</p>
+ * <p>
+ * This makes the class suitable for data which is read very often by many
+ * threads and changed rarely. Each write allocates new nodes, so a tree which
+ * is changed constantly will be slower than an <code>IntervalTree</code>
+ * guarded by a lock.</p>
+ * <p>
+ * Keys, values, and the rules for matching a query are treated exactly as
+ * described for <code>IntervalTree</code>. The entries returned by queries
+ * cannot be modified, and remain valid after later writes.</p>
+ *
+ * <p>
+ * <strong>WARNING:</strong> development and testing are still in early stages.
+ * Consider this class to be in its alpha testing phase. Use with caution, and
+ * do not rely on its structure remaining in exactly its current form!</p>
+ *
+ * @author Bobulous <http://www.bobulous.org.uk/>
+ * @param <T> the basis type of the <code>Interval</code> keys.
+ * @param <V> the type of the values mapped to the keys.
+ * @see IntervalTree
+ * @see PersistentIntervalMap
+ */
+public final class ConcurrentIntervalTree<T extends Comparable<T>, V> {
+
+	/*
+	The current version of the map. Every version holds its root node and key
+	count together, so a reader never sees the root of one version with the
+	size of another.
+	*/
+	private volatile PersistentIntervalMap<T, V> current
+			= PersistentIntervalMap.empty();
+
+	/**
+	 * Constructs an empty <code>ConcurrentIntervalTree</code>.
+	 */
+	public ConcurrentIntervalTree() {
+	}
+
+	/**
+	 * Returns the current contents of this tree as an immutable map. The
+	 * returned map is not affected by later writes to this tree, so it can
+	 * be queried any number of times to see a single consistent version of
+	 * the keys. Taking a snapshot does not copy anything.
+	 *
+	 * @return a <code>PersistentIntervalMap</code> which holds the keys and
+	 * values currently held by this tree.
+	 */
+	public PersistentIntervalMap<T, V> snapshot() {
+		return current;
+	}
+
+	/**
+	 * Returns the number of keys held in this tree.
+	 *
+	 * @return the number of keys in this tree.
+	 */
+	public int size() {
+		return current.size();
+	}
+
+	/**
+	 * Reports on whether this tree holds no keys.
+	 *
+	 * @return <code>true</code> if this tree is empty.
+	 */
+	public boolean isEmpty() {
+		return current.isEmpty();
+	}
+
+	/**
+	 * Removes every key from this tree.
+	 */
+	public synchronized void clear() {
+		current = PersistentIntervalMap.empty();
+	}
+
+	/**
+	 * Returns the value held against the key which is comparatively equal to
+	 * the specified interval.
+	 *
+	 * @param interval the key to look up.
+	 * @return the value held against the key, or <code>null</code> if this
+	 * tree does not contain the key.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public V get(Interval<T> interval) {
+		return current.get(interval);
+	}
+
+	/**
+	 * Reports on whether this tree contains a key which is comparatively equal
+	 * to the specified interval.
+	 *
+	 * @param interval the key to look for.
+	 * @return <code>true</code> if this tree contains the key.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public boolean containsKey(Interval<T> interval) {
+		return current.containsKey(interval);
+	}
+
+	/**
+	 * Associates the specified value with the specified interval key. If this
+	 * tree already contains a comparatively equal key then its value is
+	 * replaced.
+	 *
+	 * @param interval the key.
+	 * @param value the value to associate with the key.
+	 * @return the value previously associated with the key, or
+	 * <code>null</code> if there was no such key.
+	 * @throws NullPointerException if <code>null</code> is provided as the
+	 * interval.
+	 */
+	public synchronized V put(Interval<T> interval, V value) {
+		PersistentIntervalMap.Outcome<V> result
+				= new PersistentIntervalMap.Outcome<>();
+		current = current.put(interval, value, result);
+		return result.previous;
+	}
+
+	/**
+	 * Removes the key which is comparatively equal to the specified interval.
+	 *
+	 * @param interval the key to remove.
+	 * @return the value which was associated with the key, or
+	 * <code>null</code> if this tree did not contain the key.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public synchronized V remove(Interval<T> interval) {
+		PersistentIntervalMap.Outcome<V> result
+				= new PersistentIntervalMap.Outcome<>();
+		current = current.remove(interval, result);
+		return result.previous;
+	}
+
+	/**
+	 * Finds every key in this tree which includes the specified value.
+	 *
+	 * @param point the value to look for.
+	 * @return a list of the entries whose keys include the specified value,
+	 * in <code>IntervalComparator</code> order of their keys.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public List<Map.Entry<Interval<T>, V>> stab(T point) {
+		return current.stab(point);
+	}
+
+	/**
+	 * Finds every key in this tree which overlaps the specified interval. Two
+	 * intervals overlap if there is a value which both of them include.
+	 *
+	 * @param interval the interval to test against the keys.
+	 * @return a list of the entries whose keys overlap the specified interval,
+	 * in <code>IntervalComparator</code> order of their keys.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public List<Map.Entry<Interval<T>, V>> overlapping(Interval<T> interval) {
+		return current.overlapping(interval);
+	}
+
+	/**
+	 * Finds every key in this tree which is wholly contained by the specified
+	 * interval, as reported by
+	 * {@link GenericInterval#includes(uk.org.bobulous.java.intervals.Interval)}.
+	 *
+	 * @param interval the enclosing interval.
+	 * @return a list of the entries whose keys are enclosed by the specified
+	 * interval, in <code>IntervalComparator</code> order of their keys.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public List<Map.Entry<Interval<T>, V>> enclosedBy(Interval<T> interval) {
+		return current.enclosedBy(interval);
+	}
+}
@@ -0,0 +1,779 @@
+/*
+ * Copyright © 2015 Bobulous <http://www.bobulous.org.uk/>.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package uk.org.bobulous.java.intervals;
+
+import java.util.Objects;
+
+/**
+ * An immutable <code>NumericInterval</code> whose endpoints have type
+ * <code>Double</code>.
+ * <p>
+ * Unlike <code>GenericInterval&lt;Double&gt;</code>, which relies on the
+ * <code>compareTo</code> method of <code>Double</code>, this class compares
+ * values using the primitive numeric comparison operators. This has two
+ * consequences which differ from the general contract described by
+ * {@link Interval}:</p>
+ * <ul>
+ * <li><code>Double.NaN</code> is never included in a
+ * <code>DoubleInterval</code>, not even in an unbounded interval, and it cannot
+ * be used as an endpoint value. Any attempt to create an interval with a
+ * <code>NaN</code> endpoint will throw an
+ * <code>IllegalArgumentException</code>.</li>
+ * <li>Negative zero and positive zero are considered to be the same value. A
+ * negative zero endpoint value is stored (and returned) as positive zero.</li>
+ * </ul>
+ * <p>
+ * Because <code>NaN</code> is excluded, an unbounded (<code>null</code>) lower
+ * endpoint permits exactly the same values as a closed lower endpoint with the
+ * value <code>Double.NEGATIVE_INFINITY</code>, and likewise for an unbounded
+ * upper endpoint and <code>Double.POSITIVE_INFINITY</code>, and such
+ * intervals are considered equal. Otherwise two <code>DoubleInterval</code>
+ * objects are equal only if their endpoint values and modes are the same, so
+ * the intervals (0.0, 1.0) and [<code>Math.nextUp(0.0)</code>,
+ * <code>Math.nextDown(1.0)</code>] are not equal even though they include
+ * exactly the same <code>double</code> values.</p>
+ * <p>
+ * Any two intervals which represent the empty set are considered equal
+ * regardless of their endpoint values.</p>
+ *
+ * <p>
+ * <strong>WARNING:</strong> development and testing are still in early stages.
+ * Consider this class to be in its alpha testing phase. Use with caution, and
+ * do not rely on its structure remaining in exactly its current form!</p>
+ *
+ * @author Bobulous <http://www.bobulous.org.uk/>
+ * @see IntegerInterval
+ */
+public final class DoubleInterval implements NumericInterval<Double> {
+
+	/*
+	An unbounded endpoint is stored as the infinity on its side, and is treated
+	as closed when testing membership, so that the membership test needs no
+	special case for unbounded endpoints. The flags byte still records whether
+	each endpoint is unbounded, and the mode which was specified for it, so that
+	the Interval accessor methods report exactly what was supplied.
+	*/
+	private final double lower;
+	private final double upper;
+	private final byte flags;
+
+	// Flag bits share their layout with IntegerInterval.
+	private static final byte LOWER_CLOSED = IntegerInterval.LOWER_CLOSED;
+	private static final byte UPPER_CLOSED = IntegerInterval.UPPER_CLOSED;
+	private static final byte LOWER_UNBOUNDED = IntegerInterval.LOWER_UNBOUNDED;
+	private static final byte UPPER_UNBOUNDED = IntegerInterval.UPPER_UNBOUNDED;
+
+	/**
+	 * An interval which permits no values: the empty set. Note that the
+	 * endpoint values are arbitrary and that any <code>DoubleInterval</code>
+	 * which is empty is considered equal to this instance of the empty set.
+	 */
+	public static final DoubleInterval EMPTY_SET = new DoubleInterval(0.0, 0.0,
+			(byte) 0);
+
+	/**
+	 * An interval which includes all <code>Double</code> values other than
+	 * <code>NaN</code>.
+	 */
+	public static final DoubleInterval UNBOUNDED = new DoubleInterval(0.0, 0.0,
+			(byte) (LOWER_UNBOUNDED | UPPER_UNBOUNDED));
+
+	/**
+	 * An interval which includes zero, one, and every value between the two.
+	 */
+	public static final DoubleInterval ZERO_TO_ONE = new DoubleInterval(0.0,
+			1.0, (byte) (LOWER_CLOSED | UPPER_CLOSED));
+
+	/**
+	 * An interval which includes zero and every value greater than zero.
+	 */
+	public static final DoubleInterval ZERO_OR_MORE = new DoubleInterval(0.0,
+			0.0, (byte) (LOWER_CLOSED | UPPER_UNBOUNDED));
+
+	/*
+	Private constructors because static methods are provided for the creation of
+	intervals with different endpoint modes.
+	*/
+	private DoubleInterval(double lower, double upper, byte flags) {
+		if ((flags & LOWER_UNBOUNDED) != 0) {
+			lower = Double.NEGATIVE_INFINITY;
+		}
+		if ((flags & UPPER_UNBOUNDED) != 0) {
+			upper = Double.POSITIVE_INFINITY;
+		}
+		if (Double.isNaN(lower) || Double.isNaN(upper)) {
+			throw new IllegalArgumentException("Cannot create a DoubleInterval "
+					+ "with an endpoint value of NaN. Lower endpoint is: "
+					+ lower + ", and upper endpoint: " + upper);
+		}
+		// Adding positive zero turns negative zero into positive zero and
+		// leaves every other value unchanged.
+		this.lower = lower + 0.0;
+		this.upper = upper + 0.0;
+		this.flags = flags;
+	}
+
+	private DoubleInterval(EndpointMode lowerMode, Double lower, Double upper,
+			EndpointMode upperMode) {
+		this(lower == null ? 0.0 : lower, upper == null ? 0.0 : upper,
+				IntegerInterval.flagsFor(lowerMode, lower == null, upper
+						== null, upperMode));
+	}
+
+	/**
+	 * Returns a <code>DoubleInterval</code> which has exactly the same
+	 * endpoint values and modes as the given interval. If the given interval
+	 * is already a <code>DoubleInterval</code> then it is returned as is.
+	 *
+	 * @param interval the interval to convert.
+	 * @return a <code>DoubleInterval</code> equivalent to the given interval.
+	 * @throws IllegalArgumentException if either endpoint of the given
+	 * interval is <code>NaN</code>.
+	 */
+	static DoubleInterval valueOf(Interval<Double> interval) {
+		if (interval instanceof DoubleInterval) {
+			return (DoubleInterval) interval;
+		}
+		return new DoubleInterval(interval.getLowerEndpointMode(), interval.
+				getLowerEndpoint(), interval.getUpperEndpoint(), interval.
+				getUpperEndpointMode());
+	}
+
+	/**
+	 * Constructs a closed interval with the given double endpoint values.
+	 *
+	 * @param lower the value of the lower endpoint or <code>null</code> if the
+	 * lower endpoint is unbounded (infinite).
+	 * @param upper the value of the upper endpoint or <code>null</code> if the
+	 * upper endpoint is unbounded (infinite).
+	 * @return a <code>DoubleInterval</code> with the given endpoint values and
+	 * both endpoint modes set to <code>EndpointMode.CLOSED</code>.
+	 * @throws IllegalArgumentException if either endpoint value is
+	 * <code>NaN</code>.
+	 */
+	public static final DoubleInterval closed(Double lower, Double upper) {
+		return new DoubleInterval(EndpointMode.CLOSED, lower, upper,
+				EndpointMode.CLOSED);
+	}
+
+	/**
+	 * Constructs an open interval with the given double endpoint values.
+	 *
+	 * @param lower the value of the lower endpoint or <code>null</code> if the
+	 * lower endpoint is unbounded (infinite).
+	 * @param upper the value of the upper endpoint or <code>null</code> if the
+	 * upper endpoint is unbounded (infinite).
+	 * @return a <code>DoubleInterval</code> with the given endpoint values and
+	 * both endpoint modes set to <code>EndpointMode.OPEN</code>.
+	 * @throws IllegalArgumentException if either endpoint value is
+	 * <code>NaN</code>.
+	 */
+	public static final DoubleInterval open(Double lower, Double upper) {
+		return new DoubleInterval(EndpointMode.OPEN, lower, upper,
+				EndpointMode.OPEN);
+	}
+
+	/**
+	 * Constructs a left-closed interval with the given double endpoint values.
+	 *
+	 * @param lower the value of the lower endpoint or <code>null</code> if the
+	 * lower endpoint is unbounded (infinite).
+	 * @param upper the value of the upper endpoint or <code>null</code> if the
+	 * upper endpoint is unbounded (infinite).
+	 * @return a <code>DoubleInterval</code> with the given endpoint values and
+	 * the lower endpoint mode set to <code>EndpointMode.CLOSED</code> and the
+	 * upper endpoint mode set to <code>EndpointMode.OPEN</code>.
+	 * @throws IllegalArgumentException if either endpoint value is
+	 * <code>NaN</code>.
+	 */
+	public static final DoubleInterval leftClosed(Double lower, Double upper) {
+		return new DoubleInterval(EndpointMode.CLOSED, lower, upper,
+				EndpointMode.OPEN);
+	}
+
+	/**
+	 * Constructs a right-closed interval with the given double endpoint
+	 * values.
+	 *
+	 * @param lower the value of the lower endpoint or <code>null</code> if the
+	 * lower endpoint is unbounded (infinite).
+	 * @param upper the value of the upper endpoint or <code>null</code> if the
+	 * upper endpoint is unbounded (infinite).
+	 * @return a <code>DoubleInterval</code> with the given endpoint values and
+	 * the lower endpoint mode set to <code>EndpointMode.OPEN</code> and the
+	 * upper endpoint mode set to <code>EndpointMode.CLOSED</code>.
+	 * @throws IllegalArgumentException if either endpoint value is
+	 * <code>NaN</code>.
+	 */
+	public static final DoubleInterval rightClosed(Double lower, Double upper) {
+		return new DoubleInterval(EndpointMode.OPEN, lower, upper,
+				EndpointMode.CLOSED);
+	}
+
+	/**
+	 * Constructs a bounded closed interval with the given primitive endpoint
+	 * values, without boxing either value.
+	 *
+	 * @param lower the value of the lower endpoint.
+	 * @param upper the value of the upper endpoint.
+	 * @return a <code>DoubleInterval</code> with the given endpoint values and
+	 * both endpoint modes set to <code>EndpointMode.CLOSED</code>.
+	 * @throws IllegalArgumentException if either endpoint value is
+	 * <code>NaN</code>.
+	 */
+	public static final DoubleInterval closed(double lower, double upper) {
+		return new DoubleInterval(lower, upper, (byte) (LOWER_CLOSED
+				| UPPER_CLOSED));
+	}
+
+	/**
+	 * Constructs a bounded open interval with the given primitive endpoint
+	 * values, without boxing either value.
+	 *
+	 * @param lower the value of the lower endpoint.
+	 * @param upper the value of the upper endpoint.
+	 * @return a <code>DoubleInterval</code> with the given endpoint values and
+	 * both endpoint modes set to <code>EndpointMode.OPEN</code>.
+	 * @throws IllegalArgumentException if either endpoint value is
+	 * <code>NaN</code>.
+	 */
+	public static final DoubleInterval open(double lower, double upper) {
+		return new DoubleInterval(lower, upper, (byte) 0);
+	}
+
+	/**
+	 * Constructs a bounded left-closed interval with the given primitive
+	 * endpoint values, without boxing either value.
+	 *
+	 * @param lower the value of the lower endpoint.
+	 * @param upper the value of the upper endpoint.
+	 * @return a <code>DoubleInterval</code> with the given endpoint values and
+	 * the lower endpoint mode set to <code>EndpointMode.CLOSED</code> and the
+	 * upper endpoint mode set to <code>EndpointMode.OPEN</code>.
+	 * @throws IllegalArgumentException if either endpoint value is
+	 * <code>NaN</code>.
+	 */
+	public static final DoubleInterval leftClosed(double lower, double upper) {
+		return new DoubleInterval(lower, upper, LOWER_CLOSED);
+	}
+
+	/**
+	 * Constructs a bounded right-closed interval with the given primitive
+	 * endpoint values, without boxing either value.
+	 *
+	 * @param lower the value of the lower endpoint.
+	 * @param upper the value of the upper endpoint.
+	 * @return a <code>DoubleInterval</code> with the given endpoint values and
+	 * the lower endpoint mode set to <code>EndpointMode.OPEN</code> and the
+	 * upper endpoint mode set to <code>EndpointMode.CLOSED</code>.
+	 * @throws IllegalArgumentException if either endpoint value is
+	 * <code>NaN</code>.
+	 */
+	public static final DoubleInterval rightClosed(double lower, double upper) {
+		return new DoubleInterval(lower, upper, UPPER_CLOSED);
+	}
+
+	/**
+	 * Reports on whether the lower endpoint permits its own stored value. This
+	 * is true for a closed lower endpoint and for an unbounded lower endpoint
+	 * (which is stored as negative infinity).
+	 */
+	private boolean lowerInclusive() {
+		return (flags & (LOWER_CLOSED | LOWER_UNBOUNDED)) != 0;
+	}
+
+	/**
+	 * Reports on whether the upper endpoint permits its own stored value. This
+	 * is true for a closed upper endpoint and for an unbounded upper endpoint
+	 * (which is stored as positive infinity).
+	 */
+	private boolean upperInclusive() {
+		return (flags & (UPPER_CLOSED | UPPER_UNBOUNDED)) != 0;
+	}
+
+	@Override
+	public Double width() {
+		if (this.isEmpty()) {
+			return 0.0;
+		}
+		if ((flags & (LOWER_UNBOUNDED | UPPER_UNBOUNDED)) != 0) {
+			return null;
+		}
+		return upper - lower;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		// Between two distinct values there is always another double value,
+		// so an interval can only be empty if its endpoints are reversed, or
+		// if they are equal and at least one of them excludes that value.
+		return upper < lower || (upper == lower && !(lowerInclusive()
+				&& upperInclusive()));
+	}
+
+	/**
+	 * Compares the lower endpoint of this interval with the lower endpoint of
+	 * the specified interval, in terms of which values each permits.
+	 *
+	 * @param that the interval whose lower endpoint should be compared with
+	 * that of this interval.
+	 * @return a negative integer, zero or a positive integer as the lower
+	 * endpoint of this interval is lesser than, equivalent to, or greater than
+	 * the lower endpoint of the specified interval.
+	 */
+	private int compareLowerEndpoints(DoubleInterval that) {
+		if (this.lower != that.lower) {
+			return this.lower < that.lower ? -1 : 1;
+		}
+		// An inclusive lower endpoint is the lesser of two identical values.
+		return (that.lowerInclusive() ? 1 : 0) - (this.lowerInclusive() ? 1
+				: 0);
+	}
+
+	/**
+	 * Compares the upper endpoint of this interval with the upper endpoint of
+	 * the specified interval, in terms of which values each permits.
+	 *
+	 * @param that the interval whose upper endpoint should be compared with
+	 * that of this interval.
+	 * @return a negative integer, zero or a positive integer as the upper
+	 * endpoint of this interval is lesser than, equivalent to, or greater than
+	 * the upper endpoint of the specified interval.
+	 */
+	private int compareUpperEndpoints(DoubleInterval that) {
+		if (this.upper != that.upper) {
+			return this.upper < that.upper ? -1 : 1;
+		}
+		// An exclusive upper endpoint is the lesser of two identical values.
+		return (this.upperInclusive() ? 1 : 0) - (that.upperInclusive() ? 1
+				: 0);
+	}
+
+	@Override
+	public boolean intersectsWith(NumericInterval<Double> interval) {
+		if (interval == null) {
+			throw new NullPointerException("Cannot pass a null value to "
+					+ "intersects(Interval<T>).");
+		}
+		return intersectsWith(valueOf(interval));
+	}
+
+	/**
+	 * Reports on whether this interval intersects with the specified
+	 * <code>DoubleInterval</code>, working directly on the primitive endpoint
+	 * values of both intervals.
+	 *
+	 * @param interval the interval to check for an intersection with this
+	 * interval.
+	 * @return <code>true</code> if this interval intersects the specified
+	 * interval; <code>false</code> otherwise.
+	 */
+	public boolean intersectsWith(DoubleInterval interval) {
+		if (interval == null) {
+			throw new NullPointerException("Cannot pass a null value to "
+					+ "intersects(Interval<T>).");
+		}
+		// If either interval is empty then there can be no intersection
+		if (this.isEmpty() || interval.isEmpty()) {
+			return false;
+		}
+		DoubleInterval lowerSource = this.compareLowerEndpoints(interval) >= 0
+				? this : interval;
+		DoubleInterval upperSource = this.compareUpperEndpoints(interval) <= 0
+				? this : interval;
+		double start = lowerSource.lower;
+		double end = upperSource.upper;
+		return start < end || (start == end && lowerSource.lowerInclusive()
+				&& upperSource.upperInclusive());
+	}
+
+	@Override
+	public NumericInterval<Double> intersection(
+			NumericInterval<Double> interval) {
+		Objects.requireNonNull(interval);
+		return intersection(valueOf(interval));
+	}
+
+	/**
+	 * Returns the interval which represents the intersection of this interval
+	 * with the specified <code>DoubleInterval</code>, working directly on the
+	 * primitive endpoint values of both intervals.
+	 *
+	 * @param interval the interval with which to intersect this interval.
+	 * @return a <code>DoubleInterval</code> which represents the intersection
+	 * of this interval with the specified interval, or {@link #EMPTY_SET} if no
+	 * intersection exists.
+	 */
+	public DoubleInterval intersection(DoubleInterval interval) {
+		Objects.requireNonNull(interval);
+		if (!this.intersectsWith(interval)) {
+			return EMPTY_SET;
+		}
+		DoubleInterval lowerSource = this.compareLowerEndpoints(interval) >= 0
+				? this : interval;
+		DoubleInterval upperSource = this.compareUpperEndpoints(interval) <= 0
+				? this : interval;
+		return fromEndpointsOf(lowerSource, upperSource);
+	}
+
+	@Override
+	public boolean unitesWith(NumericInterval<Double> interval) {
+		Objects.requireNonNull(interval);
+		return unitesWith(valueOf(interval));
+	}
+
+	/**
+	 * Reports on whether a single interval exists which describes the union of
+	 * this interval with the specified <code>DoubleInterval</code>, working
+	 * directly on the primitive endpoint values of both intervals.
+	 *
+	 * @param interval the interval to check for a union with this interval.
+	 * @return <code>true</code> if a single interval exists which represents
+	 * the entire union of this interval with the given interval;
+	 * <code>false</code> otherwise.
+	 */
+	public boolean unitesWith(DoubleInterval interval) {
+		Objects.requireNonNull(interval);
+		// If either interval is empty then there can be no union.
+		if (this.isEmpty() || interval.isEmpty()) {
+			return false;
+		}
+		if (this.intersectsWith(interval)) {
+			return true;
+		}
+		// The two intervals can still form a union if they adjoin at a shared
+		// endpoint value which is included by one or both of them.
+		DoubleInterval first, second;
+		if (this.compareLowerEndpoints(interval) <= 0) {
+			first = this;
+			second = interval;
+		} else {
+			first = interval;
+			second = this;
+		}
+		return first.upper == second.lower && (first.upperInclusive()
+				|| second.lowerInclusive());
+	}
+
+	@Override
+	public NumericInterval<Double> union(NumericInterval<Double> interval) {
+		Objects.requireNonNull(interval);
+		return union(valueOf(interval));
+	}
+
+	/**
+	 * Returns the interval which represents the union of this interval with
+	 * the specified <code>DoubleInterval</code>, or <code>null</code> if no
+	 * single interval can represent the union of the two sets.
+	 *
+	 * @param interval the interval with which this interval should form a
+	 * union.
+	 * @return a <code>DoubleInterval</code> which represents the union of this
+	 * interval with the specified interval, or <code>null</code> if no union
+	 * exists.
+	 */
+	public DoubleInterval union(DoubleInterval interval) {
+		if (!this.unitesWith(interval)) {
+			return null;
+		}
+		DoubleInterval lowerSource = this.compareLowerEndpoints(interval) <= 0
+				? this : interval;
+		DoubleInterval upperSource = this.compareUpperEndpoints(interval) >= 0
+				? this : interval;
+		return fromEndpointsOf(lowerSource, upperSource);
+	}
+
+	/**
+	 * Returns an interval which takes its lower endpoint from one interval and
+	 * its upper endpoint from another. If both endpoints come from the same
+	 * interval then that interval is returned rather than a copy.
+	 *
+	 * @param lowerSource the interval which supplies the lower endpoint.
+	 * @param upperSource the interval which supplies the upper endpoint.
+	 * @return an interval with the lower endpoint of the first argument and
+	 * the upper endpoint of the second.
+	 */
+	private static DoubleInterval fromEndpointsOf(DoubleInterval lowerSource,
+			DoubleInterval upperSource) {
+		if (lowerSource == upperSource) {
+			return lowerSource;
+		}
+		byte lowerFlags = (byte) (lowerSource.flags & (LOWER_CLOSED
+				| LOWER_UNBOUNDED));
+		byte upperFlags = (byte) (upperSource.flags & (UPPER_CLOSED
+				| UPPER_UNBOUNDED));
+		return new DoubleInterval(lowerSource.lower, upperSource.upper,
+				(byte) (lowerFlags | upperFlags));
+	}
+
+	@Override
+	public Double getLowerEndpoint() {
+		return (flags & LOWER_UNBOUNDED) != 0 ? null : lower;
+	}
+
+	@Override
+	public Double getUpperEndpoint() {
+		return (flags & UPPER_UNBOUNDED) != 0 ? null : upper;
+	}
+
+	@Override
+	public EndpointMode getLowerEndpointMode() {
+		return (flags & LOWER_CLOSED) != 0 ? EndpointMode.CLOSED
+				: EndpointMode.OPEN;
+	}
+
+	@Override
+	public EndpointMode getUpperEndpointMode() {
+		return (flags & UPPER_CLOSED) != 0 ? EndpointMode.CLOSED
+				: EndpointMode.OPEN;
+	}
+
+	@Override
+	public boolean includes(Double value) {
+		Objects.requireNonNull(value);
+		return includes(value.doubleValue());
+	}
+
+	/**
+	 * Reports on whether this interval includes the specified primitive double
+	 * value. <code>Double.NaN</code> is never included, and negative zero is
+	 * treated as equal to positive zero.
+	 *
+	 * @param value the value to test.
+	 * @return <code>true</code> if the specified value is contained by this
+	 * interval; <code>false</code> otherwise.
+	 */
+	public boolean includes(double value) {
+		// Unbounded endpoints are stored as infinities and are inclusive, so
+		// no special case is needed for them. Every comparison with NaN is
+		// false, so NaN is rejected without a special case too.
+		return (lowerInclusive() ? lower <= value : lower < value)
+				&& (upperInclusive() ? value <= upper : value < upper);
+	}
+
+	/**
+	 * Reports on whether this interval includes each of the specified
+	 * primitive double values. On return, <code>out[i]</code> is
+	 * <code>true</code> if <code>values[i]</code> is included by this
+	 * interval, and <code>false</code> otherwise. Elements of <code>out</code>
+	 * beyond <code>values.length</code> are left unchanged.
+	 * <code>Double.NaN</code> is never included.
+	 *
+	 * @param values the values to test.
+	 * @param out the array which will receive the result for each value.
+	 * @throws NullPointerException if either array is <code>null</code>.
+	 * @throws IllegalArgumentException if <code>out</code> is shorter than
+	 * <code>values</code>.
+	 */
+	public void includes(double[] values, boolean[] out) {
+		checkBatchArrays(values.length, out.length);
+		// The endpoint modes are resolved once, outside of the loop, into a
+		// pair of inclusive bounds, leaving a loop body with no branches.
+		double least = leastIncluded(), greatest = greatestIncluded();
+		for (int i = 0; i < values.length; ++i) {
+			double value = values[i];
+			out[i] = least <= value & value <= greatest;
+		}
+	}
+
+	/**
+	 * Counts the number of the specified primitive double values which are
+	 * included by this interval. Repeated values are counted each time they
+	 * appear.
+	 *
+	 * @param values the values to test.
+	 * @return the number of elements of <code>values</code> which are included
+	 * by this interval.
+	 * @throws NullPointerException if <code>values</code> is
+	 * <code>null</code>.
+	 */
+	public int countIncluded(double[] values) {
+		double least = leastIncluded(), greatest = greatestIncluded();
+		int count = 0;
+		for (double value : values) {
+			count += least <= value & value <= greatest ? 1 : 0;
+		}
+		return count;
+	}
+
+	/**
+	 * Copies those of the specified primitive double values which are included
+	 * by this interval into the start of the <code>out</code> array, keeping
+	 * their original order. Elements of <code>out</code> from the returned
+	 * count onward hold unspecified values on return.
+	 *
+	 * @param in the values to filter.
+	 * @param out the array which will receive the included values. It must be
+	 * at least as long as <code>in</code>, and may be the same array as
+	 * <code>in</code>.
+	 * @return the number of values written to <code>out</code>.
+	 * @throws NullPointerException if either array is <code>null</code>.
+	 * @throws IllegalArgumentException if <code>out</code> is shorter than
+	 * <code>in</code>.
+	 */
+	public int filter(double[] in, double[] out) {
+		checkBatchArrays(in.length, out.length);
+		double least = leastIncluded(), greatest = greatestIncluded();
+		int count = 0;
+		for (int i = 0; i < in.length; ++i) {
+			double value = in[i];
+			// Always write, and only advance past the value if it is included.
+			// Because count never exceeds i, an in-place filter is safe.
+			out[count] = value;
+			count += least <= value & value <= greatest ? 1 : 0;
+		}
+		return count;
+	}
+
+	/**
+	 * Checks that a result array is long enough to receive one element for
+	 * every element of the source array.
+	 */
+	private static void checkBatchArrays(int sourceLength, int resultLength) {
+		if (resultLength < sourceLength) {
+			throw new IllegalArgumentException("Result array length "
+					+ resultLength + " is less than source array length "
+					+ sourceLength + ".");
+		}
+	}
+
+	/**
+	 * Returns the least <code>double</code> value permitted by the lower
+	 * endpoint of this interval, replacing an open endpoint with the next
+	 * representable value above it. Returns <code>NaN</code> (with which every
+	 * comparison is false) if the lower endpoint permits no value at all.
+	 */
+	private double leastIncluded() {
+		if (lowerInclusive()) {
+			return lower;
+		}
+		return lower == Double.POSITIVE_INFINITY ? Double.NaN : Math.nextUp(
+				lower);
+	}
+
+	/**
+	 * Returns the greatest <code>double</code> value permitted by the upper
+	 * endpoint of this interval, replacing an open endpoint with the next
+	 * representable value below it. Returns <code>NaN</code> (with which every
+	 * comparison is false) if the upper endpoint permits no value at all.
+	 */
+	private double greatestIncluded() {
+		if (upperInclusive()) {
+			return upper;
+		}
+		return upper == Double.NEGATIVE_INFINITY ? Double.NaN : Math.nextDown(
+				upper);
+	}
+
+	@Override
+	public boolean includes(Interval<Double> interval) {
+		Objects.requireNonNull(interval);
+		DoubleInterval that = valueOf(interval);
+		if (that.isEmpty()) {
+			// Every interval contains the empty set.
+			return true;
+		}
+		return this.compareLowerEndpoints(that) <= 0 && this.
+				compareUpperEndpoints(that) >= 0;
+	}
+
+	/**
+	 * Returns a hash code based on the normalized endpoint values and modes of
+	 * this interval. Two <code>DoubleInterval</code> objects which are considered
+	 * equal according to the <code>equals</code> method will cause this method
+	 * to return an identical hash value.
+	 *
+	 * @return a hash code based on the endpoint values and modes of this
+	 * interval.
+	 */
+	@Override
+	public int hashCode() {
+		if (this.isEmpty()) {
+			return 0;
+		}
+		int hash = 7;
+		hash = 79 * hash + Double.hashCode(lower);
+		hash = 79 * hash + Double.hashCode(upper);
+		hash = 79 * hash + (lowerInclusive() ? 1 : 0);
+		hash = 79 * hash + (upperInclusive() ? 1 : 0);
+		return hash;
+	}
+
+	/**
+	 * Reports on whether the specified object is a
+	 * <code>DoubleInterval</code> with the same endpoint values and modes as
+	 * this interval, once each has been normalized: negative zero is stored as
+	 * positive zero, and an unbounded endpoint is treated as a closed endpoint
+	 * whose value is the infinity on the same side.
+	 * <p>
+	 * Endpoint values are not adjusted to their neighbouring
+	 * <code>double</code> values, so the interval (0.0, 1.0) is not equal to
+	 * the interval [<code>Math.nextUp(0.0)</code>,
+	 * <code>Math.nextDown(1.0)</code>] even though both include exactly the
+	 * same values.</p>
+	 * <p>
+	 * Note that any two intervals representing the empty set are considered
+	 * equal regardless of their actual endpoint values.</p>
+	 *
+	 * @param obj the <code>Object</code> to test for equality.
+	 * @return <code>true</code> if the supplied <code>Object</code> is a
+	 * <code>DoubleInterval</code> whose normalized endpoint values and modes
+	 * are the same as those of this interval.
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof DoubleInterval)) {
+			return false;
+		}
+		DoubleInterval that = (DoubleInterval) obj;
+		boolean thisEmpty = this.isEmpty();
+		boolean thatEmpty = that.isEmpty();
+		if (thisEmpty || thatEmpty) {
+			return thisEmpty == thatEmpty;
+		}
+		return this.lower == that.lower && this.upper == that.upper
+				&& this.lowerInclusive() == that.lowerInclusive()
+				&& this.upperInclusive() == that.upperInclusive();
+	}
+
+	/**
+	 * Produces a <code>String</code> which represents this interval in
+	 * mathematical notation.
+	 * <p>
+	 * A square bracket indicates a closed endpoint, and a parenthesis indicates
+	 * an open endpoint.</p>
+	 * <p>
+	 * An unbounded lower endpoint will be represented by "−∞" and an unbounded
+	 * upper endpoint by "+∞".</p>
+	 *
+	 * @return a <code>String</code> which contains the mathematical notation of
+	 * this interval.
+	 */
+	public String inMathematicalNotation() {
+		String lowerString = (flags & LOWER_UNBOUNDED) != 0 ? "−∞" : Double.
+				toString(lower);
+		String upperString = (flags & UPPER_UNBOUNDED) != 0 ? "+∞" : Double.
+				toString(upper);
+
+		int totalLength = 4 + lowerString.length() + upperString.length();
+		StringBuilder sb = new StringBuilder(totalLength);
+
+		sb.append((flags & LOWER_CLOSED) != 0 ? '[' : '(');
+		sb.append(lowerString);
+		sb.append(", ");
+		sb.append(upperString);
+		sb.append((flags & UPPER_CLOSED) != 0 ? ']' : ')');
+
+		return sb.toString();
+	}
+
+	@Override
+	public String toString() {
+		return "DoubleInterval: " + inMathematicalNotation();
+	}
+}
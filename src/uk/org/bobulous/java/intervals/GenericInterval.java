@@ -7,6 +7,7 @@
  */
 package uk.org.bobulous.java.intervals;
 
+import java.io.IOException;
 import uk.org.bobulous.java.intervals.Interval.EndpointMode;
 
 /**
@@ -358,37 +359,76 @@ public final class GenericInterval<T extends Comparable<T>> implements
 	 * <code>GenericInterval</code> in mathematical notation.
 	 */
 	public String inMathematicalNotation() {
-		StringBuilder sb = new StringBuilder();
-		if (this.lowerMode.equals(EndpointMode.CLOSED)) {
-			sb.append("[");
+		return appendTo(new StringBuilder(32)).toString();
+	}
+
+	/**
+	 * Appends the mathematical notation of this interval, exactly as produced
+	 * by {@link #inMathematicalNotation()}, to the given builder without
+	 * creating any intermediate <code>String</code> other than those returned
+	 * by the <code>toString</code> method of each endpoint value.
+	 *
+	 * @param builder the builder to append to.
+	 * @return the given builder.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public StringBuilder appendTo(StringBuilder builder) {
+		builder.append(this.lowerMode.equals(EndpointMode.CLOSED) ? '[' : '(');
+		if (this.lowerEndpoint == null) {
+			builder.append("−∞");
 		} else {
-			sb.append("(");
+			builder.append(this.lowerEndpoint.toString());
 		}
-		if (this.lowerEndpoint == null) {
-			sb.append("−∞");
+		builder.append(", ");
+		if (this.upperEndpoint == null) {
+			builder.append("+∞");
 		} else {
-			sb.append(this.lowerEndpoint.toString());
+			builder.append(this.upperEndpoint.toString());
 		}
+		return builder.append(this.upperMode.equals(EndpointMode.CLOSED) ? ']'
+				: ')');
+	}
 
-		sb.append(", ");
-
-		if (this.upperEndpoint == null) {
-			sb.append("+∞");
+	/**
+	 * Appends the mathematical notation of this interval, exactly as produced
+	 * by {@link #inMathematicalNotation()}, to the given
+	 * <code>Appendable</code> without creating any intermediate
+	 * <code>String</code> other than those returned by the
+	 * <code>toString</code> method of each endpoint value.
+	 *
+	 * @param appendable the destination to append to.
+	 * @return the given <code>Appendable</code>.
+	 * @throws IOException if the <code>Appendable</code> throws an
+	 * <code>IOException</code>.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public Appendable appendTo(Appendable appendable) throws IOException {
+		if (appendable instanceof StringBuilder) {
+			return appendTo((StringBuilder) appendable);
+		}
+		appendable.append(this.lowerMode.equals(EndpointMode.CLOSED) ? '['
+				: '(');
+		if (this.lowerEndpoint == null) {
+			appendable.append("−∞");
 		} else {
-			sb.append(this.upperEndpoint.toString());
+			appendable.append(this.lowerEndpoint.toString());
 		}
-		if (this.upperMode.equals(EndpointMode.CLOSED)) {
-			sb.append("]");
+		appendable.append(", ");
+		if (this.upperEndpoint == null) {
+			appendable.append("+∞");
 		} else {
-			sb.append(")");
+			appendable.append(this.upperEndpoint.toString());
 		}
-
-		return sb.toString();
+		return appendable.append(this.upperMode.equals(EndpointMode.CLOSED)
+				? ']' : ')');
 	}
 
 	@Override
 	public String toString() {
-		return "GenericInterval " + this.inMathematicalNotation();
+		return appendTo(new StringBuilder(48).append("GenericInterval "))
+				.toString();
 	}
 
 	/**
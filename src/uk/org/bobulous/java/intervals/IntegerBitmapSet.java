@@ -0,0 +1,485 @@
+/*
+ * Copyright © 2015 Bobulous <http://www.bobulous.org.uk/>.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package uk.org.bobulous.java.intervals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A set of <code>int</code> values drawn from a fixed, small universe, held
+ * as a bitmap with one bit for each integer in the universe.
+ * <p>
+ * The universe is a range of integers chosen when the set is constructed,
+ * such as [0, 65535] for port numbers or [1, 366] for days of the year. The
+ * set uses one bit for every integer in the universe whether or not it is a
+ * member, so this class suits universes of up to a few million integers, in
+ * which the members are dense or scattered. For sparse members which form a
+ * few long runs, {@link IntegerIntervalSet} is far more compact.</p>
+ * <p>
+ * Every <code>IntegerInterval</code> given to the set is first normalized
+ * (following the same rules as <code>IntegerInterval</code> uses for
+ * equality) so that it becomes a closed range of integers, in the same way as
+ * <code>IntegerIntervalSet</code> does. Adding or removing a range sets or
+ * clears whole 64-bit words at once, and {@link #union(IntegerBitmapSet)},
+ * {@link #intersection(IntegerBitmapSet)},
+ * {@link #difference(IntegerBitmapSet)} and {@link #complement()} each make a
+ * single pass combining the two bitmaps a word at a time.
+ * {@link #toIntervals()} skips from one run of members to the next using
+ * <code>Long.numberOfTrailingZeros</code>, so its cost depends on the number
+ * of words and runs rather than on the number of members.</p>
+ * <p>
+ * This class is not thread-safe. If a set is to be modified by one thread
+ * while being read or modified by another then access must be synchronized
+ * externally.</p>
+ *
+ * <p>
+ * <strong>WARNING:</strong> development and testing are still in early stages.
+ * Consider this class to be in its alpha testing phase. Use with caution, and
+ * do not rely on its structure remaining in exactly its current form!</p>
+ *
+ * @author Bobulous <http://www.bobulous.org.uk/>
+ * @see IntegerIntervalSet
+ */
+public final class IntegerBitmapSet {
+
+	/*
+	The least and greatest integers of the universe. Bit i of the bitmap
+	(bit i % 64 of words[i / 64]) represents the integer origin + i. Bits at
+	or beyond length, in the last word, are always clear.
+	*/
+	private final int origin;
+	private final int last;
+	private final long length;
+	private final long[] words;
+
+	/**
+	 * Constructs an empty <code>IntegerBitmapSet</code> whose universe is the
+	 * range of integers included by the specified interval.
+	 *
+	 * @param universe an interval which includes every integer which may be
+	 * added to the set. An unbounded endpoint is treated as
+	 * <code>Integer.MIN_VALUE</code> or <code>Integer.MAX_VALUE</code>, but
+	 * note that a set over the entire range of <code>int</code> values needs
+	 * 512 MiB.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * constructor.
+	 * @throws IllegalArgumentException if the universe includes no integers.
+	 */
+	public IntegerBitmapSet(IntegerInterval universe) {
+		Objects.requireNonNull(universe);
+		int least = universe.leastIncluded();
+		int greatest = universe.greatestIncluded();
+		if (least > greatest) {
+			throw new IllegalArgumentException("The universe of an "
+					+ "IntegerBitmapSet must include at least one integer.");
+		}
+		this.origin = least;
+		this.last = greatest;
+		this.length = (long) greatest - least + 1;
+		this.words = new long[(int) ((length + 63) >>> 6)];
+	}
+
+	/**
+	 * Constructs an <code>IntegerBitmapSet</code> over the specified universe
+	 * which includes every integer included by any of the given intervals.
+	 *
+	 * @param universe an interval which includes every integer which may be
+	 * added to the set.
+	 * @param intervals the intervals to add to the new set.
+	 * @throws NullPointerException if either argument, or any element of the
+	 * collection, is <code>null</code>.
+	 * @throws IllegalArgumentException if the universe includes no integers,
+	 * or if any of the intervals includes an integer outside the universe.
+	 */
+	public IntegerBitmapSet(IntegerInterval universe,
+			Collection<IntegerInterval> intervals) {
+		this(universe);
+		for (IntegerInterval interval : intervals) {
+			add(interval);
+		}
+	}
+
+	private IntegerBitmapSet(IntegerBitmapSet universeSource) {
+		this.origin = universeSource.origin;
+		this.last = universeSource.last;
+		this.length = universeSource.length;
+		this.words = new long[universeSource.words.length];
+	}
+
+	/**
+	 * Returns the universe of this set.
+	 *
+	 * @return a closed interval which includes every integer which may be a
+	 * member of this set.
+	 */
+	public IntegerInterval universe() {
+		return IntegerInterval.closed(origin, last);
+	}
+
+	/**
+	 * Reports on whether this set includes no integers.
+	 *
+	 * @return <code>true</code> if this set is empty.
+	 */
+	public boolean isEmpty() {
+		for (long word : words) {
+			if (word != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the number of integers included by this set.
+	 *
+	 * @return the number of integers in this set.
+	 */
+	public long cardinality() {
+		long total = 0;
+		for (long word : words) {
+			total += Long.bitCount(word);
+		}
+		return total;
+	}
+
+	/**
+	 * Removes every integer from this set.
+	 */
+	public void clear() {
+		Arrays.fill(words, 0);
+	}
+
+	/**
+	 * Reports on whether this set includes the specified value. A value
+	 * outside the universe of this set is never included.
+	 *
+	 * @param value the value to test.
+	 * @return <code>true</code> if this set includes the value.
+	 */
+	public boolean contains(int value) {
+		if (value < origin || value > last) {
+			return false;
+		}
+		long bit = (long) value - origin;
+		return (words[(int) (bit >>> 6)] & (1L << bit)) != 0;
+	}
+
+	/**
+	 * Reports on whether this set includes every integer which is included by
+	 * the specified interval. An empty interval is contained by every set.
+	 *
+	 * @param interval the interval to test.
+	 * @return <code>true</code> if every integer in the interval is in this
+	 * set.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public boolean contains(IntegerInterval interval) {
+		Objects.requireNonNull(interval);
+		int least = interval.leastIncluded();
+		int greatest = interval.greatestIncluded();
+		if (least > greatest) {
+			return true;
+		}
+		if (least < origin || greatest > last) {
+			return false;
+		}
+		long from = (long) least - origin;
+		return nextClearBit(from) > (long) greatest - origin;
+	}
+
+	/**
+	 * Adds the specified value to this set.
+	 *
+	 * @param value the value to add.
+	 * @throws IllegalArgumentException if the value is outside the universe of
+	 * this set.
+	 */
+	public void add(int value) {
+		long bit = bitOf(value);
+		words[(int) (bit >>> 6)] |= 1L << bit;
+	}
+
+	/**
+	 * Removes the specified value from this set. Removing a value outside the
+	 * universe of this set has no effect.
+	 *
+	 * @param value the value to remove.
+	 */
+	public void remove(int value) {
+		if (value >= origin && value <= last) {
+			long bit = (long) value - origin;
+			words[(int) (bit >>> 6)] &= ~(1L << bit);
+		}
+	}
+
+	/**
+	 * Adds every integer included by the specified interval to this set.
+	 *
+	 * @param interval the interval to add.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 * @throws IllegalArgumentException if the interval includes an integer
+	 * outside the universe of this set.
+	 */
+	public void add(IntegerInterval interval) {
+		Objects.requireNonNull(interval);
+		int least = interval.leastIncluded();
+		int greatest = interval.greatestIncluded();
+		if (least <= greatest) {
+			fill(bitOf(least), bitOf(greatest), true);
+		}
+	}
+
+	/**
+	 * Removes every integer included by the specified interval from this set.
+	 * The part of the interval which lies outside the universe of this set is
+	 * ignored.
+	 *
+	 * @param interval the interval to remove.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public void remove(IntegerInterval interval) {
+		Objects.requireNonNull(interval);
+		int least = Math.max(interval.leastIncluded(), origin);
+		int greatest = Math.min(interval.greatestIncluded(), last);
+		if (least <= greatest) {
+			fill((long) least - origin, (long) greatest - origin, false);
+		}
+	}
+
+	private long bitOf(int value) {
+		if (value < origin || value > last) {
+			throw new IllegalArgumentException("The value " + value
+					+ " lies outside the universe [" + origin + ", " + last
+					+ "] of this IntegerBitmapSet.");
+		}
+		return (long) value - origin;
+	}
+
+	/**
+	 * Sets or clears every bit from <var>from</var> to <var>to</var>
+	 * (inclusive), a whole word at a time between the two partial end words.
+	 */
+	private void fill(long from, long to, boolean set) {
+		int firstWord = (int) (from >>> 6), lastWord = (int) (to >>> 6);
+		long firstMask = -1L << from;
+		long lastMask = -1L >>> (63 - (to & 63));
+		if (firstWord == lastWord) {
+			apply(firstWord, firstMask & lastMask, set);
+			return;
+		}
+		apply(firstWord, firstMask, set);
+		Arrays.fill(words, firstWord + 1, lastWord, set ? -1L : 0L);
+		apply(lastWord, lastMask, set);
+	}
+
+	private void apply(int word, long mask, boolean set) {
+		if (set) {
+			words[word] |= mask;
+		} else {
+			words[word] &= ~mask;
+		}
+	}
+
+	/**
+	 * Returns the index of the first set bit at or after the given index, or
+	 * -1 if there is none.
+	 */
+	private long nextSetBit(long from) {
+		if (from >= length) {
+			return -1;
+		}
+		int w = (int) (from >>> 6);
+		long word = words[w] & (-1L << from);
+		while (word == 0) {
+			if (++w == words.length) {
+				return -1;
+			}
+			word = words[w];
+		}
+		return ((long) w << 6) + Long.numberOfTrailingZeros(word);
+	}
+
+	/**
+	 * Returns the index of the first clear bit at or after the given index.
+	 * As the bits beyond the universe are always clear, this is at most
+	 * <code>length</code>.
+	 */
+	private long nextClearBit(long from) {
+		int w = (int) (from >>> 6);
+		long word = ~words[w] & (-1L << from);
+		while (word == 0) {
+			if (++w == words.length) {
+				return length;
+			}
+			word = ~words[w];
+		}
+		return ((long) w << 6) + Long.numberOfTrailingZeros(word);
+	}
+
+	private void requireSameUniverse(IntegerBitmapSet other) {
+		Objects.requireNonNull(other);
+		if (this.origin != other.origin || this.last != other.last) {
+			throw new IllegalArgumentException("Cannot combine sets with "
+					+ "different universes.");
+		}
+	}
+
+	/**
+	 * Returns a new set over the same universe which includes every integer
+	 * in the universe which is not included by this set.
+	 *
+	 * @return the complement of this set within its universe.
+	 */
+	public IntegerBitmapSet complement() {
+		IntegerBitmapSet result = new IntegerBitmapSet(this);
+		for (int i = 0; i < words.length; ++i) {
+			result.words[i] = ~words[i];
+		}
+		// Keep the bits beyond the end of the universe clear.
+		int tail = (int) (length & 63);
+		if (tail != 0) {
+			result.words[words.length - 1] &= -1L >>> (64 - tail);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a new set which includes every integer included by this set or
+	 * by the specified set (or by both).
+	 *
+	 * @param other the set with which to form a union.
+	 * @return the union of the two sets.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 * @throws IllegalArgumentException if the two sets have different
+	 * universes.
+	 */
+	public IntegerBitmapSet union(IntegerBitmapSet other) {
+		requireSameUniverse(other);
+		IntegerBitmapSet result = new IntegerBitmapSet(this);
+		for (int i = 0; i < words.length; ++i) {
+			result.words[i] = this.words[i] | other.words[i];
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a new set which includes every integer included by both this set
+	 * and the specified set.
+	 *
+	 * @param other the set with which to form an intersection.
+	 * @return the intersection of the two sets.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 * @throws IllegalArgumentException if the two sets have different
+	 * universes.
+	 */
+	public IntegerBitmapSet intersection(IntegerBitmapSet other) {
+		requireSameUniverse(other);
+		IntegerBitmapSet result = new IntegerBitmapSet(this);
+		for (int i = 0; i < words.length; ++i) {
+			result.words[i] = this.words[i] & other.words[i];
+		}
+		return result;
+	}
+
+	/**
+	 * Returns a new set which includes every integer included by this set but
+	 * not by the specified set.
+	 *
+	 * @param other the set whose integers should be excluded.
+	 * @return the difference of the two sets.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 * @throws IllegalArgumentException if the two sets have different
+	 * universes.
+	 */
+	public IntegerBitmapSet difference(IntegerBitmapSet other) {
+		requireSameUniverse(other);
+		IntegerBitmapSet result = new IntegerBitmapSet(this);
+		for (int i = 0; i < words.length; ++i) {
+			result.words[i] = this.words[i] & ~other.words[i];
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the members of this set as a list of maximal closed intervals in
+	 * ascending order. No two of the intervals overlap or adjoin.
+	 *
+	 * @return a list of closed <code>IntegerInterval</code> objects which
+	 * together include exactly the integers in this set.
+	 */
+	public List<IntegerInterval> toIntervals() {
+		List<IntegerInterval> intervals = new ArrayList<>();
+		for (long start = nextSetBit(0); start >= 0;) {
+			long end = nextClearBit(start);
+			intervals.add(IntegerInterval.closed((int) (origin + start),
+					(int) (origin + end - 1)));
+			start = nextSetBit(end);
+		}
+		return intervals;
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 7;
+		hash = 79 * hash + origin;
+		hash = 79 * hash + last;
+		hash = 79 * hash + Arrays.hashCode(words);
+		return hash;
+	}
+
+	/**
+	 * Reports on whether the specified object is an
+	 * <code>IntegerBitmapSet</code> which has the same universe as this set
+	 * and includes exactly the same integers.
+	 *
+	 * @param obj the <code>Object</code> to test for equality.
+	 * @return <code>true</code> if the supplied <code>Object</code> is an
+	 * <code>IntegerBitmapSet</code> with the same universe and members as
+	 * this set.
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof IntegerBitmapSet)) {
+			return false;
+		}
+		IntegerBitmapSet that = (IntegerBitmapSet) obj;
+		return this.origin == that.origin && this.last == that.last && Arrays.
+				equals(this.words, that.words);
+	}
+
+	/**
+	 * Produces a <code>String</code> which lists the members of this set as
+	 * ranges in mathematical notation, such as <samp>{[1, 3], [7, 9]}</samp>.
+	 *
+	 * @return a <code>String</code> which represents this set.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append('{');
+		for (IntegerInterval interval : toIntervals()) {
+			if (sb.length() > 1) {
+				sb.append(", ");
+			}
+			sb.append('[').append(interval.getLowerEndpoint()).append(", ").
+					append(interval.getUpperEndpoint()).append(']');
+		}
+		sb.append('}');
+		return sb.toString();
+	}
+}
@@ -7,7 +7,21 @@
  */
 package uk.org.bobulous.java.intervals;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
 
 /**
  * An immutable <code>NumericInterval</code> whose endpoints have type
@@ -22,58 +36,325 @@ import java.util.Objects;
  */
 public final class IntegerInterval implements NumericInterval<Integer> {
 
-	private final Integer lower;
-	private final Integer upper;
+	/*
+	The endpoint values are held as primitive ints so that membership tests and
+	set operations between two IntegerInterval objects never need to box or
+	unbox. Whether each endpoint is closed, and whether each endpoint is
+	unbounded, is packed into the flags byte. The value of an unbounded endpoint
+	is meaningless and is always stored as zero.
+	*/
+	private final int lower;
+	private final int upper;
+	private final byte flags;
+
+	/**
+	 * Flag bit which is set if the lower endpoint mode is CLOSED.
+	 */
+	static final byte LOWER_CLOSED = 1;
 
-	private final EndpointMode lowerMode;
-	private final EndpointMode upperMode;
+	/**
+	 * Flag bit which is set if the upper endpoint mode is CLOSED.
+	 */
+	static final byte UPPER_CLOSED = 1 << 1;
+
+	/**
+	 * Flag bit which is set if the lower endpoint is unbounded (null).
+	 */
+	static final byte LOWER_UNBOUNDED = 1 << 2;
+
+	/**
+	 * Flag bit which is set if the upper endpoint is unbounded (null).
+	 */
+	static final byte UPPER_UNBOUNDED = 1 << 3;
 
 	/**
 	 * An interval which permits no values: the empty set. Note that the
 	 * endpoint values are arbitrary and that any <code>IntegerInterval</code>
 	 * which is empty is considered equal to this instance of the empty set.
 	 */
-	public static final IntegerInterval EMPTY_SET = new IntegerInterval(
-			EndpointMode.OPEN, 0, 0, EndpointMode.OPEN);
+	public static final IntegerInterval EMPTY_SET = new IntegerInterval(0, 0,
+			(byte) 0);
 
 	/**
 	 * An interval which includes all <code>Integer</code> values.
 	 */
-	public static final IntegerInterval UNBOUNDED = new IntegerInterval(
-			EndpointMode.OPEN, null, null, EndpointMode.OPEN);
+	public static final IntegerInterval UNBOUNDED = new IntegerInterval(0, 0,
+			(byte) (LOWER_UNBOUNDED | UPPER_UNBOUNDED));
 
 	/**
 	 * An interval which includes only the integers zero and one.
 	 */
-	public static final IntegerInterval ZERO_OR_ONE = new IntegerInterval(
-			EndpointMode.CLOSED, 0, 1, EndpointMode.CLOSED);
+	public static final IntegerInterval ZERO_OR_ONE = new IntegerInterval(0, 1,
+			(byte) (LOWER_CLOSED | UPPER_CLOSED));
 
 	/**
 	 * An interval which includes all non-negative <code>Integer</code> values.
 	 * Any <code>Integer</code> value greater-than-or-equal-to zero is included.
 	 */
-	public static final IntegerInterval ZERO_OR_MORE = new IntegerInterval(
-			EndpointMode.CLOSED, 0, null, EndpointMode.OPEN);
+	public static final IntegerInterval ZERO_OR_MORE = new IntegerInterval(0, 0,
+			(byte) (LOWER_CLOSED | UPPER_UNBOUNDED));
 
 	/**
 	 * An interval which includes all positive, non-zero <code>Integer</code>
 	 * values. Any <code>Integer</code> value greater-than-or-equal-to one is
 	 * included.
 	 */
-	public static final IntegerInterval ONE_OR_MORE = new IntegerInterval(
-			EndpointMode.CLOSED, 1, null, EndpointMode.OPEN);
+	public static final IntegerInterval ONE_OR_MORE = new IntegerInterval(1, 0,
+			(byte) (LOWER_CLOSED | UPPER_UNBOUNDED));
 
 	/*
-	Private constructor because static methods are provided for the creation of
-	intervals with different endpoint modes. (This also allows for the option of
-	adding caching of common instances in future.)
+	Private constructors because static methods are provided for the creation of
+	intervals with different endpoint modes. (This also allows the static
+	methods to return cached instances. See the Cache class below.)
 	*/
+	private IntegerInterval(int lower, int upper, byte flags) {
+		this.lower = (flags & LOWER_UNBOUNDED) != 0 ? 0 : lower;
+		this.upper = (flags & UPPER_UNBOUNDED) != 0 ? 0 : upper;
+		this.flags = flags;
+	}
+
 	private IntegerInterval(EndpointMode lowerMode, Integer lower, Integer upper,
 			EndpointMode upperMode) {
-		this.lower = lower;
-		this.upper = upper;
-		this.lowerMode = lowerMode;
-		this.upperMode = upperMode;
+		this(lower == null ? 0 : lower, upper == null ? 0 : upper, flagsFor(
+				lowerMode, lower == null, upper == null, upperMode));
+	}
+
+	/**
+	 * Returns an interval with the given endpoint values and modes, taken from
+	 * the cache if possible.
+	 */
+	private static IntegerInterval instance(EndpointMode lowerMode,
+			Integer lower, Integer upper, EndpointMode upperMode) {
+		return instance(lower == null ? 0 : lower, upper == null ? 0 : upper,
+				flagsFor(lowerMode, lower == null, upper == null, upperMode));
+	}
+
+	/**
+	 * Returns an interval with the given endpoint values and flags, taken from
+	 * the cache if possible.
+	 */
+	private static IntegerInterval instance(int lower, int upper, byte flags) {
+		if ((flags & (LOWER_UNBOUNDED | UPPER_UNBOUNDED)) == 0) {
+			IntegerInterval cached = Cache.small(lower, upper, flags);
+			if (cached != null) {
+				return cached;
+			}
+		}
+		if (Cache.CAPACITY > 0) {
+			return LeastRecentlyUsed.intern(lower, upper, flags);
+		}
+		return new IntegerInterval(lower, upper, flags);
+	}
+
+	/*
+	Caches of IntegerInterval instances, so that repeated calls to the static
+	factory methods with the same arguments return the same object (which also
+	lets equals succeed on its identity test).
+
+	Bounded intervals whose endpoint values are both between SMALL_LOW and
+	SMALL_HIGH (inclusive) are always held in a table which has one slot for
+	each combination of endpoint values and modes. The table is filled as
+	slots are first used; a race between two threads filling the same slot is
+	harmless because IntegerInterval is immutable and either instance will do.
+
+	All other intervals are cached only if the system property
+	"uk.org.bobulous.java.intervals.IntegerInterval.cacheCapacity" is set to a
+	positive number when this class is initialized. In that case they are held
+	in a set of least-recently-used maps (see LeastRecentlyUsed) which together
+	hold at most that many intervals.
+	*/
+	private static final class Cache {
+
+		private static final int SMALL_LOW = -8;
+		private static final int SMALL_HIGH = 55;
+		private static final int SMALL_BITS = 6;
+
+		private static final IntegerInterval[] SMALL
+				= new IntegerInterval[1 << (2 * SMALL_BITS + 2)];
+
+		private static final int CAPACITY;
+
+		static {
+			int capacity = 0;
+			try {
+				capacity = Integer.getInteger(IntegerInterval.class.getName()
+						+ ".cacheCapacity", 0);
+			} catch (SecurityException ex) {
+				// Leave the least-recently-used cache switched off.
+			}
+			CAPACITY = Math.max(0, capacity);
+		}
+
+		private Cache() {
+		}
+
+		/**
+		 * Returns the cached bounded interval with the given endpoint values
+		 * and flags, or <code>null</code> if either endpoint value is outside
+		 * the range of the small interval table.
+		 */
+		private static IntegerInterval small(int lower, int upper, byte flags) {
+			int lowerIndex = lower - SMALL_LOW, upperIndex = upper - SMALL_LOW;
+			if ((lowerIndex | upperIndex) < 0 || lower > SMALL_HIGH || upper
+					> SMALL_HIGH) {
+				return null;
+			}
+			int index = (lowerIndex << (SMALL_BITS + 2)) | (upperIndex << 2)
+					| (flags & (LOWER_CLOSED | UPPER_CLOSED));
+			IntegerInterval cached = SMALL[index];
+			if (cached == null) {
+				cached = new IntegerInterval(lower, upper, flags);
+				SMALL[index] = cached;
+			}
+			return cached;
+		}
+	}
+
+	/*
+	The optional cache for intervals outside the small table. To allow
+	concurrent use, the cache is split into segments chosen by hash, each of
+	which is an access-ordered LinkedHashMap guarded by its own lock. Each
+	segment reuses a single probe key for lookups, so a cache hit creates no
+	objects.
+	*/
+	private static final class LeastRecentlyUsed {
+
+		private static final int SEGMENT_COUNT = 16;
+
+		private static final Segment[] SEGMENTS = new Segment[SEGMENT_COUNT];
+
+		static {
+			int segmentCapacity = Math.max(1, (Cache.CAPACITY + SEGMENT_COUNT
+					- 1) / SEGMENT_COUNT);
+			for (int i = 0; i < SEGMENT_COUNT; ++i) {
+				SEGMENTS[i] = new Segment(segmentCapacity);
+			}
+		}
+
+		private LeastRecentlyUsed() {
+		}
+
+		private static final class Key {
+
+			private int lower, upper;
+			private byte flags;
+
+			private Key(int lower, int upper, byte flags) {
+				this.lower = lower;
+				this.upper = upper;
+				this.flags = flags;
+			}
+
+			@Override
+			public int hashCode() {
+				return hash(lower, upper, flags);
+			}
+
+			@Override
+			public boolean equals(Object obj) {
+				if (!(obj instanceof Key)) {
+					return false;
+				}
+				Key that = (Key) obj;
+				return lower == that.lower && upper == that.upper && flags
+						== that.flags;
+			}
+		}
+
+		private static int hash(int lower, int upper, byte flags) {
+			int hash = 7;
+			hash = 79 * hash + lower;
+			hash = 79 * hash + upper;
+			hash = 79 * hash + flags;
+			return hash ^ (hash >>> 16);
+		}
+
+		private static final class Segment extends
+				LinkedHashMap<Key, IntegerInterval> {
+
+			private static final long serialVersionUID = 1L;
+
+			private final int capacity;
+			private final Key probe = new Key(0, 0, (byte) 0);
+
+			private Segment(int capacity) {
+				super(16, 0.75f, true);
+				this.capacity = capacity;
+			}
+
+			@Override
+			protected boolean removeEldestEntry(
+					Map.Entry<Key, IntegerInterval> eldest) {
+				return size() > capacity;
+			}
+		}
+
+		/**
+		 * Returns the cached interval with the given endpoint values and
+		 * flags, creating and caching it if it is not already cached.
+		 */
+		private static IntegerInterval intern(int lower, int upper,
+				byte flags) {
+			Segment segment = SEGMENTS[hash(lower, upper, flags)
+					& (SEGMENT_COUNT - 1)];
+			synchronized (segment) {
+				segment.probe.lower = lower;
+				segment.probe.upper = upper;
+				segment.probe.flags = flags;
+				IntegerInterval cached = segment.get(segment.probe);
+				if (cached == null) {
+					cached = new IntegerInterval(lower, upper, flags);
+					segment.put(new Key(lower, upper, flags), cached);
+				}
+				return cached;
+			}
+		}
+	}
+
+	/**
+	 * Packs the given endpoint modes and unbounded states into a flags byte.
+	 *
+	 * @param lowerMode the mode of the lower endpoint.
+	 * @param lowerUnbounded <code>true</code> if the lower endpoint is
+	 * unbounded.
+	 * @param upperUnbounded <code>true</code> if the upper endpoint is
+	 * unbounded.
+	 * @param upperMode the mode of the upper endpoint.
+	 * @return a flags byte describing the endpoints.
+	 */
+	static byte flagsFor(EndpointMode lowerMode, boolean lowerUnbounded,
+			boolean upperUnbounded, EndpointMode upperMode) {
+		int f = 0;
+		if (EndpointMode.CLOSED.equals(lowerMode)) {
+			f |= LOWER_CLOSED;
+		}
+		if (EndpointMode.CLOSED.equals(upperMode)) {
+			f |= UPPER_CLOSED;
+		}
+		if (lowerUnbounded) {
+			f |= LOWER_UNBOUNDED;
+		}
+		if (upperUnbounded) {
+			f |= UPPER_UNBOUNDED;
+		}
+		return (byte) f;
+	}
+
+	/**
+	 * Returns an <code>IntegerInterval</code> which has exactly the same
+	 * endpoint values and modes as the given interval. If the given interval is
+	 * already an <code>IntegerInterval</code> then it is returned as is.
+	 *
+	 * @param interval the interval to convert.
+	 * @return an <code>IntegerInterval</code> equivalent to the given interval.
+	 */
+	static IntegerInterval valueOf(Interval<Integer> interval) {
+		if (interval instanceof IntegerInterval) {
+			return (IntegerInterval) interval;
+		}
+		return new IntegerInterval(interval.getLowerEndpointMode(), interval.
+				getLowerEndpoint(), interval.getUpperEndpoint(), interval.
+				getUpperEndpointMode());
 	}
 
 	/**
@@ -87,7 +368,7 @@ public final class IntegerInterval implements NumericInterval<Integer> {
 	 * and both endpoint modes set to <code>EndpointMode.CLOSED</code>.
 	 */
 	public static final IntegerInterval closed(Integer lower, Integer upper) {
-		return new IntegerInterval(EndpointMode.CLOSED, lower, upper,
+		return instance(EndpointMode.CLOSED, lower, upper,
 				EndpointMode.CLOSED);
 	}
 
@@ -102,7 +383,7 @@ public final class IntegerInterval implements NumericInterval<Integer> {
 	 * and both endpoint modes set to <code>EndpointMode.OPEN</code>.
 	 */
 	public static final IntegerInterval open(Integer lower, Integer upper) {
-		return new IntegerInterval(EndpointMode.OPEN, lower, upper,
+		return instance(EndpointMode.OPEN, lower, upper,
 				EndpointMode.OPEN);
 	}
 
@@ -118,7 +399,7 @@ public final class IntegerInterval implements NumericInterval<Integer> {
 	 * the upper endpoint mode set to <code>EndpointMode.OPEN</code>.
 	 */
 	public static final IntegerInterval leftClosed(Integer lower, Integer upper) {
-		return new IntegerInterval(EndpointMode.CLOSED, lower, upper,
+		return instance(EndpointMode.CLOSED, lower, upper,
 				EndpointMode.OPEN);
 	}
 
@@ -135,16 +416,70 @@ public final class IntegerInterval implements NumericInterval<Integer> {
 	 * upper endpoint mode set to <code>EndpointMode.CLOSED</code>.
 	 */
 	public static final IntegerInterval rightClosed(Integer lower, Integer upper) {
-		return new IntegerInterval(EndpointMode.OPEN, lower, upper,
+		return instance(EndpointMode.OPEN, lower, upper,
 				EndpointMode.CLOSED);
 	}
 
+	/**
+	 * Constructs a bounded closed interval with the given primitive endpoint
+	 * values, without boxing either value.
+	 *
+	 * @param lower the value of the lower endpoint.
+	 * @param upper the value of the upper endpoint.
+	 * @return an <code>IntegerInterval</code> with the given endpoint values
+	 * and both endpoint modes set to <code>EndpointMode.CLOSED</code>.
+	 */
+	public static final IntegerInterval closed(int lower, int upper) {
+		return instance(lower, upper, (byte) (LOWER_CLOSED | UPPER_CLOSED));
+	}
+
+	/**
+	 * Constructs a bounded open interval with the given primitive endpoint
+	 * values, without boxing either value.
+	 *
+	 * @param lower the value of the lower endpoint.
+	 * @param upper the value of the upper endpoint.
+	 * @return an <code>IntegerInterval</code> with the given endpoint values
+	 * and both endpoint modes set to <code>EndpointMode.OPEN</code>.
+	 */
+	public static final IntegerInterval open(int lower, int upper) {
+		return instance(lower, upper, (byte) 0);
+	}
+
+	/**
+	 * Constructs a bounded left-closed interval with the given primitive
+	 * endpoint values, without boxing either value.
+	 *
+	 * @param lower the value of the lower endpoint.
+	 * @param upper the value of the upper endpoint.
+	 * @return an <code>IntegerInterval</code> with the given endpoint values
+	 * and the lower endpoint mode set to <code>EndpointMode.CLOSED</code> and
+	 * the upper endpoint mode set to <code>EndpointMode.OPEN</code>.
+	 */
+	public static final IntegerInterval leftClosed(int lower, int upper) {
+		return instance(lower, upper, LOWER_CLOSED);
+	}
+
+	/**
+	 * Constructs a bounded right-closed interval with the given primitive
+	 * endpoint values, without boxing either value.
+	 *
+	 * @param lower the value of the lower endpoint.
+	 * @param upper the value of the upper endpoint.
+	 * @return an <code>IntegerInterval</code> with the given endpoint values
+	 * and the lower endpoint mode set to <code>EndpointMode.OPEN</code> and the
+	 * upper endpoint mode set to <code>EndpointMode.CLOSED</code>.
+	 */
+	public static final IntegerInterval rightClosed(int lower, int upper) {
+		return instance(lower, upper, UPPER_CLOSED);
+	}
+
 	@Override
 	public Integer width() {
 		if (this.isEmpty()) {
 			return 0;
 		}
-		if (upper == null || lower == null) {
+		if ((flags & (LOWER_UNBOUNDED | UPPER_UNBOUNDED)) != 0) {
 			return null;
 		}
 		return upper - lower;
@@ -152,7 +487,7 @@ public final class IntegerInterval implements NumericInterval<Integer> {
 
 	@Override
 	public boolean isEmpty() {
-		if (upper == null || lower == null) {
+		if ((flags & (LOWER_UNBOUNDED | UPPER_UNBOUNDED)) != 0) {
 			// Unbounded intervals are never empty.
 			return false;
 		}
@@ -161,22 +496,21 @@ public final class IntegerInterval implements NumericInterval<Integer> {
 			// integers are excluded, so the interval is empty.
 			return true;
 		}
-		if (upper.equals(lower)) {
+		if (upper == lower) {
 			// If the endpoint values are equal then both endpoints must be
 			// closed to permit that value. If either is open then even that
 			// value is excluded and so the interval is empty.
-			return getLowerEndpointMode().equals(EndpointMode.OPEN)
-					|| getUpperEndpointMode().equals(EndpointMode.OPEN);
+			return (flags & (LOWER_CLOSED | UPPER_CLOSED)) != (LOWER_CLOSED
+					| UPPER_CLOSED);
 		}
-		if (upper - lower == 1) {
+		if ((long) upper - lower == 1) {
 			// If the difference between the endpoints is exactly one and both
 			// endpoints are open then neither of the endpoint values is
 			// included by the interval and there are no other values between
 			// the two, making the interval empty. If either endpoint is closed
 			// then that value is permitted by the interval and so it is not
 			// empty.
-			return getLowerEndpointMode().equals(EndpointMode.OPEN)
-					&& getUpperEndpointMode().equals(EndpointMode.OPEN);
+			return (flags & (LOWER_CLOSED | UPPER_CLOSED)) == 0;
 		}
 		// To reach this point, the interval is bounded and its upper endpoint
 		// is at least two greater than its lower endpoint, so at least one
@@ -184,308 +518,652 @@ public final class IntegerInterval implements NumericInterval<Integer> {
 		return false;
 	}
 
-	@Override
-	public boolean intersectsWith(NumericInterval<Integer> interval) {
-		if (interval == null) {
-			throw new NullPointerException("Cannot pass a null value to "
-					+ "intersects(Interval<T>).");
-		}
+	/**
+	 * Returns the stored value of the lower endpoint, which is zero if the
+	 * lower endpoint is unbounded.
+	 */
+	int lowerValue() {
+		return lower;
+	}
 
-		// If either interval is empty then there can be no intersection
-		if (this.isEmpty() || interval.isEmpty()) {
-			return false;
-		}
+	/**
+	 * Returns the stored value of the upper endpoint, which is zero if the
+	 * upper endpoint is unbounded.
+	 */
+	int upperValue() {
+		return upper;
+	}
 
-		IntervalComparator<Integer> intervalComparator = IntervalComparator.
-				<Integer>getInstance();
+	/**
+	 * Returns the flags byte which describes the modes of the endpoints and
+	 * whether each is unbounded.
+	 */
+	byte flags() {
+		return flags;
+	}
 
-		// Use a comparator to order the two intervals, so that we can reduce
-		// the problem space and reduce the number of conditional tests
-		Interval<Integer> first, second;
-		int intervalComparison = intervalComparator.compare(this,
-				interval);
-		if (intervalComparison > 0) {
-			// This interval is comparatively greater than the specified interval
-			// so call the specified interval "first" and this interval "second".
-			first = interval;
-			second = this;
-		} else if (intervalComparison < 0) {
-			// If this interval is comparitively lesser than the specified
-			// interval then call this interval "first" and the specified
-			// interval "second"
-			first = this;
-			second = interval;
-		} else {
-			// Intervals are identical, and we already know that neither
-			// interval is empty, so these identical, non-empty intervals must
-			// intersect
-			return true;
+	/**
+	 * Returns an interval with the given endpoint values and flags, taken from
+	 * the cache if possible. The value of an unbounded endpoint is ignored.
+	 *
+	 * @param lower the value of the lower endpoint.
+	 * @param upper the value of the upper endpoint.
+	 * @param flags a combination of the four flag bits defined by this class.
+	 * @return an <code>IntegerInterval</code> with the given endpoints.
+	 */
+	static IntegerInterval withFlags(int lower, int upper, byte flags) {
+		return instance(lower, upper, flags);
+	}
+
+	/**
+	 * Returns the least integer value permitted by the lower endpoint of this
+	 * interval, widened to a <code>long</code> so that an open endpoint at
+	 * <code>Integer.MAX_VALUE</code> cannot overflow. An unbounded lower
+	 * endpoint gives <code>Long.MIN_VALUE</code>.
+	 *
+	 * @return the closed equivalent of the lower endpoint value.
+	 */
+	long closedLower() {
+		if ((flags & LOWER_UNBOUNDED) != 0) {
+			return Long.MIN_VALUE;
 		}
+		return (flags & LOWER_CLOSED) != 0 ? lower : lower + 1L;
+	}
 
-		// At this point we know that the two intervals are not identical, that
-		// neither of them is empty, and that the first interval is lesser than
-		// the second interval according to the IntervalComparator.
-		// Check to see whether the second interval starts before the first ends
-		int gapComparison = endpointValuesLowerUpperCompare(second.
-				getLowerEndpoint(),
-				first.getUpperEndpoint());
-		if (gapComparison > 0) {
-			// The start value of the second interval is after than the end
-			// value of the first interval. There can be no overlap.
-			return false;
+	/**
+	 * Returns the greatest integer value permitted by the upper endpoint of
+	 * this interval, widened to a <code>long</code> so that an open endpoint
+	 * at <code>Integer.MIN_VALUE</code> cannot overflow. An unbounded upper
+	 * endpoint gives <code>Long.MAX_VALUE</code>.
+	 *
+	 * @return the closed equivalent of the upper endpoint value.
+	 */
+	long closedUpper() {
+		if ((flags & UPPER_UNBOUNDED) != 0) {
+			return Long.MAX_VALUE;
 		}
-		if (gapComparison == 0) {
-			// The end of the first interval is the same value as the start of
-			// the second interval. There can only be overlap if both of these
-			// endpoints are CLOSED.
-			return (first.getUpperEndpointMode().equals(EndpointMode.CLOSED)
-					&& second.getLowerEndpointMode().equals(EndpointMode.CLOSED));
+		return (flags & UPPER_CLOSED) != 0 ? upper : upper - 1L;
+	}
+
+	/**
+	 * Compares the lower endpoint of this interval with the lower endpoint of
+	 * the specified interval, following exactly the same rules as
+	 * <code>IntervalComparator.lowerEndpointValueCompare</code> but without
+	 * boxing the endpoint values.
+	 *
+	 * @param that the interval whose lower endpoint should be compared with
+	 * that of this interval.
+	 * @return a negative integer, zero or a positive integer as the lower
+	 * endpoint of this interval is lesser than, equivalent to, or greater than
+	 * the lower endpoint of the specified interval.
+	 */
+	int compareLowerEndpoints(IntegerInterval that) {
+		boolean thisUnbounded = (this.flags & LOWER_UNBOUNDED) != 0;
+		boolean thatUnbounded = (that.flags & LOWER_UNBOUNDED) != 0;
+		if (thisUnbounded || thatUnbounded) {
+			return (thisUnbounded ? 0 : 1) - (thatUnbounded ? 0 : 1);
 		}
-		// At this point we know that the two intervals overlap by some amount.
-		// If the overlap has a width of exactly one then one of the endpoints
-		// must be closed, otherwise neither of the endpoints values are common
-		// to both intervals and thus the intersection is empty.
-		if (first.getUpperEndpoint() - second.getLowerEndpoint() == 1) {
-			return first.getUpperEndpointMode().equals(EndpointMode.CLOSED)
-					|| second.getLowerEndpointMode().equals(EndpointMode.CLOSED);
+		if (this.lower != that.lower) {
+			return this.lower < that.lower ? -1 : 1;
 		}
-
-		// At this point we know that the start of the second interval is not
-		// greater than or equal to the end of the first interval. And by virtue
-		// of being the "second" interval its start cannot be lower than the
-		// start of the first. So the second interval starts within the first
-		// interval and there must be an intersection.
-		return true;
+		// A CLOSED lower endpoint is the lesser of two identical values.
+		return (that.flags & LOWER_CLOSED) - (this.flags & LOWER_CLOSED);
 	}
 
 	/**
-	 * Compare a lower endpoint value with an upper endpoint value.
+	 * Compares the upper endpoint of this interval with the upper endpoint of
+	 * the specified interval, following exactly the same rules as
+	 * <code>IntervalComparator.upperEndpointValueCompare</code> but without
+	 * boxing the endpoint values.
 	 *
-	 * @param lower the lower endpoint.
-	 * @param upper the upper endpoint.
-	 * @return a negative integer if either lower or upper endpoint is
-	 * <code>null</code>, or if the value of the lower endpoint is lesser than
-	 * the value of the upper endpoint; zero if both values are non-null and
-	 * identical; a positive integer if both values are non-null and the lower
-	 * endpoint value is greater than the upper endpoint value.
+	 * @param that the interval whose upper endpoint should be compared with
+	 * that of this interval.
+	 * @return a negative integer, zero or a positive integer as the upper
+	 * endpoint of this interval is lesser than, equivalent to, or greater than
+	 * the upper endpoint of the specified interval.
 	 */
-	private static int endpointValuesLowerUpperCompare(Integer lower,
-			Integer upper) {
-		if (lower == null || upper == null) {
-			return -1;
+	int compareUpperEndpoints(IntegerInterval that) {
+		boolean thisUnbounded = (this.flags & UPPER_UNBOUNDED) != 0;
+		boolean thatUnbounded = (that.flags & UPPER_UNBOUNDED) != 0;
+		if (thisUnbounded || thatUnbounded) {
+			return (thisUnbounded ? 1 : 0) - (thatUnbounded ? 1 : 0);
 		}
-		return lower.compareTo(upper);
+		if (this.upper != that.upper) {
+			return this.upper < that.upper ? -1 : 1;
+		}
+		// An OPEN upper endpoint is the lesser of two identical values.
+		return (this.flags & UPPER_CLOSED) - (that.flags & UPPER_CLOSED);
 	}
 
-	@Override
-	public NumericInterval<Integer> intersection(
-			NumericInterval<Integer> interval) {
-		Objects.requireNonNull(interval);
-		if (this.isEmpty() || interval.isEmpty()) {
-			// If one or both intervals are empty then there can be no
-			// intersection, so return an empty set.
-			return EMPTY_SET;
+	/**
+	 * The greatest value which can be returned by <code>lowerKey</code> or
+	 * <code>upperKey</code>. Every key fits into the lowest
+	 * <code>KEY_BITS</code> bits of a <code>long</code>.
+	 */
+	static final long MAXIMUM_KEY = 1L << 33;
+
+	/**
+	 * The number of bits needed to hold any endpoint key.
+	 */
+	static final int KEY_BITS = 34;
+
+	/**
+	 * Returns a non-negative key for the lower endpoint of this interval, such
+	 * that comparing the keys of two intervals gives the same result as
+	 * <code>compareLowerEndpoints</code>. An unbounded endpoint has key zero,
+	 * and a bounded endpoint has a key of twice its value (offset to be
+	 * non-negative) plus one if CLOSED or plus two if OPEN.
+	 *
+	 * @return the key of the lower endpoint of this interval.
+	 */
+	long lowerKey() {
+		if ((flags & LOWER_UNBOUNDED) != 0) {
+			return 0L;
 		}
+		return lowerKey(lower, (flags & LOWER_CLOSED) != 0);
+	}
 
-		IntervalComparator<Integer> comparator = IntervalComparator.
-				<Integer>getInstance();
-		int comparison = comparator.compare(this, interval);
+	/**
+	 * Returns the key of a bounded lower endpoint with the given value and
+	 * mode, as described by <code>lowerKey()</code>.
+	 *
+	 * @param value the value of the lower endpoint.
+	 * @param closed <code>true</code> if the lower endpoint is CLOSED.
+	 * @return the key of the lower endpoint.
+	 */
+	static long lowerKey(int value, boolean closed) {
+		return (((long) value - Integer.MIN_VALUE) << 1) + (closed ? 1 : 2);
+	}
 
-		// Sort the intervals using IntervalComparator, so that the first
-		// interval is the one whose lower endpoint permits the lowest value,
-		// or in case of identical lower endpoints, the first interval is the
-		// one whose upper endpoint permits the lowest value.
-		Interval<Integer> first, second;
-		if (comparison == 0) {
-			// Both intervals are identical, so return a reference to this
-			// interval.
-			return this;
-		} else if (comparison < 0) {
-			first = this;
-			second = interval;
-		} else {
-			first = interval;
-			second = this;
+	/**
+	 * Returns a non-negative key for the upper endpoint of this interval, such
+	 * that comparing the keys of two intervals gives the same result as
+	 * <code>compareUpperEndpoints</code>. An unbounded endpoint has key
+	 * <code>MAXIMUM_KEY</code>, and a bounded endpoint has a key of twice its
+	 * value (offset to be non-negative) plus one if CLOSED or plus zero if
+	 * OPEN.
+	 *
+	 * @return the key of the upper endpoint of this interval.
+	 */
+	long upperKey() {
+		if ((flags & UPPER_UNBOUNDED) != 0) {
+			return MAXIMUM_KEY;
 		}
+		return upperKey(upper, (flags & UPPER_CLOSED) != 0);
+	}
 
-		// Check that an intersection does exist.
-		int secondLowerFirstUpperComparison = endpointValuesLowerUpperCompare(
-				second.getLowerEndpoint(), first.getUpperEndpoint());
-		if (secondLowerFirstUpperComparison > 0) {
-			// The lower endpoint of the second interval is greater than the
-			// upper endpoint of the first interval, so there can be no
-			// intersection. Return the empty set.
-			return EMPTY_SET;
-		} else if (secondLowerFirstUpperComparison == 0) {
-			// The lower endpoint of the second interval has the same value as
-			// the upper endpoint of the first interval. So an intersection can
-			// only occur if both endpoint modes are CLOSED.
-			if (first.getUpperEndpointMode().equals(EndpointMode.OPEN)
-					|| second.getLowerEndpointMode().equals(EndpointMode.OPEN)) {
-				// Intervals are adjacent but do not include their shared
-				// boundary, so there is no intersection. Return the empty set.
-				return EMPTY_SET;
-			}
+	/**
+	 * Returns the key of a bounded upper endpoint with the given value and
+	 * mode, as described by <code>upperKey()</code>.
+	 *
+	 * @param value the value of the upper endpoint.
+	 * @param closed <code>true</code> if the upper endpoint is CLOSED.
+	 * @return the key of the upper endpoint.
+	 */
+	static long upperKey(int value, boolean closed) {
+		return (((long) value - Integer.MIN_VALUE) << 1) + (closed ? 1 : 0);
+	}
+
+	@Override
+	public boolean intersectsWith(NumericInterval<Integer> interval) {
+		if (interval == null) {
+			throw new NullPointerException("Cannot pass a null value to "
+					+ "intersects(Interval<T>).");
 		}
+		return intersectsWith(valueOf(interval));
+	}
 
-		// Lower endpoint value and mode for the intersection have to be equal
-		// to the lower endpoint of the second interval, because of the way
-		// that IntervalComparator has sorted them into order.
-		Integer intersectionLowerEndpoint = second.getLowerEndpoint();
-		EndpointMode intersectionLowerMode = second.getLowerEndpointMode();
-
-		// Now determine which is lower (inclusive of the lowest values), the
-		// upper endpoint of the first interval, or the upper endpoint of the
-		// second interval.
-		Integer intersectionUpperEndpoint;
-		EndpointMode intersectionUpperMode;
-		int upperComparison = comparator.
-				upperEndpointValueCompare(first, second);
-		if (upperComparison < 0) {
-			// The upper endpoint of the first interval is the least inclusive,
-			// so the intersection ends with it.
-			intersectionUpperEndpoint = first.getUpperEndpoint();
-			intersectionUpperMode = first.getUpperEndpointMode();
-		} else {
-			// Either the upper endpoint of the second interval is the least
-			// inclusive, or both intervals have an identical upper endpoint.
-			// So take the upper endpoint of the second interval for the
-			// intersection.
-			intersectionUpperEndpoint = second.getUpperEndpoint();
-			intersectionUpperMode = second.getUpperEndpointMode();
+	/**
+	 * Reports on whether this interval intersects with the specified
+	 * <code>IntegerInterval</code>. This method gives the same result as
+	 * {@link #intersectsWith(uk.org.bobulous.java.intervals.NumericInterval)}
+	 * but works directly on the primitive endpoint values of both intervals.
+	 *
+	 * @param interval the interval to check for an intersection with this
+	 * interval.
+	 * @return <code>true</code> if this interval intersects the specified
+	 * interval; <code>false</code> otherwise.
+	 */
+	public boolean intersectsWith(IntegerInterval interval) {
+		if (interval == null) {
+			throw new NullPointerException("Cannot pass a null value to "
+					+ "intersects(Interval<T>).");
 		}
+		// If either interval is empty then there can be no intersection
+		if (this.isEmpty() || interval.isEmpty()) {
+			return false;
+		}
+		// With both intervals expressed as closed integer ranges, they share a
+		// value only if the greater of the two lower bounds does not exceed
+		// the lesser of the two upper bounds.
+		return Math.max(this.closedLower(), interval.closedLower()) <= Math.
+				min(this.closedUpper(), interval.closedUpper());
+	}
 
-		return new IntegerInterval(intersectionLowerMode,
-				intersectionLowerEndpoint, intersectionUpperEndpoint,
-				intersectionUpperMode);
+	@Override
+	public NumericInterval<Integer> intersection(
+			NumericInterval<Integer> interval) {
+		Objects.requireNonNull(interval);
+		return intersection(valueOf(interval));
+	}
+
+	/**
+	 * Returns the interval which represents the intersection of this interval
+	 * with the specified <code>IntegerInterval</code>. This method gives the
+	 * same result as
+	 * {@link #intersection(uk.org.bobulous.java.intervals.NumericInterval)}
+	 * but works directly on the primitive endpoint values of both intervals.
+	 *
+	 * @param interval the interval with which to intersect this interval.
+	 * @return an <code>IntegerInterval</code> which represents the
+	 * intersection of this interval with the specified interval, or
+	 * {@link #EMPTY_SET} if no intersection exists.
+	 */
+	public IntegerInterval intersection(IntegerInterval interval) {
+		Objects.requireNonNull(interval);
+		if (!this.intersectsWith(interval)) {
+			// If one or both intervals are empty, or if they do not share any
+			// value, then there can be no intersection, so return an empty set.
+			return EMPTY_SET;
+		}
+		// The intersection starts with whichever lower endpoint is the most
+		// exclusive, and ends with whichever upper endpoint is the most
+		// exclusive.
+		IntegerInterval lowerSource = this.compareLowerEndpoints(interval) >= 0
+				? this : interval;
+		IntegerInterval upperSource = this.compareUpperEndpoints(interval) <= 0
+				? this : interval;
+		return fromEndpointsOf(lowerSource, upperSource);
 	}
 
 	@Override
 	public boolean unitesWith(NumericInterval<Integer> interval) {
+		Objects.requireNonNull(interval);
+		return unitesWith(valueOf(interval));
+	}
+
+	/**
+	 * Reports on whether a single interval exists which describes the union of
+	 * this interval with the specified <code>IntegerInterval</code>. This
+	 * method gives the same result as
+	 * {@link #unitesWith(uk.org.bobulous.java.intervals.NumericInterval)} but
+	 * works directly on the primitive endpoint values of both intervals.
+	 *
+	 * @param interval the interval to check for a union with this interval.
+	 * @return <code>true</code> if a single interval exists which represents
+	 * the entire union of this interval with the given interval;
+	 * <code>false</code> otherwise.
+	 */
+	public boolean unitesWith(IntegerInterval interval) {
 		Objects.requireNonNull(interval);
 		// If either interval is empty then there can be no union.
 		if (this.isEmpty() || interval.isEmpty()) {
 			return false;
 		}
-		if (this.intersectsWith(interval)) {
-			return true;
-		}
-		IntervalComparator<Integer> comparator = IntervalComparator.
-				<Integer>getInstance();
-		NumericInterval<Integer> first, second;
-		int comparison = comparator.compare(this,
-				interval);
-		if (comparison < 0) {
-			// This interval comes first according to IntervalComparator.
+		return this.intersectsWith(interval) || this.adjoins(interval);
+	}
+
+	/**
+	 * Reports on whether this interval and the specified interval adjoin at a
+	 * shared endpoint value which is included by one or both of them.
+	 *
+	 * @param that the interval to test against this interval.
+	 * @return <code>true</code> if the upper endpoint of the lesser interval
+	 * has the same value as the lower endpoint of the greater interval and at
+	 * least one of those two endpoints is closed.
+	 */
+	private boolean adjoins(IntegerInterval that) {
+		IntegerInterval first, second;
+		if (this.compareLowerEndpoints(that) <= 0) {
 			first = this;
-			second = interval;
+			second = that;
 		} else {
-			first = interval;
+			first = that;
 			second = this;
 		}
-		// The two intervals don't intersect, but they can still form a union if
-		// they adjoin (share an endpoint value as a common boundary) and one or
-		// both of the adjoining endpoints has a mode of CLOSED.
-		if (first.getUpperEndpoint().compareTo(second.getLowerEndpoint()) == 0) {
-			// The two intervals adjoin, so check that at least one of them has
-			// an endpoint mode of CLOSED at the adjoining boundary.
-			if (first.getUpperEndpointMode().equals(EndpointMode.CLOSED)
-					|| second.getLowerEndpointMode().equals(EndpointMode.CLOSED)) {
-				return true;
-			}
+		if ((first.flags & UPPER_UNBOUNDED) != 0 || (second.flags
+				& LOWER_UNBOUNDED) != 0) {
+			return false;
 		}
-		// The two intervals neither intersect nor do they adjoin at an endpoint
-		// which is included by one or both of the intervals. There can be no
-		// union, so return null.
-		return false;
+		return first.upper == second.lower && ((first.flags & UPPER_CLOSED)
+				!= 0 || (second.flags & LOWER_CLOSED) != 0);
 	}
 
 	@Override
 	public NumericInterval<Integer> union(NumericInterval<Integer> interval) {
 		Objects.requireNonNull(interval);
-		// If either interval is empty then there can be no union.
-		if (this.isEmpty() || interval.isEmpty()) {
+		return union(valueOf(interval));
+	}
+
+	/**
+	 * Returns the interval which represents the union of this interval with
+	 * the specified <code>IntegerInterval</code>, or <code>null</code> if no
+	 * single interval can represent the union of the two sets. This method
+	 * gives the same result as
+	 * {@link #union(uk.org.bobulous.java.intervals.NumericInterval)} but works
+	 * directly on the primitive endpoint values of both intervals.
+	 *
+	 * @param interval the interval with which this interval should form a
+	 * union.
+	 * @return an <code>IntegerInterval</code> which represents the union of
+	 * this interval with the specified interval, or <code>null</code> if no
+	 * union exists.
+	 */
+	public IntegerInterval union(IntegerInterval interval) {
+		if (!this.unitesWith(interval)) {
+			// The two intervals neither intersect nor do they adjoin at an
+			// endpoint which is included by one or both of the intervals.
+			// There can be no union, so return null.
 			return null;
 		}
-		IntervalComparator<Integer> comparator = IntervalComparator.
-				<Integer>getInstance();
-		NumericInterval<Integer> first, second;
-		Integer unionLowerEndpoint, unionUpperEndpoint;
-		EndpointMode unionLowerEndpointMode, unionUpperEndpointMode;
-		int comparison = comparator.compare(this,
-				interval);
-		if (comparison < 0) {
-			// This interval comes first according to IntervalComparator.
-			first = this;
-			second = interval;
-		} else {
-			first = interval;
-			second = this;
+		// The union starts with whichever lower endpoint is the most
+		// inclusive, and ends with whichever upper endpoint is the most
+		// inclusive.
+		IntegerInterval lowerSource = this.compareLowerEndpoints(interval) <= 0
+				? this : interval;
+		IntegerInterval upperSource = this.compareUpperEndpoints(interval) >= 0
+				? this : interval;
+		return fromEndpointsOf(lowerSource, upperSource);
+	}
+
+	/**
+	 * Returns the smallest list of intervals whose union is the union of all of
+	 * the given intervals. Two intervals are merged whenever
+	 * {@link #unitesWith(uk.org.bobulous.java.intervals.IntegerInterval)}
+	 * reports that they unite, so intervals which merely touch at an endpoint
+	 * value are merged only if at least one of the touching endpoints is
+	 * closed. Empty intervals are ignored.
+	 *
+	 * <p>
+	 * The intervals are sorted once, and then merged in a single linear sweep
+	 * which creates one new interval per merged run rather than one per
+	 * pairwise union.</p>
+	 *
+	 * @param intervals the intervals to coalesce.
+	 * @return a new list of non-empty intervals, no two of which unite, in
+	 * ascending order as defined by <code>IntervalComparator</code>.
+	 * @throws NullPointerException if <code>intervals</code> is
+	 * <code>null</code> or contains <code>null</code>.
+	 */
+	public static List<IntegerInterval> coalesce(
+			Collection<? extends NumericInterval<Integer>> intervals) {
+		IntegerInterval[] sorted = nonEmptyIntervals(intervals);
+		Arrays.sort(sorted, INTERVAL_ORDER);
+		return sweep(sorted, 0, sorted.length);
+	}
+
+	/**
+	 * Returns the same result as
+	 * {@link #coalesce(java.util.Collection)}, but spreads the work across the
+	 * common fork/join pool. The intervals are sorted with
+	 * <code>Arrays.parallelSort</code>, and the sorted array is divided into
+	 * chunks which are swept in parallel. A chunk only ends before an interval
+	 * whose least integer is more than one greater than the greatest integer
+	 * of every earlier interval, so that no interval can unite with one in
+	 * another chunk, and the results of the chunks need no further merging.
+	 * These cuts are found with a parallel prefix maximum of the greatest
+	 * integers. If the intervals leave no such gap then the whole array is
+	 * swept as one chunk.
+	 *
+	 * @param intervals the intervals to coalesce.
+	 * @return a new list of non-empty intervals, no two of which unite, in
+	 * ascending order as defined by <code>IntervalComparator</code>.
+	 * @throws NullPointerException if <code>intervals</code> is
+	 * <code>null</code> or contains <code>null</code>.
+	 */
+	public static List<IntegerInterval> coalesceParallel(
+			Collection<? extends NumericInterval<Integer>> intervals) {
+		IntegerInterval[] sorted = nonEmptyIntervals(intervals);
+		Arrays.parallelSort(sorted, INTERVAL_ORDER);
+		int chunkCount = Math.min(4 * ForkJoinPool.getCommonPoolParallelism(),
+				sorted.length / MINIMUM_CHUNK_SIZE);
+		if (chunkCount < 2) {
+			return sweep(sorted, 0, sorted.length);
+		}
+		long[] greatestSoFar = new long[sorted.length];
+		Arrays.parallelSetAll(greatestSoFar, i -> sorted[i].closedUpper());
+		Arrays.parallelPrefix(greatestSoFar, Math::max);
+		List<List<IntegerInterval>> chunks = IntStream.range(0, chunkCount)
+				.parallel().mapToObj(chunk -> sweep(sorted, nextCut(sorted,
+						greatestSoFar, (int) ((long) chunk * sorted.length
+						/ chunkCount)), nextCut(sorted, greatestSoFar,
+						(int) ((long) (chunk + 1) * sorted.length
+						/ chunkCount)))).collect(Collectors.toList());
+		List<IntegerInterval> joined = new ArrayList<>();
+		for (List<IntegerInterval> chunk : chunks) {
+			joined.addAll(chunk);
 		}
-		if (first.intersectsWith(second)) {
-			// The two interval intersect, so the union will be the lowest and
-			// highest of the endpoints involved (and their modes).
-			// We already know (thanks to the IntervalComparator check above)
-			// that the first interval must have the endpoint which includes the
-			// lowest values, so the union will take that endpoint value and
-			// mode.
-			unionLowerEndpoint = first.getLowerEndpoint();
-			unionLowerEndpointMode = first.getLowerEndpointMode();
-			// Now determine which endpoint includes the highest values and make
-			// that the upper endpoint of the union.
-			int upperComparison = comparator.upperEndpointValueCompare(first,
-					second);
-			if (upperComparison > 0) {
-				// First interval has the greater upper endpoint.
-				unionUpperEndpoint = first.getUpperEndpoint();
-				unionUpperEndpointMode = first.getUpperEndpointMode();
-			} else {
-				// Second interval has the greater upper endpoint, or both
-				// intervals have an identical upper endpoint.
-				unionUpperEndpoint = second.getUpperEndpoint();
-				unionUpperEndpointMode = second.getUpperEndpointMode();
+		return joined;
+	}
+
+	/**
+	 * Returns the least index, no less than the given index, before which the
+	 * sorted intervals can be cut into two parts which cannot unite with each
+	 * other. Index zero and the length of the array are always cuts.
+	 *
+	 * @param sorted an array of non-empty intervals in
+	 * <code>IntervalComparator</code> order.
+	 * @param greatestSoFar the greatest closed upper bound of the intervals up
+	 * to and including each index.
+	 * @param index the index from which to search.
+	 * @return the index of the first cut at or after <code>index</code>.
+	 */
+	private static int nextCut(IntegerInterval[] sorted, long[] greatestSoFar,
+			int index) {
+		if (index == 0) {
+			return 0;
+		}
+		for (; index < sorted.length; ++index) {
+			// Every later interval has a closed lower bound at least this
+			// great, so a gap of one integer or more means that nothing after
+			// the cut can intersect or adjoin anything before it.
+			long closedLower = sorted[index].closedLower();
+			if (closedLower != Long.MIN_VALUE && greatestSoFar[index - 1]
+					< closedLower - 1) {
+				break;
 			}
-			return new IntegerInterval(unionLowerEndpointMode,
-					unionLowerEndpoint, unionUpperEndpoint,
-					unionUpperEndpointMode);
-		}
-		// The two intervals don't intersect, but they can still form a union if
-		// they adjoin (share an endpoint value as a common boundary) and one or
-		// both of the adjoining endpoints has a mode of CLOSED.
-		if (first.getUpperEndpoint().compareTo(second.getLowerEndpoint()) == 0) {
-			// The two intervals adjoin, so check that at least one of them has
-			// an endpoint mode of CLOSED at the adjoining boundary.
-			if (first.getUpperEndpointMode().equals(EndpointMode.CLOSED)
-					|| second.getLowerEndpointMode().equals(EndpointMode.CLOSED)) {
-				return new IntegerInterval(first.getLowerEndpointMode(),
-						first.getLowerEndpoint(),
-						second.getUpperEndpoint(), second.getUpperEndpointMode());
+		}
+		return index;
+	}
+
+	/*
+	Below this many intervals per chunk, the parallel coalesce spends more on
+	splitting and joining than it saves.
+	*/
+	private static final int MINIMUM_CHUNK_SIZE = 1 << 13;
+
+	/*
+	The ordering of IntervalComparator, computed without boxing.
+	*/
+	private static final Comparator<IntegerInterval> INTERVAL_ORDER = (a,
+			b) -> {
+		int lowerComparison = a.compareLowerEndpoints(b);
+		return lowerComparison != 0 ? lowerComparison : a
+				.compareUpperEndpoints(b);
+	};
+
+	/**
+	 * Converts the given collection to an array of <code>IntegerInterval</code>
+	 * objects, leaving out any interval which is empty.
+	 */
+	private static IntegerInterval[] nonEmptyIntervals(
+			Collection<? extends NumericInterval<Integer>> intervals) {
+		Objects.requireNonNull(intervals);
+		IntegerInterval[] array = new IntegerInterval[intervals.size()];
+		int count = 0;
+		for (NumericInterval<Integer> interval : intervals) {
+			IntegerInterval converted = valueOf(Objects.requireNonNull(
+					interval, "Cannot coalesce a null interval."));
+			if (!converted.isEmpty()) {
+				array[count++] = converted;
 			}
 		}
-		// The two intervals neither intersect nor do they adjoin at an endpoint
-		// which is included by one or both of the intervals. There can be no
-		// union, so return null.
-		return null;
+		return count == array.length ? array : Arrays.copyOf(array, count);
+	}
+
+	/**
+	 * Merges a range of non-empty intervals which are already in ascending
+	 * order into maximal runs.
+	 *
+	 * @param sorted an array of non-empty intervals in
+	 * <code>IntervalComparator</code> order.
+	 * @param from the index of the first interval to sweep.
+	 * @param to the index after the last interval to sweep.
+	 * @return a new list of the merged runs, in ascending order.
+	 */
+	private static List<IntegerInterval> sweep(IntegerInterval[] sorted,
+			int from, int to) {
+		List<IntegerInterval> runs = new ArrayList<>();
+		if (from >= to) {
+			return runs;
+		}
+		/*
+		The current run takes its lower endpoint from lowerSource and its upper
+		endpoint from upperSource. Whether a later interval unites with one of
+		its members is decided by greatestClosed and the two flags, as
+		described by unitesWithMembers. The merged interval of a run cannot
+		stand in for its members, because it may adjoin fewer intervals than
+		they do: [10, 14) does not adjoin (13, 16), but its member (10, 13]
+		does.
+
+		A run which does not unite with the previous run can later gain a
+		member which unites with both, as when [0, 5) and (4, 10] are followed
+		by [5, 6]. So an interval which unites with the current run is also
+		tested against the members of the previous run, and if they unite then
+		the previous run is taken back and merged into the current run. An
+		interval which unites with the previous run always intersects the
+		first member of the current run, so there is no need to test any
+		interval which does not unite with the current run, nor to look
+		further back than the previous run.
+		*/
+		IntegerInterval lowerSource = sorted[from];
+		IntegerInterval upperSource = sorted[from];
+		long greatestClosed = upperSource.closedUpper();
+		boolean closedAtGreatest = false, openAfterGreatest = false;
+		boolean previousRun = false;
+		long previousGreatest = 0L;
+		boolean previousClosedAt = false, previousOpenAfter = false;
+		for (int i = from; i < to; ++i) {
+			IntegerInterval next = sorted[i];
+			if (i > from) {
+				if (!next.unitesWithMembers(greatestClosed, closedAtGreatest,
+						openAfterGreatest)) {
+					runs.add(fromEndpointsOf(lowerSource, upperSource));
+					previousRun = true;
+					previousGreatest = greatestClosed;
+					previousClosedAt = closedAtGreatest;
+					previousOpenAfter = openAfterGreatest;
+					lowerSource = next;
+					upperSource = next;
+					greatestClosed = next.closedUpper();
+					closedAtGreatest = openAfterGreatest = false;
+				} else {
+					if (next.compareUpperEndpoints(upperSource) > 0) {
+						upperSource = next;
+					}
+					if (previousRun && next.unitesWithMembers(previousGreatest,
+							previousClosedAt, previousOpenAfter)) {
+						// Every member of the current run lies above every
+						// member of the previous run, so only the lower
+						// endpoint of the merged run changes.
+						lowerSource = runs.remove(runs.size() - 1);
+						previousRun = false;
+					}
+				}
+			}
+			long closedUpper = next.closedUpper();
+			if (closedUpper > greatestClosed) {
+				greatestClosed = closedUpper;
+				closedAtGreatest = openAfterGreatest = false;
+			}
+			if (closedUpper == greatestClosed && (next.flags
+					& UPPER_UNBOUNDED) == 0) {
+				if ((next.flags & UPPER_CLOSED) != 0) {
+					closedAtGreatest = true;
+				} else {
+					openAfterGreatest = true;
+				}
+			}
+		}
+		runs.add(fromEndpointsOf(lowerSource, upperSource));
+		return runs;
+	}
+
+	/**
+	 * Reports on whether this interval unites with any member of a run of
+	 * intervals, none of which has a lower endpoint greater than that of this
+	 * interval. This interval intersects a member exactly when its closed
+	 * lower bound does not exceed the greatest closed upper bound of the
+	 * members. Otherwise it can only adjoin a member whose upper endpoint has
+	 * the same value as its lower endpoint: if its lower endpoint is closed,
+	 * that member must have an open upper endpoint one greater than the
+	 * greatest closed upper bound, and if its lower endpoint is open, that
+	 * member must have a closed upper endpoint at the greatest closed upper
+	 * bound.
+	 *
+	 * @param greatestClosed the greatest closed upper bound of the members.
+	 * @param closedAtGreatest whether a member has a closed upper endpoint at
+	 * <code>greatestClosed</code>.
+	 * @param openAfterGreatest whether a member has an open upper endpoint at
+	 * <code>greatestClosed + 1</code>.
+	 * @return <code>true</code> if this interval unites with a member.
+	 */
+	private boolean unitesWithMembers(long greatestClosed,
+			boolean closedAtGreatest, boolean openAfterGreatest) {
+		if (closedLower() <= greatestClosed) {
+			return true;
+		}
+		if ((flags & LOWER_UNBOUNDED) != 0) {
+			return false;
+		}
+		return (flags & LOWER_CLOSED) != 0 ? openAfterGreatest && lower
+				== greatestClosed + 1 : closedAtGreatest && lower
+				== greatestClosed;
+	}
+
+	/**
+	 * Returns an interval which takes its lower endpoint from one interval and
+	 * its upper endpoint from another. If both endpoints come from the same
+	 * interval then that interval is returned rather than a copy.
+	 *
+	 * @param lowerSource the interval which supplies the lower endpoint.
+	 * @param upperSource the interval which supplies the upper endpoint.
+	 * @return an interval with the lower endpoint of the first argument and
+	 * the upper endpoint of the second.
+	 */
+	private static IntegerInterval fromEndpointsOf(IntegerInterval lowerSource,
+			IntegerInterval upperSource) {
+		if (lowerSource == upperSource) {
+			return lowerSource;
+		}
+		byte lowerFlags = (byte) (lowerSource.flags & (LOWER_CLOSED
+				| LOWER_UNBOUNDED));
+		byte upperFlags = (byte) (upperSource.flags & (UPPER_CLOSED
+				| UPPER_UNBOUNDED));
+		return instance(lowerSource.lower, upperSource.upper,
+				(byte) (lowerFlags | upperFlags));
 	}
 
 	@Override
 	public Integer getLowerEndpoint() {
-		return lower;
+		return (flags & LOWER_UNBOUNDED) != 0 ? null : lower;
 	}
 
 	@Override
 	public Integer getUpperEndpoint() {
-		return upper;
+		return (flags & UPPER_UNBOUNDED) != 0 ? null : upper;
 	}
 
 	@Override
 	public EndpointMode getLowerEndpointMode() {
-		return lowerMode;
+		return (flags & LOWER_CLOSED) != 0 ? EndpointMode.CLOSED
+				: EndpointMode.OPEN;
 	}
 
 	@Override
 	public EndpointMode getUpperEndpointMode() {
-		return upperMode;
+		return (flags & UPPER_CLOSED) != 0 ? EndpointMode.CLOSED
+				: EndpointMode.OPEN;
 	}
 
 	/**
@@ -498,11 +1176,11 @@ public final class IntegerInterval implements NumericInterval<Integer> {
 	 * the given value; <code>false</code> if the lower endpoint excludes the
 	 * given value.
 	 */
-	private boolean lowerAdmits(Integer value) {
-		if (lower == null) {
+	private boolean lowerAdmits(int value) {
+		if ((flags & LOWER_UNBOUNDED) != 0) {
 			return true;
 		}
-		if (lowerMode.equals(EndpointMode.CLOSED)) {
+		if ((flags & LOWER_CLOSED) != 0) {
 			return lower <= value;
 		} else {
 			return lower < value;
@@ -519,11 +1197,11 @@ public final class IntegerInterval implements NumericInterval<Integer> {
 	 * the given value; <code>false</code> if the upper endpoint excludes the
 	 * given value.
 	 */
-	private boolean upperEndpointAdmits(Integer value) {
-		if (upper == null) {
+	private boolean upperEndpointAdmits(int value) {
+		if ((flags & UPPER_UNBOUNDED) != 0) {
 			return true;
 		}
-		if (upperMode.equals(EndpointMode.CLOSED)) {
+		if ((flags & UPPER_CLOSED) != 0) {
 			return value <= upper;
 		} else {
 			return value < upper;
@@ -533,17 +1211,346 @@ public final class IntegerInterval implements NumericInterval<Integer> {
 	@Override
 	public boolean includes(Integer value) {
 		Objects.requireNonNull(value);
-		if (lower < value && value < upper) {
+		return includes(value.intValue());
+	}
+
+	/**
+	 * Reports on whether this interval includes the specified primitive
+	 * integer value.
+	 *
+	 * @param value the value to test.
+	 * @return <code>true</code> if the specified value is contained by this
+	 * interval; <code>false</code> otherwise.
+	 */
+	public boolean includes(int value) {
+		return lowerAdmits(value) && upperEndpointAdmits(value);
+	}
+
+	/**
+	 * Reports on whether this interval includes each of the specified
+	 * primitive int values. On return, <code>out[i]</code> is
+	 * <code>true</code> if <code>values[i]</code> is included by this
+	 * interval, and <code>false</code> otherwise. Elements of <code>out</code>
+	 * beyond <code>values.length</code> are left unchanged.
+	 *
+	 * @param values the values to test.
+	 * @param out the array which will receive the result for each value.
+	 * @throws NullPointerException if either array is <code>null</code>.
+	 * @throws IllegalArgumentException if <code>out</code> is shorter than
+	 * <code>values</code>.
+	 */
+	public void includes(int[] values, boolean[] out) {
+		checkBatchArrays(values.length, out.length);
+		// The endpoint modes are resolved once, outside of the loop, into a
+		// pair of inclusive bounds, leaving a loop body with no branches.
+		int least = leastIncluded(), greatest = greatestIncluded();
+		for (int i = 0; i < values.length; ++i) {
+			int value = values[i];
+			out[i] = least <= value & value <= greatest;
+		}
+	}
+
+	/**
+	 * Counts the number of the specified primitive int values which are
+	 * included by this interval. Repeated values are counted each time they
+	 * appear.
+	 *
+	 * @param values the values to test.
+	 * @return the number of elements of <code>values</code> which are included
+	 * by this interval.
+	 * @throws NullPointerException if <code>values</code> is
+	 * <code>null</code>.
+	 */
+	public int countIncluded(int[] values) {
+		int least = leastIncluded(), greatest = greatestIncluded();
+		int count = 0;
+		for (int value : values) {
+			count += least <= value & value <= greatest ? 1 : 0;
+		}
+		return count;
+	}
+
+	/**
+	 * Copies those of the specified primitive int values which are included
+	 * by this interval into the start of the <code>out</code> array, keeping
+	 * their original order. Elements of <code>out</code> from the returned
+	 * count onward hold unspecified values on return.
+	 *
+	 * @param in the values to filter.
+	 * @param out the array which will receive the included values. It must be
+	 * at least as long as <code>in</code>, and may be the same array as
+	 * <code>in</code>.
+	 * @return the number of values written to <code>out</code>.
+	 * @throws NullPointerException if either array is <code>null</code>.
+	 * @throws IllegalArgumentException if <code>out</code> is shorter than
+	 * <code>in</code>.
+	 */
+	public int filter(int[] in, int[] out) {
+		checkBatchArrays(in.length, out.length);
+		int least = leastIncluded(), greatest = greatestIncluded();
+		int count = 0;
+		for (int i = 0; i < in.length; ++i) {
+			int value = in[i];
+			// Always write, and only advance past the value if it is included.
+			// Because count never exceeds i, an in-place filter is safe.
+			out[count] = value;
+			count += least <= value & value <= greatest ? 1 : 0;
+		}
+		return count;
+	}
+
+	/**
+	 * Checks that a result array is long enough to receive one element for
+	 * every element of the source array.
+	 */
+	private static void checkBatchArrays(int sourceLength, int resultLength) {
+		if (resultLength < sourceLength) {
+			throw new IllegalArgumentException("Result array length "
+					+ resultLength + " is less than source array length "
+					+ sourceLength + ".");
+		}
+	}
+
+	/**
+	 * Returns a sequential stream of every integer included by this interval,
+	 * in ascending order. An open endpoint is excluded from the stream, so the
+	 * stream of (1, 4] holds 2, 3 and 4, and the stream of an empty interval is
+	 * empty.
+	 * <p>
+	 * The stream is backed by a <code>Spliterator.OfInt</code> which knows its
+	 * exact size and splits into two halves of equal size, so a parallel
+	 * stream divides the interval evenly between threads.</p>
+	 * <p>
+	 * This method refuses an interval with an unbounded endpoint, as such an
+	 * interval describes no definite range of integers. Use
+	 * {@link #streamToIntLimits()} to stream such an interval as far as the
+	 * limits of the <code>int</code> type.</p>
+	 *
+	 * @return an <code>IntStream</code> of the integers in this interval.
+	 * @throws IllegalStateException if this interval is unbounded at either
+	 * end.
+	 */
+	public IntStream stream() {
+		if ((flags & (LOWER_UNBOUNDED | UPPER_UNBOUNDED)) != 0) {
+			throw new IllegalStateException("Cannot stream the members of the "
+					+ "unbounded interval " + inMathematicalNotation() + ".");
+		}
+		return streamToIntLimits();
+	}
+
+	/**
+	 * Returns a sequential stream of every integer included by this interval,
+	 * in ascending order, treating an unbounded lower endpoint as
+	 * <code>Integer.MIN_VALUE</code> and an unbounded upper endpoint as
+	 * <code>Integer.MAX_VALUE</code>. The stream is produced lazily, so
+	 * streaming an interval such as [0, ∞) and taking only its first few
+	 * elements is cheap, but a stream of the whole interval may hold up to
+	 * 2<sup>32</sup> elements. In every other respect this method is the same
+	 * as {@link #stream()}.
+	 *
+	 * @return an <code>IntStream</code> of the integers in this interval.
+	 */
+	public IntStream streamToIntLimits() {
+		return StreamSupport.intStream(new MemberSpliterator(leastIncluded(),
+				greatestIncluded() + 1L), false);
+	}
+
+	/**
+	 * A spliterator over the integers from <code>next</code> (inclusive) to
+	 * <code>end</code> (exclusive). Both are held as <code>long</code> values
+	 * so that a range which ends at <code>Integer.MAX_VALUE</code>, or which
+	 * holds more than <code>Integer.MAX_VALUE</code> integers, needs no
+	 * special case.
+	 */
+	private static final class MemberSpliterator implements
+			Spliterator.OfInt {
+
+		private long next;
+		private final long end;
+
+		private MemberSpliterator(long next, long end) {
+			this.next = next;
+			this.end = end;
+		}
+
+		@Override
+		public OfInt trySplit() {
+			long size = end - next;
+			if (size < 2) {
+				return null;
+			}
+			long middle = next + (size >>> 1);
+			OfInt prefix = new MemberSpliterator(next, middle);
+			next = middle;
+			return prefix;
+		}
+
+		@Override
+		public boolean tryAdvance(IntConsumer action) {
+			Objects.requireNonNull(action);
+			if (next >= end) {
+				return false;
+			}
+			action.accept((int) next++);
 			return true;
 		}
 
-		return lowerAdmits(value) && upperEndpointAdmits(value);
+		@Override
+		public void forEachRemaining(IntConsumer action) {
+			Objects.requireNonNull(action);
+			long last = end;
+			for (long value = next; value < last; ++value) {
+				action.accept((int) value);
+			}
+			next = last;
+		}
+
+		@Override
+		public long estimateSize() {
+			return Math.max(end - next, 0);
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | SIZED | SUBSIZED | SORTED | DISTINCT | NONNULL
+					| IMMUTABLE;
+		}
+
+		@Override
+		public Comparator<? super Integer> getComparator() {
+			// The integers are in their natural order.
+			return null;
+		}
+	}
+
+	/**
+	 * Divides this interval into the specified number of disjoint, adjacent
+	 * intervals whose union is this interval, for handing out as separate
+	 * pieces of work. The integers included by this interval are shared out
+	 * as evenly as possible, so the number of integers in any two parts
+	 * differs by at most one. If this interval includes fewer integers than
+	 * the number of parts requested, it is divided into one part for each
+	 * integer, and if it includes no integers then the list is empty.
+	 * <p>
+	 * The first part has the same lower endpoint as this interval, and the
+	 * last part has the same upper endpoint. Every other endpoint is CLOSED
+	 * for a lower endpoint and OPEN for an upper endpoint, so that each part
+	 * adjoins the next at a shared endpoint value: dividing [0, 9] into two
+	 * gives [0, 5) and [5, 9]. As a result, forming the
+	 * {@link #union(IntegerInterval)} of each part with the next gives back
+	 * this interval. An unbounded endpoint is treated as
+	 * <code>Integer.MIN_VALUE</code> or <code>Integer.MAX_VALUE</code> when
+	 * sharing out the integers, and is kept by the first or last part.</p>
+	 *
+	 * @param parts the number of parts into which this interval should be
+	 * divided.
+	 * @return a list of at most <code>parts</code> non-empty intervals in
+	 * ascending order.
+	 * @throws IllegalArgumentException if <code>parts</code> is less than one.
+	 */
+	public List<IntegerInterval> split(int parts) {
+		if (parts < 1) {
+			throw new IllegalArgumentException("Cannot split an interval into "
+					+ parts + " parts.");
+		}
+		long least = leastIncluded(), size = memberCount();
+		int count = (int) Math.min(parts, size);
+		List<IntegerInterval> result = new ArrayList<>(count);
+		long quotient = size / Math.max(count, 1);
+		long remainder = size % Math.max(count, 1);
+		long start = least;
+		for (int i = 0; i < count; ++i) {
+			// The first (remainder) parts each take one extra integer.
+			long end = start + quotient + (i < remainder ? 1 : 0);
+			byte lowerFlags = i == 0 ? (byte) (flags & (LOWER_CLOSED
+					| LOWER_UNBOUNDED)) : LOWER_CLOSED;
+			byte upperFlags = i == count - 1 ? (byte) (flags & (UPPER_CLOSED
+					| UPPER_UNBOUNDED)) : 0;
+			result.add(instance(i == 0 ? lower : (int) start, i == count - 1
+					? upper : (int) end, (byte) (lowerFlags | upperFlags)));
+			start = end;
+		}
+		return result;
+	}
+
+	/**
+	 * Divides this interval into the fewest disjoint, adjacent intervals which
+	 * each include no more than the specified number of integers, in the same
+	 * way as {@link #split(int)}. The integers are shared out evenly between
+	 * the parts, rather than filling every part but the last, so splitting
+	 * [1, 10] by a size of four gives three parts of four, three and three
+	 * integers.
+	 *
+	 * @param maxSize the greatest number of integers which any part may
+	 * include.
+	 * @return a list of non-empty intervals in ascending order, whose union is
+	 * this interval, or an empty list if this interval includes no integers.
+	 * @throws IllegalArgumentException if <code>maxSize</code> is less than
+	 * one.
+	 */
+	public List<IntegerInterval> splitBySize(int maxSize) {
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("Cannot split an interval into "
+					+ "parts of at most " + maxSize + " integers.");
+		}
+		long size = memberCount();
+		long parts = (size + maxSize - 1) / maxSize;
+		if (parts > Integer.MAX_VALUE) {
+			// Only possible for a tiny maxSize and an interval which spans
+			// most of the int range, whose parts no list could hold anyway.
+			throw new IllegalArgumentException("Cannot split an interval of "
+					+ size + " integers into parts of " + maxSize + ".");
+		}
+		return split((int) Math.max(parts, 1));
+	}
+
+	/**
+	 * Returns the number of <code>int</code> values included by this
+	 * interval, treating an unbounded endpoint as the corresponding limit of
+	 * the <code>int</code> type.
+	 */
+	long memberCount() {
+		return (long) greatestIncluded() - leastIncluded() + 1;
+	}
+
+	/**
+	 * Reports on whether this interval includes no <code>int</code> value at
+	 * all. This differs from <code>isEmpty</code> only for an interval which
+	 * is open at <code>Integer.MAX_VALUE</code> and unbounded above, or open at
+	 * <code>Integer.MIN_VALUE</code> and unbounded below.
+	 */
+	private boolean includesNoInt() {
+		long least = closedLower(), greatest = closedUpper();
+		return least > greatest || least > Integer.MAX_VALUE || greatest
+				< Integer.MIN_VALUE;
+	}
+
+	/**
+	 * Returns the least <code>int</code> value included by this interval, or
+	 * one if no value is included (so that no value lies between this and
+	 * the result of <code>greatestIncluded</code>).
+	 */
+	int leastIncluded() {
+		return includesNoInt() ? 1 : (int) Math.max(closedLower(),
+				Integer.MIN_VALUE);
+	}
+
+	/**
+	 * Returns the greatest <code>int</code> value included by this interval,
+	 * or zero if no value is included (so that no value lies between the
+	 * result of <code>leastIncluded</code> and this).
+	 */
+	int greatestIncluded() {
+		return includesNoInt() ? 0 : (int) Math.min(closedUpper(),
+				Integer.MAX_VALUE);
 	}
 
 	@Override
 	public boolean includes(Interval<Integer> interval) {
 		Objects.requireNonNull(interval);
-		if (lower == null && upper == null) {
+		IntegerInterval that = valueOf(interval);
+		if ((flags & (LOWER_UNBOUNDED | UPPER_UNBOUNDED)) == (LOWER_UNBOUNDED
+				| UPPER_UNBOUNDED)) {
 			// An infinite interval contains all possible values, regardless of
 			// the mode of its endpoints.
 			return true;
@@ -551,32 +1558,30 @@ public final class IntegerInterval implements NumericInterval<Integer> {
 
 		boolean lowerAdmitted = false, upperAdmitted = false;
 
-		if (lower == null) {
+		if ((flags & LOWER_UNBOUNDED) != 0) {
 			lowerAdmitted = true;  // null endpoint admits all whatever its mode
-		} else if (interval.getLowerEndpoint() == null) {
+		} else if ((that.flags & LOWER_UNBOUNDED) != 0) {
 			// lowerAdmitted = false;
-		} else if (lower.compareTo(interval.getLowerEndpoint()) < 0) {
+		} else if (lower < that.lower) {
 			lowerAdmitted = true;
-		} else if (lower.compareTo(interval.getLowerEndpoint())
-				== 0) {
-			if (lowerMode.equals(EndpointMode.CLOSED)) {
+		} else if (lower == that.lower) {
+			if ((flags & LOWER_CLOSED) != 0) {
 				lowerAdmitted = true;
-			} else if (interval.getLowerEndpointMode().equals(EndpointMode.OPEN)) {
+			} else if ((that.flags & LOWER_CLOSED) == 0) {
 				lowerAdmitted = true;
 			}
 		}
 
-		if (upper == null) {
+		if ((flags & UPPER_UNBOUNDED) != 0) {
 			upperAdmitted = true;  // null endpoint admits all whatever its mode
-		} else if (interval.getUpperEndpoint() == null) {
+		} else if ((that.flags & UPPER_UNBOUNDED) != 0) {
 			// upperAdmitted = false;
-		} else if (upper.compareTo(interval.getUpperEndpoint()) > 0) {
+		} else if (upper > that.upper) {
 			upperAdmitted = true;
-		} else if (upper.compareTo(interval.getUpperEndpoint())
-				== 0) {
-			if (this.upperMode.equals(EndpointMode.CLOSED)) {
+		} else if (upper == that.upper) {
+			if ((flags & UPPER_CLOSED) != 0) {
 				upperAdmitted = true;
-			} else if (interval.getUpperEndpointMode().equals(EndpointMode.OPEN)) {
+			} else if ((that.flags & UPPER_CLOSED) == 0) {
 				upperAdmitted = true;
 			}
 		}
@@ -609,40 +1614,54 @@ public final class IntegerInterval implements NumericInterval<Integer> {
 		if (this.isEmpty()) {
 			return EMPTY_SET;
 		}
-		Integer newLower, newUpper;
-		EndpointMode newLowerMode, newUpperMode;
-
-		if (lower == null) {
-			newLower = null;
-			newLowerMode = EndpointMode.OPEN;
-		} else {
-			newLowerMode = EndpointMode.CLOSED;
-			if (lowerMode.equals(EndpointMode.CLOSED)) {
-				newLower = lower;
-			} else {
-				newLower = lower + 1;
-			}
+		int newLower = normalLower(), newUpper = normalUpper();
+		byte newFlags = normalFlags();
+		if (newLower == lower && newUpper == upper && newFlags == flags) {
+			return this;
 		}
+		return new IntegerInterval(newLower, newUpper, newFlags);
+	}
 
-		if (upper == null) {
-			newUpper = null;
-			newUpperMode = EndpointMode.OPEN;
-		} else {
-			newUpperMode = EndpointMode.CLOSED;
-			if (upperMode.equals(EndpointMode.CLOSED)) {
-				newUpper = upper;
-			} else {
-				newUpper = upper - 1;
-			}
+	/*
+	The following three methods calculate the endpoints of the normalized form
+	of a non-empty interval without creating the normalized interval itself, so
+	that equals and hashCode do not allocate.
+	*/
+
+	/**
+	 * Returns the lower endpoint value which the normalized form of this
+	 * (non-empty) interval would have: zero if the lower endpoint is unbounded,
+	 * otherwise the least integer permitted by the lower endpoint.
+	 */
+	private int normalLower() {
+		if ((flags & LOWER_UNBOUNDED) != 0) {
+			return 0;
 		}
+		return (flags & LOWER_CLOSED) != 0 ? lower : lower + 1;
+	}
 
-		if (Objects.equals(newLower, lower) && Objects.equals(newUpper, upper)
-				&& newLowerMode.equals(lowerMode)
-				&& newUpperMode.equals(upperMode)) {
-			return this;
+	/**
+	 * Returns the upper endpoint value which the normalized form of this
+	 * (non-empty) interval would have: zero if the upper endpoint is unbounded,
+	 * otherwise the greatest integer permitted by the upper endpoint.
+	 */
+	private int normalUpper() {
+		if ((flags & UPPER_UNBOUNDED) != 0) {
+			return 0;
 		}
-		return new IntegerInterval(newLowerMode, newLower, newUpper,
-				newUpperMode);
+		return (flags & UPPER_CLOSED) != 0 ? upper : upper - 1;
+	}
+
+	/**
+	 * Returns the flags which the normalized form of this (non-empty) interval
+	 * would have: each finite endpoint closed, each unbounded endpoint open.
+	 */
+	private byte normalFlags() {
+		int lowerFlag = (flags & LOWER_UNBOUNDED) != 0 ? LOWER_UNBOUNDED
+				: LOWER_CLOSED;
+		int upperFlag = (flags & UPPER_UNBOUNDED) != 0 ? UPPER_UNBOUNDED
+				: UPPER_CLOSED;
+		return (byte) (lowerFlag | upperFlag);
 	}
 
 	/**
@@ -650,20 +1669,24 @@ public final class IntegerInterval implements NumericInterval<Integer> {
 	 * this interval. Two <code>IntegerInterval</code> objects which are
 	 * considered equal according to the <code>equals</code> method will cause
 	 * this method to return an identical hash value.
+	 * <p>
+	 * The normalized endpoints are calculated arithmetically, so this method
+	 * does not create any objects.</p>
 	 *
 	 * @return a hash code based on the normalized endpoint values and modes of
 	 * this interval.
 	 */
 	@Override
 	public int hashCode() {
-		// TODO: Consider normalizing endpoint values and modes here to avoid creation of additonal object.
-		IntegerInterval normal = this.normalized();
-		
 		int hash = 7;
-		hash = 79 * hash + (normal.lower != null ? normal.lower.hashCode() : 0);
-		hash = 79 * hash + (normal.upper != null ? normal.upper.hashCode() : 0);
-		hash = 79 * hash + normal.lowerMode.hashCode();
-		hash = 79 * hash + normal.upperMode.hashCode();
+		if (this.isEmpty()) {
+			// Every empty interval is equal to EMPTY_SET, whose endpoint values
+			// and flags are all zero.
+			return 79 * (79 * (79 * hash));
+		}
+		hash = 79 * hash + normalLower();
+		hash = 79 * hash + normalUpper();
+		hash = 79 * hash + normalFlags();
 		return hash;
 	}
 
@@ -677,6 +1700,9 @@ public final class IntegerInterval implements NumericInterval<Integer> {
 	 * <p>
 	 * Note that any two intervals representing the empty set are considered
 	 * equal regardless of their actual endpoint values.</p>
+	 * <p>
+	 * The normalized endpoints are calculated arithmetically, so this method
+	 * does not create any objects.</p>
 	 *
 	 * @param obj the <code>Object</code> to test for equality.
 	 * @return <code>true</code> if the supplied <code>Object</code> is an
@@ -685,37 +1711,31 @@ public final class IntegerInterval implements NumericInterval<Integer> {
 	 */
 	@Override
 	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
 		if (!(obj instanceof IntegerInterval)) {
 			return false;
 		}
 		IntegerInterval that = (IntegerInterval) obj;
-		if (this.lower == null && that.lower == null) {
-			if (this.upper == null && that.upper == null) {
-				// If an endpoint is null then its mode is irrelevant.
-				return true;
-			}
-		}
 		boolean thisEmpty = this.isEmpty();
 		boolean thatEmpty = that.isEmpty();
-		if (thisEmpty) {
-			return thatEmpty;
-		}
-		if (thatEmpty) {
-			// We already know that this is not empty.
-			return false;
+		if (thisEmpty || thatEmpty) {
+			return thisEmpty == thatEmpty;
 		}
-
-		// TODO: Consider normalizing endpoint values and modes here to avoid creation of additonal objects.
-		IntegerInterval thisNormal = this.normalized();
-		IntegerInterval thatNormal = that.normalized();
-
-		return Objects.equals(thisNormal.lower, thatNormal.lower) && Objects.
-				equals(thisNormal.upper,
-						thatNormal.upper) && thisNormal.lowerMode.equals(
-						thatNormal.lowerMode) && thisNormal.upperMode.equals(
-						thatNormal.upperMode);
+		// If an endpoint is null then its mode is irrelevant, and this is
+		// taken care of by the normalized flags.
+		return this.normalLower() == that.normalLower()
+				&& this.normalUpper() == that.normalUpper()
+				&& this.normalFlags() == that.normalFlags();
 	}
 
+	/*
+	The longest notation is that of an interval with two bounded endpoints of
+	eleven characters each, such as [-2147483648, -2147483648].
+	*/
+	private static final int MAXIMUM_NOTATION_LENGTH = 26;
+
 	/**
 	 * Produces a <code>String</code> which represents this interval in
 	 * mathematical notation.
@@ -730,23 +1750,97 @@ public final class IntegerInterval implements NumericInterval<Integer> {
 	 * this interval.
 	 */
 	public String inMathematicalNotation() {
-		String lowerString = lower == null ? "−∞" : lower.toString();
-		String upperString = upper == null ? "+∞" : upper.toString();
+		return appendTo(new StringBuilder(MAXIMUM_NOTATION_LENGTH)).toString();
+	}
 
-		int totalLength = 4 + lowerString.length() + upperString.length();
-		StringBuilder sb = new StringBuilder(totalLength);
+	/**
+	 * Appends the mathematical notation of this interval, exactly as produced
+	 * by {@link #inMathematicalNotation()}, to the given builder without
+	 * creating any intermediate <code>String</code>.
+	 *
+	 * @param builder the builder to append to.
+	 * @return the given builder.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public StringBuilder appendTo(StringBuilder builder) {
+		builder.append((flags & LOWER_CLOSED) != 0 ? '[' : '(');
+		if ((flags & LOWER_UNBOUNDED) != 0) {
+			builder.append("−∞");
+		} else {
+			builder.append(lower);
+		}
+		builder.append(", ");
+		if ((flags & UPPER_UNBOUNDED) != 0) {
+			builder.append("+∞");
+		} else {
+			builder.append(upper);
+		}
+		return builder.append((flags & UPPER_CLOSED) != 0 ? ']' : ')');
+	}
 
-		sb.append(lowerMode.equals(EndpointMode.CLOSED) ? '[' : '(');
-		sb.append(lowerString);
-		sb.append(", ");
-		sb.append(upperString);
-		sb.append(upperMode.equals(EndpointMode.CLOSED) ? ']' : ')');
+	/**
+	 * Appends the mathematical notation of this interval, exactly as produced
+	 * by {@link #inMathematicalNotation()}, to the given
+	 * <code>Appendable</code> without creating any intermediate
+	 * <code>String</code>. The endpoint values are appended a digit at a
+	 * time, so this method suits a <code>Writer</code> or
+	 * <code>CharBuffer</code> which receives the notation of many intervals.
+	 *
+	 * @param appendable the destination to append to.
+	 * @return the given <code>Appendable</code>.
+	 * @throws IOException if the <code>Appendable</code> throws an
+	 * <code>IOException</code>.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public Appendable appendTo(Appendable appendable) throws IOException {
+		if (appendable instanceof StringBuilder) {
+			return appendTo((StringBuilder) appendable);
+		}
+		appendable.append((flags & LOWER_CLOSED) != 0 ? '[' : '(');
+		if ((flags & LOWER_UNBOUNDED) != 0) {
+			appendable.append("−∞");
+		} else {
+			appendInt(appendable, lower);
+		}
+		appendable.append(", ");
+		if ((flags & UPPER_UNBOUNDED) != 0) {
+			appendable.append("+∞");
+		} else {
+			appendInt(appendable, upper);
+		}
+		return appendable.append((flags & UPPER_CLOSED) != 0 ? ']' : ')');
+	}
 
-		return sb.toString();
+	/**
+	 * Appends the decimal digits of the given value, most significant first,
+	 * preceded by a hyphen-minus if the value is negative.
+	 */
+	private static void appendInt(Appendable appendable, int value) throws
+			IOException {
+		if (value < 0) {
+			appendable.append('-');
+		} else {
+			// Work with the negated value, as the range of int reaches one
+			// further below zero than above it.
+			value = -value;
+		}
+		int divisor = -1;
+		while (divisor > Integer.MIN_VALUE / 10 && value <= 10 * divisor) {
+			divisor *= 10;
+		}
+		// Both value and divisor are negative or zero, so each quotient is
+		// a digit from zero to nine.
+		for (; divisor != 0; divisor /= 10) {
+			appendable.append((char) ('0' + value / divisor));
+			value %= divisor;
+		}
 	}
 
 	@Override
 	public String toString() {
-		return "IntegerInterval: " + inMathematicalNotation();
+		return appendTo(new StringBuilder(17 + MAXIMUM_NOTATION_LENGTH).append(
+				"IntegerInterval: ")).toString();
 	}
-}
\ No newline at end of file
+}
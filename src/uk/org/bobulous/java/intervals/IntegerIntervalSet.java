@@ -0,0 +1,530 @@
+/*
+ * Copyright © 2015 Bobulous <http://www.bobulous.org.uk/>.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package uk.org.bobulous.java.intervals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A set of <code>int</code> values held as a sorted list of disjoint ranges.
+ * <p>
+ * Every <code>IntegerInterval</code> added to the set is first normalized
+ * (following the same rules as <code>IntegerInterval</code> uses for
+ * equality) so that it becomes a closed range of integers. An unbounded lower
+ * endpoint becomes <code>Integer.MIN_VALUE</code> and an unbounded upper
+ * endpoint becomes <code>Integer.MAX_VALUE</code>. The ranges held by the set
+ * never overlap and never adjoin: two ranges such as [1, 3] and [4, 6] are
+ * always coalesced into the single range [1, 6] because together they include
+ * every integer from one to six.</p>
+ * <p>
+ * The ranges are stored in two primitive <code>int</code> arrays, so
+ * {@link #contains(int)} is a binary search taking time proportional to
+ * log(<var>n</var>), where <var>n</var> is the number of ranges, and
+ * {@link #union(IntegerIntervalSet)},
+ * {@link #intersection(IntegerIntervalSet)} and
+ * {@link #difference(IntegerIntervalSet)} each make a single linear pass over
+ * the ranges of both sets.</p>
+ * <p>
+ * This class is not thread-safe. If a set is to be modified by one thread
+ * while being read or modified by another then access must be synchronized
+ * externally.</p>
+ *
+ * <p>
+ * <strong>WARNING:</strong> development and testing are still in early stages.
+ * Consider this class to be in its alpha testing phase. Use with caution, and
+ * do not rely on its structure remaining in exactly its current form!</p>
+ *
+ * @author Bobulous <http://www.bobulous.org.uk/>
+ * @see IntegerInterval
+ */
+public final class IntegerIntervalSet {
+
+	/*
+	The closed bounds of each range, in ascending order. Only the first count
+	elements of each array are in use. For every i, starts[i] <= ends[i], and
+	ends[i] + 1 < starts[i + 1].
+	*/
+	private int[] starts;
+	private int[] ends;
+	private int count;
+
+	private static final int DEFAULT_CAPACITY = 8;
+
+	/**
+	 * Constructs an empty <code>IntegerIntervalSet</code>.
+	 */
+	public IntegerIntervalSet() {
+		this(new int[DEFAULT_CAPACITY], new int[DEFAULT_CAPACITY], 0);
+	}
+
+	/**
+	 * Constructs an <code>IntegerIntervalSet</code> which includes every
+	 * integer included by any of the given intervals.
+	 *
+	 * @param intervals the intervals to add to the new set.
+	 * @throws NullPointerException if the collection or any of its elements is
+	 * <code>null</code>.
+	 */
+	public IntegerIntervalSet(Collection<IntegerInterval> intervals) {
+		this();
+		for (IntegerInterval interval : intervals) {
+			add(interval);
+		}
+	}
+
+	private IntegerIntervalSet(int[] starts, int[] ends, int count) {
+		this.starts = starts;
+		this.ends = ends;
+		this.count = count;
+	}
+
+	/**
+	 * Returns the number of disjoint ranges held by this set.
+	 *
+	 * @return the number of ranges in this set.
+	 */
+	public int rangeCount() {
+		return count;
+	}
+
+	/**
+	 * Reports on whether this set includes no integers.
+	 *
+	 * @return <code>true</code> if this set is empty.
+	 */
+	public boolean isEmpty() {
+		return count == 0;
+	}
+
+	/**
+	 * Returns the number of integers included by this set.
+	 *
+	 * @return the number of integers in this set.
+	 */
+	public long cardinality() {
+		long total = 0;
+		for (int i = 0; i < count; ++i) {
+			total += (long) ends[i] - starts[i] + 1;
+		}
+		return total;
+	}
+
+	/**
+	 * Removes every integer from this set.
+	 */
+	public void clear() {
+		count = 0;
+	}
+
+	/**
+	 * Returns the index of the last range whose start is less than or equal
+	 * to the given value, or -1 if every range starts after the value.
+	 */
+	private int floorIndex(long value) {
+		int low = 0, high = count - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (starts[mid] <= value) {
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return high;
+	}
+
+	/**
+	 * Reports on whether this set includes the specified value.
+	 *
+	 * @param value the value to test.
+	 * @return <code>true</code> if this set includes the value.
+	 */
+	public boolean contains(int value) {
+		int index = floorIndex(value);
+		return index >= 0 && value <= ends[index];
+	}
+
+	/**
+	 * Reports on whether this set includes every integer which is included by
+	 * the specified interval. An empty interval is contained by every set.
+	 *
+	 * @param interval the interval to test.
+	 * @return <code>true</code> if every integer in the interval is in this
+	 * set.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public boolean contains(IntegerInterval interval) {
+		Objects.requireNonNull(interval);
+		long lower = lowerBound(interval), upper = upperBound(interval);
+		if (lower > upper) {
+			return true;
+		}
+		int index = floorIndex(lower);
+		return index >= 0 && upper <= ends[index];
+	}
+
+	/**
+	 * Returns the least integer included by the given interval, clamped to
+	 * the range of <code>int</code>.
+	 */
+	private static long lowerBound(IntegerInterval interval) {
+		if (interval.isEmpty()) {
+			return Long.MAX_VALUE;
+		}
+		return Math.max(interval.closedLower(), Integer.MIN_VALUE);
+	}
+
+	/**
+	 * Returns the greatest integer included by the given interval, clamped to
+	 * the range of <code>int</code>.
+	 */
+	private static long upperBound(IntegerInterval interval) {
+		if (interval.isEmpty()) {
+			return Long.MIN_VALUE;
+		}
+		return Math.min(interval.closedUpper(), Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Adds every integer included by the specified interval to this set.
+	 *
+	 * @param interval the interval to add.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public void add(IntegerInterval interval) {
+		Objects.requireNonNull(interval);
+		long lower = lowerBound(interval), upper = upperBound(interval);
+		if (lower <= upper) {
+			addRange((int) lower, (int) upper);
+		}
+	}
+
+	/**
+	 * Adds the specified value to this set.
+	 *
+	 * @param value the value to add.
+	 */
+	public void add(int value) {
+		addRange(value, value);
+	}
+
+	private void addRange(int lower, int upper) {
+		// Find every existing range which overlaps or adjoins [lower, upper].
+		int first = floorIndex(lower - 1L);
+		if (first < 0 || ends[first] < lower - 1L) {
+			++first;
+		}
+		int last = floorIndex(upper + 1L);
+		if (first > last) {
+			// Nothing to merge with, so insert a new range at this position.
+			ensureCapacity(count + 1);
+			System.arraycopy(starts, first, starts, first + 1, count - first);
+			System.arraycopy(ends, first, ends, first + 1, count - first);
+			starts[first] = lower;
+			ends[first] = upper;
+			++count;
+			return;
+		}
+		starts[first] = Math.min(lower, starts[first]);
+		ends[first] = Math.max(upper, ends[last]);
+		removeRanges(first + 1, last + 1);
+	}
+
+	/**
+	 * Removes every integer included by the specified interval from this set.
+	 *
+	 * @param interval the interval to remove.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public void remove(IntegerInterval interval) {
+		Objects.requireNonNull(interval);
+		long lower = lowerBound(interval), upper = upperBound(interval);
+		if (lower <= upper) {
+			removeRange((int) lower, (int) upper);
+		}
+	}
+
+	/**
+	 * Removes the specified value from this set.
+	 *
+	 * @param value the value to remove.
+	 */
+	public void remove(int value) {
+		removeRange(value, value);
+	}
+
+	private void removeRange(int lower, int upper) {
+		// Find every existing range which overlaps [lower, upper].
+		int first = floorIndex(lower);
+		if (first < 0 || ends[first] < lower) {
+			++first;
+		}
+		int last = floorIndex(upper);
+		if (first > last) {
+			return;
+		}
+		boolean keepHead = starts[first] < lower;
+		boolean keepTail = ends[last] > upper;
+		if (first == last && keepHead && keepTail) {
+			// The removed range lies strictly inside one range, so split it.
+			ensureCapacity(count + 1);
+			System.arraycopy(starts, first + 1, starts, first + 2, count - first
+					- 1);
+			System.arraycopy(ends, first, ends, first + 1, count - first);
+			ends[first] = lower - 1;
+			starts[first + 1] = upper + 1;
+			++count;
+			return;
+		}
+		if (keepHead) {
+			ends[first] = lower - 1;
+			++first;
+		}
+		if (keepTail) {
+			starts[last] = upper + 1;
+			--last;
+		}
+		removeRanges(first, last + 1);
+	}
+
+	/**
+	 * Removes the ranges from index <var>from</var> (inclusive) to index
+	 * <var>to</var> (exclusive).
+	 */
+	private void removeRanges(int from, int to) {
+		if (from >= to) {
+			return;
+		}
+		System.arraycopy(starts, to, starts, from, count - to);
+		System.arraycopy(ends, to, ends, from, count - to);
+		count -= to - from;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity > starts.length) {
+			int newCapacity = Math.max(capacity, starts.length * 2);
+			starts = Arrays.copyOf(starts, newCapacity);
+			ends = Arrays.copyOf(ends, newCapacity);
+		}
+	}
+
+	/**
+	 * Returns a new set which includes every <code>int</code> value which is
+	 * not included by this set.
+	 *
+	 * @return the complement of this set.
+	 */
+	public IntegerIntervalSet complement() {
+		int[] newStarts = new int[count + 1], newEnds = new int[count + 1];
+		int n = 0;
+		long next = Integer.MIN_VALUE;
+		for (int i = 0; i < count; ++i) {
+			if (starts[i] > next) {
+				newStarts[n] = (int) next;
+				newEnds[n++] = starts[i] - 1;
+			}
+			next = ends[i] + 1L;
+		}
+		if (next <= Integer.MAX_VALUE) {
+			newStarts[n] = (int) next;
+			newEnds[n++] = Integer.MAX_VALUE;
+		}
+		return new IntegerIntervalSet(newStarts, newEnds, n);
+	}
+
+	/**
+	 * Returns a new set which includes every integer included by this set or
+	 * by the specified set (or by both). This is calculated in a single pass
+	 * over the ranges of both sets.
+	 *
+	 * @param other the set with which to form a union.
+	 * @return the union of the two sets.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public IntegerIntervalSet union(IntegerIntervalSet other) {
+		Objects.requireNonNull(other);
+		int capacity = Math.max(1, this.count + other.count);
+		int[] newStarts = new int[capacity], newEnds = new int[capacity];
+		int n = 0, i = 0, j = 0;
+		while (i < this.count || j < other.count) {
+			int start, end;
+			if (j >= other.count || (i < this.count && this.starts[i]
+					<= other.starts[j])) {
+				start = this.starts[i];
+				end = this.ends[i++];
+			} else {
+				start = other.starts[j];
+				end = other.ends[j++];
+			}
+			if (n > 0 && start <= newEnds[n - 1] + 1L) {
+				// Overlaps or adjoins the previous range, so extend it.
+				newEnds[n - 1] = Math.max(newEnds[n - 1], end);
+			} else {
+				newStarts[n] = start;
+				newEnds[n++] = end;
+			}
+		}
+		return new IntegerIntervalSet(newStarts, newEnds, n);
+	}
+
+	/**
+	 * Returns a new set which includes every integer included by both this set
+	 * and the specified set. This is calculated in a single pass over the
+	 * ranges of both sets.
+	 *
+	 * @param other the set with which to form an intersection.
+	 * @return the intersection of the two sets.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public IntegerIntervalSet intersection(IntegerIntervalSet other) {
+		Objects.requireNonNull(other);
+		int capacity = Math.max(1, this.count + other.count);
+		int[] newStarts = new int[capacity], newEnds = new int[capacity];
+		int n = 0, i = 0, j = 0;
+		while (i < this.count && j < other.count) {
+			int start = Math.max(this.starts[i], other.starts[j]);
+			int end = Math.min(this.ends[i], other.ends[j]);
+			if (start <= end) {
+				newStarts[n] = start;
+				newEnds[n++] = end;
+			}
+			// Move past whichever range finishes first.
+			if (this.ends[i] < other.ends[j]) {
+				++i;
+			} else {
+				++j;
+			}
+		}
+		return new IntegerIntervalSet(newStarts, newEnds, n);
+	}
+
+	/**
+	 * Returns a new set which includes every integer included by this set but
+	 * not by the specified set. This is calculated in a single pass over the
+	 * ranges of both sets.
+	 *
+	 * @param other the set whose integers should be excluded.
+	 * @return the difference of the two sets.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public IntegerIntervalSet difference(IntegerIntervalSet other) {
+		Objects.requireNonNull(other);
+		int capacity = Math.max(1, this.count + other.count);
+		int[] newStarts = new int[capacity], newEnds = new int[capacity];
+		int n = 0, j = 0;
+		for (int i = 0; i < this.count; ++i) {
+			long start = this.starts[i];
+			int end = this.ends[i];
+			// Skip the ranges of the other set which finish before this range.
+			while (j < other.count && other.ends[j] < start) {
+				++j;
+			}
+			// Cut out every range of the other set which overlaps this range.
+			int k = j;
+			while (k < other.count && other.starts[k] <= end) {
+				if (other.starts[k] > start) {
+					newStarts[n] = (int) start;
+					newEnds[n++] = other.starts[k] - 1;
+				}
+				start = other.ends[k] + 1L;
+				if (other.ends[k] > end) {
+					break;
+				}
+				++k;
+			}
+			j = k;
+			if (start <= end) {
+				newStarts[n] = (int) start;
+				newEnds[n++] = end;
+			}
+		}
+		return new IntegerIntervalSet(newStarts, newEnds, n);
+	}
+
+	/**
+	 * Returns the ranges of this set as a list of closed intervals in
+	 * ascending order.
+	 *
+	 * @return a list of closed <code>IntegerInterval</code> objects which
+	 * together include exactly the integers in this set.
+	 */
+	public List<IntegerInterval> toIntervals() {
+		List<IntegerInterval> intervals = new ArrayList<>(count);
+		for (int i = 0; i < count; ++i) {
+			intervals.add(IntegerInterval.closed(starts[i], ends[i]));
+		}
+		return intervals;
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 7;
+		for (int i = 0; i < count; ++i) {
+			hash = 79 * hash + starts[i];
+			hash = 79 * hash + ends[i];
+		}
+		return hash;
+	}
+
+	/**
+	 * Reports on whether the specified object is an
+	 * <code>IntegerIntervalSet</code> which includes exactly the same integers
+	 * as this set.
+	 *
+	 * @param obj the <code>Object</code> to test for equality.
+	 * @return <code>true</code> if the supplied <code>Object</code> is an
+	 * <code>IntegerIntervalSet</code> with the same members as this set.
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof IntegerIntervalSet)) {
+			return false;
+		}
+		IntegerIntervalSet that = (IntegerIntervalSet) obj;
+		if (this.count != that.count) {
+			return false;
+		}
+		for (int i = 0; i < count; ++i) {
+			if (this.starts[i] != that.starts[i] || this.ends[i]
+					!= that.ends[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Produces a <code>String</code> which lists the ranges of this set in
+	 * mathematical notation, such as <samp>{[1, 3], [7, 9]}</samp>.
+	 *
+	 * @return a <code>String</code> which represents this set.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(2 + 12 * count);
+		sb.append('{');
+		for (int i = 0; i < count; ++i) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+			sb.append('[').append(starts[i]).append(", ").append(ends[i]).
+					append(']');
+		}
+		sb.append('}');
+		return sb.toString();
+	}
+}
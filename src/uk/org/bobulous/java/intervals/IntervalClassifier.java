@@ -0,0 +1,191 @@
+/*
+ * Copyright © 2015 Bobulous <http://www.bobulous.org.uk/>.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package uk.org.bobulous.java.intervals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An immutable lookup table which maps an integer value to the index of the
+ * band (one of a list of non-overlapping <code>IntegerInterval</code> objects)
+ * which includes it.
+ *
+ * <p>
+ * The bands are resolved into inclusive bounds when the classifier is built,
+ * and the lower bounds are held in Eytzinger (breadth-first binary tree)
+ * order, so that <code>classify</code> performs a binary search whose loop
+ * contains no unpredictable branch and whose first few steps always touch the
+ * same few cache lines.</p>
+ *
+ * <p>
+ * <strong>WARNING:</strong> development and testing are still in early stages.
+ * Consider this class to be in its alpha testing phase. Use with caution, and
+ * do not rely on its structure remaining in exactly its current form!</p>
+ *
+ * @author Bobulous <http://www.bobulous.org.uk/>
+ */
+public final class IntervalClassifier {
+
+	private final List<IntegerInterval> bands;
+
+	/*
+	The non-empty bands in ascending order of lower bound: greatest[i] is the
+	greatest value included by the band whose lower bound has rank i, and
+	band[i] is that band's index in the list given to the factory method.
+	*/
+	private final int[] greatest;
+	private final int[] band;
+
+	/*
+	The lower bounds laid out as an implicit binary tree with its root at
+	index one and the children of node k at 2k and 2k + 1. rank[k] is the rank
+	of the lower bound at node k (its index in ascending order), and rank[0]
+	holds the number of non-empty bands.
+	*/
+	private final int[] least;
+	private final int[] rank;
+
+	private IntervalClassifier(List<IntegerInterval> bands, int[] sortedLeast,
+			int[] greatest, int[] band) {
+		this.bands = bands;
+		this.greatest = greatest;
+		this.band = band;
+		int count = sortedLeast.length;
+		this.least = new int[count + 1];
+		this.rank = new int[count + 1];
+		this.rank[0] = count;
+		layOut(sortedLeast, 0, 1);
+	}
+
+	/**
+	 * Fills the subtree rooted at node <code>k</code> with sorted lower bounds
+	 * from <code>next</code> onward, by an in-order walk of the tree.
+	 *
+	 * @return the index of the next sorted lower bound to be placed.
+	 */
+	private int layOut(int[] sortedLeast, int next, int k) {
+		if (k < least.length) {
+			next = layOut(sortedLeast, next, 2 * k);
+			least[k] = sortedLeast[next];
+			rank[k] = next++;
+			next = layOut(sortedLeast, next, 2 * k + 1);
+		}
+		return next;
+	}
+
+	/**
+	 * Creates a classifier for the given list of bands. The band index of each
+	 * interval is its index in the list. Bands which include no integer value
+	 * are permitted, but no value will ever be classified into them.
+	 *
+	 * @param bands a list of <code>IntegerInterval</code> objects, no two of
+	 * which intersect.
+	 * @return a new classifier for the given bands.
+	 * @throws NullPointerException if <code>bands</code> is <code>null</code>
+	 * or contains <code>null</code>.
+	 * @throws IllegalArgumentException if any two of the bands intersect. The
+	 * message names the offending pair.
+	 */
+	public static IntervalClassifier of(List<IntegerInterval> bands) {
+		Objects.requireNonNull(bands);
+		List<IntegerInterval> copy = Collections.unmodifiableList(
+				new ArrayList<>(bands));
+		/*
+		Sort the non-empty bands by their least included value. Each key packs
+		that value into its high half and the band index into its low half, so
+		sorting the keys sorts the bands without boxing.
+		*/
+		long[] keys = new long[copy.size()];
+		int count = 0;
+		for (int i = 0; i < copy.size(); ++i) {
+			IntegerInterval interval = Objects.requireNonNull(copy.get(i),
+					"Band list must not contain null.");
+			if (interval.leastIncluded() <= interval.greatestIncluded()) {
+				keys[count++] = ((long) interval.leastIncluded() << 32) | i;
+			}
+		}
+		Arrays.sort(keys, 0, count);
+		int[] sortedLeast = new int[count];
+		int[] greatest = new int[count];
+		int[] band = new int[count];
+		for (int r = 0; r < count; ++r) {
+			band[r] = (int) keys[r];
+			IntegerInterval interval = copy.get(band[r]);
+			sortedLeast[r] = interval.leastIncluded();
+			greatest[r] = interval.greatestIncluded();
+			/*
+			If any two bands intersect then some band intersects the band
+			which precedes it in this order, so only neighbours need checking.
+			*/
+			if (r > 0) {
+				IntegerInterval previous = copy.get(band[r - 1]);
+				if (previous.intersectsWith(interval)) {
+					throw new IllegalArgumentException("Band " + band[r - 1]
+							+ " (" + previous + ") intersects with band "
+							+ band[r] + " (" + interval + ").");
+				}
+			}
+		}
+		return new IntervalClassifier(copy, sortedLeast, greatest, band);
+	}
+
+	/**
+	 * Returns the index of the band which includes the given value.
+	 *
+	 * @param value the value to classify.
+	 * @return the index (within the list given when this classifier was
+	 * created) of the band which includes <code>value</code>, or
+	 * <code>-1</code> if no band includes it.
+	 */
+	public int classify(int value) {
+		int[] least = this.least;
+		int k = 1;
+		while (k < least.length) {
+			k = 2 * k + (least[k] <= value ? 1 : 0);
+		}
+		/*
+		The walk ends below the first node whose lower bound exceeds the value.
+		Discarding the trailing one bits (the final run of right turns) and one
+		more bit leads back up to that node, or to node zero if the walk never
+		turned left (meaning that no lower bound exceeds the value). Either way,
+		rank gives the number of lower bounds which do not exceed the value, so
+		the candidate band is the one ranked just below.
+		*/
+		k >>>= Integer.numberOfTrailingZeros(~k) + 1;
+		int candidate = rank[k] - 1;
+		if (candidate < 0 || value > greatest[candidate]) {
+			return -1;
+		}
+		return band[candidate];
+	}
+
+	/**
+	 * Returns the band which includes the given value.
+	 *
+	 * @param value the value to classify.
+	 * @return the band which includes <code>value</code>, or <code>null</code>
+	 * if no band includes it.
+	 */
+	public IntegerInterval bandOf(int value) {
+		int index = classify(value);
+		return index < 0 ? null : bands.get(index);
+	}
+
+	/**
+	 * Returns the bands of this classifier, in the order in which they were
+	 * given when this classifier was created.
+	 *
+	 * @return an unmodifiable list of the bands of this classifier.
+	 */
+	public List<IntegerInterval> getBands() {
+		return bands;
+	}
+}
@@ -0,0 +1,703 @@
+/*
+ * Copyright © 2015 Bobulous <http://www.bobulous.org.uk/>.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package uk.org.bobulous.java.intervals;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import uk.org.bobulous.java.intervals.Interval.EndpointMode;
+
+/**
+ * Static methods which encode intervals into a compact binary form, and
+ * decode them again, using either a <code>ByteBuffer</code> or a
+ * <code>DataOutput</code> and <code>DataInput</code>. Both give exactly the
+ * same bytes, so an interval written to a stream can be read from a buffer
+ * and vice versa.
+ *
+ * <p>
+ * Every encoded interval begins with a single header byte which holds four
+ * flags: bit 0 is set if the lower endpoint is closed, bit 1 if the upper
+ * endpoint is closed, bit 2 if the lower endpoint is unbounded and bit 3 if
+ * the upper endpoint is unbounded. The remaining bits are always zero. The
+ * header is followed by the value of each bounded endpoint, lower first.</p>
+ *
+ * <p>
+ * For an <code>IntegerInterval</code>, the lower endpoint value is written as
+ * its difference from zero, and the upper endpoint value as its difference
+ * from the lower endpoint value (or from zero if the lower endpoint is
+ * unbounded). Each difference is zigzag encoded (so that small negative
+ * numbers become small positive numbers) and then written as a
+ * variable-length integer of seven bits per byte, least significant first, so
+ * that the interval [3, 10] takes three bytes. A sequence of
+ * <code>IntegerInterval</code> objects is written as its length followed by
+ * each interval, except that each lower endpoint value is written as its
+ * difference from the previous bounded lower endpoint value, so a sequence
+ * in ascending order takes very few bytes per interval.</p>
+ *
+ * <p>
+ * For any other interval, each bounded endpoint value is written by a
+ * {@link ValueCodec} for the basis type. Codecs are provided for
+ * <code>Integer</code>, <code>Long</code>, <code>Double</code> and
+ * <code>String</code>.</p>
+ *
+ * <p>
+ * Reading from a <code>ByteBuffer</code> uses only its relative
+ * <code>get</code> methods, so a direct or memory-mapped buffer is decoded in
+ * place without any intermediate copy or string.</p>
+ *
+ * <p>
+ * <strong>WARNING:</strong> development and testing are still in early stages.
+ * Consider this class to be in its alpha testing phase. Use with caution, and
+ * do not rely on its structure remaining in exactly its current form!</p>
+ *
+ * @author Bobulous <http://www.bobulous.org.uk/>
+ */
+public final class IntervalCodec {
+
+	/**
+	 * Encodes and decodes single endpoint values of basis type
+	 * <code>T</code>. An implementation must write exactly the same bytes to
+	 * a <code>ByteBuffer</code> as to a <code>DataOutput</code>, regardless of
+	 * the byte order of the buffer.
+	 *
+	 * @param <T> the type of value encoded.
+	 */
+	public interface ValueCodec<T> {
+
+		/**
+		 * Writes the given value at the position of the given buffer.
+		 *
+		 * @param value the value to write.
+		 * @param buffer the buffer to write into.
+		 * @throws java.nio.BufferOverflowException if the buffer has too
+		 * little space remaining.
+		 */
+		void write(T value, ByteBuffer buffer);
+
+		/**
+		 * Writes the given value to the given output.
+		 *
+		 * @param value the value to write.
+		 * @param output the output to write to.
+		 * @throws IOException if the output cannot be written.
+		 */
+		void write(T value, DataOutput output) throws IOException;
+
+		/**
+		 * Reads a value from the position of the given buffer.
+		 *
+		 * @param buffer the buffer to read from.
+		 * @return the value read.
+		 * @throws java.nio.BufferUnderflowException if the buffer ends before
+		 * the value does.
+		 * @throws IllegalArgumentException if the bytes do not encode a value.
+		 */
+		T read(ByteBuffer buffer);
+
+		/**
+		 * Reads a value from the given input.
+		 *
+		 * @param input the input to read from.
+		 * @return the value read.
+		 * @throws IOException if the input cannot be read, or if the bytes do
+		 * not encode a value.
+		 */
+		T read(DataInput input) throws IOException;
+	}
+
+	/**
+	 * Encodes an <code>Integer</code> as a zigzag variable-length integer of
+	 * one to five bytes.
+	 */
+	public static final ValueCodec<Integer> INTEGER = new ValueCodec<Integer>() {
+		@Override
+		public void write(Integer value, ByteBuffer buffer) {
+			putVarint(buffer, zigzag(value));
+		}
+
+		@Override
+		public void write(Integer value, DataOutput output) throws
+				IOException {
+			writeVarint(output, zigzag(value));
+		}
+
+		@Override
+		public Integer read(ByteBuffer buffer) {
+			return toInt(unzigzag(getVarint(buffer)));
+		}
+
+		@Override
+		public Integer read(DataInput input) throws IOException {
+			try {
+				return toInt(unzigzag(readVarint(input)));
+			} catch (IllegalArgumentException ex) {
+				throw corrupted(ex);
+			}
+		}
+	};
+
+	/**
+	 * Encodes a <code>Long</code> as a zigzag variable-length integer of one
+	 * to ten bytes.
+	 */
+	public static final ValueCodec<Long> LONG = new ValueCodec<Long>() {
+		@Override
+		public void write(Long value, ByteBuffer buffer) {
+			putVarint(buffer, zigzag(value));
+		}
+
+		@Override
+		public void write(Long value, DataOutput output) throws IOException {
+			writeVarint(output, zigzag(value));
+		}
+
+		@Override
+		public Long read(ByteBuffer buffer) {
+			return unzigzag(getVarint(buffer));
+		}
+
+		@Override
+		public Long read(DataInput input) throws IOException {
+			return unzigzag(readVarint(input));
+		}
+	};
+
+	/**
+	 * Encodes a <code>Double</code> as the eight bytes of its raw IEEE 754
+	 * bit pattern, most significant first.
+	 */
+	public static final ValueCodec<Double> DOUBLE = new ValueCodec<Double>() {
+		@Override
+		public void write(Double value, ByteBuffer buffer) {
+			long bits = Double.doubleToRawLongBits(value);
+			buffer.putLong(buffer.order() == ByteOrder.BIG_ENDIAN ? bits
+					: Long.reverseBytes(bits));
+		}
+
+		@Override
+		public void write(Double value, DataOutput output) throws
+				IOException {
+			output.writeLong(Double.doubleToRawLongBits(value));
+		}
+
+		@Override
+		public Double read(ByteBuffer buffer) {
+			long bits = buffer.getLong();
+			return Double.longBitsToDouble(buffer.order()
+					== ByteOrder.BIG_ENDIAN ? bits : Long.reverseBytes(bits));
+		}
+
+		@Override
+		public Double read(DataInput input) throws IOException {
+			return Double.longBitsToDouble(input.readLong());
+		}
+	};
+
+	/**
+	 * Encodes a <code>String</code> as the variable-length number of bytes in
+	 * its UTF-8 form, followed by those bytes.
+	 */
+	public static final ValueCodec<String> STRING = new ValueCodec<String>() {
+		@Override
+		public void write(String value, ByteBuffer buffer) {
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			putVarint(buffer, bytes.length);
+			buffer.put(bytes);
+		}
+
+		@Override
+		public void write(String value, DataOutput output) throws
+				IOException {
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			writeVarint(output, bytes.length);
+			output.write(bytes);
+		}
+
+		@Override
+		public String read(ByteBuffer buffer) {
+			byte[] bytes = new byte[toLength(getVarint(buffer))];
+			buffer.get(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		@Override
+		public String read(DataInput input) throws IOException {
+			byte[] bytes;
+			try {
+				bytes = new byte[toLength(readVarint(input))];
+			} catch (IllegalArgumentException ex) {
+				throw corrupted(ex);
+			}
+			input.readFully(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+	};
+
+	private static final int FLAG_MASK = IntegerInterval.LOWER_CLOSED
+			| IntegerInterval.UPPER_CLOSED | IntegerInterval.LOWER_UNBOUNDED
+			| IntegerInterval.UPPER_UNBOUNDED;
+
+	// The most bytes taken by one variable-length encoding of a long.
+	private static final int MAXIMUM_VARINT_SIZE = 10;
+
+	/*
+	Private constructor because this class only provides static methods.
+	*/
+	private IntervalCodec() {
+	}
+
+	/**
+	 * Writes the given interval at the position of the given buffer.
+	 *
+	 * @param interval the interval to write.
+	 * @param buffer the buffer to write into.
+	 * @throws NullPointerException if either argument is <code>null</code>.
+	 * @throws java.nio.BufferOverflowException if the buffer has too little
+	 * space remaining, in which case some bytes may have been written.
+	 */
+	public static void write(IntegerInterval interval, ByteBuffer buffer) {
+		put(buffer, interval, 0);
+	}
+
+	/**
+	 * Writes the given interval to the given output.
+	 *
+	 * @param interval the interval to write.
+	 * @param output the output to write to.
+	 * @throws IOException if the output cannot be written.
+	 * @throws NullPointerException if either argument is <code>null</code>.
+	 */
+	public static void write(IntegerInterval interval, DataOutput output)
+			throws IOException {
+		write(output, interval, 0);
+	}
+
+	/**
+	 * Reads an <code>IntegerInterval</code> from the position of the given
+	 * buffer.
+	 *
+	 * @param buffer the buffer to read from.
+	 * @return the interval read.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 * @throws java.nio.BufferUnderflowException if the buffer ends before the
+	 * interval does.
+	 * @throws IllegalArgumentException if the bytes do not encode an
+	 * <code>IntegerInterval</code>.
+	 */
+	public static IntegerInterval readInteger(ByteBuffer buffer) {
+		return get(buffer, 0);
+	}
+
+	/**
+	 * Reads an <code>IntegerInterval</code> from the given input.
+	 *
+	 * @param input the input to read from.
+	 * @return the interval read.
+	 * @throws IOException if the input cannot be read, or if the bytes do not
+	 * encode an <code>IntegerInterval</code>.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public static IntegerInterval readInteger(DataInput input) throws
+			IOException {
+		return read(input, 0);
+	}
+
+	/**
+	 * Writes the given intervals, in iteration order, at the position of the
+	 * given buffer. Each lower endpoint value is written as its difference
+	 * from the one before, so the encoding is smallest if the intervals are
+	 * in ascending order.
+	 *
+	 * @param intervals the intervals to write.
+	 * @param buffer the buffer to write into.
+	 * @throws NullPointerException if either argument is <code>null</code>, or
+	 * if the collection contains <code>null</code>.
+	 * @throws java.nio.BufferOverflowException if the buffer has too little
+	 * space remaining, in which case some bytes may have been written.
+	 */
+	public static void writeAll(Collection<? extends IntegerInterval> intervals,
+			ByteBuffer buffer) {
+		putVarint(buffer, intervals.size());
+		long previousLower = 0;
+		for (IntegerInterval interval : intervals) {
+			previousLower = put(buffer, interval, previousLower);
+		}
+	}
+
+	/**
+	 * Writes the given intervals, in iteration order, to the given output.
+	 * Each lower endpoint value is written as its difference from the one
+	 * before, so the encoding is smallest if the intervals are in ascending
+	 * order.
+	 *
+	 * @param intervals the intervals to write.
+	 * @param output the output to write to.
+	 * @throws IOException if the output cannot be written.
+	 * @throws NullPointerException if either argument is <code>null</code>, or
+	 * if the collection contains <code>null</code>.
+	 */
+	public static void writeAll(Collection<? extends IntegerInterval> intervals,
+			DataOutput output) throws IOException {
+		writeVarint(output, intervals.size());
+		long previousLower = 0;
+		for (IntegerInterval interval : intervals) {
+			previousLower = write(output, interval, previousLower);
+		}
+	}
+
+	/**
+	 * Reads a sequence of intervals written by <code>writeAll</code> from the
+	 * position of the given buffer.
+	 *
+	 * @param buffer the buffer to read from.
+	 * @return a list of the intervals read, in the order written.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 * @throws java.nio.BufferUnderflowException if the buffer ends before the
+	 * sequence does.
+	 * @throws IllegalArgumentException if the bytes do not encode a sequence
+	 * of <code>IntegerInterval</code> objects.
+	 */
+	public static List<IntegerInterval> readIntegers(ByteBuffer buffer) {
+		int size = toLength(getVarint(buffer));
+		// Every interval takes at least one byte, which limits the capacity a
+		// damaged length can demand.
+		List<IntegerInterval> intervals = new ArrayList<>(Math.min(size,
+				buffer.remaining()));
+		long previousLower = 0;
+		for (int i = 0; i < size; ++i) {
+			IntegerInterval interval = get(buffer, previousLower);
+			if ((interval.flags() & IntegerInterval.LOWER_UNBOUNDED) == 0) {
+				previousLower = interval.lowerValue();
+			}
+			intervals.add(interval);
+		}
+		return intervals;
+	}
+
+	/**
+	 * Reads a sequence of intervals written by <code>writeAll</code> from the
+	 * given input.
+	 *
+	 * @param input the input to read from.
+	 * @return a list of the intervals read, in the order written.
+	 * @throws IOException if the input cannot be read, or if the bytes do not
+	 * encode a sequence of <code>IntegerInterval</code> objects.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public static List<IntegerInterval> readIntegers(DataInput input) throws
+			IOException {
+		int size;
+		try {
+			size = toLength(readVarint(input));
+		} catch (IllegalArgumentException ex) {
+			throw corrupted(ex);
+		}
+		List<IntegerInterval> intervals = new ArrayList<>(Math.min(size,
+				1 << 16));
+		long previousLower = 0;
+		for (int i = 0; i < size; ++i) {
+			IntegerInterval interval = read(input, previousLower);
+			if ((interval.flags() & IntegerInterval.LOWER_UNBOUNDED) == 0) {
+				previousLower = interval.lowerValue();
+			}
+			intervals.add(interval);
+		}
+		return intervals;
+	}
+
+	/**
+	 * Writes the given interval at the position of the given buffer, using
+	 * the given codec to write each bounded endpoint value.
+	 *
+	 * @param <T> the basis type of the interval.
+	 * @param interval the interval to write.
+	 * @param codec the codec for the endpoint values.
+	 * @param buffer the buffer to write into.
+	 * @throws NullPointerException if any argument is <code>null</code>.
+	 * @throws java.nio.BufferOverflowException if the buffer has too little
+	 * space remaining, in which case some bytes may have been written.
+	 */
+	public static <T extends Comparable<T>> void write(Interval<T> interval,
+			ValueCodec<T> codec, ByteBuffer buffer) {
+		Objects.requireNonNull(codec);
+		T lower = interval.getLowerEndpoint();
+		T upper = interval.getUpperEndpoint();
+		buffer.put(header(interval, lower, upper));
+		if (lower != null) {
+			codec.write(lower, buffer);
+		}
+		if (upper != null) {
+			codec.write(upper, buffer);
+		}
+	}
+
+	/**
+	 * Writes the given interval to the given output, using the given codec to
+	 * write each bounded endpoint value.
+	 *
+	 * @param <T> the basis type of the interval.
+	 * @param interval the interval to write.
+	 * @param codec the codec for the endpoint values.
+	 * @param output the output to write to.
+	 * @throws IOException if the output cannot be written.
+	 * @throws NullPointerException if any argument is <code>null</code>.
+	 */
+	public static <T extends Comparable<T>> void write(Interval<T> interval,
+			ValueCodec<T> codec, DataOutput output) throws IOException {
+		Objects.requireNonNull(codec);
+		T lower = interval.getLowerEndpoint();
+		T upper = interval.getUpperEndpoint();
+		output.writeByte(header(interval, lower, upper));
+		if (lower != null) {
+			codec.write(lower, output);
+		}
+		if (upper != null) {
+			codec.write(upper, output);
+		}
+	}
+
+	/**
+	 * Reads a <code>GenericInterval</code> from the position of the given
+	 * buffer, using the given codec to read each bounded endpoint value.
+	 *
+	 * @param <T> the basis type of the interval.
+	 * @param codec the codec for the endpoint values.
+	 * @param buffer the buffer to read from.
+	 * @return the interval read.
+	 * @throws NullPointerException if either argument is <code>null</code>.
+	 * @throws java.nio.BufferUnderflowException if the buffer ends before the
+	 * interval does.
+	 * @throws IllegalArgumentException if the bytes do not encode an
+	 * interval.
+	 */
+	public static <T extends Comparable<T>> GenericInterval<T> readGeneric(
+			ValueCodec<T> codec, ByteBuffer buffer) {
+		Objects.requireNonNull(codec);
+		int flags = checkHeader(buffer.get());
+		T lower = (flags & IntegerInterval.LOWER_UNBOUNDED) != 0 ? null
+				: codec.read(buffer);
+		T upper = (flags & IntegerInterval.UPPER_UNBOUNDED) != 0 ? null
+				: codec.read(buffer);
+		return new GenericInterval<>(lowerMode(flags), lower, upper,
+				upperMode(flags));
+	}
+
+	/**
+	 * Reads a <code>GenericInterval</code> from the given input, using the
+	 * given codec to read each bounded endpoint value.
+	 *
+	 * @param <T> the basis type of the interval.
+	 * @param codec the codec for the endpoint values.
+	 * @param input the input to read from.
+	 * @return the interval read.
+	 * @throws IOException if the input cannot be read, or if the bytes do not
+	 * encode an interval.
+	 * @throws NullPointerException if either argument is <code>null</code>.
+	 */
+	public static <T extends Comparable<T>> GenericInterval<T> readGeneric(
+			ValueCodec<T> codec, DataInput input) throws IOException {
+		Objects.requireNonNull(codec);
+		try {
+			int flags = checkHeader(input.readByte());
+			T lower = (flags & IntegerInterval.LOWER_UNBOUNDED) != 0 ? null
+					: codec.read(input);
+			T upper = (flags & IntegerInterval.UPPER_UNBOUNDED) != 0 ? null
+					: codec.read(input);
+			return new GenericInterval<>(lowerMode(flags), lower, upper,
+					upperMode(flags));
+		} catch (IllegalArgumentException ex) {
+			throw corrupted(ex);
+		}
+	}
+
+	private static <T extends Comparable<T>> byte header(Interval<T> interval,
+			T lower, T upper) {
+		return IntegerInterval.flagsFor(interval.getLowerEndpointMode(),
+				lower == null, upper == null, interval.getUpperEndpointMode());
+	}
+
+	private static int checkHeader(byte header) {
+		if ((header & ~FLAG_MASK) != 0) {
+			throw new IllegalArgumentException("Invalid interval header byte: "
+					+ (header & 0xFF) + ".");
+		}
+		return header;
+	}
+
+	private static EndpointMode lowerMode(int flags) {
+		return (flags & IntegerInterval.LOWER_CLOSED) != 0
+				? EndpointMode.CLOSED : EndpointMode.OPEN;
+	}
+
+	private static EndpointMode upperMode(int flags) {
+		return (flags & IntegerInterval.UPPER_CLOSED) != 0
+				? EndpointMode.CLOSED : EndpointMode.OPEN;
+	}
+
+	/**
+	 * Writes an <code>IntegerInterval</code> whose lower endpoint value is
+	 * written relative to <code>previousLower</code>, and returns the value
+	 * against which the next lower endpoint value should be written.
+	 */
+	private static long put(ByteBuffer buffer, IntegerInterval interval,
+			long previousLower) {
+		byte flags = interval.flags();
+		buffer.put(flags);
+		long base = 0;
+		if ((flags & IntegerInterval.LOWER_UNBOUNDED) == 0) {
+			base = interval.lowerValue();
+			putVarint(buffer, zigzag(base - previousLower));
+			previousLower = base;
+		}
+		if ((flags & IntegerInterval.UPPER_UNBOUNDED) == 0) {
+			putVarint(buffer, zigzag(interval.upperValue() - base));
+		}
+		return previousLower;
+	}
+
+	private static long write(DataOutput output, IntegerInterval interval,
+			long previousLower) throws IOException {
+		byte flags = interval.flags();
+		output.writeByte(flags);
+		long base = 0;
+		if ((flags & IntegerInterval.LOWER_UNBOUNDED) == 0) {
+			base = interval.lowerValue();
+			writeVarint(output, zigzag(base - previousLower));
+			previousLower = base;
+		}
+		if ((flags & IntegerInterval.UPPER_UNBOUNDED) == 0) {
+			writeVarint(output, zigzag(interval.upperValue() - base));
+		}
+		return previousLower;
+	}
+
+	private static IntegerInterval get(ByteBuffer buffer,
+			long previousLower) {
+		byte flags = (byte) checkHeader(buffer.get());
+		int lower = 0, upper = 0;
+		if ((flags & IntegerInterval.LOWER_UNBOUNDED) == 0) {
+			lower = toInt(previousLower + unzigzag(getVarint(buffer)));
+		}
+		if ((flags & IntegerInterval.UPPER_UNBOUNDED) == 0) {
+			upper = toInt(lower + unzigzag(getVarint(buffer)));
+		}
+		return IntegerInterval.withFlags(lower, upper, flags);
+	}
+
+	private static IntegerInterval read(DataInput input, long previousLower)
+			throws IOException {
+		try {
+			byte flags = (byte) checkHeader(input.readByte());
+			int lower = 0, upper = 0;
+			if ((flags & IntegerInterval.LOWER_UNBOUNDED) == 0) {
+				lower = toInt(previousLower + unzigzag(readVarint(input)));
+			}
+			if ((flags & IntegerInterval.UPPER_UNBOUNDED) == 0) {
+				upper = toInt(lower + unzigzag(readVarint(input)));
+			}
+			return IntegerInterval.withFlags(lower, upper, flags);
+		} catch (IllegalArgumentException ex) {
+			throw corrupted(ex);
+		}
+	}
+
+	/**
+	 * Maps signed values to unsigned values so that numbers of small
+	 * magnitude, whether positive or negative, become small: 0, -1, 1, -2, 2
+	 * become 0, 1, 2, 3, 4.
+	 */
+	private static long zigzag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	private static long unzigzag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private static int toInt(long value) {
+		if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Encoded value " + value
+					+ " is outside the range of int.");
+		}
+		return (int) value;
+	}
+
+	private static int toLength(long value) {
+		if (value < 0 || value > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Encoded length " + value
+					+ " is outside the range of int.");
+		}
+		return (int) value;
+	}
+
+	private static IOException corrupted(IllegalArgumentException cause) {
+		IOException ex = new StreamCorruptedException(cause.getMessage());
+		ex.initCause(cause);
+		return ex;
+	}
+
+	/**
+	 * Writes the given value, treated as unsigned, seven bits at a time from
+	 * the least significant end, with the top bit of each byte set if another
+	 * byte follows.
+	 */
+	private static void putVarint(ByteBuffer buffer, long value) {
+		while ((value & ~0x7FL) != 0) {
+			buffer.put((byte) (value | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	private static void writeVarint(DataOutput output, long value) throws
+			IOException {
+		while ((value & ~0x7FL) != 0) {
+			output.writeByte((byte) (value | 0x80));
+			value >>>= 7;
+		}
+		output.writeByte((byte) value);
+	}
+
+	private static long getVarint(ByteBuffer buffer) {
+		long value = 0;
+		for (int i = 0; i < MAXIMUM_VARINT_SIZE; ++i) {
+			byte b = buffer.get();
+			value |= (long) (b & 0x7F) << (7 * i);
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new IllegalArgumentException(
+				"Variable-length integer is longer than ten bytes.");
+	}
+
+	private static long readVarint(DataInput input) throws IOException {
+		long value = 0;
+		for (int i = 0; i < MAXIMUM_VARINT_SIZE; ++i) {
+			byte b = input.readByte();
+			value |= (long) (b & 0x7F) << (7 * i);
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new StreamCorruptedException(
+				"Variable-length integer is longer than ten bytes.");
+	}
+}
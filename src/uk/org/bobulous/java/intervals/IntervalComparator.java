@@ -100,6 +100,26 @@ public final class IntervalComparator<T extends Comparable<T>> implements
 		return (IntervalComparator<K>) singleton;
 	}
 
+	/**
+	 * Returns a <code>Comparator</code> for intervals of basis type
+	 * <code>Integer</code> which gives exactly the same results as the
+	 * instance returned by <code>getInstance()</code>, but faster.
+	 * <p>
+	 * Each endpoint is reduced to a single <code>long</code> key which folds in
+	 * the endpoint mode (and which gives an unbounded endpoint a key beyond
+	 * that of every bounded endpoint), so that each comparison is one or two
+	 * comparisons of primitive keys. The keys of an
+	 * <code>IntegerInterval</code> are computed directly from its primitive
+	 * fields; the keys of any other interval are computed from its getter
+	 * methods.</p>
+	 *
+	 * @return a <code>Comparator</code> which compares two
+	 * <code>Interval</code> objects of basis type <code>Integer</code>.
+	 */
+	public static Comparator<Interval<Integer>> getIntegerInstance() {
+		return IntegerIntervalComparator.INSTANCE;
+	}
+
 	/**
 	 * Compares two <code>Interval</code> objects of the same basis type. Read
 	 * the description of this class for detail on how the comparison is
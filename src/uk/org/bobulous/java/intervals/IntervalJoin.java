@@ -0,0 +1,316 @@
+/*
+ * Copyright © 2015 Bobulous <http://www.bobulous.org.uk/>.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package uk.org.bobulous.java.intervals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Static methods which find every overlapping pair of intervals drawn from two
+ * collections, without testing every interval of one collection against every
+ * interval of the other.
+ *
+ * <p>
+ * Both collections are sorted into <code>IntervalComparator</code> order and
+ * then swept in order of lower endpoint. Each interval is tested only against
+ * those intervals of the other collection which start no later than it does
+ * and which have not yet ended, so the time taken is proportional to
+ * <var>n</var> log(<var>n</var>) plus the number of candidate pairs, where
+ * <var>n</var> is the total number of intervals.</p>
+ *
+ * <p>
+ * If both intervals of a candidate pair are <code>IntegerInterval</code>
+ * objects then they are reported only if
+ * {@link IntegerInterval#intersectsWith(uk.org.bobulous.java.intervals.IntegerInterval)}
+ * is <code>true</code>, so that an interval such as (0, 1), which includes no
+ * integer, overlaps nothing. Any other pair is reported if some value could be
+ * included by both intervals, following the same rules as
+ * {@link IntervalTree#overlapping(uk.org.bobulous.java.intervals.Interval)}.
+ * To have integer intervals of another class treated as discrete, create
+ * <code>IntegerInterval</code> equivalents of them first.</p>
+ *
+ * <p>
+ * <strong>WARNING:</strong> development and testing are still in early stages.
+ * Consider this class to be in its alpha testing phase. Use with caution, and
+ * do not rely on its structure remaining in exactly its current form!</p>
+ *
+ * @author Bobulous <http://www.bobulous.org.uk/>
+ */
+public final class IntervalJoin {
+
+	/*
+	Below this many intervals per chunk, the parallel join spends more on
+	preparing each chunk than it saves.
+	*/
+	private static final int MINIMUM_CHUNK_SIZE = 1 << 13;
+
+	/*
+	Private constructor because this class only provides static methods.
+	*/
+	private IntervalJoin() {
+	}
+
+	/**
+	 * Passes every overlapping pair of intervals, with one interval from each
+	 * collection, to the given consumer. Pairs are passed in ascending order
+	 * of the later of their two lower endpoints. An interval which appears in
+	 * a collection more than once is paired once for each appearance.
+	 *
+	 * @param <T> the basis type of the intervals.
+	 * @param <L> the type of the intervals in the left collection.
+	 * @param <R> the type of the intervals in the right collection.
+	 * @param left the first collection of intervals.
+	 * @param right the second collection of intervals.
+	 * @param consumer the consumer which will receive each overlapping pair,
+	 * with the interval from the left collection as its first argument.
+	 * @throws NullPointerException if any argument is <code>null</code>, or if
+	 * either collection contains <code>null</code>.
+	 */
+	public static <T extends Comparable<T>, L extends Interval<T>,
+			R extends Interval<T>> void overlapJoin(
+					Collection<? extends L> left, Collection<? extends R> right,
+					BiConsumer<? super L, ? super R> consumer) {
+		Objects.requireNonNull(consumer);
+		Sweep<T, L, R> sweep = new Sweep<>(left, right, false);
+		sweep.run(0, sweep.items.length, new ArrayList<>(), new ArrayList<>(),
+				consumer);
+	}
+
+	/**
+	 * Passes every overlapping pair of intervals, with one interval from each
+	 * collection, to the given consumer, using the common fork/join pool to
+	 * spread the work across threads. The intervals are partitioned into
+	 * chunks by the <code>IntervalComparator</code> order of their lower
+	 * endpoints, and each chunk reports the pairs whose later lower endpoint
+	 * falls within it. Each chunk begins with the intervals of earlier chunks
+	 * which are still active at its first interval, and these are found by a
+	 * single parallel pass in which every chunk finds which of its own
+	 * intervals reach the start of each later chunk. The pairs reported are
+	 * exactly those reported by <code>overlapJoin</code>, but they arrive in
+	 * no particular order and from several threads at once, so the consumer
+	 * must be thread-safe.
+	 *
+	 * @param <T> the basis type of the intervals.
+	 * @param <L> the type of the intervals in the left collection.
+	 * @param <R> the type of the intervals in the right collection.
+	 * @param left the first collection of intervals.
+	 * @param right the second collection of intervals.
+	 * @param consumer the thread-safe consumer which will receive each
+	 * overlapping pair, with the interval from the left collection as its
+	 * first argument.
+	 * @throws NullPointerException if any argument is <code>null</code>, or if
+	 * either collection contains <code>null</code>.
+	 */
+	public static <T extends Comparable<T>, L extends Interval<T>,
+			R extends Interval<T>> void overlapJoinParallel(
+					Collection<? extends L> left, Collection<? extends R> right,
+					BiConsumer<? super L, ? super R> consumer) {
+		Objects.requireNonNull(consumer);
+		Sweep<T, L, R> sweep = new Sweep<>(left, right, true);
+		int length = sweep.items.length;
+		int chunkCount = Math.min(4 * ForkJoinPool.getCommonPoolParallelism(),
+				length / MINIMUM_CHUNK_SIZE);
+		if (chunkCount < 2) {
+			sweep.run(0, length, new ArrayList<>(), new ArrayList<>(),
+					consumer);
+			return;
+		}
+		int[] starts = new int[chunkCount + 1];
+		for (int chunk = 0; chunk <= chunkCount; ++chunk) {
+			starts[chunk] = (int) ((long) chunk * length / chunkCount);
+		}
+		int[][][] activeAt = IntStream.range(0, chunkCount).parallel()
+				.mapToObj(chunk -> sweep.activeAtLaterChunks(starts, chunk))
+				.toArray(int[][][]::new);
+		IntStream.range(0, chunkCount).parallel().forEach(chunk -> sweep
+				.runChunk(starts, activeAt, chunk, consumer));
+	}
+
+	/**
+	 * The intervals of both collections merged into a single array in
+	 * <code>IntervalComparator</code> order, with a note of which collection
+	 * each came from. A sweep over any range of this array can run on its own
+	 * thread, as the array is never modified once built.
+	 */
+	private static final class Sweep<T extends Comparable<T>,
+			L extends Interval<T>, R extends Interval<T>> {
+
+		private final IntervalComparator<T> comparator = IntervalComparator.
+				<T>getInstance();
+
+		private final Interval<T>[] items;
+		private final boolean[] fromLeft;
+
+		private Sweep(Collection<? extends L> left,
+				Collection<? extends R> right, boolean parallel) {
+			Interval<T>[] sortedLeft = sortedArray(left, parallel);
+			Interval<T>[] sortedRight = sortedArray(right, parallel);
+			items = newArray(sortedLeft.length + sortedRight.length);
+			fromLeft = new boolean[items.length];
+			int l = 0, r = 0;
+			for (int i = 0; i < items.length; ++i) {
+				// On a tie, take the left interval first.
+				if (r == sortedRight.length || (l < sortedLeft.length
+						&& comparator.compare(sortedLeft[l], sortedRight[r])
+						<= 0)) {
+					items[i] = sortedLeft[l++];
+					fromLeft[i] = true;
+				} else {
+					items[i] = sortedRight[r++];
+				}
+			}
+		}
+
+		private Interval<T>[] sortedArray(
+				Collection<? extends Interval<T>> intervals, boolean parallel) {
+			Interval<T>[] array = newArray(intervals.size());
+			int count = 0;
+			for (Interval<T> interval : intervals) {
+				array[count++] = Objects.requireNonNull(interval,
+						"Cannot join a null interval.");
+			}
+			if (parallel) {
+				Arrays.parallelSort(array, comparator);
+			} else {
+				Arrays.sort(array, comparator);
+			}
+			return array;
+		}
+
+		@SuppressWarnings("unchecked")
+		private static <T extends Comparable<T>> Interval<T>[] newArray(
+				int length) {
+			return (Interval<T>[]) new Interval<?>[length];
+		}
+
+		/**
+		 * Finds the intervals of one chunk which are still active at the
+		 * first interval of each later chunk. Element <var>k</var> of the
+		 * result holds, in ascending order, the indexes of the intervals of
+		 * the given chunk whose upper endpoint meets the lower endpoint of
+		 * the first interval of chunk <var>k</var>.
+		 *
+		 * @param starts the index of the first interval of each chunk,
+		 * followed by the length of the array.
+		 * @param chunk the chunk whose intervals should be examined.
+		 * @return the indexes of the intervals active at each later chunk,
+		 * with an empty array for this and every earlier chunk.
+		 */
+		private int[][] activeAtLaterChunks(int[] starts, int chunk) {
+			int chunkCount = starts.length - 1;
+			IntStream.Builder[] builders = new IntStream.Builder[chunkCount];
+			for (int k = chunk + 1; k < chunkCount; ++k) {
+				builders[k] = IntStream.builder();
+			}
+			for (int i = starts[chunk]; i < starts[chunk + 1]; ++i) {
+				// The chunks start at ascending lower endpoints, so an interval
+				// which ends before the start of one chunk ends before the
+				// start of every later chunk too.
+				for (int k = chunk + 1; k < chunkCount && IntervalTree
+						.upperMeetsLower(items[i], items[starts[k]]); ++k) {
+					builders[k].add(i);
+				}
+			}
+			int[][] active = new int[chunkCount][];
+			for (int k = 0; k < chunkCount; ++k) {
+				active[k] = k > chunk ? builders[k].build().toArray()
+						: new int[0];
+			}
+			return active;
+		}
+
+		/**
+		 * Reports every overlapping pair whose later interval falls within the
+		 * given chunk, starting with the intervals of earlier chunks which
+		 * are still active at its first interval.
+		 *
+		 * @param starts the index of the first interval of each chunk,
+		 * followed by the length of the array.
+		 * @param activeAt the result of <code>activeAtLaterChunks</code> for
+		 * each chunk.
+		 * @param chunk the chunk to sweep.
+		 * @param consumer the consumer which will receive each pair.
+		 */
+		private void runChunk(int[] starts, int[][][] activeAt, int chunk,
+				BiConsumer<? super L, ? super R> consumer) {
+			List<Interval<T>> activeLeft = new ArrayList<>();
+			List<Interval<T>> activeRight = new ArrayList<>();
+			for (int earlier = 0; earlier < chunk; ++earlier) {
+				for (int i : activeAt[earlier][chunk]) {
+					(fromLeft[i] ? activeLeft : activeRight).add(items[i]);
+				}
+			}
+			run(starts[chunk], starts[chunk + 1], activeLeft, activeRight,
+					consumer);
+		}
+
+		/**
+		 * Reports every overlapping pair whose later interval (in the order of
+		 * the merged array) has an index from <code>from</code> up to but not
+		 * including <code>to</code>. The two lists must hold, in index order,
+		 * every interval before <code>from</code> from the left and the right
+		 * collection respectively whose upper endpoint meets the lower
+		 * endpoint of the interval at <code>from</code>, and are changed by
+		 * this method.
+		 */
+		@SuppressWarnings("unchecked")
+		private void run(int from, int to, List<Interval<T>> activeLeft,
+				List<Interval<T>> activeRight,
+				BiConsumer<? super L, ? super R> consumer) {
+			/*
+			Each list holds the intervals from one collection which start no
+			later than the interval being swept, and which have not been found
+			to end before it. An interval which ends before the one being swept
+			also ends before every later one, so it is removed for good.
+			*/
+			for (int i = from; i < to; ++i) {
+				Interval<T> current = items[i];
+				List<Interval<T>> others = fromLeft[i] ? activeRight
+						: activeLeft;
+				int kept = 0;
+				for (int k = 0; k < others.size(); ++k) {
+					Interval<T> other = others.get(k);
+					if (!IntervalTree.upperMeetsLower(other, current)) {
+						continue;
+					}
+					others.set(kept++, other);
+					if (intersects(other, current)) {
+						if (fromLeft[i]) {
+							consumer.accept((L) current, (R) other);
+						} else {
+							consumer.accept((L) other, (R) current);
+						}
+					}
+				}
+				others.subList(kept, others.size()).clear();
+				(fromLeft[i] ? activeLeft : activeRight).add(current);
+			}
+		}
+
+		/**
+		 * Reports on whether two intervals share a value. Two
+		 * <code>IntegerInterval</code> objects are tested with their own
+		 * <code>intersectsWith</code> method, and any other pair by
+		 * <code>IntervalTree.intersects</code>.
+		 */
+		private boolean intersects(Interval<T> first, Interval<T> second) {
+			if (first instanceof IntegerInterval
+					&& second instanceof IntegerInterval) {
+				return ((IntegerInterval) first).intersectsWith(
+						(IntegerInterval) second);
+			}
+			return IntervalTree.intersects(first, second);
+		}
+	}
+}
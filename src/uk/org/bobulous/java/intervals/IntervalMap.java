@@ -0,0 +1,367 @@
+/*
+ * Copyright © 2015 Bobulous <http://www.bobulous.org.uk/>.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package uk.org.bobulous.java.intervals;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A map from ranges of <code>int</code> values to values, in which each
+ * integer is mapped to at most one value.
+ * <p>
+ * Unlike {@link IntervalTree}, which holds each interval key separately even
+ * if it overlaps other keys, an <code>IntervalMap</code> holds a sorted list
+ * of disjoint ranges. Putting a value against an <code>IntegerInterval</code>
+ * maps every integer included by the interval to that value, overwriting any
+ * value which was mapped to those integers before: a range which partly
+ * overlaps the new interval is cut short, or split in two if the new interval
+ * lies strictly inside it. Two ranges which adjoin and carry equal values
+ * (according to <code>Objects.equals</code>) are always coalesced, so
+ * putting "A" against [1, 3] and then against [4, 6] leaves the single range
+ * [1, 6] mapped to "A".</p>
+ * <p>
+ * Each <code>IntegerInterval</code> is first normalized, following the same
+ * rules as <code>IntegerInterval</code> uses for equality, so that it becomes
+ * a closed range of integers. An unbounded lower endpoint becomes
+ * <code>Integer.MIN_VALUE</code> and an unbounded upper endpoint becomes
+ * <code>Integer.MAX_VALUE</code>. Values may not be <code>null</code>, so a
+ * <code>null</code> result from {@link #get(int)} always means that the
+ * integer is not mapped.</p>
+ * <p>
+ * The ranges are stored in two primitive <code>int</code> arrays alongside an
+ * array of values, so <code>get</code> is a binary search taking time
+ * proportional to log(<var>n</var>), where <var>n</var> is the number of
+ * ranges, and involves no boxing and no tree of node objects. A
+ * <code>put</code> or <code>remove</code> finds its position in the same way
+ * but may then have to shift the later ranges along the arrays, so this class
+ * suits maps which are read far more often than they are changed.</p>
+ * <p>
+ * This class is not thread-safe. If a map is to be modified by one thread
+ * while being read or modified by another then access must be synchronized
+ * externally.</p>
+ *
+ * <p>
+ * <strong>WARNING:</strong> development and testing are still in early stages.
+ * Consider this class to be in its alpha testing phase. Use with caution, and
+ * do not rely on its structure remaining in exactly its current form!</p>
+ *
+ * @author Bobulous <http://www.bobulous.org.uk/>
+ * @param <V> the type of the values mapped to the ranges.
+ * @see IntegerIntervalSet
+ */
+public final class IntervalMap<V> {
+
+	/*
+	The closed bounds of each range, in ascending order, and the value mapped
+	to each range. Only the first count elements of each array are in use. For
+	every i, starts[i] <= ends[i], ends[i] < starts[i + 1], and if
+	ends[i] + 1 == starts[i + 1] then values[i] and values[i + 1] are not
+	equal.
+	*/
+	private int[] starts;
+	private int[] ends;
+	private Object[] values;
+	private int count;
+
+	private static final int DEFAULT_CAPACITY = 8;
+
+	/**
+	 * Constructs an empty <code>IntervalMap</code>.
+	 */
+	public IntervalMap() {
+		starts = new int[DEFAULT_CAPACITY];
+		ends = new int[DEFAULT_CAPACITY];
+		values = new Object[DEFAULT_CAPACITY];
+	}
+
+	/**
+	 * Returns the number of disjoint ranges held by this map. Adjoining ranges
+	 * with equal values are counted as one.
+	 *
+	 * @return the number of ranges in this map.
+	 */
+	public int rangeCount() {
+		return count;
+	}
+
+	/**
+	 * Reports on whether this map holds no ranges.
+	 *
+	 * @return <code>true</code> if this map is empty.
+	 */
+	public boolean isEmpty() {
+		return count == 0;
+	}
+
+	/**
+	 * Removes every range from this map.
+	 */
+	public void clear() {
+		Arrays.fill(values, 0, count, null);
+		count = 0;
+	}
+
+	/**
+	 * Returns the index of the last range whose start is less than or equal
+	 * to the given value, or -1 if every range starts after the value.
+	 */
+	private int floorIndex(long value) {
+		int low = 0, high = count - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (starts[mid] <= value) {
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return high;
+	}
+
+	/**
+	 * Returns the value mapped to the specified integer.
+	 *
+	 * @param point the integer to look up.
+	 * @return the value mapped to the integer, or <code>null</code> if no
+	 * range of this map includes the integer.
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(int point) {
+		int index = floorIndex(point);
+		if (index >= 0 && point <= ends[index]) {
+			return (V) values[index];
+		}
+		return null;
+	}
+
+	/**
+	 * Reports on whether a range of this map includes the specified integer.
+	 *
+	 * @param point the integer to test.
+	 * @return <code>true</code> if a value is mapped to the integer.
+	 */
+	public boolean containsKey(int point) {
+		int index = floorIndex(point);
+		return index >= 0 && point <= ends[index];
+	}
+
+	/**
+	 * Maps every integer included by the specified interval to the specified
+	 * value, replacing any value to which those integers were mapped before.
+	 * An empty interval leaves this map unchanged.
+	 *
+	 * @param interval the range of integers to map.
+	 * @param value the value to map to the range.
+	 * @throws NullPointerException if <code>null</code> is provided as either
+	 * argument.
+	 */
+	public void put(IntegerInterval interval, V value) {
+		Objects.requireNonNull(interval);
+		Objects.requireNonNull(value);
+		int lower = interval.leastIncluded();
+		int upper = interval.greatestIncluded();
+		if (lower <= upper) {
+			assign(lower, upper, value);
+		}
+	}
+
+	/**
+	 * Unmaps every integer included by the specified interval, cutting short
+	 * or splitting any range which it partly overlaps.
+	 *
+	 * @param interval the range of integers to unmap.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public void remove(IntegerInterval interval) {
+		Objects.requireNonNull(interval);
+		int lower = interval.leastIncluded();
+		int upper = interval.greatestIncluded();
+		if (lower <= upper) {
+			assign(lower, upper, null);
+		}
+	}
+
+	/**
+	 * Maps the closed range [lower, upper] to the given value, or unmaps it if
+	 * the value is <code>null</code>, keeping the ranges disjoint and
+	 * coalesced.
+	 */
+	private void assign(int lower, int upper, Object value) {
+		// Find every existing range which overlaps [lower, upper].
+		int first = floorIndex(lower);
+		if (first < 0 || ends[first] < lower) {
+			++first;
+		}
+		int last = floorIndex(upper);
+		/*
+		The parts of the first and last overlapping ranges which lie outside
+		[lower, upper] keep their values, unless they carry the new value, in
+		which case they are absorbed into the new range.
+		*/
+		boolean keepHead = false, keepTail = false;
+		int headStart = 0, tailEnd = 0;
+		Object headValue = null, tailValue = null;
+		if (first <= last) {
+			if (starts[first] < lower) {
+				if (value != null && value.equals(values[first])) {
+					lower = starts[first];
+				} else {
+					keepHead = true;
+					headStart = starts[first];
+					headValue = values[first];
+				}
+			}
+			if (ends[last] > upper) {
+				if (value != null && value.equals(values[last])) {
+					upper = ends[last];
+				} else {
+					keepTail = true;
+					tailEnd = ends[last];
+					tailValue = values[last];
+				}
+			}
+		}
+		if (value != null) {
+			// Absorb a neighbouring range which adjoins and has an equal value.
+			if (!keepHead && first > 0 && ends[first - 1] == lower - 1L
+					&& value.equals(values[first - 1])) {
+				lower = starts[--first];
+			}
+			if (!keepTail && last + 1 < count && starts[last + 1] == upper + 1L
+					&& value.equals(values[last + 1])) {
+				upper = ends[++last];
+			}
+		}
+		int replacements = (keepHead ? 1 : 0) + (value != null ? 1 : 0)
+				+ (keepTail ? 1 : 0);
+		replaceRanges(first, last + 1, replacements);
+		int index = first;
+		if (keepHead) {
+			set(index++, headStart, lower - 1, headValue);
+		}
+		if (value != null) {
+			set(index++, lower, upper, value);
+		}
+		if (keepTail) {
+			set(index, upper + 1, tailEnd, tailValue);
+		}
+	}
+
+	private void set(int index, int start, int end, Object value) {
+		starts[index] = start;
+		ends[index] = end;
+		values[index] = value;
+	}
+
+	/**
+	 * Makes room for <var>replacements</var> ranges in place of the ranges
+	 * from index <var>from</var> (inclusive) to index <var>to</var>
+	 * (exclusive), shifting the later ranges along the arrays.
+	 */
+	private void replaceRanges(int from, int to, int replacements) {
+		int newCount = count - (to - from) + replacements;
+		if (newCount > starts.length) {
+			int newCapacity = Math.max(newCount, starts.length * 2);
+			starts = Arrays.copyOf(starts, newCapacity);
+			ends = Arrays.copyOf(ends, newCapacity);
+			values = Arrays.copyOf(values, newCapacity);
+		}
+		int target = from + replacements;
+		if (target != to) {
+			System.arraycopy(starts, to, starts, target, count - to);
+			System.arraycopy(ends, to, ends, target, count - to);
+			System.arraycopy(values, to, values, target, count - to);
+		}
+		if (newCount < count) {
+			Arrays.fill(values, newCount, count, null);
+		}
+		count = newCount;
+	}
+
+	/**
+	 * Returns the ranges of this map and their values as a list of entries in
+	 * ascending order. The key of each entry is a closed
+	 * <code>IntegerInterval</code>.
+	 *
+	 * @return a list of the ranges of this map, which will not reflect later
+	 * changes to this map.
+	 */
+	@SuppressWarnings("unchecked")
+	public List<Map.Entry<IntegerInterval, V>> entries() {
+		List<Map.Entry<IntegerInterval, V>> entries = new ArrayList<>(count);
+		for (int i = 0; i < count; ++i) {
+			entries.add(new AbstractMap.SimpleImmutableEntry<>(IntegerInterval.
+					closed(starts[i], ends[i]), (V) values[i]));
+		}
+		return entries;
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 7;
+		for (int i = 0; i < count; ++i) {
+			hash = 79 * hash + starts[i];
+			hash = 79 * hash + ends[i];
+			hash = 79 * hash + values[i].hashCode();
+		}
+		return hash;
+	}
+
+	/**
+	 * Reports on whether the specified object is an <code>IntervalMap</code>
+	 * which maps exactly the same integers to equal values.
+	 *
+	 * @param obj the <code>Object</code> to test for equality.
+	 * @return <code>true</code> if the supplied <code>Object</code> is an
+	 * <code>IntervalMap</code> with the same ranges and values as this map.
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof IntervalMap)) {
+			return false;
+		}
+		IntervalMap<?> that = (IntervalMap<?>) obj;
+		if (this.count != that.count) {
+			return false;
+		}
+		for (int i = 0; i < count; ++i) {
+			if (this.starts[i] != that.starts[i] || this.ends[i]
+					!= that.ends[i] || !this.values[i].equals(that.values[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Produces a <code>String</code> which lists the ranges of this map in
+	 * mathematical notation with their values, such as
+	 * <samp>{[1, 3]=A, [7, 9]=B}</samp>.
+	 *
+	 * @return a <code>String</code> which represents this map.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder(2 + 16 * count);
+		sb.append('{');
+		for (int i = 0; i < count; ++i) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+			sb.append('[').append(starts[i]).append(", ").append(ends[i]).
+					append("]=").append(values[i]);
+		}
+		sb.append('}');
+		return sb.toString();
+	}
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright © 2015 Bobulous <http://www.bobulous.org.uk/>.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package uk.org.bobulous.java.intervals;
+
+import java.util.Objects;
+
+/**
+ * Static methods which test a slice of a primitive array against an interval
+ * (or against the union of several intervals) and return the results as a
+ * bitmask.
+ *
+ * <p>
+ * Bit <code>i</code> of a mask is bit <code>i % 64</code> of the
+ * <code>long</code> at index <code>i / 64</code>, and it is set if element
+ * <code>offset + i</code> of the tested array is included by the interval.
+ * Bits beyond the length of the slice are always clear.</p>
+ *
+ * <p>
+ * Before testing, the endpoint modes of each interval are resolved into a
+ * pair of inclusive bounds, so the inner loop is a pair of comparisons per
+ * value. If the <code>jdk.incubator.vector</code> module is present (which
+ * needs Java 16 or later, started with
+ * <code>--add-modules jdk.incubator.vector</code>) and this library was built
+ * on Java 16 or later, the loops use the Vector API. Otherwise plain scalar
+ * loops are used. Results are identical either way.</p>
+ *
+ * <p>
+ * <strong>WARNING:</strong> development and testing are still in early stages.
+ * Consider this class to be in its alpha testing phase. Use with caution, and
+ * do not rely on its structure remaining in exactly its current form!</p>
+ *
+ * @author Bobulous <http://www.bobulous.org.uk/>
+ */
+public final class IntervalMasks {
+
+	private static final String VECTOR_KERNEL_NAME
+			= "uk.org.bobulous.java.intervals.VectorMaskKernel";
+
+	private static final MaskKernel KERNEL = loadKernel();
+
+	/*
+	Private constructor because this class only provides static methods.
+	*/
+	private IntervalMasks() {
+	}
+
+	/*
+	The vector kernel is compiled separately (see the "vector" profile in the
+	build file) and refers to an incubator module, so it may be missing, may be
+	too new for the running JVM, or may fail to link. In any of those cases the
+	scalar kernel is used instead.
+	*/
+	private static MaskKernel loadKernel() {
+		try {
+			return (MaskKernel) Class.forName(VECTOR_KERNEL_NAME)
+					.getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException | LinkageError
+				| RuntimeException ex) {
+			return ScalarMaskKernel.INSTANCE;
+		}
+	}
+
+	/**
+	 * Reports on whether the Vector API is being used to compute masks.
+	 *
+	 * @return <code>true</code> if masks are computed using the Vector API;
+	 * <code>false</code> if scalar loops are used.
+	 */
+	public static boolean isVectorised() {
+		return KERNEL != ScalarMaskKernel.INSTANCE;
+	}
+
+	/**
+	 * Returns the number of <code>long</code> words needed to hold a mask with
+	 * the given number of bits.
+	 *
+	 * @param length the number of bits in the mask.
+	 * @return the number of elements needed in a mask array.
+	 */
+	public static int maskLength(int length) {
+		if (length < 0) {
+			throw new IllegalArgumentException("Length must not be negative.");
+		}
+		return (length + Long.SIZE - 1) >>> 6;
+	}
+
+	/**
+	 * Returns a mask of which elements of the given array are included by the
+	 * given interval.
+	 *
+	 * @param interval the interval to test against.
+	 * @param values the values to test.
+	 * @return a new mask array with one bit for each element of
+	 * <code>values</code>.
+	 * @throws NullPointerException if either argument is <code>null</code>.
+	 */
+	public static long[] includedMask(IntegerInterval interval, int[] values) {
+		long[] mask = new long[maskLength(values.length)];
+		includedMask(interval, values, 0, values.length, mask);
+		return mask;
+	}
+
+	/**
+	 * Writes a mask of which elements of the given array slice are included by
+	 * the given interval.
+	 *
+	 * @param interval the interval to test against.
+	 * @param values the array which holds the values to test.
+	 * @param offset the index of the first value to test.
+	 * @param length the number of values to test.
+	 * @param mask the array which will receive the mask. The first
+	 * <code>maskLength(length)</code> elements are overwritten.
+	 * @throws NullPointerException if any argument is <code>null</code>.
+	 * @throws IndexOutOfBoundsException if the slice does not lie within
+	 * <code>values</code>.
+	 * @throws IllegalArgumentException if <code>mask</code> is too short.
+	 */
+	public static void includedMask(IntegerInterval interval, int[] values,
+			int offset, int length, long[] mask) {
+		Objects.requireNonNull(interval);
+		checkSlice(values.length, offset, length, mask);
+		KERNEL.mask(values, offset, length,
+				new int[]{interval.leastIncluded()},
+				new int[]{interval.greatestIncluded()}, mask);
+	}
+
+	/**
+	 * Writes a mask of which elements of the given array slice are included by
+	 * at least one of the given intervals. This is intended for a small number
+	 * of intervals, as each value is tested against every interval.
+	 *
+	 * @param intervals the intervals to test against. If there are none then
+	 * every bit of the mask is cleared.
+	 * @param values the array which holds the values to test.
+	 * @param offset the index of the first value to test.
+	 * @param length the number of values to test.
+	 * @param mask the array which will receive the mask. The first
+	 * <code>maskLength(length)</code> elements are overwritten.
+	 * @throws NullPointerException if any argument (or any element of
+	 * <code>intervals</code>) is <code>null</code>.
+	 * @throws IndexOutOfBoundsException if the slice does not lie within
+	 * <code>values</code>.
+	 * @throws IllegalArgumentException if <code>mask</code> is too short.
+	 */
+	public static void includedMask(IntegerInterval[] intervals, int[] values,
+			int offset, int length, long[] mask) {
+		checkSlice(values.length, offset, length, mask);
+		if (intervals.length == 0) {
+			clear(mask, length);
+			return;
+		}
+		int[] least = new int[intervals.length];
+		int[] greatest = new int[intervals.length];
+		for (int k = 0; k < intervals.length; ++k) {
+			least[k] = intervals[k].leastIncluded();
+			greatest[k] = intervals[k].greatestIncluded();
+		}
+		KERNEL.mask(values, offset, length, least, greatest, mask);
+	}
+
+	/**
+	 * Returns a mask of which elements of the given array are included by the
+	 * given interval.
+	 *
+	 * @param interval the interval to test against.
+	 * @param values the values to test.
+	 * @return a new mask array with one bit for each element of
+	 * <code>values</code>.
+	 * @throws NullPointerException if either argument is <code>null</code>.
+	 */
+	public static long[] includedMask(LongInterval interval, long[] values) {
+		long[] mask = new long[maskLength(values.length)];
+		includedMask(interval, values, 0, values.length, mask);
+		return mask;
+	}
+
+	/**
+	 * Writes a mask of which elements of the given array slice are included by
+	 * the given interval.
+	 *
+	 * @param interval the interval to test against.
+	 * @param values the array which holds the values to test.
+	 * @param offset the index of the first value to test.
+	 * @param length the number of values to test.
+	 * @param mask the array which will receive the mask. The first
+	 * <code>maskLength(length)</code> elements are overwritten.
+	 * @throws NullPointerException if any argument is <code>null</code>.
+	 * @throws IndexOutOfBoundsException if the slice does not lie within
+	 * <code>values</code>.
+	 * @throws IllegalArgumentException if <code>mask</code> is too short.
+	 */
+	public static void includedMask(LongInterval interval, long[] values,
+			int offset, int length, long[] mask) {
+		Objects.requireNonNull(interval);
+		checkSlice(values.length, offset, length, mask);
+		KERNEL.mask(values, offset, length,
+				new long[]{interval.leastIncluded()},
+				new long[]{interval.greatestIncluded()}, mask);
+	}
+
+	/**
+	 * Writes a mask of which elements of the given array slice are included by
+	 * at least one of the given intervals. This is intended for a small number
+	 * of intervals, as each value is tested against every interval.
+	 *
+	 * @param intervals the intervals to test against. If there are none then
+	 * every bit of the mask is cleared.
+	 * @param values the array which holds the values to test.
+	 * @param offset the index of the first value to test.
+	 * @param length the number of values to test.
+	 * @param mask the array which will receive the mask. The first
+	 * <code>maskLength(length)</code> elements are overwritten.
+	 * @throws NullPointerException if any argument (or any element of
+	 * <code>intervals</code>) is <code>null</code>.
+	 * @throws IndexOutOfBoundsException if the slice does not lie within
+	 * <code>values</code>.
+	 * @throws IllegalArgumentException if <code>mask</code> is too short.
+	 */
+	public static void includedMask(LongInterval[] intervals, long[] values,
+			int offset, int length, long[] mask) {
+		checkSlice(values.length, offset, length, mask);
+		if (intervals.length == 0) {
+			clear(mask, length);
+			return;
+		}
+		long[] least = new long[intervals.length];
+		long[] greatest = new long[intervals.length];
+		for (int k = 0; k < intervals.length; ++k) {
+			least[k] = intervals[k].leastIncluded();
+			greatest[k] = intervals[k].greatestIncluded();
+		}
+		KERNEL.mask(values, offset, length, least, greatest, mask);
+	}
+
+	private static void checkSlice(int arrayLength, int offset, int length,
+			long[] mask) {
+		if (offset < 0 || length < 0 || offset > arrayLength - length) {
+			throw new IndexOutOfBoundsException("Slice at offset " + offset
+					+ " with length " + length
+					+ " does not fit in an array of length " + arrayLength
+					+ ".");
+		}
+		if (mask.length < maskLength(length)) {
+			throw new IllegalArgumentException("Mask array length "
+					+ mask.length + " is less than the " + maskLength(length)
+					+ " needed for " + length + " values.");
+		}
+	}
+
+	private static void clear(long[] mask, int length) {
+		for (int w = 0; w < maskLength(length); ++w) {
+			mask[w] = 0L;
+		}
+	}
+}
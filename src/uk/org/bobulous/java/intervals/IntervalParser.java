@@ -0,0 +1,481 @@
+/*
+ * Copyright © 2015 Bobulous <http://www.bobulous.org.uk/>.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package uk.org.bobulous.java.intervals;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import uk.org.bobulous.java.intervals.Interval.EndpointMode;
+
+/**
+ * Static methods which parse intervals written in the mathematical notation
+ * produced by <code>inMathematicalNotation()</code>, such as
+ * <samp>"[1, 5)"</samp> or <samp>"(−∞, 3]"</samp>.
+ *
+ * <p>
+ * An interval is written as an opening square bracket (closed) or
+ * parenthesis (open), the lower endpoint, a comma, the upper endpoint, and a
+ * closing square bracket or parenthesis. Whitespace is permitted around each
+ * part. An unbounded lower endpoint may be written as <samp>−∞</samp> (with
+ * the minus sign U+2212 produced by <code>inMathematicalNotation()</code>),
+ * <samp>-∞</samp> or <samp>-inf</samp>, and an unbounded upper endpoint as
+ * <samp>+∞</samp>, <samp>∞</samp>, <samp>+inf</samp> or <samp>inf</samp>,
+ * where <samp>inf</samp> may be in any case.</p>
+ *
+ * <p>
+ * Integer endpoints are read digit by digit straight from the given text, so
+ * parsing an <code>IntegerInterval</code> creates no strings and no boxed
+ * values, and the interval itself is taken from the
+ * <code>IntegerInterval</code> cache where possible. The bulk methods read one
+ * interval per line, and skip blank lines.</p>
+ *
+ * <p>
+ * <strong>WARNING:</strong> development and testing are still in early stages.
+ * Consider this class to be in its alpha testing phase. Use with caution, and
+ * do not rely on its structure remaining in exactly its current form!</p>
+ *
+ * @author Bobulous <http://www.bobulous.org.uk/>
+ */
+public final class IntervalParser {
+
+	private static final char MINUS_SIGN = '−';
+	private static final char INFINITY = '∞';
+
+	/*
+	The number of bytes of a file mapped at once by the bulk file parser, and
+	the initial number of characters decoded at once.
+	*/
+	private static final int WINDOW_SIZE = 1 << 30;
+	private static final int CHUNK_SIZE = 1 << 16;
+
+	/*
+	Private constructor because this class only provides static methods.
+	*/
+	private IntervalParser() {
+	}
+
+	/**
+	 * Parses the given text as an <code>IntegerInterval</code>.
+	 *
+	 * @param text the text to parse.
+	 * @return the interval described by the text.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 * @throws IllegalArgumentException if the text is not a single interval in
+	 * mathematical notation with integer endpoint values.
+	 */
+	public static IntegerInterval parseInteger(CharSequence text) {
+		return parseInteger(text, 0, text.length());
+	}
+
+	/**
+	 * Parses the given region of the given text as an
+	 * <code>IntegerInterval</code>.
+	 *
+	 * @param text the text which holds the interval.
+	 * @param start the index of the first character of the region.
+	 * @param end the index after the last character of the region.
+	 * @return the interval described by the region.
+	 * @throws NullPointerException if <code>text</code> is <code>null</code>.
+	 * @throws IndexOutOfBoundsException if the region does not lie within the
+	 * text.
+	 * @throws IllegalArgumentException if the region is not a single interval
+	 * in mathematical notation with integer endpoint values.
+	 */
+	public static IntegerInterval parseInteger(CharSequence text, int start,
+			int end) {
+		checkRegion(text, start, end);
+		Layout layout = new Layout(text, start, end);
+		byte flags = layout.flags();
+		int lower = 0, upper = 0;
+		if (!layout.lowerUnbounded) {
+			lower = parseInt(text, layout.lowerStart, layout.lowerEnd);
+		}
+		if (!layout.upperUnbounded) {
+			upper = parseInt(text, layout.upperStart, layout.upperEnd);
+		}
+		return IntegerInterval.withFlags(lower, upper, flags);
+	}
+
+	/**
+	 * Parses the given text as a <code>GenericInterval</code>, using the
+	 * given function to convert the text of each bounded endpoint into a
+	 * value. The text is split at its first comma, so the text of the lower
+	 * endpoint must not contain a comma. Whitespace around each endpoint is
+	 * removed before it is passed to the function.
+	 * <p>
+	 * For example, <code>parseGeneric("[a, k)", s -&gt; s)</code> returns the
+	 * <code>String</code> interval [a, k), while
+	 * <code>parseGeneric(text, BigDecimal::new)</code> reads endpoints of type
+	 * <code>BigDecimal</code>.</p>
+	 *
+	 * @param <T> the basis type of the interval.
+	 * @param text the text to parse.
+	 * @param valueParser the function which converts the text of an endpoint
+	 * into a value. Any <code>RuntimeException</code> which it throws is
+	 * passed on to the caller.
+	 * @return the interval described by the text.
+	 * @throws NullPointerException if either argument is <code>null</code>, or
+	 * if the function returns <code>null</code>.
+	 * @throws IllegalArgumentException if the text is not a single interval in
+	 * mathematical notation, or if the upper endpoint value is less than the
+	 * lower endpoint value.
+	 */
+	public static <T extends Comparable<T>> GenericInterval<T> parseGeneric(
+			CharSequence text,
+			Function<? super String, ? extends T> valueParser) {
+		Objects.requireNonNull(valueParser);
+		Layout layout = new Layout(text, 0, text.length());
+		T lower = null, upper = null;
+		if (!layout.lowerUnbounded) {
+			lower = Objects.requireNonNull(valueParser.apply(text.subSequence(
+					layout.lowerStart, layout.lowerEnd).toString()),
+					"The value parser returned null.");
+		}
+		if (!layout.upperUnbounded) {
+			upper = Objects.requireNonNull(valueParser.apply(text.subSequence(
+					layout.upperStart, layout.upperEnd).toString()),
+					"The value parser returned null.");
+		}
+		return new GenericInterval<>(layout.lowerClosed ? EndpointMode.CLOSED
+				: EndpointMode.OPEN, lower, upper, layout.upperClosed
+						? EndpointMode.CLOSED : EndpointMode.OPEN);
+	}
+
+	/**
+	 * Parses each line of the given text as an <code>IntegerInterval</code>,
+	 * passing each interval to the given consumer in order. Lines may end
+	 * with a line feed or with a carriage return and line feed, and lines
+	 * which hold nothing but whitespace are skipped. A
+	 * <code>CharBuffer</code> is read from its position to its limit, and its
+	 * position is not changed.
+	 *
+	 * @param text the text to parse.
+	 * @param consumer the consumer which will receive each interval.
+	 * @return the number of intervals parsed.
+	 * @throws NullPointerException if either argument is <code>null</code>.
+	 * @throws IllegalArgumentException if a line which is not blank does not
+	 * hold a single interval in mathematical notation with integer endpoint
+	 * values. The message gives the line number, counting from one, and every
+	 * interval on earlier lines will already have been passed to the
+	 * consumer.
+	 */
+	public static long parseIntegers(CharSequence text,
+			Consumer<? super IntegerInterval> consumer) {
+		LineParser lines = new LineParser(consumer);
+		lines.feed(text, 0, text.length(), true);
+		return lines.count;
+	}
+
+	/**
+	 * Parses each line of the given UTF-8 file as an
+	 * <code>IntegerInterval</code>, passing each interval to the given
+	 * consumer in order. The file is memory-mapped and decoded a chunk at a
+	 * time, so even a very large file is parsed without being read into
+	 * memory all at once. Lines are treated as described for
+	 * {@link #parseIntegers(CharSequence, Consumer)}.
+	 *
+	 * @param file the path of the file to parse.
+	 * @param consumer the consumer which will receive each interval.
+	 * @return the number of intervals parsed.
+	 * @throws IOException if the file cannot be read, or is not valid UTF-8.
+	 * @throws NullPointerException if either argument is <code>null</code>.
+	 * @throws IllegalArgumentException if a line which is not blank does not
+	 * hold a single interval in mathematical notation with integer endpoint
+	 * values, in which case the message gives the line number.
+	 */
+	public static long parseIntegers(Path file,
+			Consumer<? super IntegerInterval> consumer) throws IOException {
+		LineParser lines = new LineParser(consumer);
+		CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder().
+				onMalformedInput(CodingErrorAction.REPORT).
+				onUnmappableCharacter(CodingErrorAction.REPORT);
+		CharBuffer chars = CharBuffer.allocate(CHUNK_SIZE);
+		try (FileChannel channel = FileChannel.open(file,
+				StandardOpenOption.READ)) {
+			long size = channel.size();
+			long position = 0;
+			boolean last;
+			do {
+				long windowSize = Math.min(WINDOW_SIZE, size - position);
+				last = position + windowSize == size;
+				MappedByteBuffer bytes = channel.map(
+						FileChannel.MapMode.READ_ONLY, position, windowSize);
+				CoderResult result;
+				do {
+					result = decoder.decode(bytes, chars, last);
+					if (result.isError()) {
+						result.throwException();
+					}
+					chars = lines.drain(chars);
+				} while (result.isOverflow());
+				// Any bytes left over begin a character which continues in
+				// the next window.
+				position += bytes.position();
+			} while (!last);
+			CoderResult result;
+			do {
+				result = decoder.flush(chars);
+				chars = lines.drain(chars);
+			} while (result.isOverflow());
+		}
+		chars.flip();
+		lines.feed(chars, 0, chars.length(), true);
+		return lines.count;
+	}
+
+	/**
+	 * Splits text into lines and parses each as an
+	 * <code>IntegerInterval</code>, keeping count of lines and intervals
+	 * across successive pieces of text.
+	 */
+	private static final class LineParser {
+
+		private final Consumer<? super IntegerInterval> consumer;
+		private long line = 1;
+		private long count;
+
+		private LineParser(Consumer<? super IntegerInterval> consumer) {
+			this.consumer = Objects.requireNonNull(consumer);
+		}
+
+		/**
+		 * Parses every complete line in the given region (and the final,
+		 * unterminated line too if <code>endOfInput</code> is
+		 * <code>true</code>), and returns the index after the last line
+		 * parsed.
+		 */
+		private int feed(CharSequence text, int start, int end,
+				boolean endOfInput) {
+			int lineStart = start;
+			for (int i = start; i < end; ++i) {
+				if (text.charAt(i) == '\n') {
+					parseLine(text, lineStart, i);
+					lineStart = i + 1;
+				}
+			}
+			if (endOfInput && lineStart < end) {
+				parseLine(text, lineStart, end);
+				lineStart = end;
+			}
+			return lineStart;
+		}
+
+		/**
+		 * Parses the complete lines held in the given buffer (which is in
+		 * fill mode), and returns a buffer, again in fill mode, holding only
+		 * the unfinished final line. If that line fills the whole buffer then
+		 * a larger buffer is returned.
+		 */
+		private CharBuffer drain(CharBuffer chars) {
+			chars.flip();
+			int consumed = feed(chars, 0, chars.length(), false);
+			chars.position(chars.position() + consumed);
+			if (consumed == 0 && chars.limit() == chars.capacity()) {
+				CharBuffer larger = CharBuffer.allocate(2 * chars.capacity());
+				larger.put(chars);
+				return larger;
+			}
+			chars.compact();
+			return chars;
+		}
+
+		private void parseLine(CharSequence text, int start, int end) {
+			if (skipWhitespace(text, start, end) < end) {
+				IntegerInterval interval;
+				try {
+					interval = parseInteger(text, start, end);
+				} catch (IllegalArgumentException ex) {
+					throw new IllegalArgumentException("Line " + line + ": "
+							+ ex.getMessage(), ex);
+				}
+				consumer.accept(interval);
+				++count;
+			}
+			++line;
+		}
+	}
+
+	/**
+	 * The positions of the parts of an interval within a region of text. The
+	 * constructor checks the brackets, the comma and any infinite endpoint,
+	 * but leaves the endpoint values to the caller.
+	 */
+	private static final class Layout {
+
+		private final boolean lowerClosed;
+		private final boolean upperClosed;
+		private final boolean lowerUnbounded;
+		private final boolean upperUnbounded;
+		private final int lowerStart;
+		private final int lowerEnd;
+		private final int upperStart;
+		private final int upperEnd;
+
+		private Layout(CharSequence text, int start, int end) {
+			int first = skipWhitespace(text, start, end);
+			int last = trimWhitespace(text, first, end) - 1;
+			if (last <= first) {
+				throw invalid(text, start, end, "it is too short");
+			}
+			char opening = text.charAt(first);
+			if (opening != '[' && opening != '(') {
+				throw invalid(text, start, end,
+						"it does not begin with '[' or '('");
+			}
+			char closing = text.charAt(last);
+			if (closing != ']' && closing != ')') {
+				throw invalid(text, start, end,
+						"it does not end with ']' or ')'");
+			}
+			int comma = first + 1;
+			while (comma < last && text.charAt(comma) != ',') {
+				++comma;
+			}
+			if (comma == last) {
+				throw invalid(text, start, end, "it has no comma");
+			}
+			lowerClosed = opening == '[';
+			upperClosed = closing == ']';
+			lowerStart = skipWhitespace(text, first + 1, comma);
+			lowerEnd = trimWhitespace(text, lowerStart, comma);
+			upperStart = skipWhitespace(text, comma + 1, last);
+			upperEnd = trimWhitespace(text, upperStart, last);
+			if (lowerStart == lowerEnd || upperStart == upperEnd) {
+				throw invalid(text, start, end, "an endpoint is missing");
+			}
+			lowerUnbounded = isInfinity(text, lowerStart, lowerEnd, true);
+			upperUnbounded = isInfinity(text, upperStart, upperEnd, false);
+		}
+
+		private byte flags() {
+			return IntegerInterval.flagsFor(lowerClosed ? EndpointMode.CLOSED
+					: EndpointMode.OPEN, lowerUnbounded, upperUnbounded,
+					upperClosed ? EndpointMode.CLOSED : EndpointMode.OPEN);
+		}
+	}
+
+	/**
+	 * Reports on whether the given region holds one of the accepted spellings
+	 * of negative infinity (if <code>negative</code> is <code>true</code>)
+	 * or positive infinity.
+	 */
+	private static boolean isInfinity(CharSequence text, int start, int end,
+			boolean negative) {
+		char sign = text.charAt(start);
+		if (sign == '-' || sign == MINUS_SIGN) {
+			if (!negative) {
+				return false;
+			}
+			++start;
+		} else if (sign == '+') {
+			if (negative) {
+				return false;
+			}
+			++start;
+		} else if (negative) {
+			return false;
+		}
+		int length = end - start;
+		if (length == 1) {
+			return text.charAt(start) == INFINITY;
+		}
+		return length == 3 && (text.charAt(start) | 0x20) == 'i' && (text.
+				charAt(start + 1) | 0x20) == 'n' && (text.charAt(start + 2)
+				| 0x20) == 'f';
+	}
+
+	/**
+	 * Reads the decimal integer held in the given region, which may begin
+	 * with a plus sign, a hyphen-minus or a minus sign.
+	 */
+	private static int parseInt(CharSequence text, int start, int end) {
+		int i = start;
+		boolean negative = false;
+		char sign = text.charAt(i);
+		if (sign == '-' || sign == MINUS_SIGN) {
+			negative = true;
+			++i;
+		} else if (sign == '+') {
+			++i;
+		}
+		if (i == end) {
+			throw invalidNumber(text, start, end);
+		}
+		// Accumulate the negated value, as the range of int reaches one
+		// further below zero than above it.
+		long value = 0;
+		for (; i < end; ++i) {
+			int digit = text.charAt(i) - '0';
+			if (digit < 0 || digit > 9) {
+				throw invalidNumber(text, start, end);
+			}
+			value = 10 * value - digit;
+			if (value < Integer.MIN_VALUE) {
+				throw invalidNumber(text, start, end);
+			}
+		}
+		if (!negative) {
+			value = -value;
+			if (value > Integer.MAX_VALUE) {
+				throw invalidNumber(text, start, end);
+			}
+		}
+		return (int) value;
+	}
+
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\r' || Character.isWhitespace(c)
+				|| Character.isSpaceChar(c);
+	}
+
+	private static int skipWhitespace(CharSequence text, int start, int end) {
+		while (start < end && isWhitespace(text.charAt(start))) {
+			++start;
+		}
+		return start;
+	}
+
+	private static int trimWhitespace(CharSequence text, int start, int end) {
+		while (end > start && isWhitespace(text.charAt(end - 1))) {
+			--end;
+		}
+		return end;
+	}
+
+	private static void checkRegion(CharSequence text, int start, int end) {
+		if (start < 0 || end > text.length() || start > end) {
+			throw new IndexOutOfBoundsException("Region " + start + " to "
+					+ end + " does not lie within text of length " + text.
+					length() + ".");
+		}
+	}
+
+	private static IllegalArgumentException invalid(CharSequence text,
+			int start, int end, String reason) {
+		return new IllegalArgumentException("Cannot parse \"" + text.
+				subSequence(start, end) + "\" as an interval because "
+				+ reason + ".");
+	}
+
+	private static IllegalArgumentException invalidNumber(CharSequence text,
+			int start, int end) {
+		return new IllegalArgumentException("Cannot parse \"" + text.
+				subSequence(start, end) + "\" as an int endpoint value.");
+	}
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright © 2015 Bobulous <http://www.bobulous.org.uk/>.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package uk.org.bobulous.java.intervals;
+
+import java.util.Arrays;
+
+/**
+ * Static methods which sort arrays of <code>IntegerInterval</code> objects into
+ * exactly the order defined by <code>IntervalComparator</code>, without
+ * calling the comparator.
+ *
+ * <p>
+ * Each endpoint of each interval is encoded as a 34-bit key which folds in the
+ * endpoint mode and treats an unbounded endpoint as lesser (or greater) than
+ * every bounded value. The array is then sorted by a least-significant-digit
+ * radix sort over the upper endpoint keys followed by the lower endpoint keys,
+ * in 11-bit digits, skipping any digit which is the same for every element.
+ * The sort is stable, and takes time proportional to the length of the range
+ * being sorted.</p>
+ *
+ * <p>
+ * <strong>WARNING:</strong> development and testing are still in early stages.
+ * Consider this class to be in its alpha testing phase. Use with caution, and
+ * do not rely on its structure remaining in exactly its current form!</p>
+ *
+ * @author Bobulous <http://www.bobulous.org.uk/>
+ * @see IntervalComparator
+ */
+public final class IntervalSorter {
+
+	/*
+	Ranges shorter than this are sorted by insertion sort, as the counting
+	arrays of the radix sort cost more to clear than the sort would save.
+	*/
+	private static final int INSERTION_SORT_THRESHOLD = 64;
+
+	private static final int DIGIT_BITS = 11;
+	private static final int DIGIT_MASK = (1 << DIGIT_BITS) - 1;
+	private static final int DIGITS_PER_KEY = (IntegerInterval.KEY_BITS
+			+ DIGIT_BITS - 1) / DIGIT_BITS;
+
+	/*
+	Private constructor because this class only provides static methods.
+	*/
+	private IntervalSorter() {
+	}
+
+	/**
+	 * Sorts the given array into ascending order as defined by
+	 * <code>IntervalComparator</code>. Comparatively equal intervals keep
+	 * their relative order.
+	 *
+	 * @param intervals the array to sort.
+	 * @throws NullPointerException if the array is <code>null</code> or
+	 * contains <code>null</code>.
+	 */
+	public static void sort(IntegerInterval[] intervals) {
+		sort(intervals, 0, intervals.length);
+	}
+
+	/**
+	 * Sorts the given range of the given array into ascending order as defined
+	 * by <code>IntervalComparator</code>. Comparatively equal intervals keep
+	 * their relative order.
+	 *
+	 * @param intervals the array to sort.
+	 * @param fromIndex the index of the first element to sort.
+	 * @param toIndex the index after the last element to sort.
+	 * @throws NullPointerException if the array is <code>null</code> or the
+	 * range contains <code>null</code>.
+	 * @throws IllegalArgumentException if <code>fromIndex</code> is greater
+	 * than <code>toIndex</code>.
+	 * @throws ArrayIndexOutOfBoundsException if <code>fromIndex</code> is
+	 * negative or <code>toIndex</code> is greater than the length of the
+	 * array.
+	 */
+	public static void sort(IntegerInterval[] intervals, int fromIndex,
+			int toIndex) {
+		if (fromIndex > toIndex) {
+			throw new IllegalArgumentException("fromIndex (" + fromIndex
+					+ ") is greater than toIndex (" + toIndex + ").");
+		}
+		if (fromIndex < 0) {
+			throw new ArrayIndexOutOfBoundsException(fromIndex);
+		}
+		if (toIndex > intervals.length) {
+			throw new ArrayIndexOutOfBoundsException(toIndex);
+		}
+		int length = toIndex - fromIndex;
+		long[] lowerKeys = new long[length];
+		long[] upperKeys = new long[length];
+		for (int i = 0; i < length; ++i) {
+			IntegerInterval interval = intervals[fromIndex + i];
+			lowerKeys[i] = interval.lowerKey();
+			upperKeys[i] = interval.upperKey();
+		}
+		if (length < INSERTION_SORT_THRESHOLD) {
+			insertionSort(intervals, fromIndex, lowerKeys, upperKeys);
+		} else {
+			radixSort(intervals, fromIndex, lowerKeys, upperKeys);
+		}
+	}
+
+	private static void insertionSort(IntegerInterval[] intervals, int offset,
+			long[] lowerKeys, long[] upperKeys) {
+		for (int i = 1; i < lowerKeys.length; ++i) {
+			IntegerInterval interval = intervals[offset + i];
+			long lowerKey = lowerKeys[i], upperKey = upperKeys[i];
+			int j = i - 1;
+			while (j >= 0 && (lowerKeys[j] > lowerKey || (lowerKeys[j]
+					== lowerKey && upperKeys[j] > upperKey))) {
+				intervals[offset + j + 1] = intervals[offset + j];
+				lowerKeys[j + 1] = lowerKeys[j];
+				upperKeys[j + 1] = upperKeys[j];
+				--j;
+			}
+			intervals[offset + j + 1] = interval;
+			lowerKeys[j + 1] = lowerKey;
+			upperKeys[j + 1] = upperKey;
+		}
+	}
+
+	private static void radixSort(IntegerInterval[] intervals, int offset,
+			long[] lowerKeys, long[] upperKeys) {
+		int length = lowerKeys.length;
+		IntegerInterval[] items = new IntegerInterval[length];
+		System.arraycopy(intervals, offset, items, 0, length);
+		IntegerInterval[] itemBuffer = new IntegerInterval[length];
+		long[] lowerBuffer = new long[length];
+		long[] upperBuffer = new long[length];
+		int[] counts = new int[DIGIT_MASK + 1];
+		/*
+		The upper endpoint keys are the less significant half of the combined
+		key, so their digits are sorted first. Each pass moves the intervals
+		and both sets of keys into the buffers, and then the buffers and the
+		arrays swap roles.
+		*/
+		for (int pass = 0; pass < 2 * DIGITS_PER_KEY; ++pass) {
+			long[] keys = pass < DIGITS_PER_KEY ? upperKeys : lowerKeys;
+			int shift = DIGIT_BITS * (pass % DIGITS_PER_KEY);
+			Arrays.fill(counts, 0);
+			for (int i = 0; i < length; ++i) {
+				++counts[(int) (keys[i] >>> shift) & DIGIT_MASK];
+			}
+			if (counts[(int) (keys[0] >>> shift) & DIGIT_MASK] == length) {
+				// Every key has the same digit, so this pass would not move
+				// anything.
+				continue;
+			}
+			int start = 0;
+			for (int digit = 0; digit <= DIGIT_MASK; ++digit) {
+				int count = counts[digit];
+				counts[digit] = start;
+				start += count;
+			}
+			for (int i = 0; i < length; ++i) {
+				int target = counts[(int) (keys[i] >>> shift) & DIGIT_MASK]++;
+				itemBuffer[target] = items[i];
+				lowerBuffer[target] = lowerKeys[i];
+				upperBuffer[target] = upperKeys[i];
+			}
+			IntegerInterval[] swapItems = items;
+			items = itemBuffer;
+			itemBuffer = swapItems;
+			long[] swapKeys = lowerKeys;
+			lowerKeys = lowerBuffer;
+			lowerBuffer = swapKeys;
+			swapKeys = upperKeys;
+			upperKeys = upperBuffer;
+			upperBuffer = swapKeys;
+		}
+		System.arraycopy(items, 0, intervals, offset, length);
+	}
+}
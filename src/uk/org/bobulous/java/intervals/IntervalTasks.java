@@ -0,0 +1,176 @@
+/*
+ * Copyright © 2015 Bobulous <http://www.bobulous.org.uk/>.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package uk.org.bobulous.java.intervals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * Static methods which process the integers of an <code>IntegerInterval</code>
+ * in parallel, by dividing the interval into chunks and handing each chunk to
+ * an action on a separate thread.
+ * <p>
+ * The chunks are made by {@link IntegerInterval#split(int)}, so they are
+ * disjoint, adjacent, and together include exactly the integers of the
+ * original interval, and every chunk is passed to the action exactly once.
+ * {@link #submit(IntegerInterval, int, Executor, Consumer)} divides the
+ * interval once, up front, and suits any <code>Executor</code>.
+ * {@link #invoke(IntegerInterval, int, ForkJoinPool, Consumer)} instead
+ * divides the interval lazily, in halves, inside a
+ * <code>ForkJoinPool</code>: a worker keeps the first half of its range and
+ * makes the second half available to be stolen, so an idle worker takes over
+ * half of the largest range remaining and divides it further in turn. This
+ * balances the work even when some integers take far longer to process than
+ * others.</p>
+ *
+ * <p>
+ * <strong>WARNING:</strong> development and testing are still in early stages.
+ * Consider this class to be in its alpha testing phase. Use with caution, and
+ * do not rely on its structure remaining in exactly its current form!</p>
+ *
+ * @author Bobulous <http://www.bobulous.org.uk/>
+ * @see IntegerInterval#split(int)
+ * @see IntegerInterval#splitBySize(int)
+ */
+public final class IntervalTasks {
+
+	/*
+	Private constructor because this class only provides static methods.
+	*/
+	private IntervalTasks() {
+	}
+
+	/**
+	 * Divides the specified interval into chunks of no more than
+	 * <code>maxSize</code> integers, as described by
+	 * {@link IntegerInterval#splitBySize(int)}, and submits one task to the
+	 * executor for each chunk, which passes the chunk to the action.
+	 *
+	 * @param interval the interval whose integers should be processed.
+	 * @param maxSize the greatest number of integers in any chunk.
+	 * @param executor the executor which will run the tasks.
+	 * @param action the action which processes a single chunk. It will be
+	 * called from the threads of the executor, possibly at the same time for
+	 * several chunks.
+	 * @return a future which completes when every chunk has been processed,
+	 * or which completes exceptionally if the action throws an exception for
+	 * any chunk.
+	 * @throws NullPointerException if <code>null</code> is provided as any
+	 * argument.
+	 * @throws IllegalArgumentException if <code>maxSize</code> is less than
+	 * one.
+	 */
+	public static CompletableFuture<Void> submit(IntegerInterval interval,
+			int maxSize, Executor executor,
+			Consumer<? super IntegerInterval> action) {
+		Objects.requireNonNull(executor);
+		Objects.requireNonNull(action);
+		List<IntegerInterval> chunks = interval.splitBySize(maxSize);
+		CompletableFuture<?>[] futures = new CompletableFuture<?>[chunks.
+				size()];
+		for (int i = 0; i < futures.length; ++i) {
+			IntegerInterval chunk = chunks.get(i);
+			futures[i] = CompletableFuture.runAsync(() -> action.accept(chunk),
+					executor);
+		}
+		return CompletableFuture.allOf(futures);
+	}
+
+	/**
+	 * Processes the integers of the specified interval in the specified
+	 * fork/join pool, dividing the interval in halves until each chunk
+	 * includes no more than <code>maxSize</code> integers, and then passing
+	 * each chunk to the action. This method returns when every chunk has
+	 * been processed.
+	 * <p>
+	 * Only a range which is about to be processed or stolen is divided, so a
+	 * worker which finishes early takes over and divides part of a range
+	 * which another worker has not yet reached. The chunks are the same as
+	 * those which repeated calls to {@link IntegerInterval#split(int)} with
+	 * an argument of two would give.</p>
+	 *
+	 * @param interval the interval whose integers should be processed.
+	 * @param maxSize the greatest number of integers in any chunk.
+	 * @param pool the pool in which the chunks will be processed.
+	 * @param action the action which processes a single chunk. It will be
+	 * called from the threads of the pool, possibly at the same time for
+	 * several chunks.
+	 * @throws NullPointerException if <code>null</code> is provided as any
+	 * argument.
+	 * @throws IllegalArgumentException if <code>maxSize</code> is less than
+	 * one.
+	 * @throws RuntimeException if the action throws an unchecked exception
+	 * for any chunk, in which case an exception of the same type is thrown, as
+	 * described by <code>ForkJoinTask.invoke</code>.
+	 */
+	public static void invoke(IntegerInterval interval, int maxSize,
+			ForkJoinPool pool, Consumer<? super IntegerInterval> action) {
+		Objects.requireNonNull(interval);
+		Objects.requireNonNull(pool);
+		Objects.requireNonNull(action);
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("Cannot process an interval in "
+					+ "chunks of at most " + maxSize + " integers.");
+		}
+		if (interval.memberCount() > 0) {
+			pool.invoke(new ChunkTask(interval, maxSize, action));
+		}
+	}
+
+	/**
+	 * A task which processes one range, keeping the first half for itself and
+	 * forking a task for the second half, until the half which it keeps is
+	 * small enough to be processed directly.
+	 */
+	private static final class ChunkTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final IntegerInterval range;
+		private final int maxSize;
+		private final Consumer<? super IntegerInterval> action;
+
+		private ChunkTask(IntegerInterval range, int maxSize,
+				Consumer<? super IntegerInterval> action) {
+			this.range = range;
+			this.maxSize = maxSize;
+			this.action = action;
+		}
+
+		@Override
+		protected void compute() {
+			IntegerInterval remaining = range;
+			List<ChunkTask> forked = new ArrayList<>();
+			while (remaining.memberCount() > maxSize) {
+				List<IntegerInterval> halves = remaining.split(2);
+				ChunkTask second = new ChunkTask(halves.get(1), maxSize,
+						action);
+				second.fork();
+				forked.add(second);
+				remaining = halves.get(0);
+			}
+			action.accept(remaining);
+			// Join in reverse order of forking, running directly any task
+			// which no other worker has stolen.
+			for (int i = forked.size() - 1; i >= 0; --i) {
+				ChunkTask task = forked.get(i);
+				if (task.tryUnfork()) {
+					task.compute();
+				} else {
+					task.join();
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,556 @@
+/*
+ * Copyright © 2015 Bobulous <http://www.bobulous.org.uk/>.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package uk.org.bobulous.java.intervals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import uk.org.bobulous.java.intervals.Interval.EndpointMode;
+
+/**
+ * A map from <code>Interval</code> keys to values which can efficiently find
+ * every key which contains a given point, which overlaps a given interval, or
+ * which is enclosed by a given interval.
+ * <p>
+ * Keys are held in a balanced binary search tree ordered by
+ * {@link IntervalComparator}, and every node records the greatest and least
+ * upper endpoints found in its subtree. This allows whole subtrees to be
+ * skipped during a query, so that each query takes time proportional to
+ * log(<var>n</var>) plus the number of matching keys, where <var>n</var> is
+ * the number of keys in the tree.</p>
+ * <p>
+ * Two keys which are comparatively equal according to
+ * <code>IntervalComparator</code> are considered to be the same key, so
+ * putting a value against an interval which is comparatively equal to an
+ * existing key will replace the value held against that key.</p>
+ * <p>
+ * Endpoint values and modes are treated exactly as they are by
+ * {@link GenericInterval#includes(java.lang.Comparable)}: a <code>null</code>
+ * endpoint is unbounded, a <code>CLOSED</code> endpoint includes its own value
+ * and an <code>OPEN</code> endpoint excludes its own value. Two intervals are
+ * considered to overlap if the more restrictive of their two lower endpoints
+ * and the more restrictive of their two upper endpoints both permit some
+ * common value. Because the basis type is only known to be
+ * <code>Comparable</code>, this test cannot know whether any value lies
+ * strictly between two distinct endpoint values, so an interval such as (0,
+ * 1) over a discrete type is treated as though it contains values.</p>
+ * <p>
+ * This class is not thread-safe. If a tree is to be modified by one thread
+ * while being read or modified by another then access must be synchronized
+ * externally.</p>
+ *
+ * @author Bobulous <http://www.bobulous.org.uk/>
+ * @param <T> the basis type of the <code>Interval</code> keys.
+ * @param <V> the type of the values mapped to the keys.
+ * @see IntervalComparator
+ */
+public final class IntervalTree<T extends Comparable<T>, V> {
+
+	private final IntervalComparator<T> comparator = IntervalComparator.
+			<T>getInstance();
+
+	private Node<T, V> root;
+	private int size;
+
+	/**
+	 * Constructs an empty <code>IntervalTree</code>.
+	 */
+	public IntervalTree() {
+	}
+
+	/**
+	 * A node of the tree, which also serves as the map entry returned by the
+	 * query methods.
+	 */
+	private static final class Node<T extends Comparable<T>, V> implements
+			Map.Entry<Interval<T>, V> {
+
+		private final Interval<T> key;
+		private V value;
+		private Node<T, V> left, right;
+		private int height = 1;
+
+		/*
+		The key in this subtree which has the comparatively greatest upper
+		endpoint, and the key which has the comparatively least upper endpoint.
+		*/
+		private Interval<T> maxUpper, minUpper;
+
+		private Node(Interval<T> key, V value) {
+			this.key = key;
+			this.value = value;
+			this.maxUpper = key;
+			this.minUpper = key;
+		}
+
+		@Override
+		public Interval<T> getKey() {
+			return key;
+		}
+
+		@Override
+		public V getValue() {
+			return value;
+		}
+
+		/**
+		 * Not supported. Use <code>IntervalTree.put</code> to replace the
+		 * value of a key.
+		 *
+		 * @param value ignored.
+		 * @return never returns.
+		 * @throws UnsupportedOperationException always.
+		 */
+		@Override
+		public V setValue(V value) {
+			throw new UnsupportedOperationException("Entries returned by an "
+					+ "IntervalTree cannot be modified.");
+		}
+
+		@Override
+		public String toString() {
+			return key + "=" + value;
+		}
+	}
+
+	/**
+	 * Returns the number of keys held in this tree.
+	 *
+	 * @return the number of keys in this tree.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Reports on whether this tree holds no keys.
+	 *
+	 * @return <code>true</code> if this tree is empty.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes every key from this tree.
+	 */
+	public void clear() {
+		root = null;
+		size = 0;
+	}
+
+	/**
+	 * Returns the value held against the key which is comparatively equal to
+	 * the specified interval.
+	 *
+	 * @param interval the key to look up.
+	 * @return the value held against the key, or <code>null</code> if this
+	 * tree does not contain the key.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public V get(Interval<T> interval) {
+		Objects.requireNonNull(interval);
+		Node<T, V> node = root;
+		while (node != null) {
+			int comparison = comparator.compare(interval, node.key);
+			if (comparison == 0) {
+				return node.value;
+			}
+			node = comparison < 0 ? node.left : node.right;
+		}
+		return null;
+	}
+
+	/**
+	 * Reports on whether this tree contains a key which is comparatively equal
+	 * to the specified interval.
+	 *
+	 * @param interval the key to look for.
+	 * @return <code>true</code> if this tree contains the key.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public boolean containsKey(Interval<T> interval) {
+		Objects.requireNonNull(interval);
+		Node<T, V> node = root;
+		while (node != null) {
+			int comparison = comparator.compare(interval, node.key);
+			if (comparison == 0) {
+				return true;
+			}
+			node = comparison < 0 ? node.left : node.right;
+		}
+		return false;
+	}
+
+	/**
+	 * Associates the specified value with the specified interval key. If this
+	 * tree already contains a comparatively equal key then its value is
+	 * replaced.
+	 *
+	 * @param interval the key.
+	 * @param value the value to associate with the key.
+	 * @return the value previously associated with the key, or
+	 * <code>null</code> if there was no such key.
+	 * @throws NullPointerException if <code>null</code> is provided as the
+	 * interval.
+	 */
+	public V put(Interval<T> interval, V value) {
+		Objects.requireNonNull(interval);
+		Outcome<V> result = new Outcome<>();
+		root = put(root, interval, value, result);
+		if (!result.replaced) {
+			++size;
+		}
+		return result.previous;
+	}
+
+	private static final class Outcome<V> {
+
+		private boolean replaced;
+		private V previous;
+	}
+
+	private Node<T, V> put(Node<T, V> node, Interval<T> interval, V value,
+			Outcome<V> result) {
+		if (node == null) {
+			return new Node<>(interval, value);
+		}
+		int comparison = comparator.compare(interval, node.key);
+		if (comparison == 0) {
+			result.replaced = true;
+			result.previous = node.value;
+			node.value = value;
+			return node;
+		}
+		if (comparison < 0) {
+			node.left = put(node.left, interval, value, result);
+		} else {
+			node.right = put(node.right, interval, value, result);
+		}
+		return rebalance(node);
+	}
+
+	/**
+	 * Removes the key which is comparatively equal to the specified interval.
+	 *
+	 * @param interval the key to remove.
+	 * @return the value which was associated with the key, or
+	 * <code>null</code> if this tree did not contain the key.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public V remove(Interval<T> interval) {
+		Objects.requireNonNull(interval);
+		Outcome<V> result = new Outcome<>();
+		root = remove(root, interval, result);
+		if (result.replaced) {
+			--size;
+		}
+		return result.previous;
+	}
+
+	private Node<T, V> remove(Node<T, V> node, Interval<T> interval,
+			Outcome<V> result) {
+		if (node == null) {
+			return null;
+		}
+		int comparison = comparator.compare(interval, node.key);
+		if (comparison < 0) {
+			node.left = remove(node.left, interval, result);
+		} else if (comparison > 0) {
+			node.right = remove(node.right, interval, result);
+		} else {
+			result.replaced = true;
+			result.previous = node.value;
+			if (node.left == null) {
+				return node.right;
+			}
+			if (node.right == null) {
+				return node.left;
+			}
+			// Replace this node with its in-order successor.
+			Node<T, V> successor = node.right;
+			while (successor.left != null) {
+				successor = successor.left;
+			}
+			successor.right = removeLeftmost(node.right);
+			successor.left = node.left;
+			return rebalance(successor);
+		}
+		return rebalance(node);
+	}
+
+	private Node<T, V> removeLeftmost(Node<T, V> node) {
+		if (node.left == null) {
+			return node.right;
+		}
+		node.left = removeLeftmost(node.left);
+		return rebalance(node);
+	}
+
+	/*
+	AVL balancing. Each of these methods also refreshes the height and the
+	upper endpoint summaries of every node whose children change.
+	*/
+	private static int height(Node<?, ?> node) {
+		return node == null ? 0 : node.height;
+	}
+
+	private void update(Node<T, V> node) {
+		node.height = 1 + Math.max(height(node.left), height(node.right));
+		Interval<T> max = node.key, min = node.key;
+		if (node.left != null) {
+			if (comparator.upperEndpointValueCompare(node.left.maxUpper, max)
+					> 0) {
+				max = node.left.maxUpper;
+			}
+			if (comparator.upperEndpointValueCompare(node.left.minUpper, min)
+					< 0) {
+				min = node.left.minUpper;
+			}
+		}
+		if (node.right != null) {
+			if (comparator.upperEndpointValueCompare(node.right.maxUpper, max)
+					> 0) {
+				max = node.right.maxUpper;
+			}
+			if (comparator.upperEndpointValueCompare(node.right.minUpper, min)
+					< 0) {
+				min = node.right.minUpper;
+			}
+		}
+		node.maxUpper = max;
+		node.minUpper = min;
+	}
+
+	private Node<T, V> rotateRight(Node<T, V> node) {
+		Node<T, V> pivot = node.left;
+		node.left = pivot.right;
+		pivot.right = node;
+		update(node);
+		update(pivot);
+		return pivot;
+	}
+
+	private Node<T, V> rotateLeft(Node<T, V> node) {
+		Node<T, V> pivot = node.right;
+		node.right = pivot.left;
+		pivot.left = node;
+		update(node);
+		update(pivot);
+		return pivot;
+	}
+
+	private Node<T, V> rebalance(Node<T, V> node) {
+		update(node);
+		int balance = height(node.left) - height(node.right);
+		if (balance > 1) {
+			if (height(node.left.left) < height(node.left.right)) {
+				node.left = rotateLeft(node.left);
+			}
+			return rotateRight(node);
+		}
+		if (balance < -1) {
+			if (height(node.right.right) < height(node.right.left)) {
+				node.right = rotateRight(node.right);
+			}
+			return rotateLeft(node);
+		}
+		return node;
+	}
+
+	/*
+	Endpoint tests. These follow the rules used by GenericInterval.
+	*/
+
+	/**
+	 * Reports on whether the lower endpoint of the given interval permits the
+	 * given value.
+	 */
+	static <T extends Comparable<T>> boolean lowerAdmits(
+			Interval<T> interval, T value) {
+		T lower = interval.getLowerEndpoint();
+		if (lower == null) {
+			return true;
+		}
+		int comparison = lower.compareTo(value);
+		return comparison < 0 || (comparison == 0 && interval.
+				getLowerEndpointMode().equals(EndpointMode.CLOSED));
+	}
+
+	/**
+	 * Reports on whether the upper endpoint of the given interval permits the
+	 * given value.
+	 */
+	static <T extends Comparable<T>> boolean upperAdmits(
+			Interval<T> interval, T value) {
+		T upper = interval.getUpperEndpoint();
+		if (upper == null) {
+			return true;
+		}
+		int comparison = upper.compareTo(value);
+		return comparison > 0 || (comparison == 0 && interval.
+				getUpperEndpointMode().equals(EndpointMode.CLOSED));
+	}
+
+	/**
+	 * Reports on whether some value could be permitted both by the upper
+	 * endpoint of the first interval and by the lower endpoint of the second
+	 * interval.
+	 */
+	static <T extends Comparable<T>> boolean upperMeetsLower(
+			Interval<T> first, Interval<T> second) {
+		T upper = first.getUpperEndpoint();
+		T lower = second.getLowerEndpoint();
+		if (upper == null || lower == null) {
+			return true;
+		}
+		int comparison = upper.compareTo(lower);
+		return comparison > 0 || (comparison == 0 && first.
+				getUpperEndpointMode().equals(EndpointMode.CLOSED) && second.
+				getLowerEndpointMode().equals(EndpointMode.CLOSED));
+	}
+
+	/**
+	 * Finds every key in this tree which includes the specified value.
+	 *
+	 * @param point the value to look for.
+	 * @return a list of the entries whose keys include the specified value,
+	 * in <code>IntervalComparator</code> order of their keys. The entries are
+	 * views which remain valid only until this tree is next modified.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public List<Map.Entry<Interval<T>, V>> stab(T point) {
+		Objects.requireNonNull(point);
+		List<Map.Entry<Interval<T>, V>> results = new ArrayList<>();
+		stab(root, point, results);
+		return results;
+	}
+
+	private void stab(Node<T, V> node, T point,
+			List<Map.Entry<Interval<T>, V>> results) {
+		while (node != null) {
+			if (!upperAdmits(node.maxUpper, point)) {
+				// No key in this subtree reaches as far as the point.
+				return;
+			}
+			stab(node.left, point, results);
+			if (!lowerAdmits(node.key, point)) {
+				// Every key to the right has a lower endpoint which is at least
+				// as restrictive as this one, so none can include the point.
+				return;
+			}
+			if (upperAdmits(node.key, point)) {
+				results.add(node);
+			}
+			node = node.right;
+		}
+	}
+
+	/**
+	 * Finds every key in this tree which overlaps the specified interval. Two
+	 * intervals overlap if there is a value which both of them include.
+	 *
+	 * @param interval the interval to test against the keys.
+	 * @return a list of the entries whose keys overlap the specified interval,
+	 * in <code>IntervalComparator</code> order of their keys. The entries are
+	 * views which remain valid only until this tree is next modified.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public List<Map.Entry<Interval<T>, V>> overlapping(Interval<T> interval) {
+		Objects.requireNonNull(interval);
+		List<Map.Entry<Interval<T>, V>> results = new ArrayList<>();
+		overlapping(root, interval, results);
+		return results;
+	}
+
+	private void overlapping(Node<T, V> node, Interval<T> interval,
+			List<Map.Entry<Interval<T>, V>> results) {
+		while (node != null) {
+			if (!upperMeetsLower(node.maxUpper, interval)) {
+				// No key in this subtree reaches the start of the interval.
+				return;
+			}
+			overlapping(node.left, interval, results);
+			if (!upperMeetsLower(interval, node.key)) {
+				// This key, and every key to the right, starts beyond the end
+				// of the interval.
+				return;
+			}
+			if (intersects(node.key, interval)) {
+				results.add(node);
+			}
+			node = node.right;
+		}
+	}
+
+	/**
+	 * Reports on whether the intersection of two intervals includes at least
+	 * one value. The intersection is bounded by the more restrictive of the
+	 * two lower endpoints and the more restrictive of the two upper endpoints,
+	 * which also rules out intervals which are themselves empty, such as (0,
+	 * 0).
+	 */
+	static <T extends Comparable<T>> boolean intersects(Interval<T> first,
+			Interval<T> second) {
+		IntervalComparator<T> comparator = IntervalComparator.getInstance();
+		Interval<T> lowerSource = comparator.lowerEndpointValueCompare(first,
+				second) >= 0 ? first : second;
+		Interval<T> upperSource = comparator.upperEndpointValueCompare(first,
+				second) <= 0 ? first : second;
+		return upperMeetsLower(upperSource, lowerSource);
+	}
+
+	/**
+	 * Finds every key in this tree which is wholly contained by the specified
+	 * interval, as reported by
+	 * {@link GenericInterval#includes(uk.org.bobulous.java.intervals.Interval)}.
+	 *
+	 * @param interval the enclosing interval.
+	 * @return a list of the entries whose keys are enclosed by the specified
+	 * interval, in <code>IntervalComparator</code> order of their keys. The
+	 * entries are views which remain valid only until this tree is next
+	 * modified.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public List<Map.Entry<Interval<T>, V>> enclosedBy(Interval<T> interval) {
+		Objects.requireNonNull(interval);
+		List<Map.Entry<Interval<T>, V>> results = new ArrayList<>();
+		enclosedBy(root, interval, results);
+		return results;
+	}
+
+	private void enclosedBy(Node<T, V> node, Interval<T> interval,
+			List<Map.Entry<Interval<T>, V>> results) {
+		while (node != null) {
+			if (comparator.upperEndpointValueCompare(node.minUpper, interval)
+					> 0) {
+				// Every key in this subtree extends beyond the interval.
+				return;
+			}
+			boolean lowerAdmitted = comparator.lowerEndpointValueCompare(
+					interval, node.key) <= 0;
+			if (lowerAdmitted) {
+				enclosedBy(node.left, interval, results);
+				if (comparator.upperEndpointValueCompare(node.key, interval)
+						<= 0) {
+					results.add(node);
+				}
+			}
+			// If this key starts before the interval then so does every key to
+			// the left, so only the right subtree remains to be searched.
+			node = node.right;
+		}
+	}
+}
@@ -0,0 +1,855 @@
+/*
+ * Copyright © 2015 Bobulous <http://www.bobulous.org.uk/>.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package uk.org.bobulous.java.intervals;
+
+import java.util.Objects;
+
+/**
+ * An immutable <code>NumericInterval</code> whose endpoints have type
+ * <code>Long</code>.
+ * <p>
+ * This class follows exactly the same rules as {@link IntegerInterval}, so
+ * two <code>LongInterval</code> objects are equal if they permit exactly the
+ * same set of long integers, and an open endpoint with value n is equivalent
+ * to a closed endpoint with value n + 1 (for a lower endpoint) or n − 1 (for an
+ * upper endpoint).</p>
+ *
+ * <p>
+ * <strong>WARNING:</strong> development and testing are still in early stages.
+ * Consider this class to be in its alpha testing phase. Use with caution, and
+ * do not rely on its structure remaining in exactly its current form!</p>
+ *
+ * @author Bobulous <http://www.bobulous.org.uk/>
+ * @see IntegerInterval
+ */
+public final class LongInterval implements NumericInterval<Long> {
+
+	/*
+	As with IntegerInterval, the endpoint values are held as primitives and the
+	endpoint modes and unbounded states are packed into the flags byte. The
+	value of an unbounded endpoint is meaningless and is always stored as zero.
+	*/
+	private final long lower;
+	private final long upper;
+	private final byte flags;
+
+	// Flag bits share their layout with IntegerInterval.
+	private static final byte LOWER_CLOSED = IntegerInterval.LOWER_CLOSED;
+	private static final byte UPPER_CLOSED = IntegerInterval.UPPER_CLOSED;
+	private static final byte LOWER_UNBOUNDED = IntegerInterval.LOWER_UNBOUNDED;
+	private static final byte UPPER_UNBOUNDED = IntegerInterval.UPPER_UNBOUNDED;
+
+	/**
+	 * An interval which permits no values: the empty set. Note that the
+	 * endpoint values are arbitrary and that any <code>LongInterval</code>
+	 * which is empty is considered equal to this instance of the empty set.
+	 */
+	public static final LongInterval EMPTY_SET = new LongInterval(0, 0,
+			(byte) 0);
+
+	/**
+	 * An interval which includes all <code>Long</code> values.
+	 */
+	public static final LongInterval UNBOUNDED = new LongInterval(0, 0,
+			(byte) (LOWER_UNBOUNDED | UPPER_UNBOUNDED));
+
+	/**
+	 * An interval which includes all non-negative <code>Long</code> values.
+	 * Any <code>Long</code> value greater-than-or-equal-to zero is included.
+	 */
+	public static final LongInterval ZERO_OR_MORE = new LongInterval(0, 0,
+			(byte) (LOWER_CLOSED | UPPER_UNBOUNDED));
+
+	/**
+	 * An interval which includes all positive, non-zero <code>Long</code>
+	 * values. Any <code>Long</code> value greater-than-or-equal-to one is
+	 * included.
+	 */
+	public static final LongInterval ONE_OR_MORE = new LongInterval(1, 0,
+			(byte) (LOWER_CLOSED | UPPER_UNBOUNDED));
+
+	/*
+	Private constructors because static methods are provided for the creation of
+	intervals with different endpoint modes.
+	*/
+	private LongInterval(long lower, long upper, byte flags) {
+		this.lower = (flags & LOWER_UNBOUNDED) != 0 ? 0 : lower;
+		this.upper = (flags & UPPER_UNBOUNDED) != 0 ? 0 : upper;
+		this.flags = flags;
+	}
+
+	private LongInterval(EndpointMode lowerMode, Long lower, Long upper,
+			EndpointMode upperMode) {
+		this(lower == null ? 0 : lower, upper == null ? 0 : upper, IntegerInterval.
+				flagsFor(lowerMode, lower == null, upper == null, upperMode));
+	}
+
+	/**
+	 * Returns a <code>LongInterval</code> which has exactly the same endpoint
+	 * values and modes as the given interval. If the given interval is already
+	 * a <code>LongInterval</code> then it is returned as is.
+	 *
+	 * @param interval the interval to convert.
+	 * @return a <code>LongInterval</code> equivalent to the given interval.
+	 */
+	static LongInterval valueOf(Interval<Long> interval) {
+		if (interval instanceof LongInterval) {
+			return (LongInterval) interval;
+		}
+		return new LongInterval(interval.getLowerEndpointMode(), interval.
+				getLowerEndpoint(), interval.getUpperEndpoint(), interval.
+				getUpperEndpointMode());
+	}
+
+	/**
+	 * Constructs a closed interval with the given long endpoint values.
+	 *
+	 * @param lower the value of the lower endpoint or <code>null</code> if the
+	 * lower endpoint is unbounded (infinite).
+	 * @param upper the value of the upper endpoint or <code>null</code> if the
+	 * upper endpoint is unbounded (infinite).
+	 * @return a <code>LongInterval</code> with the given endpoint values and
+	 * both endpoint modes set to <code>EndpointMode.CLOSED</code>.
+	 */
+	public static final LongInterval closed(Long lower, Long upper) {
+		return new LongInterval(EndpointMode.CLOSED, lower, upper,
+				EndpointMode.CLOSED);
+	}
+
+	/**
+	 * Constructs an open interval with the given long endpoint values.
+	 *
+	 * @param lower the value of the lower endpoint or <code>null</code> if the
+	 * lower endpoint is unbounded (infinite).
+	 * @param upper the value of the upper endpoint or <code>null</code> if the
+	 * upper endpoint is unbounded (infinite).
+	 * @return a <code>LongInterval</code> with the given endpoint values and
+	 * both endpoint modes set to <code>EndpointMode.OPEN</code>.
+	 */
+	public static final LongInterval open(Long lower, Long upper) {
+		return new LongInterval(EndpointMode.OPEN, lower, upper,
+				EndpointMode.OPEN);
+	}
+
+	/**
+	 * Constructs a left-closed interval with the given long endpoint values.
+	 *
+	 * @param lower the value of the lower endpoint or <code>null</code> if the
+	 * lower endpoint is unbounded (infinite).
+	 * @param upper the value of the upper endpoint or <code>null</code> if the
+	 * upper endpoint is unbounded (infinite).
+	 * @return a <code>LongInterval</code> with the given endpoint values and
+	 * the lower endpoint mode set to <code>EndpointMode.CLOSED</code> and the
+	 * upper endpoint mode set to <code>EndpointMode.OPEN</code>.
+	 */
+	public static final LongInterval leftClosed(Long lower, Long upper) {
+		return new LongInterval(EndpointMode.CLOSED, lower, upper,
+				EndpointMode.OPEN);
+	}
+
+	/**
+	 * Constructs a right-closed interval with the given long endpoint values.
+	 *
+	 * @param lower the value of the lower endpoint or <code>null</code> if the
+	 * lower endpoint is unbounded (infinite).
+	 * @param upper the value of the upper endpoint or <code>null</code> if the
+	 * upper endpoint is unbounded (infinite).
+	 * @return a <code>LongInterval</code> with the given endpoint values and
+	 * the lower endpoint mode set to <code>EndpointMode.OPEN</code> and the
+	 * upper endpoint mode set to <code>EndpointMode.CLOSED</code>.
+	 */
+	public static final LongInterval rightClosed(Long lower, Long upper) {
+		return new LongInterval(EndpointMode.OPEN, lower, upper,
+				EndpointMode.CLOSED);
+	}
+
+	/**
+	 * Constructs a bounded closed interval with the given primitive endpoint
+	 * values, without boxing either value.
+	 *
+	 * @param lower the value of the lower endpoint.
+	 * @param upper the value of the upper endpoint.
+	 * @return a <code>LongInterval</code> with the given endpoint values and
+	 * both endpoint modes set to <code>EndpointMode.CLOSED</code>.
+	 */
+	public static final LongInterval closed(long lower, long upper) {
+		return new LongInterval(lower, upper, (byte) (LOWER_CLOSED
+				| UPPER_CLOSED));
+	}
+
+	/**
+	 * Constructs a bounded open interval with the given primitive endpoint
+	 * values, without boxing either value.
+	 *
+	 * @param lower the value of the lower endpoint.
+	 * @param upper the value of the upper endpoint.
+	 * @return a <code>LongInterval</code> with the given endpoint values and
+	 * both endpoint modes set to <code>EndpointMode.OPEN</code>.
+	 */
+	public static final LongInterval open(long lower, long upper) {
+		return new LongInterval(lower, upper, (byte) 0);
+	}
+
+	/**
+	 * Constructs a bounded left-closed interval with the given primitive
+	 * endpoint values, without boxing either value.
+	 *
+	 * @param lower the value of the lower endpoint.
+	 * @param upper the value of the upper endpoint.
+	 * @return a <code>LongInterval</code> with the given endpoint values and
+	 * the lower endpoint mode set to <code>EndpointMode.CLOSED</code> and the
+	 * upper endpoint mode set to <code>EndpointMode.OPEN</code>.
+	 */
+	public static final LongInterval leftClosed(long lower, long upper) {
+		return new LongInterval(lower, upper, LOWER_CLOSED);
+	}
+
+	/**
+	 * Constructs a bounded right-closed interval with the given primitive
+	 * endpoint values, without boxing either value.
+	 *
+	 * @param lower the value of the lower endpoint.
+	 * @param upper the value of the upper endpoint.
+	 * @return a <code>LongInterval</code> with the given endpoint values and
+	 * the lower endpoint mode set to <code>EndpointMode.OPEN</code> and the
+	 * upper endpoint mode set to <code>EndpointMode.CLOSED</code>.
+	 */
+	public static final LongInterval rightClosed(long lower, long upper) {
+		return new LongInterval(lower, upper, UPPER_CLOSED);
+	}
+
+	@Override
+	public Long width() {
+		if (this.isEmpty()) {
+			return 0L;
+		}
+		if ((flags & (LOWER_UNBOUNDED | UPPER_UNBOUNDED)) != 0) {
+			return null;
+		}
+		return upper - lower;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		if ((flags & (LOWER_UNBOUNDED | UPPER_UNBOUNDED)) != 0) {
+			// Unbounded intervals are never empty.
+			return false;
+		}
+		if (upper < lower) {
+			// If the upper endpoint is less than the lower endpoint then all
+			// values are excluded, so the interval is empty.
+			return true;
+		}
+		if (upper == lower) {
+			// If the endpoint values are equal then both endpoints must be
+			// closed to permit that value.
+			return (flags & (LOWER_CLOSED | UPPER_CLOSED)) != (LOWER_CLOSED
+					| UPPER_CLOSED);
+		}
+		if (lower + 1 == upper) {
+			// If the endpoints are adjacent values and both endpoints are open
+			// then no value lies between them, making the interval empty.
+			return (flags & (LOWER_CLOSED | UPPER_CLOSED)) == 0;
+		}
+		// The upper endpoint is at least two greater than the lower endpoint,
+		// so at least one value is included by this interval.
+		return false;
+	}
+
+	/**
+	 * Compares the lower endpoint of this interval with the lower endpoint of
+	 * the specified interval, following exactly the same rules as
+	 * <code>IntervalComparator.lowerEndpointValueCompare</code>.
+	 *
+	 * @param that the interval whose lower endpoint should be compared with
+	 * that of this interval.
+	 * @return a negative integer, zero or a positive integer as the lower
+	 * endpoint of this interval is lesser than, equivalent to, or greater than
+	 * the lower endpoint of the specified interval.
+	 */
+	int compareLowerEndpoints(LongInterval that) {
+		boolean thisUnbounded = (this.flags & LOWER_UNBOUNDED) != 0;
+		boolean thatUnbounded = (that.flags & LOWER_UNBOUNDED) != 0;
+		if (thisUnbounded || thatUnbounded) {
+			return (thisUnbounded ? 0 : 1) - (thatUnbounded ? 0 : 1);
+		}
+		if (this.lower != that.lower) {
+			return this.lower < that.lower ? -1 : 1;
+		}
+		// A CLOSED lower endpoint is the lesser of two identical values.
+		return (that.flags & LOWER_CLOSED) - (this.flags & LOWER_CLOSED);
+	}
+
+	/**
+	 * Compares the upper endpoint of this interval with the upper endpoint of
+	 * the specified interval, following exactly the same rules as
+	 * <code>IntervalComparator.upperEndpointValueCompare</code>.
+	 *
+	 * @param that the interval whose upper endpoint should be compared with
+	 * that of this interval.
+	 * @return a negative integer, zero or a positive integer as the upper
+	 * endpoint of this interval is lesser than, equivalent to, or greater than
+	 * the upper endpoint of the specified interval.
+	 */
+	int compareUpperEndpoints(LongInterval that) {
+		boolean thisUnbounded = (this.flags & UPPER_UNBOUNDED) != 0;
+		boolean thatUnbounded = (that.flags & UPPER_UNBOUNDED) != 0;
+		if (thisUnbounded || thatUnbounded) {
+			return (thisUnbounded ? 1 : 0) - (thatUnbounded ? 1 : 0);
+		}
+		if (this.upper != that.upper) {
+			return this.upper < that.upper ? -1 : 1;
+		}
+		// An OPEN upper endpoint is the lesser of two identical values.
+		return (this.flags & UPPER_CLOSED) - (that.flags & UPPER_CLOSED);
+	}
+
+	@Override
+	public boolean intersectsWith(NumericInterval<Long> interval) {
+		if (interval == null) {
+			throw new NullPointerException("Cannot pass a null value to "
+					+ "intersects(Interval<T>).");
+		}
+		return intersectsWith(valueOf(interval));
+	}
+
+	/**
+	 * Reports on whether this interval intersects with the specified
+	 * <code>LongInterval</code>, working directly on the primitive endpoint
+	 * values of both intervals.
+	 *
+	 * @param interval the interval to check for an intersection with this
+	 * interval.
+	 * @return <code>true</code> if this interval intersects the specified
+	 * interval; <code>false</code> otherwise.
+	 */
+	public boolean intersectsWith(LongInterval interval) {
+		if (interval == null) {
+			throw new NullPointerException("Cannot pass a null value to "
+					+ "intersects(Interval<T>).");
+		}
+		// If either interval is empty then there can be no intersection
+		if (this.isEmpty() || interval.isEmpty()) {
+			return false;
+		}
+		// Any shared value must be permitted by the most exclusive of the two
+		// lower endpoints and by the most exclusive of the two upper endpoints.
+		LongInterval lowerSource = this.compareLowerEndpoints(interval) >= 0
+				? this : interval;
+		LongInterval upperSource = this.compareUpperEndpoints(interval) <= 0
+				? this : interval;
+		if ((lowerSource.flags & LOWER_UNBOUNDED) != 0
+				|| (upperSource.flags & UPPER_UNBOUNDED) != 0) {
+			return true;
+		}
+		long start = lowerSource.lower;
+		long end = upperSource.upper;
+		if (start > end) {
+			return false;
+		}
+		if (start == end) {
+			// Both endpoints must be CLOSED to share their common value.
+			return (lowerSource.flags & LOWER_CLOSED) != 0
+					&& (upperSource.flags & UPPER_CLOSED) != 0;
+		}
+		if (start + 1 == end) {
+			// The overlap has a width of exactly one, so one of the endpoints
+			// must be CLOSED for a value to be common to both intervals.
+			return (lowerSource.flags & LOWER_CLOSED) != 0
+					|| (upperSource.flags & UPPER_CLOSED) != 0;
+		}
+		return true;
+	}
+
+	@Override
+	public NumericInterval<Long> intersection(NumericInterval<Long> interval) {
+		Objects.requireNonNull(interval);
+		return intersection(valueOf(interval));
+	}
+
+	/**
+	 * Returns the interval which represents the intersection of this interval
+	 * with the specified <code>LongInterval</code>, working directly on the
+	 * primitive endpoint values of both intervals.
+	 *
+	 * @param interval the interval with which to intersect this interval.
+	 * @return a <code>LongInterval</code> which represents the intersection of
+	 * this interval with the specified interval, or {@link #EMPTY_SET} if no
+	 * intersection exists.
+	 */
+	public LongInterval intersection(LongInterval interval) {
+		Objects.requireNonNull(interval);
+		if (!this.intersectsWith(interval)) {
+			return EMPTY_SET;
+		}
+		LongInterval lowerSource = this.compareLowerEndpoints(interval) >= 0
+				? this : interval;
+		LongInterval upperSource = this.compareUpperEndpoints(interval) <= 0
+				? this : interval;
+		return fromEndpointsOf(lowerSource, upperSource);
+	}
+
+	@Override
+	public boolean unitesWith(NumericInterval<Long> interval) {
+		Objects.requireNonNull(interval);
+		return unitesWith(valueOf(interval));
+	}
+
+	/**
+	 * Reports on whether a single interval exists which describes the union of
+	 * this interval with the specified <code>LongInterval</code>, working
+	 * directly on the primitive endpoint values of both intervals.
+	 *
+	 * @param interval the interval to check for a union with this interval.
+	 * @return <code>true</code> if a single interval exists which represents
+	 * the entire union of this interval with the given interval;
+	 * <code>false</code> otherwise.
+	 */
+	public boolean unitesWith(LongInterval interval) {
+		Objects.requireNonNull(interval);
+		// If either interval is empty then there can be no union.
+		if (this.isEmpty() || interval.isEmpty()) {
+			return false;
+		}
+		return this.intersectsWith(interval) || this.adjoins(interval);
+	}
+
+	/**
+	 * Reports on whether this interval and the specified interval adjoin at a
+	 * shared endpoint value which is included by one or both of them.
+	 *
+	 * @param that the interval to test against this interval.
+	 * @return <code>true</code> if the upper endpoint of the lesser interval
+	 * has the same value as the lower endpoint of the greater interval and at
+	 * least one of those two endpoints is closed.
+	 */
+	private boolean adjoins(LongInterval that) {
+		LongInterval first, second;
+		if (this.compareLowerEndpoints(that) <= 0) {
+			first = this;
+			second = that;
+		} else {
+			first = that;
+			second = this;
+		}
+		if ((first.flags & UPPER_UNBOUNDED) != 0 || (second.flags
+				& LOWER_UNBOUNDED) != 0) {
+			return false;
+		}
+		return first.upper == second.lower && ((first.flags & UPPER_CLOSED)
+				!= 0 || (second.flags & LOWER_CLOSED) != 0);
+	}
+
+	@Override
+	public NumericInterval<Long> union(NumericInterval<Long> interval) {
+		Objects.requireNonNull(interval);
+		return union(valueOf(interval));
+	}
+
+	/**
+	 * Returns the interval which represents the union of this interval with
+	 * the specified <code>LongInterval</code>, or <code>null</code> if no
+	 * single interval can represent the union of the two sets.
+	 *
+	 * @param interval the interval with which this interval should form a
+	 * union.
+	 * @return a <code>LongInterval</code> which represents the union of this
+	 * interval with the specified interval, or <code>null</code> if no union
+	 * exists.
+	 */
+	public LongInterval union(LongInterval interval) {
+		if (!this.unitesWith(interval)) {
+			return null;
+		}
+		LongInterval lowerSource = this.compareLowerEndpoints(interval) <= 0
+				? this : interval;
+		LongInterval upperSource = this.compareUpperEndpoints(interval) >= 0
+				? this : interval;
+		return fromEndpointsOf(lowerSource, upperSource);
+	}
+
+	/**
+	 * Returns an interval which takes its lower endpoint from one interval and
+	 * its upper endpoint from another. If both endpoints come from the same
+	 * interval then that interval is returned rather than a copy.
+	 *
+	 * @param lowerSource the interval which supplies the lower endpoint.
+	 * @param upperSource the interval which supplies the upper endpoint.
+	 * @return an interval with the lower endpoint of the first argument and
+	 * the upper endpoint of the second.
+	 */
+	private static LongInterval fromEndpointsOf(LongInterval lowerSource,
+			LongInterval upperSource) {
+		if (lowerSource == upperSource) {
+			return lowerSource;
+		}
+		byte lowerFlags = (byte) (lowerSource.flags & (LOWER_CLOSED
+				| LOWER_UNBOUNDED));
+		byte upperFlags = (byte) (upperSource.flags & (UPPER_CLOSED
+				| UPPER_UNBOUNDED));
+		return new LongInterval(lowerSource.lower, upperSource.upper,
+				(byte) (lowerFlags | upperFlags));
+	}
+
+	@Override
+	public Long getLowerEndpoint() {
+		return (flags & LOWER_UNBOUNDED) != 0 ? null : lower;
+	}
+
+	@Override
+	public Long getUpperEndpoint() {
+		return (flags & UPPER_UNBOUNDED) != 0 ? null : upper;
+	}
+
+	@Override
+	public EndpointMode getLowerEndpointMode() {
+		return (flags & LOWER_CLOSED) != 0 ? EndpointMode.CLOSED
+				: EndpointMode.OPEN;
+	}
+
+	@Override
+	public EndpointMode getUpperEndpointMode() {
+		return (flags & UPPER_CLOSED) != 0 ? EndpointMode.CLOSED
+				: EndpointMode.OPEN;
+	}
+
+	@Override
+	public boolean includes(Long value) {
+		Objects.requireNonNull(value);
+		return includes(value.longValue());
+	}
+
+	/**
+	 * Reports on whether this interval includes the specified primitive long
+	 * value.
+	 *
+	 * @param value the value to test.
+	 * @return <code>true</code> if the specified value is contained by this
+	 * interval; <code>false</code> otherwise.
+	 */
+	public boolean includes(long value) {
+		boolean lowerAdmits = (flags & LOWER_UNBOUNDED) != 0
+				|| ((flags & LOWER_CLOSED) != 0 ? lower <= value : lower < value);
+		boolean upperAdmits = (flags & UPPER_UNBOUNDED) != 0
+				|| ((flags & UPPER_CLOSED) != 0 ? value <= upper : value < upper);
+		return lowerAdmits && upperAdmits;
+	}
+
+	/**
+	 * Reports on whether this interval includes each of the specified
+	 * primitive long values. On return, <code>out[i]</code> is
+	 * <code>true</code> if <code>values[i]</code> is included by this
+	 * interval, and <code>false</code> otherwise. Elements of <code>out</code>
+	 * beyond <code>values.length</code> are left unchanged.
+	 *
+	 * @param values the values to test.
+	 * @param out the array which will receive the result for each value.
+	 * @throws NullPointerException if either array is <code>null</code>.
+	 * @throws IllegalArgumentException if <code>out</code> is shorter than
+	 * <code>values</code>.
+	 */
+	public void includes(long[] values, boolean[] out) {
+		checkBatchArrays(values.length, out.length);
+		// The endpoint modes are resolved once, outside of the loop, into a
+		// pair of inclusive bounds, leaving a loop body with no branches.
+		long least = leastIncluded(), greatest = greatestIncluded();
+		for (int i = 0; i < values.length; ++i) {
+			long value = values[i];
+			out[i] = least <= value & value <= greatest;
+		}
+	}
+
+	/**
+	 * Counts the number of the specified primitive long values which are
+	 * included by this interval. Repeated values are counted each time they
+	 * appear.
+	 *
+	 * @param values the values to test.
+	 * @return the number of elements of <code>values</code> which are included
+	 * by this interval.
+	 * @throws NullPointerException if <code>values</code> is
+	 * <code>null</code>.
+	 */
+	public int countIncluded(long[] values) {
+		long least = leastIncluded(), greatest = greatestIncluded();
+		int count = 0;
+		for (long value : values) {
+			count += least <= value & value <= greatest ? 1 : 0;
+		}
+		return count;
+	}
+
+	/**
+	 * Copies those of the specified primitive long values which are included
+	 * by this interval into the start of the <code>out</code> array, keeping
+	 * their original order. Elements of <code>out</code> from the returned
+	 * count onward hold unspecified values on return.
+	 *
+	 * @param in the values to filter.
+	 * @param out the array which will receive the included values. It must be
+	 * at least as long as <code>in</code>, and may be the same array as
+	 * <code>in</code>.
+	 * @return the number of values written to <code>out</code>.
+	 * @throws NullPointerException if either array is <code>null</code>.
+	 * @throws IllegalArgumentException if <code>out</code> is shorter than
+	 * <code>in</code>.
+	 */
+	public int filter(long[] in, long[] out) {
+		checkBatchArrays(in.length, out.length);
+		long least = leastIncluded(), greatest = greatestIncluded();
+		int count = 0;
+		for (int i = 0; i < in.length; ++i) {
+			long value = in[i];
+			// Always write, and only advance past the value if it is included.
+			// Because count never exceeds i, an in-place filter is safe.
+			out[count] = value;
+			count += least <= value & value <= greatest ? 1 : 0;
+		}
+		return count;
+	}
+
+	/**
+	 * Checks that a result array is long enough to receive one element for
+	 * every element of the source array.
+	 */
+	private static void checkBatchArrays(int sourceLength, int resultLength) {
+		if (resultLength < sourceLength) {
+			throw new IllegalArgumentException("Result array length "
+					+ resultLength + " is less than source array length "
+					+ sourceLength + ".");
+		}
+	}
+
+	/**
+	 * Reports on whether this interval includes no <code>long</code> value at
+	 * all.
+	 */
+	private boolean includesNoLong() {
+		if ((flags & LOWER_UNBOUNDED) == 0 && (flags & LOWER_CLOSED) == 0
+				&& lower == Long.MAX_VALUE) {
+			return true;
+		}
+		if ((flags & UPPER_UNBOUNDED) == 0 && (flags & UPPER_CLOSED) == 0
+				&& upper == Long.MIN_VALUE) {
+			return true;
+		}
+		return leastAdmitted() > greatestAdmitted();
+	}
+
+	/**
+	 * Returns the least value permitted by the lower endpoint of this
+	 * interval. Must not be called if the lower endpoint is open at
+	 * <code>Long.MAX_VALUE</code>.
+	 */
+	private long leastAdmitted() {
+		if ((flags & LOWER_UNBOUNDED) != 0) {
+			return Long.MIN_VALUE;
+		}
+		return (flags & LOWER_CLOSED) != 0 ? lower : lower + 1;
+	}
+
+	/**
+	 * Returns the greatest value permitted by the upper endpoint of this
+	 * interval. Must not be called if the upper endpoint is open at
+	 * <code>Long.MIN_VALUE</code>.
+	 */
+	private long greatestAdmitted() {
+		if ((flags & UPPER_UNBOUNDED) != 0) {
+			return Long.MAX_VALUE;
+		}
+		return (flags & UPPER_CLOSED) != 0 ? upper : upper - 1;
+	}
+
+	/**
+	 * Returns the least <code>long</code> value included by this interval, or
+	 * one if no value is included (so that no value lies between this and
+	 * the result of <code>greatestIncluded</code>).
+	 */
+	long leastIncluded() {
+		return includesNoLong() ? 1 : leastAdmitted();
+	}
+
+	/**
+	 * Returns the greatest <code>long</code> value included by this interval,
+	 * or zero if no value is included (so that no value lies between the
+	 * result of <code>leastIncluded</code> and this).
+	 */
+	long greatestIncluded() {
+		return includesNoLong() ? 0 : greatestAdmitted();
+	}
+
+	@Override
+	public boolean includes(Interval<Long> interval) {
+		Objects.requireNonNull(interval);
+		LongInterval that = valueOf(interval);
+		if ((flags & (LOWER_UNBOUNDED | UPPER_UNBOUNDED)) == (LOWER_UNBOUNDED
+				| UPPER_UNBOUNDED)) {
+			// An infinite interval contains all possible values, regardless of
+			// the mode of its endpoints.
+			return true;
+		}
+
+		boolean lowerAdmitted = false, upperAdmitted = false;
+
+		if ((flags & LOWER_UNBOUNDED) != 0) {
+			lowerAdmitted = true;  // null endpoint admits all whatever its mode
+		} else if ((that.flags & LOWER_UNBOUNDED) != 0) {
+			// lowerAdmitted = false;
+		} else if (lower < that.lower) {
+			lowerAdmitted = true;
+		} else if (lower == that.lower) {
+			lowerAdmitted = (flags & LOWER_CLOSED) != 0
+					|| (that.flags & LOWER_CLOSED) == 0;
+		}
+
+		if ((flags & UPPER_UNBOUNDED) != 0) {
+			upperAdmitted = true;  // null endpoint admits all whatever its mode
+		} else if ((that.flags & UPPER_UNBOUNDED) != 0) {
+			// upperAdmitted = false;
+		} else if (upper > that.upper) {
+			upperAdmitted = true;
+		} else if (upper == that.upper) {
+			upperAdmitted = (flags & UPPER_CLOSED) != 0
+					|| (that.flags & UPPER_CLOSED) == 0;
+		}
+
+		return (lowerAdmitted && upperAdmitted);
+	}
+
+	/**
+	 * Returns the lower endpoint value which the normalized form of this
+	 * (non-empty) interval would have: zero if the lower endpoint is unbounded,
+	 * otherwise the least value permitted by the lower endpoint. See
+	 * <code>IntegerInterval</code> for a full description of normalization.
+	 */
+	private long normalLower() {
+		return (flags & LOWER_UNBOUNDED) != 0 ? 0 : leastAdmitted();
+	}
+
+	/**
+	 * Returns the upper endpoint value which the normalized form of this
+	 * (non-empty) interval would have: zero if the upper endpoint is unbounded,
+	 * otherwise the greatest value permitted by the upper endpoint.
+	 */
+	private long normalUpper() {
+		return (flags & UPPER_UNBOUNDED) != 0 ? 0 : greatestAdmitted();
+	}
+
+	/**
+	 * Returns the flags which the normalized form of this (non-empty) interval
+	 * would have: each finite endpoint closed, each unbounded endpoint open.
+	 */
+	private byte normalFlags() {
+		int lowerFlag = (flags & LOWER_UNBOUNDED) != 0 ? LOWER_UNBOUNDED
+				: LOWER_CLOSED;
+		int upperFlag = (flags & UPPER_UNBOUNDED) != 0 ? UPPER_UNBOUNDED
+				: UPPER_CLOSED;
+		return (byte) (lowerFlag | upperFlag);
+	}
+
+	/**
+	 * Returns a hash code which is derived from the normalized equivalent of
+	 * this interval. Two <code>LongInterval</code> objects which are
+	 * considered equal according to the <code>equals</code> method will cause
+	 * this method to return an identical hash value.
+	 * <p>
+	 * The normalized endpoints are calculated arithmetically, so this method
+	 * does not create any objects.</p>
+	 *
+	 * @return a hash code based on the normalized endpoint values and modes of
+	 * this interval.
+	 */
+	@Override
+	public int hashCode() {
+		int hash = 7;
+		if (this.isEmpty()) {
+			// Every empty interval is equal to EMPTY_SET, whose endpoint values
+			// and flags are all zero.
+			return 79 * (79 * (79 * hash));
+		}
+		long normalLower = normalLower();
+		long normalUpper = normalUpper();
+		hash = 79 * hash + (int) (normalLower ^ (normalLower >>> 32));
+		hash = 79 * hash + (int) (normalUpper ^ (normalUpper >>> 32));
+		hash = 79 * hash + normalFlags();
+		return hash;
+	}
+
+	/**
+	 * Reports on whether the specified object is a <code>LongInterval</code>
+	 * representing exactly the same set of values permitted by this interval.
+	 * <p>
+	 * By this definition the interval (0, 6) is equal to the interval [1, 5]
+	 * because both include only the values 1, 2, 3, 4 and 5.</p>
+	 * <p>
+	 * Note that any two intervals representing the empty set are considered
+	 * equal regardless of their actual endpoint values.</p>
+	 * <p>
+	 * The normalized endpoints are calculated arithmetically, so this method
+	 * does not create any objects.</p>
+	 *
+	 * @param obj the <code>Object</code> to test for equality.
+	 * @return <code>true</code> if the supplied <code>Object</code> is a
+	 * <code>LongInterval</code> whose normalized form is identical to the
+	 * normalized form of this interval.
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof LongInterval)) {
+			return false;
+		}
+		LongInterval that = (LongInterval) obj;
+		boolean thisEmpty = this.isEmpty();
+		boolean thatEmpty = that.isEmpty();
+		if (thisEmpty || thatEmpty) {
+			return thisEmpty == thatEmpty;
+		}
+		return this.normalLower() == that.normalLower()
+				&& this.normalUpper() == that.normalUpper()
+				&& this.normalFlags() == that.normalFlags();
+	}
+
+	/**
+	 * Produces a <code>String</code> which represents this interval in
+	 * mathematical notation.
+	 * <p>
+	 * A square bracket indicates a closed endpoint, and a parenthesis indicates
+	 * an open endpoint.</p>
+	 * <p>
+	 * An unbounded lower endpoint will be represented by "−∞" and an unbounded
+	 * upper endpoint by "+∞".</p>
+	 *
+	 * @return a <code>String</code> which contains the mathematical notation of
+	 * this interval.
+	 */
+	public String inMathematicalNotation() {
+		String lowerString = (flags & LOWER_UNBOUNDED) != 0 ? "−∞" : Long.
+				toString(lower);
+		String upperString = (flags & UPPER_UNBOUNDED) != 0 ? "+∞" : Long.
+				toString(upper);
+
+		int totalLength = 4 + lowerString.length() + upperString.length();
+		StringBuilder sb = new StringBuilder(totalLength);
+
+		sb.append((flags & LOWER_CLOSED) != 0 ? '[' : '(');
+		sb.append(lowerString);
+		sb.append(", ");
+		sb.append(upperString);
+		sb.append((flags & UPPER_CLOSED) != 0 ? ']' : ')');
+
+		return sb.toString();
+	}
+
+	@Override
+	public String toString() {
+		return "LongInterval: " + inMathematicalNotation();
+	}
+}
@@ -0,0 +1,649 @@
+/*
+ * Copyright © 2015 Bobulous <http://www.bobulous.org.uk/>.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package uk.org.bobulous.java.intervals;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Objects;
+
+/**
+ * A read-only index of integer intervals held in a file, which answers
+ * stabbing and overlap queries directly against the memory-mapped file
+ * without creating an object for each interval.
+ *
+ * <p>
+ * An index file is written by {@link #writeIntegers(Iterator, Path)} or
+ * {@link #writeLongs(Iterator, Path)}, which consume the intervals one at a
+ * time, and is then opened by {@link #open(Path)}. Each interval is stored as
+ * the closed range of integers which it includes (following the same rules as
+ * <code>IntegerInterval</code> and <code>LongInterval</code> use for
+ * equality), so an unbounded endpoint is stored as the least or greatest value
+ * of the basis type, and an interval which includes no integer is not stored
+ * at all. Each stored interval is identified by its position: zero for the
+ * first interval stored, one for the second, and so on.</p>
+ *
+ * <p>
+ * The intervals are stored in blocks of 256. Within a block, each lower bound
+ * is stored as its difference from the previous lower bound, and each upper
+ * bound as its difference from its own lower bound, both as variable-length
+ * integers of seven bits per byte. After the blocks comes a directory which
+ * holds the file offset, first lower bound and greatest upper bound of each
+ * block, followed by a summary tree in which each node holds the greatest
+ * upper bound of sixteen nodes (or blocks) of the level below. A query uses
+ * the directory to exclude every block which starts after the query range,
+ * and descends the summary tree to skip every block which ends before it, so
+ * only blocks which hold at least one candidate are decoded. All values in
+ * the file are big-endian.</p>
+ *
+ * <p>
+ * An index may be queried by any number of threads at once. The mapping of
+ * the file is released only when the index is garbage collected, and the
+ * result of changing or truncating the file while it is mapped is
+ * unspecified.</p>
+ *
+ * <p>
+ * <strong>WARNING:</strong> development and testing are still in early stages.
+ * Consider this class to be in its alpha testing phase. Use with caution, and
+ * do not rely on its structure remaining in exactly its current form!</p>
+ *
+ * @author Bobulous <http://www.bobulous.org.uk/>
+ * @see IntervalTree
+ */
+public final class MappedIntervalIndex {
+
+	/**
+	 * Receives the intervals found by a query.
+	 */
+	@FunctionalInterface
+	public interface Visitor {
+
+		/**
+		 * Receives a single stored interval.
+		 *
+		 * @param position the position of the interval in the index.
+		 * @param lower the least value included by the interval.
+		 * @param upper the greatest value included by the interval.
+		 */
+		void visit(long position, long lower, long upper);
+	}
+
+	// "BJIX" in ASCII.
+	private static final int MAGIC = 0x424A4958;
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 32;
+
+	private static final int BLOCK_SIZE = 256;
+	private static final int FANOUT = 16;
+
+	/*
+	The data region is mapped in segments of this many bytes, because a single
+	mapping cannot exceed two gigabytes. Each segment extends far enough past
+	its nominal end to hold the whole of any block which starts within it.
+	*/
+	private static final int SEGMENT_BITS = 30;
+	private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+
+	// The most bytes taken by one variable-length encoding of a long.
+	private static final int MAXIMUM_VARINT_SIZE = 10;
+
+	private final long count;
+	private final int blockSize;
+	private final int fanout;
+	private final int blockCount;
+	private final ByteBuffer[] segments;
+
+	/*
+	The directory holds the block offsets, then the first lower bound of each
+	block, then each level of the summary tree from the blocks upward.
+	levelStart[k] is the index (in longs) of the first node of level k, and
+	levelSpan[k] is the number of blocks covered by each node of level k.
+	*/
+	private final ByteBuffer directory;
+	private final int[] levelStart;
+	private final int[] levelSize;
+	private final long[] levelSpan;
+
+	private MappedIntervalIndex(long count, int blockSize, int fanout,
+			ByteBuffer[] segments, ByteBuffer directory) {
+		this.count = count;
+		this.blockSize = blockSize;
+		this.fanout = fanout;
+		this.blockCount = (int) ((count + blockSize - 1) / blockSize);
+		this.segments = segments;
+		this.directory = directory;
+		int[] sizes = levelSizes(blockCount, fanout);
+		this.levelSize = sizes;
+		this.levelStart = new int[sizes.length];
+		this.levelSpan = new long[sizes.length];
+		int start = 2 * blockCount;
+		long span = 1;
+		for (int level = 0; level < sizes.length; ++level) {
+			levelStart[level] = start;
+			levelSpan[level] = span;
+			start += sizes[level];
+			span *= fanout;
+		}
+	}
+
+	/**
+	 * Returns the number of nodes in each level of the summary tree, from the
+	 * level which has one node per block up to the level which has a single
+	 * node. There are no levels if there are no blocks.
+	 */
+	private static int[] levelSizes(int blockCount, int fanout) {
+		int[] sizes = new int[0];
+		for (int size = blockCount; size > 0; size = size == 1 ? 0 : (size
+				+ fanout - 1) / fanout) {
+			sizes = Arrays.copyOf(sizes, sizes.length + 1);
+			sizes[sizes.length - 1] = size;
+		}
+		return sizes;
+	}
+
+	/**
+	 * Writes an index file holding the given integer intervals. The intervals
+	 * are read from the iterator one at a time and never held in memory all
+	 * at once, so the iterator may be backed by a stream or a file. If the
+	 * file already exists then it is replaced.
+	 * <p>
+	 * The intervals must be given in ascending order of least included value,
+	 * which is true of any sequence sorted by <code>IntervalComparator</code>.
+	 * Intervals which include no integer may appear anywhere, and are
+	 * skipped.</p>
+	 *
+	 * @param intervals an iterator over the intervals to store.
+	 * @param path the path of the index file to write.
+	 * @return the number of intervals stored.
+	 * @throws IOException if the file cannot be written, in which case no
+	 * file is left at the given path.
+	 * @throws NullPointerException if either argument is <code>null</code> or
+	 * the iterator returns <code>null</code>.
+	 * @throws IllegalArgumentException if the intervals are not in ascending
+	 * order of least included value, in which case no file is left at the
+	 * given path.
+	 */
+	public static long writeIntegers(
+			Iterator<? extends Interval<Integer>> intervals, Path path) throws
+			IOException {
+		Objects.requireNonNull(intervals);
+		try (Writer writer = new Writer(path)) {
+			while (intervals.hasNext()) {
+				IntegerInterval interval = IntegerInterval.valueOf(Objects.
+						requireNonNull(intervals.next(),
+								"Cannot index a null interval."));
+				int lower = interval.leastIncluded();
+				int upper = interval.greatestIncluded();
+				if (lower <= upper) {
+					writer.add(lower, upper);
+				}
+			}
+			return writer.finish();
+		}
+	}
+
+	/**
+	 * Writes an index file holding the given long intervals. The intervals are
+	 * read from the iterator one at a time and never held in memory all at
+	 * once, so the iterator may be backed by a stream or a file. If the file
+	 * already exists then it is replaced.
+	 * <p>
+	 * The intervals must be given in ascending order of least included value,
+	 * which is true of any sequence sorted by <code>IntervalComparator</code>.
+	 * Intervals which include no integer may appear anywhere, and are
+	 * skipped.</p>
+	 *
+	 * @param intervals an iterator over the intervals to store.
+	 * @param path the path of the index file to write.
+	 * @return the number of intervals stored.
+	 * @throws IOException if the file cannot be written, in which case no
+	 * file is left at the given path.
+	 * @throws NullPointerException if either argument is <code>null</code> or
+	 * the iterator returns <code>null</code>.
+	 * @throws IllegalArgumentException if the intervals are not in ascending
+	 * order of least included value, in which case no file is left at the
+	 * given path.
+	 */
+	public static long writeLongs(Iterator<? extends Interval<Long>> intervals,
+			Path path) throws IOException {
+		Objects.requireNonNull(intervals);
+		try (Writer writer = new Writer(path)) {
+			while (intervals.hasNext()) {
+				LongInterval interval = LongInterval.valueOf(Objects.
+						requireNonNull(intervals.next(),
+								"Cannot index a null interval."));
+				long lower = interval.leastIncluded();
+				long upper = interval.greatestIncluded();
+				if (lower <= upper) {
+					writer.add(lower, upper);
+				}
+			}
+			return writer.finish();
+		}
+	}
+
+	/**
+	 * Opens an index file written by <code>writeIntegers</code> or
+	 * <code>writeLongs</code>. The file is mapped into memory rather than
+	 * read, so opening even a very large index is quick, and the operating
+	 * system loads pages of the file only as queries touch them.
+	 *
+	 * @param path the path of the index file.
+	 * @return a <code>MappedIntervalIndex</code> which answers queries from
+	 * the given file.
+	 * @throws IOException if the file cannot be read, or is not an index
+	 * file.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public static MappedIntervalIndex open(Path path) throws IOException {
+		Objects.requireNonNull(path);
+		try (FileChannel channel = FileChannel.open(path,
+				StandardOpenOption.READ)) {
+			long fileSize = channel.size();
+			if (fileSize < HEADER_SIZE) {
+				throw new IOException("File " + path
+						+ " is too short to be an interval index.");
+			}
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+					HEADER_SIZE);
+			if (header.getInt(0) != MAGIC) {
+				throw new IOException("File " + path
+						+ " is not an interval index.");
+			}
+			if (header.getInt(4) != VERSION) {
+				throw new IOException("File " + path
+						+ " is an interval index of unsupported version "
+						+ header.getInt(4) + ".");
+			}
+			int blockSize = header.getInt(8);
+			int fanout = header.getInt(12);
+			long count = header.getLong(16);
+			long directoryOffset = header.getLong(24);
+			if (blockSize < 1 || fanout < 2 || count < 0 || directoryOffset
+					< HEADER_SIZE || directoryOffset > fileSize
+					|| fileSize - directoryOffset > Integer.MAX_VALUE) {
+				throw new IOException("File " + path
+						+ " has a damaged interval index header.");
+			}
+			ByteBuffer[] segments = new ByteBuffer[(int) ((directoryOffset
+					- 1) >>> SEGMENT_BITS) + 1];
+			long overlap = (long) blockSize * 2 * MAXIMUM_VARINT_SIZE;
+			for (int s = 0; s < segments.length; ++s) {
+				long start = (long) s << SEGMENT_BITS;
+				long end = Math.min(directoryOffset, start + SEGMENT_MASK + 1
+						+ overlap);
+				segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+						end - start);
+			}
+			ByteBuffer directory = channel.map(FileChannel.MapMode.READ_ONLY,
+					directoryOffset, fileSize - directoryOffset);
+			MappedIntervalIndex index = new MappedIntervalIndex(count,
+					blockSize, fanout, segments, directory);
+			int levels = index.levelSize.length;
+			long expected = levels == 0 ? 0 : 8L * (index.levelStart[levels
+					- 1] + 1);
+			if (directory.capacity() != expected) {
+				throw new IOException("File " + path
+						+ " has a damaged interval index directory.");
+			}
+			return index;
+		}
+	}
+
+	/**
+	 * Returns the number of intervals stored in this index.
+	 *
+	 * @return the number of intervals in this index.
+	 */
+	public long size() {
+		return count;
+	}
+
+	/**
+	 * Passes every stored interval which includes the given value to the
+	 * given visitor, in order of position.
+	 *
+	 * @param point the value to look for.
+	 * @param visitor the visitor which will receive each interval found.
+	 * @throws NullPointerException if <code>visitor</code> is
+	 * <code>null</code>.
+	 */
+	public void stab(long point, Visitor visitor) {
+		overlapping(point, point, visitor);
+	}
+
+	/**
+	 * Counts the stored intervals which include the given value.
+	 *
+	 * @param point the value to look for.
+	 * @return the number of stored intervals which include
+	 * <code>point</code>.
+	 */
+	public long countStab(long point) {
+		return search(point, point, null);
+	}
+
+	/**
+	 * Passes every stored interval which includes at least one value from
+	 * <code>lower</code> to <code>upper</code> inclusive to the given visitor,
+	 * in order of position. Nothing is found if <code>lower</code> is greater
+	 * than <code>upper</code>.
+	 *
+	 * @param lower the least value of the query range.
+	 * @param upper the greatest value of the query range.
+	 * @param visitor the visitor which will receive each interval found.
+	 * @throws NullPointerException if <code>visitor</code> is
+	 * <code>null</code>.
+	 */
+	public void overlapping(long lower, long upper, Visitor visitor) {
+		search(lower, upper, Objects.requireNonNull(visitor));
+	}
+
+	/**
+	 * Passes every stored interval which includes at least one integer
+	 * included by the given interval to the given visitor, in order of
+	 * position.
+	 *
+	 * @param interval the query interval.
+	 * @param visitor the visitor which will receive each interval found.
+	 * @throws NullPointerException if either argument is <code>null</code>.
+	 */
+	public void overlapping(IntegerInterval interval, Visitor visitor) {
+		overlapping(interval.leastIncluded(), interval.greatestIncluded(),
+				visitor);
+	}
+
+	/**
+	 * Passes every stored interval which includes at least one integer
+	 * included by the given interval to the given visitor, in order of
+	 * position.
+	 *
+	 * @param interval the query interval.
+	 * @param visitor the visitor which will receive each interval found.
+	 * @throws NullPointerException if either argument is <code>null</code>.
+	 */
+	public void overlapping(LongInterval interval, Visitor visitor) {
+		overlapping(interval.leastIncluded(), interval.greatestIncluded(),
+				visitor);
+	}
+
+	/**
+	 * Counts the stored intervals which include at least one value from
+	 * <code>lower</code> to <code>upper</code> inclusive.
+	 *
+	 * @param lower the least value of the query range.
+	 * @param upper the greatest value of the query range.
+	 * @return the number of stored intervals which overlap the query range,
+	 * or zero if <code>lower</code> is greater than <code>upper</code>.
+	 */
+	public long countOverlapping(long lower, long upper) {
+		return search(lower, upper, null);
+	}
+
+	/**
+	 * Finds the stored intervals which overlap the range from
+	 * <code>lower</code> to <code>upper</code> inclusive, passing each to the
+	 * visitor (if there is one), and returns how many were found.
+	 */
+	private long search(long lower, long upper, Visitor visitor) {
+		if (lower > upper || blockCount == 0) {
+			return 0;
+		}
+		int lastBlock = lastBlockStartingAtOrBefore(upper);
+		if (lastBlock < 0) {
+			return 0;
+		}
+		int top = levelSize.length - 1;
+		return search(top, 0, lastBlock, lower, upper, visitor);
+	}
+
+	/**
+	 * Searches the blocks covered by the given node of the summary tree,
+	 * ignoring any block after <code>lastBlock</code>.
+	 */
+	private long search(int level, int node, int lastBlock, long lower,
+			long upper, Visitor visitor) {
+		if (directory.getLong(8 * (levelStart[level] + node)) < lower) {
+			// Every interval below this node ends before the query range.
+			return 0;
+		}
+		if (level == 0) {
+			return scanBlock(node, lower, upper, visitor);
+		}
+		long found = 0;
+		int firstChild = node * fanout;
+		int endChild = (int) Math.min((long) firstChild + fanout,
+				levelSize[level - 1]);
+		for (int child = firstChild; child < endChild; ++child) {
+			if (child * levelSpan[level - 1] > lastBlock) {
+				break;
+			}
+			found += search(level - 1, child, lastBlock, lower, upper,
+					visitor);
+		}
+		return found;
+	}
+
+	/**
+	 * Returns the index of the last block whose first lower bound is no
+	 * greater than the given value, or -1 if there is no such block.
+	 */
+	private int lastBlockStartingAtOrBefore(long value) {
+		int low = 0, high = blockCount - 1, result = -1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			if (directory.getLong(8 * (blockCount + middle)) <= value) {
+				result = middle;
+				low = middle + 1;
+			} else {
+				high = middle - 1;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Decodes the given block, passing each interval which overlaps the query
+	 * range to the visitor (if there is one), and returns how many were found.
+	 */
+	private long scanBlock(int block, long lower, long upper,
+			Visitor visitor) {
+		long offset = directory.getLong(8 * block);
+		ByteBuffer segment = segments[(int) (offset >>> SEGMENT_BITS)];
+		int p = (int) (offset & SEGMENT_MASK);
+		long position = (long) block * blockSize;
+		int length = (int) Math.min(blockSize, count - position);
+		long start = directory.getLong(8 * (blockCount + block));
+		long found = 0;
+		for (int i = 0; i < length; ++i) {
+			if (i > 0) {
+				long delta = 0;
+				int shift = 0;
+				byte b;
+				do {
+					b = segment.get(p++);
+					delta |= (long) (b & 0x7F) << shift;
+					shift += 7;
+				} while (b < 0);
+				start += delta;
+				if (start > upper) {
+					// Every later interval starts after the query range too.
+					break;
+				}
+			}
+			long width = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = segment.get(p++);
+				width |= (long) (b & 0x7F) << shift;
+				shift += 7;
+			} while (b < 0);
+			long end = start + width;
+			if (end >= lower) {
+				++found;
+				if (visitor != null) {
+					visitor.visit(position + i, start, end);
+				}
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Writes an index file. The blocks are written as intervals arrive, while
+	 * the directory (24 bytes per block) is kept in memory until the end. If
+	 * the writer is closed before <code>finish</code> has succeeded then the
+	 * partly written file is deleted.
+	 */
+	private static final class Writer implements AutoCloseable {
+
+		private final Path path;
+		private final FileChannel channel;
+		private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+
+		// The number of bytes already written to the channel.
+		private long written = HEADER_SIZE;
+		private long count;
+		private long previousLower;
+		private boolean finished;
+
+		private long[] offsets = new long[16];
+		private long[] firstLowers = new long[16];
+		private long[] maxUppers = new long[16];
+		private int blockCount;
+
+		private Writer(Path path) throws IOException {
+			this.path = Objects.requireNonNull(path);
+			this.channel = FileChannel.open(path, StandardOpenOption.WRITE,
+					StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING);
+			channel.position(HEADER_SIZE);
+		}
+
+		private void add(long lower, long upper) throws IOException {
+			if (count > 0 && lower < previousLower) {
+				throw new IllegalArgumentException("Intervals must be given in "
+						+ "ascending order of least included value, but "
+						+ lower + " follows " + previousLower + ".");
+			}
+			if (count % BLOCK_SIZE == 0) {
+				if (blockCount == offsets.length) {
+					int capacity = 2 * blockCount;
+					offsets = Arrays.copyOf(offsets, capacity);
+					firstLowers = Arrays.copyOf(firstLowers, capacity);
+					maxUppers = Arrays.copyOf(maxUppers, capacity);
+				}
+				offsets[blockCount] = written + buffer.position();
+				firstLowers[blockCount] = lower;
+				maxUppers[blockCount] = upper;
+				++blockCount;
+			} else {
+				writeVarint(lower - previousLower);
+				maxUppers[blockCount - 1] = Math.max(maxUppers[blockCount - 1],
+						upper);
+			}
+			writeVarint(upper - lower);
+			previousLower = lower;
+			++count;
+		}
+
+		/**
+		 * Writes the given value, treated as unsigned, seven bits at a time
+		 * from the least significant end, with the top bit of each byte set
+		 * if another byte follows.
+		 */
+		private void writeVarint(long value) throws IOException {
+			if (buffer.remaining() < MAXIMUM_VARINT_SIZE) {
+				flush();
+			}
+			while ((value & ~0x7FL) != 0) {
+				buffer.put((byte) (value | 0x80));
+				value >>>= 7;
+			}
+			buffer.put((byte) value);
+		}
+
+		private void writeLong(long value) throws IOException {
+			if (buffer.remaining() < 8) {
+				flush();
+			}
+			buffer.putLong(value);
+		}
+
+		private void flush() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				written += channel.write(buffer);
+			}
+			buffer.clear();
+		}
+
+		/**
+		 * Writes the directory, the summary tree and the header, and returns
+		 * the number of intervals written.
+		 */
+		private long finish() throws IOException {
+			// Align the directory to a multiple of eight bytes.
+			if (buffer.remaining() < 8) {
+				flush();
+			}
+			while ((written + buffer.position()) % 8 != 0) {
+				buffer.put((byte) 0);
+			}
+			long directoryOffset = written + buffer.position();
+			for (int i = 0; i < blockCount; ++i) {
+				writeLong(offsets[i]);
+			}
+			for (int i = 0; i < blockCount; ++i) {
+				writeLong(firstLowers[i]);
+			}
+			long[] level = Arrays.copyOf(maxUppers, blockCount);
+			for (int size : levelSizes(blockCount, FANOUT)) {
+				if (size < level.length) {
+					long[] parent = new long[size];
+					for (int i = 0; i < level.length; ++i) {
+						parent[i / FANOUT] = i % FANOUT == 0 ? level[i] : Math.
+								max(parent[i / FANOUT], level[i]);
+					}
+					level = parent;
+				}
+				for (long value : level) {
+					writeLong(value);
+				}
+			}
+			flush();
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putInt(MAGIC).putInt(VERSION).putInt(BLOCK_SIZE).putInt(
+					FANOUT).putLong(count).putLong(directoryOffset).flip();
+			while (header.hasRemaining()) {
+				channel.write(header, header.position());
+			}
+			channel.force(false);
+			finished = true;
+			return count;
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				channel.close();
+			} finally {
+				if (!finished) {
+					Files.deleteIfExists(path);
+				}
+			}
+		}
+	}
+}
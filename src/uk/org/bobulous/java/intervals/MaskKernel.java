@@ -0,0 +1,34 @@
+/*
+ * Copyright © 2015 Bobulous <http://www.bobulous.org.uk/>.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package uk.org.bobulous.java.intervals;
+
+/**
+ * The loops behind <code>IntervalMasks</code>, which test a slice of an array
+ * against one or more pairs of inclusive bounds and record the results as a
+ * bitmask.
+ *
+ * <p>
+ * Every implementation must produce identical results. Bit <code>i</code> of
+ * the mask (bit <code>i % 64</code> of <code>mask[i / 64]</code>) is set if
+ * <code>values[offset + i]</code> lies between <code>least[k]</code> and
+ * <code>greatest[k]</code> (inclusive) for at least one <code>k</code>, and
+ * is clear otherwise. Every bit of the first <code>(length + 63) / 64</code>
+ * words of the mask is written, so bits beyond <code>length</code> are
+ * cleared. The bounds arrays always have the same, non-zero, length, and all
+ * arguments have already been checked by the caller.</p>
+ *
+ * @author Bobulous <http://www.bobulous.org.uk/>
+ */
+interface MaskKernel {
+
+	void mask(int[] values, int offset, int length, int[] least,
+			int[] greatest, long[] mask);
+
+	void mask(long[] values, int offset, int length, long[] least,
+			long[] greatest, long[] mask);
+}
@@ -0,0 +1,555 @@
+/*
+ * Copyright © 2015 Bobulous <http://www.bobulous.org.uk/>.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package uk.org.bobulous.java.intervals;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * An immutable map from <code>Interval</code> keys to values, which answers
+ * the same queries as {@link IntervalTree}, and whose <code>put</code> and
+ * <code>remove</code> methods return a new map rather than changing this one.
+ * <p>
+ * The keys are held in a balanced binary search tree ordered by
+ * {@link IntervalComparator}, exactly as in <code>IntervalTree</code>, except
+ * that the nodes of the tree are never modified. A new version of the map
+ * copies only the nodes on the path from the root to the key which it
+ * changes, and shares every other node with the map from which it was made,
+ * so <code>put</code> and <code>remove</code> each take time and space
+ * proportional to log(<var>n</var>), where <var>n</var> is the number of
+ * keys. Every version remains valid and unchanged for as long as it is
+ * referenced, so a version can be handed to any number of threads as a
+ * snapshot without copying or locking.</p>
+ * <p>
+ * Keys, values, and the rules for matching a query are treated exactly as
+ * described for <code>IntervalTree</code>. Values may be <code>null</code>,
+ * but as in <code>IntervalTree</code> a <code>null</code> result from
+ * <code>get</code> then does not show whether the key is present.</p>
+ *
+ * <p>
+ * <strong>WARNING:</strong> development and testing are still in early stages.
+ * Consider this class to be in its alpha testing phase. Use with caution, and
+ * do not rely on its structure remaining in exactly its current form!</p>
+ *
+ * @author Bobulous <http://www.bobulous.org.uk/>
+ * @param <T> the basis type of the <code>Interval</code> keys.
+ * @param <V> the type of the values mapped to the keys.
+ * @see PersistentIntervalSet
+ * @see ConcurrentIntervalTree
+ */
+public final class PersistentIntervalMap<T extends Comparable<T>, V>
+		implements Iterable<Map.Entry<Interval<T>, V>> {
+
+	@SuppressWarnings("rawtypes")
+	private static final PersistentIntervalMap EMPTY
+			= new PersistentIntervalMap<>(null, 0);
+
+	private final Node<T, V> root;
+	private final int size;
+
+	private PersistentIntervalMap(Node<T, V> root, int size) {
+		this.root = root;
+		this.size = size;
+	}
+
+	/**
+	 * Returns an empty <code>PersistentIntervalMap</code>.
+	 *
+	 * @param <T> the basis type of the <code>Interval</code> keys.
+	 * @param <V> the type of the values mapped to the keys.
+	 * @return a map which holds no keys.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T extends Comparable<T>, V> PersistentIntervalMap<T, V>
+			empty() {
+		return (PersistentIntervalMap<T, V>) EMPTY;
+	}
+
+	/**
+	 * An immutable node of the tree, which also serves as the map entry
+	 * returned by the query methods.
+	 */
+	private static final class Node<T extends Comparable<T>, V> implements
+			Map.Entry<Interval<T>, V> {
+
+		private final Interval<T> key;
+		private final V value;
+		private final Node<T, V> left, right;
+		private final int height;
+
+		/*
+		The key in this subtree which has the comparatively greatest upper
+		endpoint, and the key which has the comparatively least upper endpoint.
+		*/
+		private final Interval<T> maxUpper, minUpper;
+
+		private Node(Interval<T> key, V value, Node<T, V> left,
+				Node<T, V> right) {
+			this.key = key;
+			this.value = value;
+			this.left = left;
+			this.right = right;
+			this.height = 1 + Math.max(height(left), height(right));
+			IntervalComparator<T> comparator = IntervalComparator.getInstance();
+			Interval<T> max = key, min = key;
+			if (left != null) {
+				if (comparator.upperEndpointValueCompare(left.maxUpper, max)
+						> 0) {
+					max = left.maxUpper;
+				}
+				if (comparator.upperEndpointValueCompare(left.minUpper, min)
+						< 0) {
+					min = left.minUpper;
+				}
+			}
+			if (right != null) {
+				if (comparator.upperEndpointValueCompare(right.maxUpper, max)
+						> 0) {
+					max = right.maxUpper;
+				}
+				if (comparator.upperEndpointValueCompare(right.minUpper, min)
+						< 0) {
+					min = right.minUpper;
+				}
+			}
+			this.maxUpper = max;
+			this.minUpper = min;
+		}
+
+		@Override
+		public Interval<T> getKey() {
+			return key;
+		}
+
+		@Override
+		public V getValue() {
+			return value;
+		}
+
+		/**
+		 * Not supported. Use <code>PersistentIntervalMap.put</code> to create
+		 * a map which holds a different value for a key.
+		 *
+		 * @param value ignored.
+		 * @return never returns.
+		 * @throws UnsupportedOperationException always.
+		 */
+		@Override
+		public V setValue(V value) {
+			throw new UnsupportedOperationException("Entries returned by a "
+					+ "PersistentIntervalMap cannot be modified.");
+		}
+
+		@Override
+		public String toString() {
+			return key + "=" + value;
+		}
+	}
+
+	/**
+	 * Returns the number of keys held in this map.
+	 *
+	 * @return the number of keys in this map.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Reports on whether this map holds no keys.
+	 *
+	 * @return <code>true</code> if this map is empty.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the value held against the key which is comparatively equal to
+	 * the specified interval.
+	 *
+	 * @param interval the key to look up.
+	 * @return the value held against the key, or <code>null</code> if this map
+	 * does not contain the key.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public V get(Interval<T> interval) {
+		Node<T, V> node = find(interval);
+		return node == null ? null : node.value;
+	}
+
+	/**
+	 * Reports on whether this map contains a key which is comparatively equal
+	 * to the specified interval.
+	 *
+	 * @param interval the key to look for.
+	 * @return <code>true</code> if this map contains the key.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public boolean containsKey(Interval<T> interval) {
+		return find(interval) != null;
+	}
+
+	private Node<T, V> find(Interval<T> interval) {
+		Objects.requireNonNull(interval);
+		IntervalComparator<T> comparator = IntervalComparator.getInstance();
+		Node<T, V> node = root;
+		while (node != null) {
+			int comparison = comparator.compare(interval, node.key);
+			if (comparison == 0) {
+				return node;
+			}
+			node = comparison < 0 ? node.left : node.right;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns a map which holds every key of this map and also the specified
+	 * interval key, associated with the specified value. If this map already
+	 * contains a comparatively equal key then the returned map holds the
+	 * specified value against that key instead. This map is not changed.
+	 *
+	 * @param interval the key.
+	 * @param value the value to associate with the key.
+	 * @return a map which associates the value with the key, or this map if
+	 * it already associates the same value object with the key.
+	 * @throws NullPointerException if <code>null</code> is provided as the
+	 * interval.
+	 */
+	public PersistentIntervalMap<T, V> put(Interval<T> interval, V value) {
+		return put(interval, value, new Outcome<>());
+	}
+
+	/**
+	 * Returns a map which holds every key of this map except the key which is
+	 * comparatively equal to the specified interval. This map is not
+	 * changed.
+	 *
+	 * @param interval the key to leave out.
+	 * @return a map without the key, or this map if it does not contain the
+	 * key.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public PersistentIntervalMap<T, V> remove(Interval<T> interval) {
+		return remove(interval, new Outcome<>());
+	}
+
+	/**
+	 * Records whether a write found an existing key, and the value which was
+	 * held against that key.
+	 */
+	static final class Outcome<V> {
+
+		boolean replaced;
+		V previous;
+	}
+
+	/**
+	 * Does the work of <code>put</code>, and also reports through
+	 * <code>result</code> the value which was held against the key. This
+	 * lets <code>ConcurrentIntervalTree</code> return that value.
+	 */
+	PersistentIntervalMap<T, V> put(Interval<T> interval, V value,
+			Outcome<V> result) {
+		Objects.requireNonNull(interval);
+		Node<T, V> newRoot = put(root, interval, value, result);
+		if (newRoot == root) {
+			return this;
+		}
+		return new PersistentIntervalMap<>(newRoot, result.replaced ? size
+				: size + 1);
+	}
+
+	/**
+	 * Does the work of <code>remove</code>, and also reports through
+	 * <code>result</code> the value which was held against the key.
+	 */
+	PersistentIntervalMap<T, V> remove(Interval<T> interval,
+			Outcome<V> result) {
+		Objects.requireNonNull(interval);
+		Node<T, V> newRoot = remove(root, interval, result);
+		if (!result.replaced) {
+			return this;
+		}
+		return newRoot == null ? empty() : new PersistentIntervalMap<>(
+				newRoot, size - 1);
+	}
+
+	private static <T extends Comparable<T>, V> Node<T, V> put(
+			Node<T, V> node, Interval<T> interval, V value,
+			Outcome<V> result) {
+		if (node == null) {
+			return new Node<>(interval, value, null, null);
+		}
+		int comparison = IntervalComparator.<T>getInstance().compare(interval,
+				node.key);
+		if (comparison == 0) {
+			result.replaced = true;
+			result.previous = node.value;
+			if (node.value == value) {
+				return node;
+			}
+			return new Node<>(node.key, value, node.left, node.right);
+		}
+		if (comparison < 0) {
+			Node<T, V> left = put(node.left, interval, value, result);
+			return left == node.left ? node : balance(node.key, node.value,
+					left, node.right);
+		}
+		Node<T, V> right = put(node.right, interval, value, result);
+		return right == node.right ? node : balance(node.key, node.value,
+				node.left, right);
+	}
+
+	private static <T extends Comparable<T>, V> Node<T, V> remove(
+			Node<T, V> node, Interval<T> interval, Outcome<V> result) {
+		if (node == null) {
+			return null;
+		}
+		int comparison = IntervalComparator.<T>getInstance().compare(interval,
+				node.key);
+		if (comparison < 0) {
+			Node<T, V> left = remove(node.left, interval, result);
+			return left == node.left ? node : balance(node.key, node.value,
+					left, node.right);
+		}
+		if (comparison > 0) {
+			Node<T, V> right = remove(node.right, interval, result);
+			return right == node.right ? node : balance(node.key, node.value,
+					node.left, right);
+		}
+		result.replaced = true;
+		result.previous = node.value;
+		if (node.left == null) {
+			return node.right;
+		}
+		if (node.right == null) {
+			return node.left;
+		}
+		// Replace this node with a copy of its in-order successor.
+		Node<T, V> successor = node.right;
+		while (successor.left != null) {
+			successor = successor.left;
+		}
+		return balance(successor.key, successor.value, node.left,
+				removeLeftmost(node.right));
+	}
+
+	private static <T extends Comparable<T>, V> Node<T, V> removeLeftmost(
+			Node<T, V> node) {
+		if (node.left == null) {
+			return node.right;
+		}
+		return balance(node.key, node.value, removeLeftmost(node.left),
+				node.right);
+	}
+
+	/*
+	AVL balancing. As nodes cannot be modified, each method builds new nodes
+	for the given key and subtrees, rotating them if the subtrees differ in
+	height by more than one.
+	*/
+	private static int height(Node<?, ?> node) {
+		return node == null ? 0 : node.height;
+	}
+
+	private static <T extends Comparable<T>, V> Node<T, V> balance(
+			Interval<T> key, V value, Node<T, V> left, Node<T, V> right) {
+		int balance = height(left) - height(right);
+		if (balance > 1) {
+			if (height(left.left) < height(left.right)) {
+				Node<T, V> pivot = left.right;
+				return new Node<>(pivot.key, pivot.value, new Node<>(left.key,
+						left.value, left.left, pivot.left), new Node<>(key,
+						value, pivot.right, right));
+			}
+			return new Node<>(left.key, left.value, left.left, new Node<>(key,
+					value, left.right, right));
+		}
+		if (balance < -1) {
+			if (height(right.right) < height(right.left)) {
+				Node<T, V> pivot = right.left;
+				return new Node<>(pivot.key, pivot.value, new Node<>(key, value,
+						left, pivot.left), new Node<>(right.key, right.value,
+						pivot.right, right.right));
+			}
+			return new Node<>(right.key, right.value, new Node<>(key, value,
+					left, right.left), right.right);
+		}
+		return new Node<>(key, value, left, right);
+	}
+
+	/**
+	 * Returns an iterator over the entries of this map in
+	 * <code>IntervalComparator</code> order of their keys. The iterator does
+	 * not support <code>remove</code>.
+	 *
+	 * @return an iterator over the entries of this map.
+	 */
+	@Override
+	public Iterator<Map.Entry<Interval<T>, V>> iterator() {
+		return new Iterator<Map.Entry<Interval<T>, V>>() {
+
+			// The nodes whose left subtrees have been visited but which have
+			// not been returned themselves, deepest last.
+			private final Deque<Node<T, V>> pending = new ArrayDeque<>();
+
+			{
+				descendLeft(root);
+			}
+
+			private void descendLeft(Node<T, V> node) {
+				for (; node != null; node = node.left) {
+					pending.push(node);
+				}
+			}
+
+			@Override
+			public boolean hasNext() {
+				return !pending.isEmpty();
+			}
+
+			@Override
+			public Map.Entry<Interval<T>, V> next() {
+				if (pending.isEmpty()) {
+					throw new NoSuchElementException();
+				}
+				Node<T, V> node = pending.pop();
+				descendLeft(node.right);
+				return node;
+			}
+		};
+	}
+
+	/**
+	 * Finds every key in this map which includes the specified value.
+	 *
+	 * @param point the value to look for.
+	 * @return a list of the entries whose keys include the specified value,
+	 * in <code>IntervalComparator</code> order of their keys.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public List<Map.Entry<Interval<T>, V>> stab(T point) {
+		Objects.requireNonNull(point);
+		List<Map.Entry<Interval<T>, V>> results = new ArrayList<>();
+		stab(root, point, results);
+		return results;
+	}
+
+	private static <T extends Comparable<T>, V> void stab(Node<T, V> node,
+			T point, List<Map.Entry<Interval<T>, V>> results) {
+		while (node != null) {
+			if (!IntervalTree.upperAdmits(node.maxUpper, point)) {
+				// No key in this subtree reaches as far as the point.
+				return;
+			}
+			stab(node.left, point, results);
+			if (!IntervalTree.lowerAdmits(node.key, point)) {
+				// Every key to the right has a lower endpoint which is at least
+				// as restrictive as this one, so none can include the point.
+				return;
+			}
+			if (IntervalTree.upperAdmits(node.key, point)) {
+				results.add(node);
+			}
+			node = node.right;
+		}
+	}
+
+	/**
+	 * Finds every key in this map which overlaps the specified interval. Two
+	 * intervals overlap if there is a value which both of them include.
+	 *
+	 * @param interval the interval to test against the keys.
+	 * @return a list of the entries whose keys overlap the specified interval,
+	 * in <code>IntervalComparator</code> order of their keys.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public List<Map.Entry<Interval<T>, V>> overlapping(Interval<T> interval) {
+		Objects.requireNonNull(interval);
+		List<Map.Entry<Interval<T>, V>> results = new ArrayList<>();
+		overlapping(root, interval, results);
+		return results;
+	}
+
+	private static <T extends Comparable<T>, V> void overlapping(
+			Node<T, V> node, Interval<T> interval,
+			List<Map.Entry<Interval<T>, V>> results) {
+		while (node != null) {
+			if (!IntervalTree.upperMeetsLower(node.maxUpper, interval)) {
+				// No key in this subtree reaches the start of the interval.
+				return;
+			}
+			overlapping(node.left, interval, results);
+			if (!IntervalTree.upperMeetsLower(interval, node.key)) {
+				// This key, and every key to the right, starts beyond the end
+				// of the interval.
+				return;
+			}
+			if (IntervalTree.intersects(node.key, interval)) {
+				results.add(node);
+			}
+			node = node.right;
+		}
+	}
+
+	/**
+	 * Finds every key in this map which is wholly contained by the specified
+	 * interval, as reported by
+	 * {@link GenericInterval#includes(uk.org.bobulous.java.intervals.Interval)}.
+	 *
+	 * @param interval the enclosing interval.
+	 * @return a list of the entries whose keys are enclosed by the specified
+	 * interval, in <code>IntervalComparator</code> order of their keys.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public List<Map.Entry<Interval<T>, V>> enclosedBy(Interval<T> interval) {
+		Objects.requireNonNull(interval);
+		List<Map.Entry<Interval<T>, V>> results = new ArrayList<>();
+		enclosedBy(root, interval, results);
+		return results;
+	}
+
+	private static <T extends Comparable<T>, V> void enclosedBy(
+			Node<T, V> node, Interval<T> interval,
+			List<Map.Entry<Interval<T>, V>> results) {
+		IntervalComparator<T> comparator = IntervalComparator.getInstance();
+		while (node != null) {
+			if (comparator.upperEndpointValueCompare(node.minUpper, interval)
+					> 0) {
+				// Every key in this subtree extends beyond the interval.
+				return;
+			}
+			boolean lowerAdmitted = comparator.lowerEndpointValueCompare(
+					interval, node.key) <= 0;
+			if (lowerAdmitted) {
+				enclosedBy(node.left, interval, results);
+				if (comparator.upperEndpointValueCompare(node.key, interval)
+						<= 0) {
+					results.add(node);
+				}
+			}
+			// If this key starts before the interval then so does every key to
+			// the left, so only the right subtree remains to be searched.
+			node = node.right;
+		}
+	}
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright © 2015 Bobulous <http://www.bobulous.org.uk/>.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package uk.org.bobulous.java.intervals;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable set of <code>Interval</code> objects, whose <code>add</code>
+ * and <code>remove</code> methods return a new set rather than changing this
+ * one.
+ * <p>
+ * The set is a {@link PersistentIntervalMap} whose keys are the members of
+ * the set, so it shares the same structure: a new version copies only
+ * log(<var>n</var>) nodes and shares the rest with the set from which it was
+ * made, and every version can be read by any number of threads without
+ * locking. Two intervals are the same member of the set if they are equal
+ * according to {@link IntervalComparator}.</p>
+ *
+ * <p>
+ * <strong>WARNING:</strong> development and testing are still in early stages.
+ * Consider this class to be in its alpha testing phase. Use with caution, and
+ * do not rely on its structure remaining in exactly its current form!</p>
+ *
+ * @author Bobulous <http://www.bobulous.org.uk/>
+ * @param <T> the basis type of the <code>Interval</code> members.
+ * @see PersistentIntervalMap
+ */
+public final class PersistentIntervalSet<T extends Comparable<T>> implements
+		Iterable<Interval<T>> {
+
+	@SuppressWarnings({"rawtypes", "unchecked"})
+	private static final PersistentIntervalSet EMPTY
+			= new PersistentIntervalSet(PersistentIntervalMap.empty());
+
+	private final PersistentIntervalMap<T, Boolean> map;
+
+	private PersistentIntervalSet(PersistentIntervalMap<T, Boolean> map) {
+		this.map = map;
+	}
+
+	/**
+	 * Returns an empty <code>PersistentIntervalSet</code>.
+	 *
+	 * @param <T> the basis type of the <code>Interval</code> members.
+	 * @return a set which holds no intervals.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T extends Comparable<T>> PersistentIntervalSet<T> empty() {
+		return (PersistentIntervalSet<T>) EMPTY;
+	}
+
+	private PersistentIntervalSet<T> wrap(
+			PersistentIntervalMap<T, Boolean> result) {
+		if (result == map) {
+			return this;
+		}
+		return result.isEmpty() ? empty() : new PersistentIntervalSet<>(result);
+	}
+
+	/**
+	 * Returns the number of intervals held in this set.
+	 *
+	 * @return the number of intervals in this set.
+	 */
+	public int size() {
+		return map.size();
+	}
+
+	/**
+	 * Reports on whether this set holds no intervals.
+	 *
+	 * @return <code>true</code> if this set is empty.
+	 */
+	public boolean isEmpty() {
+		return map.isEmpty();
+	}
+
+	/**
+	 * Reports on whether this set contains an interval which is comparatively
+	 * equal to the specified interval.
+	 *
+	 * @param interval the interval to look for.
+	 * @return <code>true</code> if this set contains the interval.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public boolean contains(Interval<T> interval) {
+		return map.containsKey(interval);
+	}
+
+	/**
+	 * Returns a set which holds every interval in this set and also the
+	 * specified interval. This set is not changed.
+	 *
+	 * @param interval the interval to add.
+	 * @return a set which contains the interval, or this set if it already
+	 * contains a comparatively equal interval.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public PersistentIntervalSet<T> add(Interval<T> interval) {
+		return wrap(map.put(interval, Boolean.TRUE));
+	}
+
+	/**
+	 * Returns a set which holds every interval in this set except the one
+	 * which is comparatively equal to the specified interval. This set is not
+	 * changed.
+	 *
+	 * @param interval the interval to leave out.
+	 * @return a set without the interval, or this set if it does not contain
+	 * the interval.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public PersistentIntervalSet<T> remove(Interval<T> interval) {
+		return wrap(map.remove(interval));
+	}
+
+	/**
+	 * Returns an iterator over the intervals of this set in
+	 * <code>IntervalComparator</code> order. The iterator does not support
+	 * <code>remove</code>.
+	 *
+	 * @return an iterator over the intervals of this set.
+	 */
+	@Override
+	public Iterator<Interval<T>> iterator() {
+		Iterator<Map.Entry<Interval<T>, Boolean>> entries = map.iterator();
+		return new Iterator<Interval<T>>() {
+
+			@Override
+			public boolean hasNext() {
+				return entries.hasNext();
+			}
+
+			@Override
+			public Interval<T> next() {
+				return entries.next().getKey();
+			}
+		};
+	}
+
+	/**
+	 * Finds every interval in this set which includes the specified value.
+	 *
+	 * @param point the value to look for.
+	 * @return a list of the intervals which include the specified value, in
+	 * <code>IntervalComparator</code> order.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public List<Interval<T>> stab(T point) {
+		return keys(map.stab(point));
+	}
+
+	/**
+	 * Finds every interval in this set which overlaps the specified interval.
+	 *
+	 * @param interval the interval to test against the members of this set.
+	 * @return a list of the intervals which overlap the specified interval,
+	 * in <code>IntervalComparator</code> order.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public List<Interval<T>> overlapping(Interval<T> interval) {
+		return keys(map.overlapping(interval));
+	}
+
+	/**
+	 * Finds every interval in this set which is wholly contained by the
+	 * specified interval.
+	 *
+	 * @param interval the enclosing interval.
+	 * @return a list of the intervals which are enclosed by the specified
+	 * interval, in <code>IntervalComparator</code> order.
+	 * @throws NullPointerException if <code>null</code> is provided to this
+	 * method.
+	 */
+	public List<Interval<T>> enclosedBy(Interval<T> interval) {
+		return keys(map.enclosedBy(interval));
+	}
+
+	private static <T extends Comparable<T>> List<Interval<T>> keys(
+			List<Map.Entry<Interval<T>, Boolean>> entries) {
+		List<Interval<T>> keys = new ArrayList<>(entries.size());
+		for (Map.Entry<Interval<T>, Boolean> entry : entries) {
+			keys.add(entry.getKey());
+		}
+		return keys;
+	}
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright © 2015 Bobulous <http://www.bobulous.org.uk/>.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package uk.org.bobulous.java.intervals;
+
+/**
+ * A <code>MaskKernel</code> written with plain scalar loops, used wherever
+ * the vector kernel is unavailable.
+ *
+ * @author Bobulous <http://www.bobulous.org.uk/>
+ */
+final class ScalarMaskKernel implements MaskKernel {
+
+	static final ScalarMaskKernel INSTANCE = new ScalarMaskKernel();
+
+	private ScalarMaskKernel() {
+	}
+
+	@Override
+	public void mask(int[] values, int offset, int length, int[] least,
+			int[] greatest, long[] mask) {
+		for (int start = 0; start < length; start += Long.SIZE) {
+			int end = Math.min(length, start + Long.SIZE);
+			long word = 0L;
+			for (int i = start; i < end; ++i) {
+				int value = values[offset + i];
+				boolean included = false;
+				for (int k = 0; k < least.length; ++k) {
+					included |= least[k] <= value & value <= greatest[k];
+				}
+				word |= (included ? 1L : 0L) << i;
+			}
+			mask[start >>> 6] = word;
+		}
+	}
+
+	@Override
+	public void mask(long[] values, int offset, int length, long[] least,
+			long[] greatest, long[] mask) {
+		for (int start = 0; start < length; start += Long.SIZE) {
+			int end = Math.min(length, start + Long.SIZE);
+			long word = 0L;
+			for (int i = start; i < end; ++i) {
+				long value = values[offset + i];
+				boolean included = false;
+				for (int k = 0; k < least.length; ++k) {
+					included |= least[k] <= value & value <= greatest[k];
+				}
+				word |= (included ? 1L : 0L) << i;
+			}
+			mask[start >>> 6] = word;
+		}
+	}
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright © 2015 Bobulous <http://www.bobulous.org.uk/>.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package uk.org.bobulous.java.intervals;
+
+import static org.junit.Assert.assertNotEquals;
+import static uk.org.bobulous.java.intervals.TestIntervals.assertEqualWithSameHash;
+
+import org.junit.Test;
+
+/**
+ * Tests for <code>DoubleInterval</code>.
+ *
+ * @author Bobulous <http://www.bobulous.org.uk/>
+ */
+public class DoubleIntervalTest {
+
+	@Test
+	public void negativeZeroEndpointsEqualPositiveZeroEndpoints() {
+		assertEqualWithSameHash(DoubleInterval.closed(-0.0, 1.0),
+				DoubleInterval.closed(0.0, 1.0));
+		assertEqualWithSameHash(DoubleInterval.open(-1.0, -0.0),
+				DoubleInterval.open(-1.0, 0.0));
+	}
+
+	@Test
+	public void unboundedEndpointsEqualClosedInfiniteEndpoints() {
+		assertEqualWithSameHash(DoubleInterval.closed(null, 5.0),
+				DoubleInterval.closed(Double.NEGATIVE_INFINITY, 5.0));
+		assertEqualWithSameHash(DoubleInterval.open(null, 5.0),
+				DoubleInterval.leftClosed(Double.NEGATIVE_INFINITY, 5.0));
+		assertEqualWithSameHash(DoubleInterval.open(-5.0, null),
+				DoubleInterval.rightClosed(-5.0, Double.POSITIVE_INFINITY));
+		assertEqualWithSameHash(DoubleInterval.open(null, null),
+				DoubleInterval.UNBOUNDED);
+		assertEqualWithSameHash(DoubleInterval.closed(
+				Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY),
+				DoubleInterval.UNBOUNDED);
+	}
+
+	@Test
+	public void openInfiniteEndpointsDoNotEqualUnboundedEndpoints() {
+		assertNotEquals(DoubleInterval.open(Double.NEGATIVE_INFINITY, 5.0),
+				DoubleInterval.open(null, 5.0));
+	}
+
+	@Test
+	public void endpointsAreNotAdjustedToNeighbouringValues() {
+		assertNotEquals(DoubleInterval.open(0.0, 1.0), DoubleInterval.closed(
+				Math.nextUp(0.0), Math.nextDown(1.0)));
+	}
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright © 2015 Bobulous <http://www.bobulous.org.uk/>.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package uk.org.bobulous.java.intervals;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static uk.org.bobulous.java.intervals.TestIntervals.assertEqualWithSameHash;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Tests for <code>IntegerInterval</code>.
+ *
+ * @author Bobulous <http://www.bobulous.org.uk/>
+ */
+public class IntegerIntervalTest {
+
+	@Test
+	public void equalIntervalsWrittenDifferentlyAreEqualAndHashTheSame() {
+		IntegerInterval closed = IntegerInterval.closed(1, 4);
+		assertEqualWithSameHash(IntegerInterval.open(0, 5), closed);
+		assertEqualWithSameHash(IntegerInterval.leftClosed(1, 5), closed);
+		assertEqualWithSameHash(IntegerInterval.rightClosed(0, 4), closed);
+		assertEqualWithSameHash(IntegerInterval.open(Integer.valueOf(0),
+				Integer.valueOf(5)), closed);
+	}
+
+	@Test
+	public void unboundedEndpointsIgnoreTheirModes() {
+		assertEqualWithSameHash(IntegerInterval.open(null, 6),
+				IntegerInterval.closed(null, 5));
+		assertEqualWithSameHash(IntegerInterval.leftClosed(-3, null),
+				IntegerInterval.open(-4, null));
+		assertEqualWithSameHash(IntegerInterval.open(null, null),
+				IntegerInterval.UNBOUNDED);
+	}
+
+	@Test
+	public void intervalsWithoutIntegersAreEqualToTheEmptySet() {
+		assertEqualWithSameHash(IntegerInterval.open(3, 4),
+				IntegerInterval.EMPTY_SET);
+		assertEqualWithSameHash(IntegerInterval.open(7, 7),
+				IntegerInterval.leftClosed(-2, -2));
+	}
+
+	@Test
+	public void differentSetsOfIntegersAreNotEqual() {
+		IntegerInterval closed = IntegerInterval.closed(1, 4);
+		assertNotEquals(IntegerInterval.closed(0, 4), closed);
+		assertNotEquals(IntegerInterval.open(1, 5), closed);
+		assertNotEquals(IntegerInterval.closed(1, null), closed);
+		assertNotEquals(IntegerInterval.EMPTY_SET, closed);
+	}
+
+	@Test
+	public void coalesceMergesRunsBridgedByALaterInterval() {
+		List<IntegerInterval> intervals = Arrays.asList(IntegerInterval
+				.leftClosed(0, 5), IntegerInterval.rightClosed(4, 10),
+				IntegerInterval.closed(5, 6));
+		List<IntegerInterval> expected = Arrays.asList(IntegerInterval.closed(
+				0, 10));
+		assertEquals(expected, IntegerInterval.coalesce(intervals));
+		assertEquals(expected, IntegerInterval.coalesceParallel(intervals));
+	}
+
+	@Test
+	public void coalesceMatchesPairwiseUnion() {
+		Random random = new Random(11);
+		for (int trial = 0; trial < 2000; ++trial) {
+			List<IntegerInterval> intervals = randomIntervals(random, random
+					.nextInt(12), 30, true);
+			assertEquals(intervals.toString(), pairwiseUnion(intervals),
+					IntegerInterval.coalesce(intervals));
+		}
+	}
+
+	@Test
+	public void coalesceParallelMatchesPairwiseUnion() {
+		// Enough intervals for several chunks, with no unbounded upper
+		// endpoints, which would leave no gap at which to cut a chunk.
+		List<IntegerInterval> intervals = randomIntervals(new Random(12),
+				20_000, 200_000, false);
+		assertEquals(pairwiseUnion(intervals), IntegerInterval
+				.coalesceParallel(intervals));
+	}
+
+	/**
+	 * Makes random intervals with endpoints between zero and the given limit,
+	 * with every combination of endpoint modes, including intervals which
+	 * include no integers and, if requested, a few unbounded endpoints.
+	 */
+	private static List<IntegerInterval> randomIntervals(Random random,
+			int count, int limit, boolean unbounded) {
+		List<IntegerInterval> intervals = new ArrayList<>(count);
+		for (int i = 0; i < count; ++i) {
+			int lower = random.nextInt(limit);
+			int upper = lower + random.nextInt(8);
+			Integer lowerValue = unbounded && random.nextInt(50) == 0 ? null
+					: lower;
+			Integer upperValue = unbounded && random.nextInt(50) == 0 ? null
+					: upper;
+			intervals.add(TestIntervals.withRandomModes(random, lowerValue,
+					upperValue));
+		}
+		return intervals;
+	}
+
+	/**
+	 * Coalesces the intervals by brute force: every pair of intervals is
+	 * tested with <code>unitesWith</code>, the intervals are grouped into
+	 * connected groups of uniting intervals, and each group becomes the
+	 * closed range from its least to its greatest integer.
+	 */
+	private static List<IntegerInterval> pairwiseUnion(
+			List<IntegerInterval> intervals) {
+		int count = intervals.size();
+		int[] group = new int[count];
+		for (int i = 0; i < count; ++i) {
+			group[i] = i;
+		}
+		for (int i = 0; i < count; ++i) {
+			for (int j = i + 1; j < count; ++j) {
+				if (intervals.get(i).unitesWith(intervals.get(j))) {
+					group[root(group, i)] = root(group, j);
+				}
+			}
+		}
+		Map<Integer, List<IntegerInterval>> groups = new HashMap<>();
+		for (int i = 0; i < count; ++i) {
+			if (!intervals.get(i).isEmpty()) {
+				groups.computeIfAbsent(root(group, i), k -> new ArrayList<>())
+						.add(intervals.get(i));
+			}
+		}
+		List<IntegerInterval> results = new ArrayList<>();
+		for (List<IntegerInterval> members : groups.values()) {
+			Integer least = Integer.MAX_VALUE, greatest = Integer.MIN_VALUE;
+			for (IntegerInterval member : members) {
+				least = member.getLowerEndpoint() == null || least == null
+						? null : Math.min(least, member.leastIncluded());
+				greatest = member.getUpperEndpoint() == null || greatest
+						== null ? null : Math.max(greatest, member
+						.greatestIncluded());
+			}
+			results.add(IntegerInterval.closed(least, greatest));
+		}
+		results.sort(IntervalComparator.getIntegerInstance());
+		return results;
+	}
+
+	private static int root(int[] group, int i) {
+		while (group[i] != i) {
+			i = group[i] = group[group[i]];
+		}
+		return i;
+	}
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright © 2015 Bobulous <http://www.bobulous.org.uk/>.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package uk.org.bobulous.java.intervals;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.junit.Test;
+
+/**
+ * Tests for <code>IntervalJoin</code>.
+ *
+ * @author Bobulous <http://www.bobulous.org.uk/>
+ */
+public class IntervalJoinTest {
+
+	@Test
+	public void overlapJoinMatchesBruteForce() {
+		Random random = new Random(15);
+		for (int trial = 0; trial < 200; ++trial) {
+			List<IntegerInterval> left = randomIntervals(random, random
+					.nextInt(40), 60);
+			List<IntegerInterval> right = randomIntervals(random, random
+					.nextInt(40), 60);
+			List<String> expected = new ArrayList<>();
+			for (IntegerInterval l : left) {
+				for (IntegerInterval r : right) {
+					if (l.intersectsWith(r)) {
+						expected.add(pair(l, r));
+					}
+				}
+			}
+			Collections.sort(expected);
+			assertEquals(expected, join(left, right, false));
+		}
+	}
+
+	@Test
+	public void overlapJoinParallelMatchesOverlapJoin() {
+		// Enough intervals for several chunks, with a few long ones which
+		// stay active across chunk boundaries.
+		Random random = new Random(16);
+		List<IntegerInterval> left = randomIntervals(random, 30_000, 300_000);
+		List<IntegerInterval> right = randomIntervals(random, 30_000,
+				300_000);
+		assertEquals(join(left, right, false), join(left, right, true));
+	}
+
+	/**
+	 * Joins the two lists and returns a sorted list which describes each
+	 * pair reported. Intervals are described by their notation rather than
+	 * their identity, as the factory methods may return shared instances.
+	 */
+	private static List<String> join(List<IntegerInterval> left,
+			List<IntegerInterval> right, boolean parallel) {
+		ConcurrentLinkedQueue<String> pairs = new ConcurrentLinkedQueue<>();
+		if (parallel) {
+			IntervalJoin.overlapJoinParallel(left, right, (l, r) -> pairs.add(
+					pair(l, r)));
+		} else {
+			IntervalJoin.overlapJoin(left, right, (l, r) -> pairs.add(pair(l,
+					r)));
+		}
+		List<String> sorted = new ArrayList<>(pairs);
+		Collections.sort(sorted);
+		return sorted;
+	}
+
+	private static String pair(IntegerInterval left, IntegerInterval right) {
+		return left.inMathematicalNotation() + right.inMathematicalNotation();
+	}
+
+	/**
+	 * Makes intervals with every combination of endpoint modes, mostly short
+	 * but with one in a hundred up to a hundred times longer.
+	 */
+	private static List<IntegerInterval> randomIntervals(Random random,
+			int count, int limit) {
+		List<IntegerInterval> intervals = new ArrayList<>(count);
+		for (int i = 0; i < count; ++i) {
+			int lower = random.nextInt(limit);
+			int upper = lower + random.nextInt(random.nextInt(100) == 0 ? 1000
+					: 10);
+			intervals.add(TestIntervals.withRandomModes(random, lower, upper));
+		}
+		return intervals;
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright © 2015 Bobulous <http://www.bobulous.org.uk/>.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package uk.org.bobulous.java.intervals;
+
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Tests for <code>IntervalSorter</code>.
+ *
+ * @author Bobulous <http://www.bobulous.org.uk/>
+ */
+public class IntervalSorterTest {
+
+	/*
+	Endpoint values which sit at the edges of the radix digits and of the int
+	range, mixed with random values, so that every digit is exercised.
+	*/
+	private static final int[] EDGE_VALUES = {Integer.MIN_VALUE,
+		Integer.MIN_VALUE + 1, -2048, -2047, -1, 0, 1, 2047, 2048,
+		Integer.MAX_VALUE - 1, Integer.MAX_VALUE};
+
+	@Test
+	public void sortMatchesIntervalComparator() {
+		Random random = new Random(13);
+		for (int trial = 0; trial < 200; ++trial) {
+			// Cover both the insertion sort and the radix sort.
+			IntegerInterval[] intervals = randomIntervals(random, random
+					.nextInt(trial % 2 == 0 ? 64 : 4000));
+			IntegerInterval[] expected = intervals.clone();
+			Arrays.sort(expected, IntervalComparator.<Integer>getInstance());
+			IntervalSorter.sort(intervals);
+			assertSameElements(expected, intervals);
+		}
+	}
+
+	@Test
+	public void sortOfRangeMatchesIntervalComparator() {
+		Random random = new Random(14);
+		for (int trial = 0; trial < 100; ++trial) {
+			IntegerInterval[] intervals = randomIntervals(random, 500);
+			int from = random.nextInt(intervals.length + 1);
+			int to = from + random.nextInt(intervals.length - from + 1);
+			IntegerInterval[] expected = intervals.clone();
+			Arrays.sort(expected, from, to, IntervalComparator
+					.<Integer>getInstance());
+			IntervalSorter.sort(intervals, from, to);
+			assertSameElements(expected, intervals);
+		}
+	}
+
+	/*
+	Arrays.sort with a comparator is stable, as IntervalSorter is documented
+	to be, so the two must place the very same objects at every index.
+	*/
+	private static void assertSameElements(IntegerInterval[] expected,
+			IntegerInterval[] actual) {
+		for (int i = 0; i < expected.length; ++i) {
+			assertSame("Index " + i, expected[i], actual[i]);
+		}
+	}
+
+	private static IntegerInterval[] randomIntervals(Random random,
+			int count) {
+		IntegerInterval[] intervals = new IntegerInterval[count];
+		for (int i = 0; i < count; ++i) {
+			Integer lower = randomEndpoint(random);
+			Integer upper = randomEndpoint(random);
+			if (lower != null && upper != null && lower > upper) {
+				Integer swap = lower;
+				lower = upper;
+				upper = swap;
+			}
+			intervals[i] = TestIntervals.withRandomModes(random, lower, upper);
+		}
+		return intervals;
+	}
+
+	private static Integer randomEndpoint(Random random) {
+		switch (random.nextInt(8)) {
+			case 0:
+				return null;
+			case 1:
+				return EDGE_VALUES[random.nextInt(EDGE_VALUES.length)];
+			case 2:
+				// Small values, so that many intervals share endpoints.
+				return random.nextInt(10);
+			default:
+				return random.nextInt();
+		}
+	}
+}
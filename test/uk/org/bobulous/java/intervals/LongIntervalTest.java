@@ -0,0 +1,56 @@
+/*
+ * Copyright © 2015 Bobulous <http://www.bobulous.org.uk/>.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package uk.org.bobulous.java.intervals;
+
+import static org.junit.Assert.assertNotEquals;
+import static uk.org.bobulous.java.intervals.TestIntervals.assertEqualWithSameHash;
+
+import org.junit.Test;
+
+/**
+ * Tests for <code>LongInterval</code>.
+ *
+ * @author Bobulous <http://www.bobulous.org.uk/>
+ */
+public class LongIntervalTest {
+
+	@Test
+	public void equalIntervalsWrittenDifferentlyAreEqualAndHashTheSame() {
+		LongInterval closed = LongInterval.closed(1L, 4L);
+		assertEqualWithSameHash(LongInterval.open(0L, 5L), closed);
+		assertEqualWithSameHash(LongInterval.leftClosed(1L, 5L), closed);
+		assertEqualWithSameHash(LongInterval.rightClosed(0L, 4L), closed);
+		assertEqualWithSameHash(LongInterval.open(Long.MIN_VALUE,
+				Long.MAX_VALUE), LongInterval.closed(Long.MIN_VALUE + 1,
+				Long.MAX_VALUE - 1));
+	}
+
+	@Test
+	public void unboundedEndpointsIgnoreTheirModes() {
+		assertEqualWithSameHash(LongInterval.open(null, 6L),
+				LongInterval.closed(null, 5L));
+		assertEqualWithSameHash(LongInterval.open(null, null),
+				LongInterval.UNBOUNDED);
+	}
+
+	@Test
+	public void intervalsWithoutValuesAreEqualToTheEmptySet() {
+		assertEqualWithSameHash(LongInterval.open(3L, 4L),
+				LongInterval.EMPTY_SET);
+		assertEqualWithSameHash(LongInterval.open(7L, 7L),
+				LongInterval.leftClosed(-2L, -2L));
+	}
+
+	@Test
+	public void differentSetsOfValuesAreNotEqual() {
+		LongInterval closed = LongInterval.closed(1L, 4L);
+		assertNotEquals(LongInterval.closed(0L, 4L), closed);
+		assertNotEquals(LongInterval.closed(1L, null), closed);
+		assertNotEquals(LongInterval.EMPTY_SET, closed);
+	}
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright © 2015 Bobulous <http://www.bobulous.org.uk/>.
+ *
+ * This Source Code Form is subject to the terms of the Mozilla Public License,
+ * v. 2.0. If a copy of the MPL was not distributed with this file, You can
+ * obtain one at http://mozilla.org/MPL/2.0/.
+ */
+package uk.org.bobulous.java.intervals;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+/**
+ * Static methods which build interval fixtures and make assertions shared by
+ * several tests.
+ *
+ * @author Bobulous <http://www.bobulous.org.uk/>
+ */
+final class TestIntervals {
+
+	/*
+	Private constructor because this class only provides static methods.
+	*/
+	private TestIntervals() {
+	}
+
+	/**
+	 * Returns an <code>IntegerInterval</code> with the given endpoint values
+	 * and a randomly chosen mode for each endpoint, each of the four
+	 * combinations being equally likely.
+	 *
+	 * @param random the source of randomness.
+	 * @param lower the lower endpoint value, or <code>null</code> for an
+	 * unbounded lower endpoint.
+	 * @param upper the upper endpoint value, or <code>null</code> for an
+	 * unbounded upper endpoint.
+	 * @return an interval with the given endpoint values.
+	 */
+	static IntegerInterval withRandomModes(Random random, Integer lower,
+			Integer upper) {
+		switch (random.nextInt(4)) {
+			case 0:
+				return IntegerInterval.closed(lower, upper);
+			case 1:
+				return IntegerInterval.open(lower, upper);
+			case 2:
+				return IntegerInterval.leftClosed(lower, upper);
+			default:
+				return IntegerInterval.rightClosed(lower, upper);
+		}
+	}
+
+	/**
+	 * Asserts that two objects are equal in both directions and have the same
+	 * hash code.
+	 *
+	 * @param a the first object.
+	 * @param b the second object.
+	 */
+	static void assertEqualWithSameHash(Object a, Object b) {
+		assertEquals(a, b);
+		assertEquals(b, a);
+		assertEquals(a.hashCode(), b.hashCode());
+	}
+}